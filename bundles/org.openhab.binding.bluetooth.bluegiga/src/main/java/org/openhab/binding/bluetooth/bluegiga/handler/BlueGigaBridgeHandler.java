@@ -24,6 +24,7 @@ import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.Thing;
@@ -37,6 +38,7 @@ import org.eclipse.smarthome.io.transport.serial.SerialPort;
 import org.eclipse.smarthome.io.transport.serial.SerialPortIdentifier;
 import org.eclipse.smarthome.io.transport.serial.SerialPortManager;
 import org.eclipse.smarthome.io.transport.serial.UnsupportedCommOperationException;
+import org.openhab.binding.bluetooth.AdvertisementPipeline;
 import org.openhab.binding.bluetooth.BluetoothAdapter;
 import org.openhab.binding.bluetooth.BluetoothAddress;
 import org.openhab.binding.bluetooth.BluetoothBindingConstants;
@@ -153,6 +155,10 @@ public class BlueGigaBridgeHandler extends BaseBridgeHandler
     // List of device listeners
     protected final ConcurrentHashMap<BluetoothAddress, BluetoothDeviceListener> deviceListeners = new ConcurrentHashMap<>();
 
+    // Filters and coalesces the scan notifications of the devices
+    @Nullable
+    private AdvertisementPipeline advertisementPipeline;
+
     public BlueGigaBridgeHandler(Bridge bridge, SerialPortManager serialPortManager) {
         super(bridge);
         this.serialPortManager = serialPortManager;
@@ -179,6 +185,16 @@ public class BlueGigaBridgeHandler extends BaseBridgeHandler
 
         final String portId = (String) getConfig().get(BlueGigaAdapterConstants.CONFIGURATION_PORT);
 
+        AdvertisementPipeline advertisementPipeline;
+        try {
+            advertisementPipeline = AdvertisementPipeline.fromConfiguration(
+                    (Number) getConfig().get(BluetoothBindingConstants.CONFIGURATION_RSSI_SMOOTHING),
+                    (Number) getConfig().get(BluetoothBindingConstants.CONFIGURATION_MIN_PUBLISH_INTERVAL));
+        } catch (IllegalArgumentException e) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
+            return;
+        }
+
         if (portId == null) {
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, "Serial port must be configured!");
             return;
@@ -190,6 +206,9 @@ public class BlueGigaBridgeHandler extends BaseBridgeHandler
             bgh.addHandlerListener(this);
             this.setBgHandler(bgh);
 
+            advertisementPipeline.start(scheduler, this::updateAdvertisementRates);
+            this.advertisementPipeline = advertisementPipeline;
+
             updateStatus(ThingStatus.UNKNOWN);
 
             scheduler.submit(() -> {
@@ -248,6 +267,11 @@ public class BlueGigaBridgeHandler extends BaseBridgeHandler
 
     @Override
     public void dispose() {
+        AdvertisementPipeline advertisementPipeline = this.advertisementPipeline;
+        if (advertisementPipeline != null) {
+            advertisementPipeline.stop();
+            this.advertisementPipeline = null;
+        }
         try {
             BlueGigaSerialHandler bgh = getBgHandler();
             bgh.removeEventListener(this);
@@ -390,6 +414,16 @@ public class BlueGigaBridgeHandler extends BaseBridgeHandler
         }
     }
 
+    @Override
+    public @Nullable AdvertisementPipeline getAdvertisementPipeline() {
+        return advertisementPipeline;
+    }
+
+    private void updateAdvertisementRates(double received, double published) {
+        updateState(BluetoothBindingConstants.CHANNEL_TYPE_ADVERTISEMENT_RATE, new DecimalType(received));
+        updateState(BluetoothBindingConstants.CHANNEL_TYPE_PUBLISHED_ADVERTISEMENT_RATE, new DecimalType(published));
+    }
+
     @SuppressWarnings({ "null", "unused" })
     @Override
     public BluetoothDevice getDevice(BluetoothAddress address) {
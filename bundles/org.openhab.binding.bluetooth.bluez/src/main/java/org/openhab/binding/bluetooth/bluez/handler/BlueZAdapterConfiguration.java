@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.bluetooth.bluez.handler;
 
+import java.math.BigDecimal;
+
 /**
  * Configuration properties class.
  *
@@ -22,4 +24,8 @@ public class BlueZAdapterConfiguration {
     public String address;
 
     public Boolean discovery;
+
+    public BigDecimal rssiSmoothing;
+
+    public BigDecimal minPublishInterval;
 }
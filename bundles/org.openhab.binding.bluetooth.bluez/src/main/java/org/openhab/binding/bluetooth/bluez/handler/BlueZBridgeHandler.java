@@ -26,6 +26,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.ThingStatus;
@@ -33,8 +34,10 @@ import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.core.thing.ThingUID;
 import org.eclipse.smarthome.core.thing.binding.BaseBridgeHandler;
 import org.eclipse.smarthome.core.types.Command;
+import org.openhab.binding.bluetooth.AdvertisementPipeline;
 import org.openhab.binding.bluetooth.BluetoothAdapter;
 import org.openhab.binding.bluetooth.BluetoothAddress;
+import org.openhab.binding.bluetooth.BluetoothBindingConstants;
 import org.openhab.binding.bluetooth.BluetoothDevice;
 import org.openhab.binding.bluetooth.BluetoothDiscoveryListener;
 import org.openhab.binding.bluetooth.bluez.BlueZBluetoothDevice;
@@ -77,6 +80,8 @@ public class BlueZBridgeHandler extends BaseBridgeHandler implements BluetoothAd
 
     private @NonNullByDefault({}) ScheduledFuture<?> discoveryJob;
 
+    private @Nullable AdvertisementPipeline advertisementPipeline;
+
     /**
      * Constructor
      *
@@ -114,6 +119,15 @@ public class BlueZBridgeHandler extends BaseBridgeHandler implements BluetoothAd
             return;
         }
 
+        AdvertisementPipeline advertisementPipeline;
+        try {
+            advertisementPipeline = AdvertisementPipeline.fromConfiguration(configuration.rssiSmoothing,
+                    configuration.minPublishInterval);
+        } catch (IllegalArgumentException e) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
+            return;
+        }
+
         discoveryActive = discoveryConfigActive = Boolean.TRUE.equals(configuration.discovery);
         if (discoveryConfigActive) {
             logger.debug("Deactivated discovery participation.");
@@ -128,6 +142,8 @@ public class BlueZBridgeHandler extends BaseBridgeHandler implements BluetoothAd
             }
             if (adapter.getAddress().equals(address.toString())) {
                 this.adapter = adapter;
+                advertisementPipeline.start(scheduler, this::updateAdvertisementRates);
+                this.advertisementPipeline = advertisementPipeline;
                 updateStatus(ThingStatus.ONLINE);
                 startDiscovery();
                 discoveryJob = scheduler.scheduleWithFixedDelay(this::refreshDevices, 0, 10, TimeUnit.SECONDS);
@@ -228,8 +244,23 @@ public class BlueZBridgeHandler extends BaseBridgeHandler implements BluetoothAd
         }
     }
 
+    @Override
+    public @Nullable AdvertisementPipeline getAdvertisementPipeline() {
+        return advertisementPipeline;
+    }
+
+    private void updateAdvertisementRates(double received, double published) {
+        updateState(BluetoothBindingConstants.CHANNEL_TYPE_ADVERTISEMENT_RATE, new DecimalType(received));
+        updateState(BluetoothBindingConstants.CHANNEL_TYPE_PUBLISHED_ADVERTISEMENT_RATE, new DecimalType(published));
+    }
+
     @Override
     public void dispose() {
+        AdvertisementPipeline advertisementPipeline = this.advertisementPipeline;
+        if (advertisementPipeline != null) {
+            advertisementPipeline.stop();
+            this.advertisementPipeline = null;
+        }
         if (discoveryJob != null) {
             discoveryJob.cancel(true);
             discoveryJob = null;
@@ -0,0 +1,306 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.bluetooth;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.bluetooth.notification.BluetoothScanNotification;
+import org.openhab.binding.bluetooth.notification.BluetoothScanNotification.BluetoothBeaconType;
+
+/**
+ * The {@link AdvertisementPipeline} sits between an adapter and the listeners of its devices and reduces the scan
+ * notifications, which many beacons send several times per second, to the ones worth publishing:
+ * <ul>
+ * <li>The RSSI is smoothed with an exponential moving average, so that a single outlier does not move the value.</li>
+ * <li>A notification that repeats the previously published data and (smoothed) RSSI is dropped.</li>
+ * <li>Per device, notifications are published at most once per minimum publish interval. Notifications received in
+ * between are merged and published once the interval has passed.</li>
+ * </ul>
+ * The numbers of received and published notifications are reported as rates per second. The state of a device that
+ * has not been seen for {@value #STATE_TIMEOUT} ms is dropped at the same time, so that devices with rotating random
+ * addresses do not accumulate.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class AdvertisementPipeline {
+
+    /**
+     * Receives the advertisement rates of an adapter.
+     */
+    @FunctionalInterface
+    public interface RateListener {
+        /**
+         * @param received the notifications received from the adapter per second
+         * @param published the notifications published to the device listeners per second
+         */
+        void ratesUpdated(double received, double published);
+    }
+
+    public static final double DEFAULT_RSSI_SMOOTHING = 0.25;
+    public static final int DEFAULT_MIN_PUBLISH_INTERVAL = 1000;
+
+    private static final int RATE_INTERVAL = 10;
+    private static final int MIN_FLUSH_PERIOD = 50;
+    private static final int STATE_TIMEOUT = 300000;
+
+    private final double rssiSmoothing;
+    private final int minPublishInterval;
+
+    private final Map<BluetoothDevice, DeviceState> states = new ConcurrentHashMap<>();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+
+    private @Nullable ScheduledFuture<?> flushJob;
+    private @Nullable ScheduledFuture<?> rateJob;
+
+    private static class DeviceState {
+        double rssi = Double.NaN;
+        int publishedRssi = Integer.MIN_VALUE;
+        byte @Nullable [] publishedData;
+        byte @Nullable [] publishedManufacturerData;
+        @Nullable
+        String publishedName;
+        long lastPublished = Long.MIN_VALUE;
+        long lastSeen;
+        boolean removed;
+        @Nullable
+        BluetoothScanNotification pending;
+    }
+
+    /**
+     * @param rssiSmoothing the weight of a new RSSI value between 0 (exclusive) and 1, where 1 disables smoothing
+     * @param minPublishInterval the minimum time between two published notifications of a device in milliseconds, 0
+     *            to publish each notification that is not a duplicate
+     * @throws IllegalArgumentException if one of the values is out of range
+     */
+    public AdvertisementPipeline(double rssiSmoothing, int minPublishInterval) {
+        if (!(rssiSmoothing > 0 && rssiSmoothing <= 1)) {
+            throw new IllegalArgumentException("The RSSI smoothing must be greater than 0 and at most 1");
+        }
+        if (minPublishInterval < 0) {
+            throw new IllegalArgumentException("The minimum publish interval must not be negative");
+        }
+        this.rssiSmoothing = rssiSmoothing;
+        this.minPublishInterval = minPublishInterval;
+    }
+
+    /**
+     * Creates a pipeline from the configuration of an adapter.
+     *
+     * @param rssiSmoothing the configured RSSI smoothing or null for the default
+     * @param minPublishInterval the configured minimum publish interval or null for the default
+     * @return the pipeline
+     */
+    public static AdvertisementPipeline fromConfiguration(@Nullable Number rssiSmoothing,
+            @Nullable Number minPublishInterval) {
+        return new AdvertisementPipeline(
+                rssiSmoothing != null ? rssiSmoothing.doubleValue() : DEFAULT_RSSI_SMOOTHING,
+                minPublishInterval != null ? minPublishInterval.intValue() : DEFAULT_MIN_PUBLISH_INTERVAL);
+    }
+
+    /**
+     * Starts publishing the pending notifications and reporting the rates.
+     *
+     * @param scheduler the scheduler of the adapter
+     * @param rateListener the listener for the rates
+     */
+    public synchronized void start(ScheduledExecutorService scheduler, RateListener rateListener) {
+        stop();
+        if (minPublishInterval > 0) {
+            long period = Math.max(MIN_FLUSH_PERIOD, minPublishInterval / 4);
+            flushJob = scheduler.scheduleWithFixedDelay(() -> flush(currentTimeMillis()), period, period,
+                    TimeUnit.MILLISECONDS);
+        }
+        rateJob = scheduler.scheduleWithFixedDelay(() -> {
+            rateListener.ratesUpdated((double) received.getAndSet(0) / RATE_INTERVAL,
+                    (double) published.getAndSet(0) / RATE_INTERVAL);
+            removeStale(currentTimeMillis());
+        }, RATE_INTERVAL, RATE_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the jobs started by {@link #start(ScheduledExecutorService, RateListener)} and drops all pending
+     * notifications.
+     */
+    public synchronized void stop() {
+        ScheduledFuture<?> job = flushJob;
+        if (job != null) {
+            job.cancel(true);
+            flushJob = null;
+        }
+        job = rateJob;
+        if (job != null) {
+            job.cancel(true);
+            rateJob = null;
+        }
+        states.clear();
+    }
+
+    /**
+     * Processes a scan notification received for a device.
+     *
+     * @param device the device
+     * @param notification the notification
+     */
+    public void submit(BluetoothDevice device, BluetoothScanNotification notification) {
+        BluetoothScanNotification publish = process(device, notification, currentTimeMillis());
+        if (publish != null) {
+            device.publishScanNotification(publish);
+        }
+    }
+
+    /**
+     * Processes a scan notification received for a device.
+     *
+     * @param device the device
+     * @param notification the notification
+     * @param now the current time in milliseconds
+     * @return the notification to be published now, or null if it is dropped or held back
+     */
+    @Nullable
+    BluetoothScanNotification process(BluetoothDevice device, BluetoothScanNotification notification, long now) {
+        received.incrementAndGet();
+        while (true) {
+            DeviceState state = states.computeIfAbsent(device, d -> new DeviceState());
+            synchronized (state) {
+                if (state.removed) {
+                    // Removed as stale after it was looked up, use a new one
+                    continue;
+                }
+                state.lastSeen = now;
+                int rssi = notification.getRssi();
+                if (rssi != Integer.MIN_VALUE) {
+                    state.rssi = Double.isNaN(state.rssi) ? rssi : state.rssi + rssiSmoothing * (rssi - state.rssi);
+                }
+                BluetoothScanNotification pending = state.pending;
+                state.pending = pending == null ? copy(notification) : merge(pending, notification);
+                return publishIfDue(state, now);
+            }
+        }
+    }
+
+    /**
+     * Drops the state of the devices that have not been seen for {@value #STATE_TIMEOUT} ms and have nothing pending.
+     *
+     * @param now the current time in milliseconds
+     */
+    void removeStale(long now) {
+        states.values().removeIf(state -> {
+            synchronized (state) {
+                state.removed = state.pending == null && now - state.lastSeen >= STATE_TIMEOUT;
+                return state.removed;
+            }
+        });
+    }
+
+    /**
+     * Publishes the pending notifications whose minimum publish interval has passed.
+     *
+     * @param now the current time in milliseconds
+     */
+    void flush(long now) {
+        for (Map.Entry<BluetoothDevice, DeviceState> entry : states.entrySet()) {
+            BluetoothScanNotification publish;
+            DeviceState state = entry.getValue();
+            synchronized (state) {
+                publish = state.pending != null ? publishIfDue(state, now) : null;
+            }
+            if (publish != null) {
+                entry.getKey().publishScanNotification(publish);
+            }
+        }
+    }
+
+    private @Nullable BluetoothScanNotification publishIfDue(DeviceState state, long now) {
+        BluetoothScanNotification pending = state.pending;
+        if (pending == null) {
+            return null;
+        }
+        if (!Double.isNaN(state.rssi)) {
+            pending.setRssi((int) Math.round(state.rssi));
+        }
+        if (isDuplicate(state, pending)) {
+            state.pending = null;
+            return null;
+        }
+        if (state.lastPublished != Long.MIN_VALUE && now - state.lastPublished < minPublishInterval) {
+            return null;
+        }
+        state.pending = null;
+        state.lastPublished = now;
+        if (pending.getRssi() != Integer.MIN_VALUE) {
+            state.publishedRssi = pending.getRssi();
+        }
+        if (pending.getData() != null) {
+            state.publishedData = pending.getData();
+        }
+        if (pending.getManufacturerData() != null) {
+            state.publishedManufacturerData = pending.getManufacturerData();
+        }
+        state.publishedName = pending.getDeviceName();
+        published.incrementAndGet();
+        return pending;
+    }
+
+    private boolean isDuplicate(DeviceState state, BluetoothScanNotification notification) {
+        byte[] data = notification.getData();
+        byte[] manufacturerData = notification.getManufacturerData();
+        return (notification.getRssi() == Integer.MIN_VALUE || notification.getRssi() == state.publishedRssi)
+                && (data == null || Arrays.equals(data, state.publishedData))
+                && (manufacturerData == null || Arrays.equals(manufacturerData, state.publishedManufacturerData))
+                && Objects.equals(notification.getDeviceName(), state.publishedName);
+    }
+
+    private static BluetoothScanNotification copy(BluetoothScanNotification notification) {
+        return merge(new BluetoothScanNotification(), notification);
+    }
+
+    /**
+     * Merges a newer notification into a pending one. Values which are not contained in the newer notification are
+     * kept.
+     */
+    private static BluetoothScanNotification merge(BluetoothScanNotification pending,
+            BluetoothScanNotification notification) {
+        if (notification.getRssi() != Integer.MIN_VALUE) {
+            pending.setRssi(notification.getRssi());
+        }
+        if (notification.getData() != null) {
+            pending.setData(notification.getData());
+        }
+        if (notification.getManufacturerData() != null) {
+            pending.setManufacturerData(notification.getManufacturerData());
+        }
+        if (!notification.getDeviceName().isEmpty()) {
+            pending.setDeviceName(notification.getDeviceName());
+        }
+        if (notification.getBeaconType() != BluetoothBeaconType.BEACON_UNKNOWN) {
+            pending.setBeaconType(notification.getBeaconType());
+        }
+        return pending;
+    }
+
+    private static long currentTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+}
@@ -76,4 +76,14 @@ public interface BluetoothAdapter extends Identifiable<ThingUID> {
      */
     BluetoothDevice getDevice(BluetoothAddress address);
 
+    /**
+     * Gets the {@link AdvertisementPipeline} the scan notifications of the devices of this adapter are passed through
+     * before they reach the device listeners.
+     *
+     * @return the pipeline or null if the notifications are passed on as they are received
+     */
+    default @Nullable AdvertisementPipeline getAdvertisementPipeline() {
+        return null;
+    }
+
 }
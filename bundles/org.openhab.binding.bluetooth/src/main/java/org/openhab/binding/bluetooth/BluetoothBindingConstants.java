@@ -33,11 +33,15 @@ public class BluetoothBindingConstants {
 
     // List of all Channel Type IDs
     public static final String CHANNEL_TYPE_RSSI = "rssi";
+    public static final String CHANNEL_TYPE_ADVERTISEMENT_RATE = "advertisementRate";
+    public static final String CHANNEL_TYPE_PUBLISHED_ADVERTISEMENT_RATE = "publishedAdvertisementRate";
 
     public static final String PROPERTY_TXPOWER = "txpower";
     public static final String PROPERTY_MAXCONNECTIONS = "maxconnections";
 
     public static final String CONFIGURATION_ADDRESS = "address";
+    public static final String CONFIGURATION_RSSI_SMOOTHING = "rssiSmoothing";
+    public static final String CONFIGURATION_MIN_PUBLISH_INTERVAL = "minPublishInterval";
 
     public static final long BLUETOOTH_BASE_UUID = 0x800000805f9b34fbL;
 
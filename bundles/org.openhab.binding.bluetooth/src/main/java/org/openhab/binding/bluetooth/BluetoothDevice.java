@@ -496,6 +496,26 @@ public abstract class BluetoothDevice {
      * @param args an array of arguments to pass to the callback
      */
     protected void notifyListeners(BluetoothEventType event, Object... args) {
+        if (event == BluetoothEventType.SCAN_RECORD) {
+            AdvertisementPipeline pipeline = adapter.getAdvertisementPipeline();
+            if (pipeline != null) {
+                pipeline.submit(this, (BluetoothScanNotification) args[0]);
+                return;
+            }
+        }
+        dispatch(event, args);
+    }
+
+    /**
+     * Notify the listeners of a scan notification which has passed the {@link AdvertisementPipeline} of the adapter
+     *
+     * @param scanNotification the {@link BluetoothScanNotification} to publish
+     */
+    void publishScanNotification(BluetoothScanNotification scanNotification) {
+        dispatch(BluetoothEventType.SCAN_RECORD, scanNotification);
+    }
+
+    private void dispatch(BluetoothEventType event, Object... args) {
         for (BluetoothDeviceListener listener : eventListeners) {
             try {
                 switch (event) {
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.bluetooth;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.openhab.binding.bluetooth.BluetoothDevice.BluetoothEventType;
+import org.openhab.binding.bluetooth.notification.BluetoothScanNotification;
+
+/**
+ * Tests {@link AdvertisementPipeline}.
+ *
+ * @author agent - Initial contribution
+ */
+public class AdvertisementPipelineTest {
+
+    private final AdvertisementPipeline pipeline = new AdvertisementPipeline(0.5, 1000);
+    private final BluetoothAdapter adapter = mock(BluetoothAdapter.class);
+    private final BluetoothDeviceListener listener = mock(BluetoothDeviceListener.class);
+    private BluetoothDevice device;
+
+    @Before
+    public void setUp() {
+        device = new BluetoothDevice(adapter, new BluetoothAddress("12:34:56:78:9A:BC")) {
+        };
+        device.addListener(listener);
+    }
+
+    private static BluetoothScanNotification notification(int rssi, byte... manufacturerData) {
+        BluetoothScanNotification notification = new BluetoothScanNotification();
+        notification.setRssi(rssi);
+        if (manufacturerData.length > 0) {
+            notification.setManufacturerData(manufacturerData);
+        }
+        return notification;
+    }
+
+    @Test
+    public void smoothesRssi() {
+        assertEquals(-60, pipeline.process(device, notification(-60), 0).getRssi());
+        assertEquals(-70, pipeline.process(device, notification(-80), 1000).getRssi());
+        assertEquals(-65, pipeline.process(device, notification(-60), 2000).getRssi());
+    }
+
+    @Test
+    public void dropsDuplicates() {
+        assertNotNull(pipeline.process(device, notification(-60, (byte) 1), 0));
+        assertNull(pipeline.process(device, notification(-60, (byte) 1), 1000));
+        assertNull("Without RSSI", pipeline.process(device, notification(Integer.MIN_VALUE, (byte) 1), 2000));
+        assertNotNull("Changed data", pipeline.process(device, notification(-60, (byte) 2), 3000));
+
+        pipeline.flush(10000);
+        verify(listener, never()).onScanRecordReceived(any());
+    }
+
+    @Test
+    public void coalescesWithinThePublishInterval() {
+        assertNotNull(pipeline.process(device, notification(-60, (byte) 1), 0));
+        assertNull(pipeline.process(device, notification(-60, (byte) 2), 100));
+        assertNull(pipeline.process(device, notification(-62), 200));
+
+        pipeline.flush(999);
+        verify(listener, never()).onScanRecordReceived(any());
+
+        pipeline.flush(1000);
+        ArgumentCaptor<BluetoothScanNotification> captor = ArgumentCaptor.forClass(BluetoothScanNotification.class);
+        verify(listener).onScanRecordReceived(captor.capture());
+        assertArrayEquals(new byte[] { 2 }, captor.getValue().getManufacturerData());
+        assertEquals(-61, captor.getValue().getRssi());
+
+        pipeline.flush(5000);
+        verify(listener, times(1)).onScanRecordReceived(any());
+    }
+
+    @Test
+    public void devicesArePublishedIndependently() {
+        BluetoothDevice other = new BluetoothDevice(adapter, new BluetoothAddress("12:34:56:78:9A:BD")) {
+        };
+        assertNotNull(pipeline.process(device, notification(-60), 0));
+        assertNotNull(pipeline.process(other, notification(-60), 100));
+    }
+
+    @Test
+    public void withoutSmoothingAndInterval() {
+        AdvertisementPipeline unfiltered = new AdvertisementPipeline(1, 0);
+        assertEquals(-60, unfiltered.process(device, notification(-60), 0).getRssi());
+        assertEquals(-80, unfiltered.process(device, notification(-80), 0).getRssi());
+        assertNull(unfiltered.process(device, notification(-80), 0));
+    }
+
+    @Test
+    public void removesTheStateOfDevicesNotSeen() {
+        assertNotNull(pipeline.process(device, notification(-60, (byte) 1), 0));
+        pipeline.removeStale(299999);
+        assertNull(pipeline.process(device, notification(-60, (byte) 1), 300000));
+
+        // Dropped, the same notification is published again
+        pipeline.removeStale(600000);
+        assertNotNull(pipeline.process(device, notification(-60, (byte) 1), 600001));
+
+        // A pending notification is kept
+        assertNull(pipeline.process(device, notification(-60, (byte) 2), 600002));
+        pipeline.removeStale(1000000);
+        pipeline.flush(1000000);
+        verify(listener).onScanRecordReceived(any());
+    }
+
+    @Test
+    public void deviceUsesThePipelineOfTheAdapter() {
+        when(adapter.getAdvertisementPipeline()).thenReturn(pipeline);
+        device.notifyListeners(BluetoothEventType.SCAN_RECORD, notification(-60));
+        device.notifyListeners(BluetoothEventType.SCAN_RECORD, notification(-70));
+        verify(listener, times(1)).onScanRecordReceived(any());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidSmoothing() {
+        new AdvertisementPipeline(0, 1000);
+    }
+
+}
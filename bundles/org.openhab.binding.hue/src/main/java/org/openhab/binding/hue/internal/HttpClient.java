@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.hue.internal;
 
+import static java.util.stream.Collectors.joining;
+
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -20,10 +22,18 @@ import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -37,39 +47,77 @@ import org.slf4j.LoggerFactory;
  */
 @NonNullByDefault
 public class HttpClient {
+
+    /**
+     * The command budget of the bridge for lights and sensors, as recommended by Philips in
+     * https://developers.meethue.com/documentation/hue-system-performance
+     */
+    private static final int DEVICE_COMMANDS_PER_SECOND = 10;
+    /** Weight of the previous value when smoothing the command latency */
+    private static final int LATENCY_SMOOTHING = 8;
+
     private int timeout = 1000;
     private final Logger logger = LoggerFactory.getLogger(HttpClient.class);
-    private final LinkedList<AsyncPutParameters> commandsQueue = new LinkedList<>();
+    /** The pending commands in the order of their first update, guarded by itself */
+    private final Deque<PendingCommand> commandsQueue = new ArrayDeque<>();
+    /** The latest pending command per address, which later updates are merged into, guarded by commandsQueue */
+    private final Map<String, PendingCommand> pendingByAddress = new HashMap<>();
+    private final TokenBucket budget;
     private @Nullable Future<?> job;
+    private volatile long commandLatency;
+
+    public HttpClient() {
+        budget = new TokenBucket(DEVICE_COMMANDS_PER_SECOND, DEVICE_COMMANDS_PER_SECOND, System.nanoTime());
+    }
 
-    @SuppressWarnings({ "null", "unused" })
     private void executeCommands() {
         while (true) {
             try {
+                PendingCommand command = null;
                 long delayTime = 0;
                 synchronized (commandsQueue) {
-                    AsyncPutParameters payloadCallbackPair = commandsQueue.poll();
-                    if (payloadCallbackPair != null) {
-                        logger.debug("Async sending put to address: {} delay: {} body: {}", payloadCallbackPair.address,
-                                payloadCallbackPair.delay, payloadCallbackPair.body);
-                        try {
-                            Result result = put(payloadCallbackPair.address, payloadCallbackPair.body);
-                            payloadCallbackPair.future.complete(result);
-                        } catch (IOException e) {
-                            payloadCallbackPair.future.completeExceptionally(e);
-                        }
-                        delayTime = payloadCallbackPair.delay;
-                    } else {
+                    if (commandsQueue.isEmpty()) {
+                        job = null;
                         return;
                     }
+                    long now = System.nanoTime();
+                    if (budget.tryAcquire(now)) {
+                        command = commandsQueue.remove();
+                        pendingByAddress.remove(command.address, command);
+                    } else {
+                        delayTime = budget.nanosUntilAvailable(now);
+                    }
+                }
+                if (command != null) {
+                    send(command);
+                } else {
+                    TimeUnit.NANOSECONDS.sleep(delayTime);
                 }
-                Thread.sleep(delayTime);
             } catch (InterruptedException e) {
                 logger.debug("commandExecutorThread was interrupted", e);
+                synchronized (commandsQueue) {
+                    job = null;
+                }
+                Thread.currentThread().interrupt();
+                return;
             }
         }
     }
 
+    private void send(PendingCommand command) {
+        String body = command.toJson();
+        logger.debug("Async sending put to address: {} merged commands: {} body: {}", command.address,
+                command.futures.size(), body);
+        try {
+            Result result = put(command.address, body);
+            command.futures.forEach(future -> future.complete(result));
+        } catch (IOException e) {
+            command.futures.forEach(future -> future.completeExceptionally(e));
+        }
+        long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - command.queued);
+        commandLatency += (latency - commandLatency) / LATENCY_SMOOTHING;
+    }
+
     public void setTimeout(int timeout) {
         this.timeout = timeout;
     }
@@ -86,22 +134,53 @@ public class HttpClient {
         return doNetwork(address, "PUT", body);
     }
 
-    public CompletableFuture<Result> putAsync(String address, String body, long delay,
-            ScheduledExecutorService scheduler) {
-        AsyncPutParameters asyncPutParameters = new AsyncPutParameters(address, body, delay);
-
+    /**
+     * Queues an update to be sent as PUT request, respecting the command budget of the bridge. If an update for the
+     * same address is still queued, the updates are merged and sent as one request, where the later value of a command
+     * wins. Updates that change a light which the other one turns off are not merged, because the bridge rejects such
+     * a request.
+     *
+     * @param address the address
+     * @param update the update
+     * @param scheduler the scheduler to send the request with
+     * @return the result of the request
+     */
+    public CompletableFuture<Result> putAsync(String address, ConfigUpdate update, ScheduledExecutorService scheduler) {
+        CompletableFuture<Result> future = new CompletableFuture<>();
         synchronized (commandsQueue) {
-            if (commandsQueue.isEmpty()) {
-                commandsQueue.offer(asyncPutParameters);
-                if (job == null || job.isDone()) {
-                    job = scheduler.submit(this::executeCommands);
-                }
-            } else {
-                commandsQueue.offer(asyncPutParameters);
+            PendingCommand pending = pendingByAddress.get(address);
+            if (pending == null || !pending.canMerge(update)) {
+                pending = new PendingCommand(address);
+                commandsQueue.add(pending);
+                pendingByAddress.put(address, pending);
+            }
+            pending.add(update, future);
+            Future<?> job = this.job;
+            if (job == null || job.isDone()) {
+                this.job = scheduler.submit(this::executeCommands);
             }
         }
+        return future;
+    }
+
+    /**
+     * Returns the number of requests waiting to be sent by {@link #putAsync}.
+     *
+     * @return the number of requests
+     */
+    public int getQueueDepth() {
+        synchronized (commandsQueue) {
+            return commandsQueue.size();
+        }
+    }
 
-        return asyncPutParameters.future;
+    /**
+     * Returns the smoothed time from queueing an update by {@link #putAsync} until the response of the bridge.
+     *
+     * @return the latency in milliseconds
+     */
+    public long getCommandLatency() {
+        return commandLatency;
     }
 
     public Result delete(String address) throws IOException {
@@ -158,17 +237,54 @@ public class HttpClient {
         }
     }
 
-    public final class AsyncPutParameters {
-        public final String address;
-        public final String body;
-        public final CompletableFuture<Result> future;
-        public final long delay;
+    /**
+     * The merged updates for an address which are waiting to be sent.
+     */
+    private static final class PendingCommand {
+        private final String address;
+        private final long queued = System.nanoTime();
+        private final Map<String, Command> commands = new LinkedHashMap<>();
+        private final List<CompletableFuture<Result>> futures = new ArrayList<>();
 
-        public AsyncPutParameters(String address, String body, long delay) {
+        private PendingCommand(String address) {
             this.address = address;
-            this.body = body;
-            this.future = new CompletableFuture<>();
-            this.delay = delay;
+        }
+
+        /**
+         * Returns whether an update can be merged into this command. Turning a light off and changing another value of
+         * it in the same request makes the bridge report an error.
+         */
+        private boolean canMerge(ConfigUpdate update) {
+            return !(turnsOff(commands.values()) && changesMoreThanOn(update.commands))
+                    && !(turnsOff(update.commands) && changesMoreThanOn(commands.values()));
+        }
+
+        private static boolean turnsOff(Collection<Command> commands) {
+            return commands.stream()
+                    .anyMatch(command -> "on".equals(command.key) && Boolean.FALSE.equals(command.value));
+        }
+
+        private static boolean changesMoreThanOn(Collection<Command> commands) {
+            return commands.stream().anyMatch(command -> !"on".equals(command.key));
+        }
+
+        private void add(ConfigUpdate update, CompletableFuture<Result> future) {
+            for (Command command : update.commands) {
+                Command previous = commands.get(command.key);
+                if (previous != null && command.key.endsWith("_inc") && previous.value instanceof Number
+                        && command.value instanceof Number) {
+                    // Increments add up instead of replacing each other
+                    commands.put(command.key, new Command(command.key,
+                            ((Number) previous.value).intValue() + ((Number) command.value).intValue()));
+                } else {
+                    commands.put(command.key, command);
+                }
+            }
+            futures.add(future);
+        }
+
+        private String toJson() {
+            return commands.values().stream().map(Command::toJson).collect(joining(",", "{", "}"));
         }
     }
 }
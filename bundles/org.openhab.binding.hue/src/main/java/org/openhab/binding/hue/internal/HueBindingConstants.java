@@ -71,6 +71,8 @@ public class HueBindingConstants {
     public static final String CHANNEL_DAYLIGHT = "daylight";
     public static final String CHANNEL_STATUS = "status";
     public static final String CHANNEL_FLAG = "flag";
+    public static final String CHANNEL_COMMAND_QUEUE_DEPTH = "command_queue_depth";
+    public static final String CHANNEL_COMMAND_LATENCY = "command_latency";
 
     // List all triggers
     public static final String EVENT_DIMMER_SWITCH = "dimmer_switch_event";
@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
@@ -45,6 +46,7 @@ import org.slf4j.LoggerFactory;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 
@@ -122,6 +124,25 @@ public class HueBridge {
         http.setTimeout(timeout);
     }
 
+    /**
+     * Returns the number of state and config updates waiting to be sent to the bridge.
+     *
+     * @return the number of updates
+     */
+    public int getCommandQueueDepth() {
+        return http.getQueueDepth();
+    }
+
+    /**
+     * Returns the smoothed time it takes to send a state or config update to the bridge, including the time it is
+     * queued.
+     *
+     * @return the latency in milliseconds
+     */
+    public long getCommandLatency() {
+        return http.getCommandLatency();
+    }
+
     /**
      * Returns the IP address of the bridge.
      *
@@ -185,6 +206,22 @@ public class HueBridge {
         }
     }
 
+    /**
+     * Returns a list of lights known to the bridge. Lights whose JSON representation has not changed since they were
+     * returned by a previous call are not parsed again, the given previous instances are returned instead.
+     *
+     * @param previous the lights returned by a previous call by their id
+     * @return list of known lights as {@link FullLight}s
+     * @throws UnauthorizedException thrown if the user no longer exists
+     */
+    public List<FullLight> getFullLights(Map<String, FullLight> previous) throws IOException, ApiException {
+        if (ApiVersionUtils.supportsFullLights(getVersion())) {
+            return getChangedObjects("lights", FullLight.class, previous);
+        } else {
+            return getFullConfig().getLights();
+        }
+    }
+
     /**
      * Returns a list of lights known to the bridge.
      *
@@ -215,6 +252,44 @@ public class HueBridge {
         return lightList;
     }
 
+    /**
+     * Returns a list of sensors known to the bridge. Sensors whose JSON representation has not changed since they were
+     * returned by a previous call are not parsed again, the given previous instances are returned instead.
+     *
+     * @param previous the sensors returned by a previous call by their id
+     * @return list of sensors
+     * @throws UnauthorizedException thrown if the user no longer exists
+     */
+    public List<FullSensor> getSensors(Map<String, FullSensor> previous) throws IOException, ApiException {
+        return getChangedObjects("sensors", FullSensor.class, previous);
+    }
+
+    private <T extends HueObject> List<T> getChangedObjects(String path, Class<T> classOfT, Map<String, T> previous)
+            throws IOException, ApiException {
+        requireAuthentication();
+
+        Result result = http.get(getRelativeURL(path));
+
+        handleErrors(result);
+
+        JsonObject objects = safeFromJson(result.getBody(), JsonObject.class);
+        ArrayList<T> objectList = new ArrayList<>();
+
+        for (Entry<String, JsonElement> entry : objects.entrySet()) {
+            // Comparing the JSON trees is much cheaper than mapping them to the object
+            JsonElement json = entry.getValue();
+            T object = previous.get(entry.getKey());
+            if (object == null || !json.equals(object.getJson())) {
+                object = safeFromJson(json, classOfT);
+                object.setId(entry.getKey());
+                object.setJson(json);
+            }
+            objectList.add(object);
+        }
+
+        return objectList;
+    }
+
     /**
      * Returns a list of sensors known to the bridge
      *
@@ -358,9 +433,7 @@ public class HueBridge {
     public CompletableFuture<Result> setLightState(FullLight light, StateUpdate update) {
         requireAuthentication();
 
-        String body = update.toJson();
-        return http.putAsync(getRelativeURL("lights/" + enc(light.getId()) + "/state"), body, update.getMessageDelay(),
-                scheduler);
+        return http.putAsync(getRelativeURL("lights/" + enc(light.getId()) + "/state"), update, scheduler);
     }
 
     /**
@@ -376,9 +449,7 @@ public class HueBridge {
     public CompletableFuture<Result> setSensorState(FullSensor sensor, StateUpdate update) {
         requireAuthentication();
 
-        String body = update.toJson();
-        return http.putAsync(getRelativeURL("sensors/" + enc(sensor.getId()) + "/state"), body, update.getMessageDelay(),
-                scheduler);
+        return http.putAsync(getRelativeURL("sensors/" + enc(sensor.getId()) + "/state"), update, scheduler);
     }    
     
     /**
@@ -393,9 +464,7 @@ public class HueBridge {
     public CompletableFuture<Result> updateSensorConfig(FullSensor sensor, ConfigUpdate update) {
         requireAuthentication();
 
-        String body = update.toJson();
-        return http.putAsync(getRelativeURL("sensors/" + enc(sensor.getId()) + "/config"), body,
-                update.getMessageDelay(), scheduler);
+        return http.putAsync(getRelativeURL("sensors/" + enc(sensor.getId()) + "/config"), update, scheduler);
     }
 
     /**
@@ -994,6 +1063,14 @@ public class HueBridge {
         }
     }
 
+    private <T> T safeFromJson(JsonElement json, Class<T> classOfT) throws ApiException {
+        try {
+            return gson.fromJson(json, classOfT);
+        } catch (JsonParseException e) {
+            throw new ApiException("API returned unexpected result: " + e.getMessage());
+        }
+    }
+
     // Used as assert in all requests to elegantly catch common errors
     public void handleErrors(Result result) throws IOException, ApiException {
         if (result.getResponseCode() != 200) {
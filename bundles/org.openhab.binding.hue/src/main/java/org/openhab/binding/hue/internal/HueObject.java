@@ -15,6 +15,7 @@ package org.openhab.binding.hue.internal;
 import java.lang.reflect.Type;
 import java.util.Map;
 
+import com.google.gson.JsonElement;
 import com.google.gson.reflect.TypeToken;
 
 /**
@@ -30,6 +31,8 @@ public class HueObject {
 
     private String id;
     private String name;
+    /** JSON representation this object was parsed from, null if unknown */
+    private transient JsonElement json;
 
     HueObject() {
     }
@@ -38,6 +41,14 @@ public class HueObject {
         this.id = id;
     }
 
+    JsonElement getJson() {
+        return json;
+    }
+
+    void setJson(JsonElement json) {
+        this.json = json;
+    }
+
     /**
      * Returns the id of the light.
      *
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Limits the rate of commands to a budget of commands per second, allowing a burst of commands up to the capacity of
+ * the bucket. Not thread-safe.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+class TokenBucket {
+
+    private final int capacity;
+    private final long nanosPerToken;
+
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param capacity the maximum number of commands in a burst
+     * @param commandsPerSecond the number of commands per second
+     * @param now the current time in nanoseconds
+     */
+    TokenBucket(int capacity, double commandsPerSecond, long now) {
+        this.capacity = capacity;
+        this.nanosPerToken = (long) (TimeUnit.SECONDS.toNanos(1) / commandsPerSecond);
+        this.tokens = capacity;
+        this.lastRefill = now;
+    }
+
+    private void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (double) (now - lastRefill) / nanosPerToken);
+            lastRefill = now;
+        }
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @param now the current time in nanoseconds
+     * @return true if the command may be sent
+     */
+    boolean tryAcquire(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            tokens--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param now the current time in nanoseconds
+     * @return the time in nanoseconds until a token is available
+     */
+    long nanosUntilAvailable(long now) {
+        refill(now);
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * nanosPerToken);
+    }
+}
@@ -35,6 +35,7 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.config.core.Configuration;
 import org.eclipse.smarthome.config.core.status.ConfigStatusMessage;
+import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.ChannelUID;
@@ -43,7 +44,6 @@ import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.thing.binding.ConfigStatusBridgeHandler;
 import org.eclipse.smarthome.core.types.Command;
-import org.openhab.binding.hue.internal.ApiVersionUtils;
 import org.openhab.binding.hue.internal.Config;
 import org.openhab.binding.hue.internal.ConfigUpdate;
 import org.openhab.binding.hue.internal.FullConfig;
@@ -83,11 +83,38 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
     private long lightPollingInterval = TimeUnit.SECONDS.toSeconds(10);
     private long sensorPollingInterval = TimeUnit.MILLISECONDS.toMillis(500);
 
+    /** Light polling slows down to this multiple of the polling interval while nothing changes */
+    private static final int MAX_IDLE_LIGHT_POLLING_FACTOR = 4;
+
     final ReentrantLock pollingLock = new ReentrantLock();
 
     abstract class PollingRunnable implements Runnable {
+        private final int maxIdleFactor;
+        private volatile int pollsToSkip;
+        private int skippedPolls;
+
+        /**
+         * @param maxIdleFactor the maximum multiple of the polling interval to poll at while nothing changes, 1 to
+         *            always poll at the polling interval
+         */
+        PollingRunnable(int maxIdleFactor) {
+            this.maxIdleFactor = maxIdleFactor;
+        }
+
+        /**
+         * Polls at the polling interval again, e.g. after a command was sent.
+         */
+        void resetIdlePolling() {
+            pollsToSkip = 0;
+        }
+
         @Override
         public void run() {
+            if (lastBridgeConnectionState && skippedPolls < pollsToSkip) {
+                skippedPolls++;
+                return;
+            }
+            skippedPolls = 0;
             try {
                 pollingLock.lock();
                 if (!lastBridgeConnectionState) {
@@ -98,7 +125,12 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
                     lastBridgeConnectionState = tryResumeBridgeConnection();
                 }
                 if (lastBridgeConnectionState) {
-                    doConnectedRun();
+                    if (doConnectedRun()) {
+                        pollsToSkip = 0;
+                    } else {
+                        // the interval doubles with each idle poll
+                        pollsToSkip = Math.min(maxIdleFactor - 1, 2 * pollsToSkip + 1);
+                    }
                 }
             } catch (UnauthorizedException | IllegalStateException e) {
                 if (isReachable(hueBridge.getIPAddress())) {
@@ -123,7 +155,12 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
             }
         }
 
-        protected abstract void doConnectedRun() throws IOException, ApiException;
+        /**
+         * Polls the bridge and notifies the listeners.
+         *
+         * @return {@code true} if anything has changed since the previous poll
+         */
+        protected abstract boolean doConnectedRun() throws IOException, ApiException;
 
         private boolean isReachable(String ipAddress) {
             try {
@@ -175,26 +212,31 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
     private @NonNullByDefault({}) HueBridge hueBridge = null;
     private @NonNullByDefault({}) HueBridgeConfig hueBridgeConfig = null;
 
-    private final Runnable sensorPollingRunnable = new PollingRunnable() {
+    // Sensors keep polling at the configured interval, as switches and motion sensors need to react quickly
+    private final PollingRunnable sensorPollingRunnable = new PollingRunnable(1) {
         @Override
-        protected void doConnectedRun() throws IOException, ApiException {
+        protected boolean doConnectedRun() throws IOException, ApiException {
             Map<String, FullSensor> lastSensorStateCopy = new HashMap<>(lastSensorStates);
+            boolean changed = false;
 
-            for (final FullSensor sensor : hueBridge.getSensors()) {
+            for (final FullSensor sensor : hueBridge.getSensors(lastSensorStateCopy)) {
                 String sensorId = sensor.getId();
-                if (lastSensorStateCopy.containsKey(sensorId)) {
-                    final FullSensor lastFullSensor = lastSensorStateCopy.remove(sensorId);
-                    final Map<String, Object> lastFullSensorState = lastFullSensor.getState();
-                    lastSensorStates.put(sensorId, sensor);
-                    if (!lastFullSensorState.equals(sensor.getState())) {
+                final FullSensor lastFullSensor = lastSensorStateCopy.remove(sensorId);
+                if (lastFullSensor == sensor) {
+                    // unchanged since the previous poll, so it was not parsed again
+                    continue;
+                }
+                lastSensorStates.put(sensorId, sensor);
+                if (lastFullSensor != null) {
+                    if (!lastFullSensor.getState().equals(sensor.getState())) {
                         logger.debug("Status update for Hue sensor '{}' detected: {}", sensorId, sensor.getState());
                         notifySensorStatusListeners(sensor, STATE_CHANGED);
+                        changed = true;
                     }
                 } else {
-                    lastSensorStates.put(sensorId, sensor);
                     logger.debug("Hue sensor '{}' added.", sensorId);
                     notifySensorStatusListeners(sensor, STATE_ADDED);
-
+                    changed = true;
                 }
             }
 
@@ -203,6 +245,9 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
                 lastSensorStates.remove(fullSensorEntry.getKey());
                 logger.debug("Hue sensor '{}' removed.", fullSensorEntry.getKey());
                 for (SensorStatusListener sensorStatusListener : sensorStatusListeners) {
+                    if (!isListeningTo(sensorStatusListener.getSensorId(), fullSensorEntry.getKey())) {
+                        continue;
+                    }
                     try {
                         sensorStatusListener.onSensorRemoved(hueBridge, fullSensorEntry.getValue());
                     } catch (Exception e) {
@@ -210,35 +255,34 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
                     }
                 }
             }
+            return changed || !lastSensorStateCopy.isEmpty();
         }
     };
 
-    private final Runnable lightPollingRunnable = new PollingRunnable() {
+    private final PollingRunnable lightPollingRunnable = new PollingRunnable(MAX_IDLE_LIGHT_POLLING_FACTOR) {
         @Override
-        protected void doConnectedRun() throws IOException, ApiException {
+        protected boolean doConnectedRun() throws IOException, ApiException {
             Map<String, FullLight> lastLightStateCopy = new HashMap<>(lastLightStates);
+            boolean changed = false;
 
-            List<FullLight> lights;
-            if (ApiVersionUtils.supportsFullLights(hueBridge.getVersion())) {
-                lights = hueBridge.getFullLights();
-            } else {
-                lights = hueBridge.getFullConfig().getLights();
-            }
-
-            for (final FullLight fullLight : lights) {
+            for (final FullLight fullLight : hueBridge.getFullLights(lastLightStateCopy)) {
                 final String lightId = fullLight.getId();
-                if (lastLightStateCopy.containsKey(lightId)) {
-                    final FullLight lastFullLight = lastLightStateCopy.remove(lightId);
-                    final State lastFullLightState = lastFullLight.getState();
-                    lastLightStates.put(lightId, fullLight);
-                    if (!isEqual(lastFullLightState, fullLight.getState())) {
+                final FullLight lastFullLight = lastLightStateCopy.remove(lightId);
+                if (lastFullLight == fullLight) {
+                    // unchanged since the previous poll, so it was not parsed again
+                    continue;
+                }
+                lastLightStates.put(lightId, fullLight);
+                if (lastFullLight != null) {
+                    if (!isEqual(lastFullLight.getState(), fullLight.getState())) {
                         logger.debug("Status update for Hue light '{}' detected.", lightId);
                         notifyLightStatusListeners(fullLight, STATE_CHANGED);
+                        changed = true;
                     }
                 } else {
-                    lastLightStates.put(lightId, fullLight);
                     logger.debug("Hue light '{}' added.", lightId);
                     notifyLightStatusListeners(fullLight, STATE_ADDED);
+                    changed = true;
                 }
             }
 
@@ -247,6 +291,9 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
                 lastLightStates.remove(fullLightEntry.getKey());
                 logger.debug("Hue light '{}' removed.", fullLightEntry.getKey());
                 for (LightStatusListener lightStatusListener : lightStatusListeners) {
+                    if (!isListeningTo(lightStatusListener.getLightId(), fullLightEntry.getKey())) {
+                        continue;
+                    }
                     try {
                         lightStatusListener.onLightRemoved(hueBridge, fullLightEntry.getValue());
                     } catch (Exception e) {
@@ -254,6 +301,10 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
                     }
                 }
             }
+
+            updateState(CHANNEL_COMMAND_QUEUE_DEPTH, new DecimalType(hueBridge.getCommandQueueDepth()));
+            updateState(CHANNEL_COMMAND_LATENCY, new DecimalType(hueBridge.getCommandLatency()));
+            return changed || !lastLightStateCopy.isEmpty();
         }
     };
 
@@ -269,6 +320,7 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
     @Override
     public void updateLightState(FullLight light, StateUpdate stateUpdate) {
         if (hueBridge != null) {
+            lightPollingRunnable.resetIdlePolling();
             hueBridge.setLightState(light, stateUpdate).thenAccept(result -> {
                 try {
                     hueBridge.handleErrors(result);
@@ -713,6 +765,9 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
         }
 
         for (LightStatusListener lightStatusListener : lightStatusListeners) {
+            if (!isListeningTo(lightStatusListener.getLightId(), fullLight.getId())) {
+                continue;
+            }
             try {
                 switch (type) {
                     case STATE_ADDED:
@@ -743,6 +798,9 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
         }
 
         for (SensorStatusListener sensorStatusListener : sensorStatusListeners) {
+            if (!isListeningTo(sensorStatusListener.getSensorId(), fullSensor.getId())) {
+                continue;
+            }
             try {
                 switch (type) {
                     case STATE_ADDED:
@@ -766,6 +824,10 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
         }
     }
 
+    private static boolean isListeningTo(@Nullable String listenerId, String id) {
+        return listenerId == null || listenerId.equals(id);
+    }
+
     /**
      * Compare to states for equality.
      *
@@ -439,6 +439,11 @@ public class HueLightHandler extends BaseThingHandler implements LightStatusList
         return hueClient;
     }
 
+    @Override
+    public @Nullable String getLightId() {
+        return lightId;
+    }
+
     @Override
     public void onLightStateChanged(@Nullable HueBridge bridge, FullLight fullLight) {
         logger.trace("onLightStateChanged() was called");
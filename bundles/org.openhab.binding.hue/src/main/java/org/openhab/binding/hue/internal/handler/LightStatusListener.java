@@ -58,4 +58,14 @@ public interface LightStatusListener {
      * @param light The light which is added.
      */
     void onLightAdded(@Nullable HueBridge bridge, FullLight light);
+
+    /**
+     * Returns the id of the light this listener is interested in. Only changes of this light are passed to the
+     * listener then.
+     *
+     * @return the id of the light, or null to be notified about all lights
+     */
+    default @Nullable String getLightId() {
+        return null;
+    }
 }
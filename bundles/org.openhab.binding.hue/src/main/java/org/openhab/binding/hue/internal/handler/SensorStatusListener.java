@@ -58,4 +58,14 @@ public interface SensorStatusListener {
      * @param sensor The added sensor
      */
     void onSensorAdded(@Nullable HueBridge bridge, FullSensor sensor);
+
+    /**
+     * Returns the id of the sensor this listener is interested in. Only changes of this sensor are passed to the
+     * listener then.
+     *
+     * @return the id of the sensor, or null to be notified about all sensors
+     */
+    default @Nullable String getSensorId() {
+        return null;
+    }
 }
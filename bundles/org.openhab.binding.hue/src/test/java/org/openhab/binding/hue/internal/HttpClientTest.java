@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.hue.internal.HttpClient.Result;
+
+/**
+ * Tests the command queue of {@link HttpClient}.
+ *
+ * @author agent - Initial contribution
+ */
+public class HttpClientTest {
+
+    private final List<String> requests = new ArrayList<>();
+    private final List<Runnable> jobs = new ArrayList<>();
+    private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+
+    private final HttpClient client = new HttpClient() {
+        @Override
+        protected Result doNetwork(String address, String requestMethod, @Nullable String body) throws IOException {
+            requests.add(requestMethod + " " + address + " " + body);
+            return new Result("[]", 200);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        when(scheduler.submit(any(Runnable.class))).thenAnswer(invocation -> {
+            jobs.add(invocation.getArgument(0));
+            return mock(Future.class);
+        });
+    }
+
+    private void runJobs() {
+        new ArrayList<>(jobs).forEach(Runnable::run);
+        jobs.clear();
+    }
+
+    @Test
+    public void mergesUpdatesOfTheSameAddress() throws Exception {
+        CompletableFuture<Result> first = client.putAsync("light1", new StateUpdate().turnOn().setBrightness(10),
+                scheduler);
+        CompletableFuture<Result> second = client.putAsync("light1", new StateUpdate().setBrightness(20), scheduler);
+        client.putAsync("light2", new StateUpdate().turnOff(), scheduler);
+        assertEquals(2, client.getQueueDepth());
+
+        runJobs();
+
+        assertEquals(2, requests.size());
+        assertEquals("PUT light1 {\"on\":true,\"bri\":20}", requests.get(0));
+        assertEquals("PUT light2 {\"on\":false}", requests.get(1));
+        assertEquals(200, first.get().getResponseCode());
+        assertSame(first.get(), second.get());
+        assertEquals(0, client.getQueueDepth());
+    }
+
+    @Test
+    public void sumsIncrements() {
+        ConfigUpdate first = new ConfigUpdate();
+        first.commands.add(new Command("bri_inc", 10));
+        ConfigUpdate second = new ConfigUpdate();
+        second.commands.add(new Command("bri_inc", -30));
+        client.putAsync("light1", first, scheduler);
+        client.putAsync("light1", second, scheduler);
+
+        runJobs();
+
+        assertEquals("PUT light1 {\"bri_inc\":-20}", requests.get(0));
+    }
+
+    @Test
+    public void completesExceptionallyIfTheBridgeCannotBeReached() {
+        HttpClient failing = new HttpClient() {
+            @Override
+            protected Result doNetwork(String address, String requestMethod, @Nullable String body)
+                    throws IOException {
+                throw new IOException("unreachable");
+            }
+        };
+        CompletableFuture<Result> future = failing.putAsync("light1", new StateUpdate().turnOn(), scheduler);
+
+        runJobs();
+
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void doesNotMergeChangesIntoTurningOff() throws Exception {
+        CompletableFuture<Result> off = client.putAsync("light1", new StateUpdate().turnOff(), scheduler);
+        CompletableFuture<Result> brightness = client.putAsync("light1", new StateUpdate().setBrightness(20),
+                scheduler);
+        client.putAsync("light1", new StateUpdate().setBrightness(30), scheduler);
+        assertEquals(2, client.getQueueDepth());
+
+        runJobs();
+
+        assertEquals(2, requests.size());
+        assertEquals("PUT light1 {\"on\":false}", requests.get(0));
+        assertEquals("PUT light1 {\"bri\":30}", requests.get(1));
+        assertNotSame(off.get(), brightness.get());
+    }
+
+    @Test
+    public void stopsWhenInterrupted() {
+        for (int i = 0; i <= 10; i++) {
+            client.putAsync("light" + i, new StateUpdate().turnOn(), scheduler);
+        }
+
+        // The eleventh command has to wait for the budget of 10 commands per second
+        Thread.currentThread().interrupt();
+        runJobs();
+
+        assertTrue(Thread.interrupted());
+        assertEquals(10, requests.size());
+        assertEquals(1, client.getQueueDepth());
+    }
+
+    @Test
+    public void startsOneJobForQueuedCommands() {
+        client.putAsync("light1", new StateUpdate().turnOn(), scheduler);
+        client.putAsync("light2", new StateUpdate().turnOn(), scheduler);
+        verify(scheduler, times(1)).submit(any(Runnable.class));
+    }
+
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.hue.internal.HttpClient.Result;
+
+/**
+ * Tests the differential polling of {@link HueBridge}.
+ *
+ * @author agent - Initial contribution
+ */
+public class HueBridgeTest {
+
+    private static final String SENSOR_1 = "\"1\":{\"name\":\"Switch\",\"type\":\"ZLLSwitch\","
+            + "\"state\":{\"buttonevent\":1002}}";
+    private static final String SENSOR_2 = "\"2\":{\"name\":\"Motion\",\"type\":\"ZLLPresence\","
+            + "\"state\":{\"presence\":false}}";
+    private static final String SENSOR_2_CHANGED = "\"2\":{\"name\":\"Motion\",\"type\":\"ZLLPresence\","
+            + "\"state\":{\"presence\":true}}";
+    // "Aa" and "BB" have the same hash code, so both JSON representations have the same hash code
+    private static final String SENSOR_1_SAME_HASH = "\"1\":{\"name\":\"Switch\",\"type\":\"ZLLSwitch\","
+            + "\"state\":{\"buttonevent\":1002},\"config\":{\"Aa\":true}}";
+    private static final String SENSOR_1_COLLIDING = "\"1\":{\"name\":\"Switch\",\"type\":\"ZLLSwitch\","
+            + "\"state\":{\"buttonevent\":1002},\"config\":{\"BB\":true}}";
+
+    private final HueBridge bridge = new HueBridge("192.168.0.2", 80, "http", mock(ScheduledExecutorService.class));
+    private String response = "{}";
+    private int requests;
+
+    @Before
+    public void setUp() throws Exception {
+        HttpClient http = new HttpClient() {
+            @Override
+            protected Result doNetwork(String address, String requestMethod, @Nullable String body)
+                    throws IOException {
+                requests++;
+                return new Result(response, 200);
+            }
+        };
+        setField("http", http);
+        setField("username", "testuser");
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = HueBridge.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(bridge, value);
+    }
+
+    private static Map<String, FullSensor> byId(List<FullSensor> sensors) {
+        Map<String, FullSensor> map = new HashMap<>();
+        sensors.forEach(sensor -> map.put(sensor.getId(), sensor));
+        return map;
+    }
+
+    @Test
+    public void unchangedObjectsAreReused() throws Exception {
+        response = "{" + SENSOR_1 + "," + SENSOR_2 + "}";
+        Map<String, FullSensor> first = byId(bridge.getSensors(new HashMap<>()));
+        assertEquals(2, first.size());
+        assertEquals("Motion", first.get("2").getName());
+
+        Map<String, FullSensor> second = byId(bridge.getSensors(first));
+        assertSame(first.get("1"), second.get("1"));
+        assertSame(first.get("2"), second.get("2"));
+        assertEquals(2, requests);
+    }
+
+    @Test
+    public void changedObjectsAreParsedAgain() throws Exception {
+        response = "{" + SENSOR_1 + "," + SENSOR_2 + "}";
+        Map<String, FullSensor> first = byId(bridge.getSensors(new HashMap<>()));
+
+        response = "{" + SENSOR_1 + "," + SENSOR_2_CHANGED + "}";
+        Map<String, FullSensor> second = byId(bridge.getSensors(first));
+        assertSame(first.get("1"), second.get("1"));
+        assertNotSame(first.get("2"), second.get("2"));
+        assertEquals("2", second.get("2").getId());
+        assertEquals(true, second.get("2").getState().get("presence"));
+    }
+
+    @Test
+    public void objectsWithCollidingHashesAreParsedAgain() throws Exception {
+        response = "{" + SENSOR_1_SAME_HASH + "}";
+        Map<String, FullSensor> first = byId(bridge.getSensors(new HashMap<>()));
+
+        response = "{" + SENSOR_1_COLLIDING + "}";
+        Map<String, FullSensor> second = byId(bridge.getSensors(first));
+        assertNotSame(first.get("1"), second.get("1"));
+        assertEquals(true, second.get("1").getConfig().get("BB"));
+    }
+
+    @Test
+    public void removedObjectsAreNotReturned() throws Exception {
+        response = "{" + SENSOR_1 + "," + SENSOR_2 + "}";
+        Map<String, FullSensor> first = byId(bridge.getSensors(new HashMap<>()));
+
+        response = "{" + SENSOR_1 + "}";
+        Map<String, FullSensor> second = byId(bridge.getSensors(first));
+        assertEquals(1, second.size());
+        assertSame(first.get("1"), second.get("1"));
+    }
+
+}
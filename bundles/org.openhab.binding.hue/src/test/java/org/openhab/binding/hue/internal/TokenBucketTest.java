@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link TokenBucket}.
+ *
+ * @author agent - Initial contribution
+ */
+public class TokenBucketTest {
+
+    private static final long TOKEN = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void allowsABurstUpToTheCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 10, 0);
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(0));
+        assertEquals(TOKEN, bucket.nanosUntilAvailable(0));
+    }
+
+    @Test
+    public void refillsAtTheConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(1, 10, 0);
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(TOKEN / 2));
+        assertEquals(TOKEN / 2, bucket.nanosUntilAvailable(TOKEN / 2));
+        assertTrue(bucket.tryAcquire(TOKEN));
+    }
+
+    @Test
+    public void doesNotRefillBeyondTheCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 10, 0);
+        long now = 100 * TOKEN;
+        assertTrue(bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now));
+        assertFalse(bucket.tryAcquire(now));
+    }
+
+}
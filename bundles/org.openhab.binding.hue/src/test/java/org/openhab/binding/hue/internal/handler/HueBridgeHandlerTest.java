@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal.handler;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.smarthome.core.thing.Bridge;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.binding.ThingHandlerCallback;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.hue.internal.FullLight;
+import org.openhab.binding.hue.internal.HueBridge;
+import org.openhab.binding.hue.internal.StateUpdate;
+
+/**
+ * Tests the light polling of {@link HueBridgeHandler}.
+ *
+ * @author agent - Initial contribution
+ */
+public class HueBridgeHandlerTest {
+
+    private final HueBridge hueBridge = mock(HueBridge.class);
+    private final FullLight light1 = light("1");
+    private final FullLight light2 = light("2");
+
+    private HueBridgeHandler handler;
+    private Runnable lightPollingRunnable;
+
+    private static FullLight light(String id) {
+        FullLight light = mock(FullLight.class);
+        when(light.getId()).thenReturn(id);
+        return light;
+    }
+
+    private static LightStatusListener listener(String lightId) {
+        LightStatusListener listener = mock(LightStatusListener.class);
+        when(listener.getLightId()).thenReturn(lightId);
+        return listener;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        Bridge bridge = mock(Bridge.class);
+        when(bridge.getUID()).thenReturn(new ThingUID("hue", "bridge", "test"));
+        handler = new HueBridgeHandler(bridge);
+        handler.setCallback(mock(ThingHandlerCallback.class));
+        lightPollingRunnable = (Runnable) getField("lightPollingRunnable");
+        when(hueBridge.setLightState(any(), any())).thenReturn(new CompletableFuture<>());
+        when(hueBridge.getFullLights(anyMap())).thenReturn(Arrays.asList(light1, light2));
+    }
+
+    private void connect() throws Exception {
+        setField("hueBridge", hueBridge);
+        setField("lastBridgeConnectionState", true);
+    }
+
+    private Object getField(String name) throws Exception {
+        Field field = HueBridgeHandler.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(handler);
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = HueBridgeHandler.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(handler, value);
+    }
+
+    private void assertPolls(int runs, int expectedPolls) throws Exception {
+        for (int i = 0; i < runs; i++) {
+            lightPollingRunnable.run();
+        }
+        verify(hueBridge, times(expectedPolls)).getFullLights(anyMap());
+    }
+
+    @Test
+    public void idlePollingBacksOffAndIsResetByCommands() throws Exception {
+        connect();
+        // both lights are added
+        assertPolls(1, 1);
+        // the interval doubles with each idle poll
+        assertPolls(1, 2);
+        assertPolls(1, 2);
+        assertPolls(1, 3);
+        assertPolls(3, 3);
+        assertPolls(1, 4);
+        // up to four times the polling interval
+        assertPolls(3, 4);
+        assertPolls(1, 5);
+
+        handler.updateLightState(light1, new StateUpdate().turnOn());
+        assertPolls(1, 6);
+    }
+
+    @Test
+    public void idlePollingIsResetByChanges() throws Exception {
+        connect();
+        assertPolls(2, 2);
+        assertPolls(1, 2);
+        assertPolls(1, 3);
+
+        FullLight changedLight2 = light("2");
+        when(hueBridge.getFullLights(anyMap())).thenReturn(Arrays.asList(light1, changedLight2));
+        assertPolls(4, 4);
+        assertPolls(1, 5);
+    }
+
+    @Test
+    public void listenersOnlyReceiveTheirLights() throws Exception {
+        LightStatusListener listener1 = listener("1");
+        LightStatusListener listener2 = listener("2");
+        LightStatusListener discovery = listener(null);
+        handler.registerLightStatusListener(listener1);
+        handler.registerLightStatusListener(listener2);
+        handler.registerLightStatusListener(discovery);
+        connect();
+
+        lightPollingRunnable.run();
+        verify(listener1).onLightAdded(hueBridge, light1);
+        verify(listener2).onLightAdded(hueBridge, light2);
+        verify(discovery).onLightAdded(hueBridge, light1);
+        verify(discovery).onLightAdded(hueBridge, light2);
+
+        when(hueBridge.getFullLights(anyMap())).thenReturn(Collections.singletonList(light1));
+        lightPollingRunnable.run();
+        verify(listener2).onLightRemoved(hueBridge, light2);
+        verify(discovery).onLightRemoved(hueBridge, light2);
+
+        verify(listener1, never()).onLightAdded(any(), eq(light2));
+        verify(listener1, never()).onLightRemoved(any(), any());
+        verify(listener2, never()).onLightAdded(any(), eq(light1));
+    }
+
+}
@@ -41,6 +41,17 @@ public interface KNXTypeMapper {
     @Nullable
     public String toDPTValue(Type type, @Nullable String dpt);
 
+    /**
+     * maps an openHAB command/state to the binary value of its datapoint in KNX, for the datapoint types that can be
+     * converted without the string value of {@link #toDPTValue(Type, String)}
+     *
+     * @param type a command or state
+     * @param dpt the corresponding datapoint type
+     * @return datapoint value as data for a translator of the datapoint type or {@code null} if the string value has
+     *         to be used
+     */
+    public byte @Nullable [] toDPTData(Type type, String dpt);
+
     /**
      * maps a datapoint value to an openHAB command or state
      *
@@ -12,9 +12,7 @@
  */
 package org.openhab.binding.knx.internal.client;
 
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Collection;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -22,6 +20,7 @@ import java.util.function.Consumer;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.core.thing.ThingUID;
@@ -33,14 +32,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import tuwien.auto.calimero.CloseEvent;
+import tuwien.auto.calimero.DataUnitBuilder;
 import tuwien.auto.calimero.DetachEvent;
 import tuwien.auto.calimero.FrameEvent;
 import tuwien.auto.calimero.GroupAddress;
 import tuwien.auto.calimero.IndividualAddress;
 import tuwien.auto.calimero.KNXException;
+import tuwien.auto.calimero.Priority;
 import tuwien.auto.calimero.datapoint.CommandDP;
 import tuwien.auto.calimero.datapoint.Datapoint;
 import tuwien.auto.calimero.device.ProcessCommunicationResponder;
+import tuwien.auto.calimero.dptxlator.DPTXlator;
+import tuwien.auto.calimero.dptxlator.TranslatorTypes;
 import tuwien.auto.calimero.link.KNXNetworkLink;
 import tuwien.auto.calimero.link.NetworkLinkListener;
 import tuwien.auto.calimero.mgmt.Destination;
@@ -64,6 +67,7 @@ import tuwien.auto.calimero.process.ProcessListener;
 public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClient {
 
     private static final int MAX_SEND_ATTEMPTS = 2;
+    private static final int GROUP_READ = 0x00;
 
     private final Logger logger = LoggerFactory.getLogger(AbstractKNXClient.class);
     private final KNXTypeMapper typeHelper = new KNXCoreTypeMapper();
@@ -72,7 +76,6 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     private final int responseTimeout;
     private final int readingPause;
     private final int autoReconnectPeriod;
-    private final int readRetriesLimit;
     private final StatusUpdateCallback statusUpdateCallback;
     private final ScheduledExecutorService knxScheduler;
 
@@ -85,12 +88,12 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     private @Nullable ScheduledFuture<?> busJob;
     private @Nullable ScheduledFuture<?> connectJob;
 
-    private final Set<GroupAddressListener> groupAddressListeners = new CopyOnWriteArraySet<>();
-    private final LinkedBlockingQueue<ReadDatapoint> readDatapoints = new LinkedBlockingQueue<>();
+    private final GroupAddressIndex groupAddressIndex = new GroupAddressIndex();
+    private final ReadScheduler readScheduler;
 
     @FunctionalInterface
     private interface ListenerNotification {
-        void apply(BusMessageListener listener, IndividualAddress source, GroupAddress destination, byte[] asdu);
+        void apply(GroupAddressIndex.Entry entry, IndividualAddress source, GroupAddress destination, byte[] asdu);
     }
 
     @NonNullByDefault({})
@@ -103,22 +106,36 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
         @Override
         public void groupWrite(ProcessEvent e) {
-            processEvent("Group Write", e, (listener, source, destination, asdu) -> {
-                listener.onGroupWrite(AbstractKNXClient.this, source, destination, asdu);
+            readScheduler.valueReceived(e.getDestination());
+            processEvent("Group Write", e, (entry, source, destination, asdu) -> {
+                InboundSpec listenSpec = entry.getListenSpec();
+                if (listenSpec != null) {
+                    entry.getListener().onGroupWrite(AbstractKNXClient.this, source, destination, asdu,
+                            entry.getChannelUID(), listenSpec);
+                }
             });
         }
 
         @Override
         public void groupReadRequest(ProcessEvent e) {
-            processEvent("Group Read Request", e, (listener, source, destination, asdu) -> {
-                listener.onGroupRead(AbstractKNXClient.this, source, destination, asdu);
+            processEvent("Group Read Request", e, (entry, source, destination, asdu) -> {
+                if (entry.respondsToRead()) {
+                    // The response is sent and confirmed on the bus, which must not block the receiving thread
+                    knxScheduler.execute(() -> entry.getListener().onGroupRead(AbstractKNXClient.this, source,
+                            destination, entry.getChannelUID()));
+                }
             });
         }
 
         @Override
         public void groupReadResponse(ProcessEvent e) {
-            processEvent("Group Read Response", e, (listener, source, destination, asdu) -> {
-                listener.onGroupReadResponse(AbstractKNXClient.this, source, destination, asdu);
+            readScheduler.valueReceived(e.getDestination());
+            processEvent("Group Read Response", e, (entry, source, destination, asdu) -> {
+                InboundSpec listenSpec = entry.getListenSpec();
+                if (listenSpec != null) {
+                    entry.getListener().onGroupReadResponse(AbstractKNXClient.this, source, destination, asdu,
+                            entry.getChannelUID(), listenSpec);
+                }
             });
         }
     };
@@ -129,7 +146,8 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         this.thingUID = thingUID;
         this.responseTimeout = responseTimeout;
         this.readingPause = readingPause;
-        this.readRetriesLimit = readRetriesLimit;
+        this.readScheduler = new ReadScheduler(readingPause, TimeUnit.SECONDS.toMillis(responseTimeout),
+                readRetriesLimit);
         this.knxScheduler = knxScheduler;
         this.statusUpdateCallback = statusUpdateCallback;
     }
@@ -223,7 +241,7 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     @SuppressWarnings("null")
     private void releaseConnection() {
         logger.debug("Bridge {} is disconnecting from the KNX bus", thingUID);
-        readDatapoints.clear();
+        readScheduler.clear();
         busJob = nullify(busJob, j -> j.cancel(true));
         deviceInfoClient = null;
         managementProcedures = nullify(managementProcedures, mp -> mp.detach());
@@ -251,9 +269,12 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         IndividualAddress source = event.getSourceAddr();
         byte[] asdu = event.getASDU();
         logger.trace("Received a {} telegram from '{}' to '{}' with value '{}'", task, source, destination, asdu);
-        for (GroupAddressListener listener : groupAddressListeners) {
-            if (listener.listensTo(destination)) {
-                knxScheduler.schedule(() -> action.apply(listener, source, destination, asdu), 0, TimeUnit.SECONDS);
+        for (GroupAddressIndex.Entry entry : groupAddressIndex.get(destination)) {
+            try {
+                action.apply(entry, source, destination, asdu);
+            } catch (RuntimeException e) {
+                logger.warn("Channel '{}' failed to process a {} telegram for '{}': {}", entry.getChannelUID(), task,
+                        destination, e.getMessage(), e);
             }
         }
     }
@@ -270,37 +291,38 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         return typeHelper.toDPTValue(type, dpt);
     }
 
-    @SuppressWarnings("null")
     private void readNextQueuedDatapoint() {
         if (!connectIfNotAutomatic()) {
             return;
         }
-        ProcessCommunicator processCommunicator = this.processCommunicator;
-        if (processCommunicator == null) {
+        KNXNetworkLink link = this.link;
+        if (link == null || processCommunicator == null) {
             return;
         }
-        ReadDatapoint datapoint = readDatapoints.poll();
+        ReadDatapoint datapoint = readScheduler.next(currentTimeMillis());
         if (datapoint != null) {
-            datapoint.incrementRetries();
+            GroupAddress groupAddress = (GroupAddress) datapoint.getDatapoint().getMainAddress();
             try {
-                logger.trace("Sending a Group Read Request telegram for {}", datapoint.getDatapoint().getMainAddress());
-                processCommunicator.read(datapoint.getDatapoint());
+                logger.trace("Sending a Group Read Request telegram for {}", groupAddress);
+                // Only wait for the confirmation of the gateway, the response is received by the process listener
+                link.sendRequestWait(groupAddress, Priority.LOW, DataUnitBuilder.createAPDU(GROUP_READ, new byte[0]));
+                readScheduler.confirmed(datapoint, currentTimeMillis());
             } catch (KNXException e) {
-                if (datapoint.getRetries() < datapoint.getLimit()) {
-                    readDatapoints.add(datapoint);
-                    logger.debug("Could not read value for datapoint {}: {}. Going to retry.",
-                            datapoint.getDatapoint().getMainAddress(), e.getMessage());
+                if (readScheduler.failed(datapoint, currentTimeMillis())) {
+                    logger.debug("Could not read value for datapoint {}: {}. Going to retry.", groupAddress,
+                            e.getMessage());
                 } else {
                     logger.warn("Giving up reading datapoint {}, the number of maximum retries ({}) is reached.",
-                            datapoint.getDatapoint().getMainAddress(), datapoint.getLimit());
+                            groupAddress, datapoint.getLimit());
                 }
-            } catch (InterruptedException e) {
-                logger.debug("Interrupted sending KNX read request");
-                return;
             }
         }
     }
 
+    private static long currentTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
     public void dispose() {
         cancelReconnectJob();
         disconnect(null);
@@ -366,23 +388,24 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     }
 
     @Override
-    public void readDatapoint(Datapoint datapoint) {
-        synchronized (this) {
-            ReadDatapoint retryDatapoint = new ReadDatapoint(datapoint, readRetriesLimit);
-            if (!readDatapoints.contains(retryDatapoint)) {
-                readDatapoints.add(retryDatapoint);
-            }
-        }
+    public void readDatapoint(Datapoint datapoint, boolean prioritized) {
+        readScheduler.add(datapoint, prioritized);
+    }
+
+    @Override
+    public final void registerChannel(GroupAddressListener listener, ChannelUID channelUID,
+            Collection<GroupAddressIndex.Entry> entries) {
+        groupAddressIndex.registerChannel(listener, channelUID, entries);
     }
 
     @Override
-    public final boolean registerGroupAddressListener(GroupAddressListener listener) {
-        return groupAddressListeners.add(listener);
+    public final void unregisterChannel(GroupAddressListener listener, ChannelUID channelUID) {
+        groupAddressIndex.unregisterChannel(listener, channelUID);
     }
 
     @Override
     public final boolean unregisterGroupAddressListener(GroupAddressListener listener) {
-        return groupAddressListeners.remove(listener);
+        return groupAddressIndex.unregisterListener(listener);
     }
 
     @Override
@@ -445,17 +468,31 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         }
 
         Datapoint datapoint = new CommandDP(groupAddress, thingUID.toString(), 0, dpt);
-        String mappedValue = toDPTValue(type, dpt);
+        @Nullable DPTXlator translator = null;
+        @Nullable String mappedValue = null;
+        byte @Nullable [] data = typeHelper.toDPTData(type, dpt);
+        if (data != null) {
+            // The common datapoint types are set as data, without a string value that is parsed again
+            translator = TranslatorTypes.createTranslator(datapoint.getMainNumber(), dpt);
+            translator.setData(data);
+        } else {
+            mappedValue = toDPTValue(type, dpt);
+        }
 
-        logger.trace("sendToKNX mappedValue: '{}' groupAddress: '{}'", mappedValue, groupAddress);
+        logger.trace("sendToKNX mappedValue: '{}' groupAddress: '{}'", translator != null ? translator : mappedValue,
+                groupAddress);
 
-        if (mappedValue == null) {
+        if (translator == null && mappedValue == null) {
             logger.debug("Value '{}' cannot be mapped to datapoint '{}'", type, datapoint);
             return;
         }
         for (int i = 0; i < MAX_SEND_ATTEMPTS; i++) {
             try {
-                communicator.write(datapoint, mappedValue);
+                if (translator != null) {
+                    communicator.write(groupAddress, translator);
+                } else if (mappedValue != null) {
+                    communicator.write(datapoint, mappedValue);
+                }
                 logger.debug("Wrote value '{}' to datapoint '{}' ({}. attempt).", type, datapoint, i);
                 break;
             } catch (KNXException e) {
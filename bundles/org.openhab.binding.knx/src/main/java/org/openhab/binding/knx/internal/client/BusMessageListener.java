@@ -13,12 +13,14 @@
 package org.openhab.binding.knx.internal.client;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.thing.ChannelUID;
 
 import tuwien.auto.calimero.GroupAddress;
 import tuwien.auto.calimero.IndividualAddress;
 
 /**
- * Callback interface for KNX bus messages
+ * Callback interface for KNX bus messages, which are dispatched to the channels that registered the destination
+ * group address in the {@link GroupAddressIndex}.
  *
  * @author Simon Kaufmann - Initial contribution and API
  */
@@ -26,31 +28,44 @@ import tuwien.auto.calimero.IndividualAddress;
 public interface BusMessageListener {
 
     /**
-     * Called when the KNX bridge receives a group write telegram
+     * Called when the KNX bridge receives a group write telegram for a channel.
      *
-     * @param bridge
+     * Called on the thread receiving the telegrams, must not block.
+     *
+     * @param client
+     * @param source
      * @param destination
      * @param asdu
+     * @param channelUID the channel which listens to the destination
+     * @param listenSpec the listen spec of the channel for the destination
      */
-    public void onGroupWrite(AbstractKNXClient client, IndividualAddress source, GroupAddress destination, byte[] asdu);
+    public void onGroupWrite(AbstractKNXClient client, IndividualAddress source, GroupAddress destination, byte[] asdu,
+            ChannelUID channelUID, InboundSpec listenSpec);
 
     /**
-     * Called when the KNX bridge receives a group read telegram
+     * Called when the KNX bridge receives a group read telegram for a channel which responds to it.
      *
-     * @param bridge
+     * @param client
+     * @param source
      * @param destination
-     * @param asdu
+     * @param channelUID the channel which responds to the destination
      */
-    public void onGroupRead(AbstractKNXClient client, IndividualAddress source, GroupAddress destination, byte[] asdu);
+    public void onGroupRead(AbstractKNXClient client, IndividualAddress source, GroupAddress destination,
+            ChannelUID channelUID);
 
     /**
-     * Called when the KNX bridge receives a group read response telegram
+     * Called when the KNX bridge receives a group read response telegram for a channel.
+     *
+     * Called on the thread receiving the telegrams, must not block.
      *
-     * @param bridge
+     * @param client
+     * @param source
      * @param destination
      * @param asdu
+     * @param channelUID the channel which listens to the destination
+     * @param listenSpec the listen spec of the channel for the destination
      */
     public void onGroupReadResponse(AbstractKNXClient client, IndividualAddress source, GroupAddress destination,
-            byte[] asdu);
+            byte[] asdu, ChannelUID channelUID, InboundSpec listenSpec);
 
 }
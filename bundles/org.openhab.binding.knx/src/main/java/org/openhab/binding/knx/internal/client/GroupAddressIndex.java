@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.openhab.binding.knx.internal.handler.GroupAddressListener;
+
+import tuwien.auto.calimero.GroupAddress;
+
+/**
+ * Maps group addresses to the channels that are interested in telegrams for them, so that a telegram is dispatched
+ * without asking every thing.
+ *
+ * Lookups are lock-free and are done for every telegram, while the index only changes when the channels of a thing
+ * are (re-)initialized or disposed.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class GroupAddressIndex {
+
+    /**
+     * A channel that is interested in the telegrams for a group address.
+     */
+    public static class Entry {
+        private final GroupAddress groupAddress;
+        private final GroupAddressListener listener;
+        private final ChannelUID channelUID;
+        private final @Nullable InboundSpec listenSpec;
+        private final boolean respondsToRead;
+
+        /**
+         * @param groupAddress the group address
+         * @param listener the listener to be informed
+         * @param channelUID the channel of the listener
+         * @param listenSpec the spec for group write and read response telegrams, {@code null} if the channel does
+         *            not listen to them
+         * @param respondsToRead {@code true} if the channel responds to group read telegrams
+         */
+        public Entry(GroupAddress groupAddress, GroupAddressListener listener, ChannelUID channelUID,
+                @Nullable InboundSpec listenSpec, boolean respondsToRead) {
+            this.groupAddress = groupAddress;
+            this.listener = listener;
+            this.channelUID = channelUID;
+            this.listenSpec = listenSpec;
+            this.respondsToRead = respondsToRead;
+        }
+
+        public GroupAddress getGroupAddress() {
+            return groupAddress;
+        }
+
+        public GroupAddressListener getListener() {
+            return listener;
+        }
+
+        public ChannelUID getChannelUID() {
+            return channelUID;
+        }
+
+        public @Nullable InboundSpec getListenSpec() {
+            return listenSpec;
+        }
+
+        public boolean respondsToRead() {
+            return respondsToRead;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry [groupAddress=" + groupAddress + ", channelUID=" + channelUID + ", listenSpec="
+                    + (listenSpec != null) + ", respondsToRead=" + respondsToRead + "]";
+        }
+    }
+
+    /** The lists are never modified, but replaced */
+    private final Map<GroupAddress, List<Entry>> entries = new ConcurrentHashMap<>();
+    /** Guarded by this */
+    private final Map<GroupAddressListener, Map<ChannelUID, Collection<Entry>>> registrations = new HashMap<>();
+
+    /**
+     * Get the channels that are interested in the given group address.
+     *
+     * @param groupAddress the group address
+     * @return the entries of the channels, an empty list if there are none
+     */
+    public List<Entry> get(GroupAddress groupAddress) {
+        return entries.getOrDefault(groupAddress, Collections.emptyList());
+    }
+
+    /**
+     * Register the group addresses of a channel. Replaces the previous registration of the channel.
+     *
+     * @param listener the listener
+     * @param channelUID the channel of the listener
+     * @param channelEntries the entries of the channel, which have to belong to the listener and the channel
+     */
+    public synchronized void registerChannel(GroupAddressListener listener, ChannelUID channelUID,
+            Collection<Entry> channelEntries) {
+        for (Entry entry : channelEntries) {
+            if (entry.listener != listener || !entry.channelUID.equals(channelUID)) {
+                throw new IllegalArgumentException("The entry " + entry + " does not belong to " + channelUID);
+            }
+        }
+        unregisterChannel(listener, channelUID);
+        if (channelEntries.isEmpty()) {
+            return;
+        }
+        List<Entry> copy = new ArrayList<>(channelEntries);
+        registrations.computeIfAbsent(listener, l -> new HashMap<>()).put(channelUID, copy);
+        for (Entry entry : copy) {
+            List<Entry> list = new ArrayList<>(get(entry.groupAddress));
+            list.add(entry);
+            entries.put(entry.groupAddress, Collections.unmodifiableList(list));
+        }
+    }
+
+    /**
+     * Remove the registration of a channel.
+     *
+     * @param listener the listener
+     * @param channelUID the channel of the listener
+     */
+    public synchronized void unregisterChannel(GroupAddressListener listener, ChannelUID channelUID) {
+        Map<ChannelUID, Collection<Entry>> channels = registrations.get(listener);
+        if (channels == null) {
+            return;
+        }
+        Collection<Entry> removed = channels.remove(channelUID);
+        if (channels.isEmpty()) {
+            registrations.remove(listener);
+        }
+        if (removed != null) {
+            removeEntries(removed);
+        }
+    }
+
+    /**
+     * Remove the registrations of all channels of a listener.
+     *
+     * @param listener the listener
+     * @return {@code true} if the listener had registered channels
+     */
+    public synchronized boolean unregisterListener(GroupAddressListener listener) {
+        Map<ChannelUID, Collection<Entry>> channels = registrations.remove(listener);
+        if (channels == null) {
+            return false;
+        }
+        for (Collection<Entry> removed : channels.values()) {
+            removeEntries(removed);
+        }
+        return true;
+    }
+
+    private void removeEntries(Collection<Entry> removed) {
+        for (Entry entry : removed) {
+            List<Entry> list = new ArrayList<>(get(entry.groupAddress));
+            list.remove(entry);
+            if (list.isEmpty()) {
+                entries.remove(entry.groupAddress);
+            } else {
+                entries.put(entry.groupAddress, Collections.unmodifiableList(list));
+            }
+        }
+    }
+
+    /**
+     * Get the number of group addresses with at least one interested channel.
+     */
+    public int size() {
+        return entries.size();
+    }
+}
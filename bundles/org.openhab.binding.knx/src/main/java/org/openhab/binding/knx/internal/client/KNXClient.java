@@ -12,8 +12,11 @@
  */
 package org.openhab.binding.knx.internal.client;
 
+import java.util.Collection;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.openhab.binding.knx.internal.handler.GroupAddressListener;
 
 import tuwien.auto.calimero.IndividualAddress;
@@ -61,15 +64,26 @@ public interface KNXClient {
     void restartNetworkDevice(@Nullable IndividualAddress address);
 
     /**
-     * Register the given listener to be informed on KNX bus traffic.
+     * Register the group addresses of a channel of the given listener to be informed on KNX bus traffic. Replaces a
+     * previous registration of the channel.
+     *
+     * @param listener the listener
+     * @param channelUID the channel of the listener
+     * @param entries the group addresses the channel is interested in
+     */
+    void registerChannel(GroupAddressListener listener, ChannelUID channelUID,
+            Collection<GroupAddressIndex.Entry> entries);
+
+    /**
+     * Remove the group addresses of a channel of the given listener.
      *
      * @param listener the listener
-     * @return {@code true} if it wasn't registered before
+     * @param channelUID the channel of the listener
      */
-    boolean registerGroupAddressListener(GroupAddressListener listener);
+    void unregisterChannel(GroupAddressListener listener, ChannelUID channelUID);
 
     /**
-     * Remove the given listener.
+     * Remove the given listener with all its channels.
      *
      * @param listener the listener
      * @return {@code true} if it was successfully removed
@@ -77,11 +91,13 @@ public interface KNXClient {
     boolean unregisterGroupAddressListener(GroupAddressListener listener);
 
     /**
-     * Schedule the given data point for asynchronous reading.
+     * Schedule the given data point for asynchronous reading. Reads of the same group address are only done once.
      *
      * @param datapoint the datapoint
+     * @param prioritized {@code true} if the read should be done before the non-prioritized ones, e.g. because the
+     *            channel is linked to an item and waits for its initial state
      */
-    void readDatapoint(Datapoint datapoint);
+    void readDatapoint(Datapoint datapoint, boolean prioritized);
 
     /**
      * Write a command to the KNX bus.
@@ -12,8 +12,11 @@
  */
 package org.openhab.binding.knx.internal.client;
 
+import java.util.Collection;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.openhab.binding.knx.internal.handler.GroupAddressListener;
 
 import tuwien.auto.calimero.IndividualAddress;
@@ -49,8 +52,12 @@ public class NoOpClient implements KNXClient {
     }
 
     @Override
-    public boolean registerGroupAddressListener(GroupAddressListener listener) {
-        return false;
+    public void registerChannel(GroupAddressListener listener, ChannelUID channelUID,
+            Collection<GroupAddressIndex.Entry> entries) {
+    }
+
+    @Override
+    public void unregisterChannel(GroupAddressListener listener, ChannelUID channelUID) {
     }
 
     @Override
@@ -59,7 +66,7 @@ public class NoOpClient implements KNXClient {
     }
 
     @Override
-    public void readDatapoint(Datapoint datapoint) {
+    public void readDatapoint(Datapoint datapoint, boolean prioritized) {
     }
 
     @Override
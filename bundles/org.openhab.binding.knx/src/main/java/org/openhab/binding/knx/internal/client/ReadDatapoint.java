@@ -24,11 +24,18 @@ public class ReadDatapoint {
     private final Datapoint datapoint;
     private int retries;
     private final int limit;
+    private boolean prioritized;
+    private long sent;
 
     public ReadDatapoint(Datapoint datapoint, int limit) {
+        this(datapoint, limit, false);
+    }
+
+    public ReadDatapoint(Datapoint datapoint, int limit, boolean prioritized) {
         this.datapoint = datapoint;
         this.retries = 0;
         this.limit = limit;
+        this.prioritized = prioritized;
     }
 
     public Datapoint getDatapoint() {
@@ -47,6 +54,25 @@ public class ReadDatapoint {
         return limit;
     }
 
+    public boolean isPrioritized() {
+        return prioritized;
+    }
+
+    public void setPrioritized(boolean prioritized) {
+        this.prioritized = prioritized;
+    }
+
+    /**
+     * Get the time the last read request was sent, in milliseconds of an arbitrary origin.
+     */
+    public long getSent() {
+        return sent;
+    }
+
+    public void setSent(long sent) {
+        this.sent = sent;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.Datapoint;
+
+/**
+ * Decides which group address is read from the KNX bus next, and when.
+ *
+ * <ul>
+ * <li>Each group address is queued at most once, no matter how many things ask for it.</li>
+ * <li>Prioritized reads are sent before all others.</li>
+ * <li>A queued read is dropped when the value of its group address is received on the bus in the meantime.</li>
+ * <li>The pause between two reads is the configured reading pause, but at least the smoothed time the KNX gateway
+ * needs to confirm a read request, so that a busy gateway is not flooded.</li>
+ * <li>The read requests do not wait for the responses. A read is repeated when no value was received within the
+ * response timeout, and the number of unanswered reads is limited.</li>
+ * </ul>
+ *
+ * All times are in milliseconds of an arbitrary origin and are passed in by the caller.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ReadScheduler {
+
+    static final int MAX_UNANSWERED_READS = 16;
+
+    /** Weight of the previous value when smoothing the confirmation latency, like TCP does for the round-trip time */
+    private static final int LATENCY_SMOOTHING = 8;
+
+    private final Logger logger = LoggerFactory.getLogger(ReadScheduler.class);
+
+    private final int readingPause;
+    private final long responseTimeout;
+    private final int readRetriesLimit;
+
+    private final Map<GroupAddress, ReadDatapoint> prioritized = new LinkedHashMap<>();
+    private final Map<GroupAddress, ReadDatapoint> regular = new LinkedHashMap<>();
+    /** Ordered by the time the read request was sent */
+    private final Map<GroupAddress, ReadDatapoint> unanswered = new LinkedHashMap<>();
+
+    private long smoothedLatency;
+    private long nextRead = Long.MIN_VALUE;
+
+    /**
+     * @param readingPause the minimum pause between two read requests in milliseconds
+     * @param responseTimeout the time to wait for a response in milliseconds
+     * @param readRetriesLimit the maximum number of read requests per queued read
+     */
+    public ReadScheduler(int readingPause, long responseTimeout, int readRetriesLimit) {
+        this.readingPause = readingPause;
+        this.responseTimeout = responseTimeout;
+        this.readRetriesLimit = readRetriesLimit;
+    }
+
+    /**
+     * Queue the given data point for reading, unless its group address is already queued or waiting for a response.
+     *
+     * @param datapoint the data point
+     * @param prioritize {@code true} if the read should be sent before the non-prioritized ones
+     * @return {@code true} if the data point was queued or its priority raised
+     */
+    public synchronized boolean add(Datapoint datapoint, boolean prioritize) {
+        GroupAddress groupAddress = (GroupAddress) datapoint.getMainAddress();
+        if (prioritized.containsKey(groupAddress) || unanswered.containsKey(groupAddress)) {
+            return false;
+        }
+        ReadDatapoint queued = regular.remove(groupAddress);
+        if (queued == null) {
+            queued = new ReadDatapoint(datapoint, readRetriesLimit, prioritize);
+        } else if (prioritize) {
+            queued.setPrioritized(true);
+        } else {
+            regular.put(groupAddress, queued);
+            return false;
+        }
+        enqueue(queued);
+        return true;
+    }
+
+    private void enqueue(ReadDatapoint datapoint) {
+        GroupAddress groupAddress = (GroupAddress) datapoint.getDatapoint().getMainAddress();
+        (datapoint.isPrioritized() ? prioritized : regular).put(groupAddress, datapoint);
+    }
+
+    /**
+     * Get the next data point to be read, if the pause since the previous read has passed. The read is expected to be
+     * sent right away and then reported to {@link #confirmed(ReadDatapoint, long)} or
+     * {@link #failed(ReadDatapoint, long)}.
+     *
+     * @param now the current time
+     * @return the data point or {@code null} if there is nothing to be read now
+     */
+    public synchronized @Nullable ReadDatapoint next(long now) {
+        expireUnanswered(now);
+        if (now < nextRead || unanswered.size() >= MAX_UNANSWERED_READS) {
+            return null;
+        }
+        ReadDatapoint next = poll(prioritized);
+        if (next == null) {
+            next = poll(regular);
+        }
+        if (next == null) {
+            return null;
+        }
+        next.incrementRetries();
+        next.setSent(now);
+        unanswered.put((GroupAddress) next.getDatapoint().getMainAddress(), next);
+        nextRead = now + getPause();
+        return next;
+    }
+
+    private @Nullable ReadDatapoint poll(Map<GroupAddress, ReadDatapoint> queue) {
+        Iterator<ReadDatapoint> iterator = queue.values().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        ReadDatapoint datapoint = iterator.next();
+        iterator.remove();
+        return datapoint;
+    }
+
+    private void expireUnanswered(long now) {
+        Iterator<ReadDatapoint> iterator = unanswered.values().iterator();
+        while (iterator.hasNext()) {
+            ReadDatapoint datapoint = iterator.next();
+            if (now - datapoint.getSent() < responseTimeout) {
+                break;
+            }
+            iterator.remove();
+            if (datapoint.getRetries() < datapoint.getLimit()) {
+                logger.debug("No response for datapoint {}. Going to retry.",
+                        datapoint.getDatapoint().getMainAddress());
+                enqueue(datapoint);
+            } else {
+                logger.warn("Giving up reading datapoint {}, the number of maximum retries ({}) is reached.",
+                        datapoint.getDatapoint().getMainAddress(), datapoint.getLimit());
+            }
+        }
+    }
+
+    /**
+     * Report that the gateway confirmed the read request, which is waiting for a response now.
+     *
+     * @param datapoint the data point returned by {@link #next(long)}
+     * @param now the current time
+     */
+    public synchronized void confirmed(ReadDatapoint datapoint, long now) {
+        long latency = Math.max(0, now - datapoint.getSent());
+        smoothedLatency = smoothedLatency + (latency - smoothedLatency) / LATENCY_SMOOTHING;
+        nextRead = now + getPause();
+    }
+
+    /**
+     * Report that the read request could not be sent.
+     *
+     * @param datapoint the data point returned by {@link #next(long)}
+     * @param now the current time
+     * @return {@code true} if the read is going to be retried
+     */
+    public synchronized boolean failed(ReadDatapoint datapoint, long now) {
+        nextRead = now + getPause();
+        GroupAddress groupAddress = (GroupAddress) datapoint.getDatapoint().getMainAddress();
+        if (unanswered.remove(groupAddress) == null) {
+            // The value was received in the meantime
+            return false;
+        }
+        if (datapoint.getRetries() < datapoint.getLimit()) {
+            enqueue(datapoint);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Report that a value for the given group address was received from the bus, be it the response to a read or
+     * sent by any device. Drops the read of the group address.
+     *
+     * @param groupAddress the group address
+     */
+    public synchronized void valueReceived(GroupAddress groupAddress) {
+        if (unanswered.remove(groupAddress) == null && prioritized.remove(groupAddress) == null) {
+            regular.remove(groupAddress);
+        }
+    }
+
+    /**
+     * Get the current pause between two read requests in milliseconds.
+     */
+    public synchronized long getPause() {
+        return Math.max(readingPause, smoothedLatency);
+    }
+
+    /**
+     * Get the number of data points which are queued or waiting for a response.
+     */
+    public synchronized int size() {
+        return prioritized.size() + regular.size() + unanswered.size();
+    }
+
+    /**
+     * Drop all reads, e.g. when the connection is closed.
+     */
+    public synchronized void clear() {
+        prioritized.clear();
+        regular.clear();
+        unanswered.clear();
+        nextRead = Long.MIN_VALUE;
+    }
+
+}
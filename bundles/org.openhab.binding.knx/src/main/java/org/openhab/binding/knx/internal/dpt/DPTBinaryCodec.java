@@ -0,0 +1,478 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.dpt;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.StopMoveType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.Type;
+
+import tuwien.auto.calimero.KNXException;
+import tuwien.auto.calimero.dptxlator.DPT;
+import tuwien.auto.calimero.dptxlator.TranslatorTypes;
+
+/**
+ * Converts between the ASDU of the common KNX datapoint types and openHAB types directly, without the string values
+ * of the Calimero translators in between.
+ *
+ * The codecs are looked up from a table by the main number of a datapoint type and are cached per datapoint type id.
+ * They are stateless, so the codec can be shared between threads. The boolean, integer and RGB results are equal to
+ * the ones of the {@link KNXCoreTypeMapper} translator path. The float results of main numbers 9 and 14 can differ
+ * from it in the last digits, because the translator path formats them to a string with limited precision first.
+ * Datapoint types, values and types that are not covered return {@code null}, the caller has to fall back to the
+ * translator path then.
+ *
+ * Supported main numbers: 1 (boolean), 5 (8 bit unsigned), 7 (2 byte unsigned), 9 (2 byte float), 13 (4 byte
+ * signed), 14 (4 byte float) and 232 (RGB).
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class DPTBinaryCodec {
+
+    /** Mirrors the "0.#####E0" format that the translator path uses for big 4 byte floats */
+    private static final MathContext FLOAT_PRECISION = new MathContext(6, RoundingMode.HALF_EVEN);
+    private static final float FLOAT_PLAIN_LIMIT = 100000;
+
+    private interface Codec {
+        @Nullable
+        Type decode(byte[] asdu);
+
+        byte @Nullable [] encode(Type type);
+    }
+
+    @FunctionalInterface
+    private interface CodecFactory {
+        @Nullable
+        Codec create(int subNumber, DPT dpt, Class<? extends Type> typeClass);
+    }
+
+    private static final Codec UNSUPPORTED = new Codec() {
+        @Override
+        public @Nullable Type decode(byte[] asdu) {
+            return null;
+        }
+
+        @Override
+        public byte @Nullable [] encode(Type type) {
+            return null;
+        }
+    };
+
+    private static final Map<Integer, CodecFactory> MAIN_TYPES = new HashMap<>();
+    static {
+        MAIN_TYPES.put(1, (subNumber, dpt, typeClass) -> new BooleanCodec(subNumber));
+        MAIN_TYPES.put(5, (subNumber, dpt, typeClass) -> isNumeric(typeClass)
+                ? new Unsigned8Codec(subNumber, dpt, typeClass) : null);
+        // 7.003 and 7.004 are scaled time periods
+        MAIN_TYPES.put(7, (subNumber, dpt, typeClass) -> isNumeric(typeClass) && subNumber != 3 && subNumber != 4
+                ? new IntegerCodec(2, false, dpt, typeClass) : null);
+        MAIN_TYPES.put(9, (subNumber, dpt, typeClass) -> isNumeric(typeClass) ? new Float16Codec(dpt, typeClass)
+                : null);
+        // 13.002 is a scaled flow rate
+        MAIN_TYPES.put(13, (subNumber, dpt, typeClass) -> isNumeric(typeClass) && subNumber != 2
+                ? new IntegerCodec(4, true, dpt, typeClass) : null);
+        MAIN_TYPES.put(14, (subNumber, dpt, typeClass) -> isNumeric(typeClass) ? new Float32Codec(dpt, typeClass)
+                : null);
+        MAIN_TYPES.put(232, (subNumber, dpt, typeClass) -> subNumber == 600 ? new RGBCodec() : null);
+    }
+
+    private final Function<String, @Nullable Class<? extends Type>> typeClasses;
+    private final Map<String, Codec> codecs = new ConcurrentHashMap<>();
+
+    /**
+     * @param typeClasses provides the openHAB type class for a datapoint type id, as
+     *            {@link KNXCoreTypeMapper#toTypeClass(String)} does
+     */
+    public DPTBinaryCodec(Function<String, @Nullable Class<? extends Type>> typeClasses) {
+        this.typeClasses = typeClasses;
+    }
+
+    /**
+     * Converts an ASDU to an openHAB type.
+     *
+     * @param dptId the datapoint type id
+     * @param asdu the ASDU of the telegram
+     * @return the command or state, {@code null} if the datapoint type or value is not supported by the codec
+     */
+    public @Nullable Type decode(String dptId, byte[] asdu) {
+        return getCodec(dptId).decode(asdu);
+    }
+
+    /**
+     * Converts an openHAB type to an ASDU.
+     *
+     * @param type the command or state
+     * @param dptId the datapoint type id
+     * @return the data for a translator of the datapoint type, {@code null} if the datapoint type or the type is
+     *         not supported by the codec
+     */
+    public byte @Nullable [] encode(Type type, String dptId) {
+        return getCodec(dptId).encode(type);
+    }
+
+    /**
+     * @return {@code true} if the codec handles the given datapoint type id
+     */
+    public boolean isSupported(String dptId) {
+        return getCodec(dptId) != UNSUPPORTED;
+    }
+
+    private static boolean isNumeric(Class<? extends Type> typeClass) {
+        return DecimalType.class.equals(typeClass) || PercentType.class.equals(typeClass);
+    }
+
+    private Codec getCodec(String dptId) {
+        Codec codec = codecs.get(dptId);
+        if (codec == null) {
+            codec = codecs.computeIfAbsent(dptId, this::createCodec);
+        }
+        return codec;
+    }
+
+    private Codec createCodec(String dptId) {
+        int separator = dptId.indexOf('.');
+        if (separator <= 0) {
+            return UNSUPPORTED;
+        }
+        int mainNumber;
+        int subNumber;
+        try {
+            mainNumber = Integer.parseInt(dptId.substring(0, separator));
+            subNumber = Integer.parseInt(dptId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return UNSUPPORTED;
+        }
+        CodecFactory factory = MAIN_TYPES.get(mainNumber);
+        Class<? extends Type> typeClass = typeClasses.apply(dptId);
+        if (factory == null || typeClass == null) {
+            return UNSUPPORTED;
+        }
+        DPT dpt;
+        try {
+            // Only the datapoint types that Calimero knows, as with the translator path
+            dpt = TranslatorTypes.createTranslator(mainNumber, dptId).getType();
+        } catch (KNXException e) {
+            return UNSUPPORTED;
+        }
+        Codec codec = factory.create(subNumber, dpt, typeClass);
+        return codec != null ? codec : UNSUPPORTED;
+    }
+
+    /**
+     * Main number 1, the sub number selects the openHAB type.
+     */
+    private static class BooleanCodec implements Codec {
+        private final Type off;
+        private final Type on;
+
+        BooleanCodec(int subNumber) {
+            switch (subNumber) {
+                case 8:
+                    off = UpDownType.UP;
+                    on = UpDownType.DOWN;
+                    break;
+                case 9:
+                case 19:
+                    off = OpenClosedType.CLOSED;
+                    on = OpenClosedType.OPEN;
+                    break;
+                case 10:
+                    off = StopMoveType.STOP;
+                    on = StopMoveType.MOVE;
+                    break;
+                case 22:
+                    off = new DecimalType(0);
+                    on = new DecimalType(1);
+                    break;
+                default:
+                    off = OnOffType.OFF;
+                    on = OnOffType.ON;
+                    break;
+            }
+        }
+
+        @Override
+        public @Nullable Type decode(byte[] asdu) {
+            if (asdu.length < 1) {
+                return null;
+            }
+            return (asdu[0] & 0x01) != 0 ? on : off;
+        }
+
+        @Override
+        public byte @Nullable [] encode(Type type) {
+            boolean value;
+            if (type instanceof OnOffType) {
+                value = type == OnOffType.ON;
+            } else if (type instanceof UpDownType) {
+                value = type == UpDownType.DOWN;
+            } else if (type instanceof OpenClosedType) {
+                value = type == OpenClosedType.OPEN;
+            } else if (type instanceof StopMoveType) {
+                value = type == StopMoveType.MOVE;
+            } else {
+                return null;
+            }
+            return new byte[] { (byte) (value ? 1 : 0) };
+        }
+    }
+
+    /**
+     * Base of the numeric main types, which map to {@link DecimalType} or {@link PercentType}. Values outside of the
+     * range of the datapoint type are left to the translator path.
+     */
+    private abstract static class NumericCodec implements Codec {
+        private final boolean percent;
+        private final double min;
+        private final double max;
+
+        NumericCodec(DPT dpt, Class<? extends Type> typeClass) {
+            this.percent = PercentType.class.equals(typeClass);
+            this.min = parseBound(dpt.getLowerValue());
+            this.max = parseBound(dpt.getUpperValue());
+        }
+
+        private static double parseBound(String value) {
+            try {
+                return Double.parseDouble(value.trim());
+            } catch (NumberFormatException e) {
+                // Never within the range, all values are left to the translator path
+                return Double.NaN;
+            }
+        }
+
+        abstract @Nullable BigDecimal decodeValue(byte[] asdu);
+
+        abstract byte @Nullable [] encodeValue(BigDecimal value);
+
+        @Override
+        public @Nullable Type decode(byte[] asdu) {
+            BigDecimal value = decodeValue(asdu);
+            if (value == null) {
+                return null;
+            }
+            double doubleValue = value.doubleValue();
+            if (!(doubleValue >= min && doubleValue <= max)) {
+                return null;
+            }
+            if (percent) {
+                long rounded = Math.round(doubleValue);
+                return rounded >= 0 && rounded <= 100 ? new PercentType(BigDecimal.valueOf(rounded)) : null;
+            }
+            return new DecimalType(value);
+        }
+
+        @Override
+        public byte @Nullable [] encode(Type type) {
+            // HSBType is a PercentType as well
+            if (!(type instanceof DecimalType) || type instanceof HSBType) {
+                return null;
+            }
+            BigDecimal value = type instanceof PercentType ? BigDecimal.valueOf(((PercentType) type).intValue())
+                    : ((DecimalType) type).toBigDecimal();
+            double doubleValue = value.doubleValue();
+            if (!(doubleValue >= min && doubleValue <= max)) {
+                return null;
+            }
+            return encodeValue(value);
+        }
+
+        static boolean isIntegral(BigDecimal value) {
+            return value.signum() == 0 || value.stripTrailingZeros().scale() <= 0;
+        }
+    }
+
+    /**
+     * Main number 5, 5.001 and 5.003 are scaled to 0...100 and 0...360.
+     */
+    private static class Unsigned8Codec extends NumericCodec {
+        private final float range;
+
+        Unsigned8Codec(int subNumber, DPT dpt, Class<? extends Type> typeClass) {
+            super(dpt, typeClass);
+            this.range = subNumber == 1 ? 100 : subNumber == 3 ? 360 : 255;
+        }
+
+        @Override
+        @Nullable
+        BigDecimal decodeValue(byte[] asdu) {
+            if (asdu.length < 1) {
+                return null;
+            }
+            int raw = asdu[0] & 0xFF;
+            return BigDecimal.valueOf(range == 255 ? raw : Math.round(raw * range / 255));
+        }
+
+        @Override
+        byte @Nullable [] encodeValue(BigDecimal value) {
+            if (!isIntegral(value)) {
+                return null;
+            }
+            int intValue = value.intValue();
+            return new byte[] { (byte) (range == 255 ? intValue : Math.round(intValue * 255.0f / range)) };
+        }
+    }
+
+    /**
+     * Unscaled big endian integers, main numbers 7 and 13.
+     */
+    private static class IntegerCodec extends NumericCodec {
+        private final int length;
+        private final boolean signed;
+
+        IntegerCodec(int length, boolean signed, DPT dpt, Class<? extends Type> typeClass) {
+            super(dpt, typeClass);
+            this.length = length;
+            this.signed = signed;
+        }
+
+        @Override
+        @Nullable
+        BigDecimal decodeValue(byte[] asdu) {
+            if (asdu.length < length) {
+                return null;
+            }
+            long value = signed ? asdu[0] : asdu[0] & 0xFF;
+            for (int i = 1; i < length; i++) {
+                value = value << 8 | asdu[i] & 0xFF;
+            }
+            return BigDecimal.valueOf(value);
+        }
+
+        @Override
+        byte @Nullable [] encodeValue(BigDecimal value) {
+            if (!isIntegral(value)) {
+                return null;
+            }
+            long longValue = value.longValue();
+            byte[] data = new byte[length];
+            for (int i = length - 1; i >= 0; i--) {
+                data[i] = (byte) longValue;
+                longValue >>= 8;
+            }
+            return data;
+        }
+    }
+
+    /**
+     * Main number 9, 0.01 * mantissa * 2^exponent with an 11 bit two's complement mantissa and a 4 bit exponent.
+     */
+    private static class Float16Codec extends NumericCodec {
+        Float16Codec(DPT dpt, Class<? extends Type> typeClass) {
+            super(dpt, typeClass);
+        }
+
+        @Override
+        @Nullable
+        BigDecimal decodeValue(byte[] asdu) {
+            if (asdu.length < 2) {
+                return null;
+            }
+            int raw = (asdu[0] & 0xFF) << 8 | asdu[1] & 0xFF;
+            int exponent = (raw >> 11) & 0x0F;
+            int mantissa = raw & 0x07FF;
+            if ((raw & 0x8000) != 0) {
+                mantissa -= 0x0800;
+            }
+            return BigDecimal.valueOf((long) mantissa << exponent, 2);
+        }
+
+        @Override
+        byte @Nullable [] encodeValue(BigDecimal value) {
+            double hundredths = value.doubleValue() * 100;
+            int exponent = 0;
+            long mantissa = Math.round(hundredths);
+            while (mantissa < -2048 || mantissa > 2047) {
+                exponent++;
+                mantissa = Math.round(hundredths / (1 << exponent));
+            }
+            if (exponent > 15) {
+                return null;
+            }
+            int raw = (mantissa < 0 ? 0x8000 : 0) | exponent << 11 | (int) mantissa & 0x07FF;
+            return new byte[] { (byte) (raw >> 8), (byte) raw };
+        }
+    }
+
+    /**
+     * Main number 14, IEEE 754 single precision.
+     */
+    private static class Float32Codec extends NumericCodec {
+        Float32Codec(DPT dpt, Class<? extends Type> typeClass) {
+            super(dpt, typeClass);
+        }
+
+        @Override
+        @Nullable
+        BigDecimal decodeValue(byte[] asdu) {
+            if (asdu.length < 4) {
+                return null;
+            }
+            int bits = (asdu[0] & 0xFF) << 24 | (asdu[1] & 0xFF) << 16 | (asdu[2] & 0xFF) << 8 | asdu[3] & 0xFF;
+            float value = Float.intBitsToFloat(bits);
+            if (Float.isNaN(value) || Float.isInfinite(value)) {
+                return null;
+            }
+            BigDecimal decimal = new BigDecimal(Float.toString(value));
+            return Math.abs(value) < FLOAT_PLAIN_LIMIT ? decimal : decimal.round(FLOAT_PRECISION);
+        }
+
+        @Override
+        byte @Nullable [] encodeValue(BigDecimal value) {
+            int bits = Float.floatToIntBits(value.floatValue());
+            return new byte[] { (byte) (bits >> 24), (byte) (bits >> 16), (byte) (bits >> 8), (byte) bits };
+        }
+    }
+
+    /**
+     * 232.600, three bytes red, green and blue.
+     */
+    private static class RGBCodec implements Codec {
+        @Override
+        public @Nullable Type decode(byte[] asdu) {
+            if (asdu.length < 3) {
+                return null;
+            }
+            return HSBType.fromRGB(asdu[0] & 0xFF, asdu[1] & 0xFF, asdu[2] & 0xFF);
+        }
+
+        @Override
+        public byte @Nullable [] encode(Type type) {
+            if (!(type instanceof HSBType)) {
+                return null;
+            }
+            HSBType hsb = (HSBType) type;
+            return new byte[] { toByte(hsb.getRed()), toByte(hsb.getGreen()), toByte(hsb.getBlue()) };
+        }
+
+        private static byte toByte(PercentType percent) {
+            return (byte) percent.toBigDecimal().multiply(BigDecimal.valueOf(255))
+                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP).intValue();
+        }
+    }
+}
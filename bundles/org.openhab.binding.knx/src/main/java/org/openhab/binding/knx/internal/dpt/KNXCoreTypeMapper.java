@@ -107,6 +107,9 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
     /** stores the default KNX DPT to use for each openHAB type */
     private final Map<Class<? extends Type>, String> defaultDptMap;
 
+    /** converts the common datapoint types without the translator */
+    private final DPTBinaryCodec binaryCodec = new DPTBinaryCodec(this::toTypeClass);
+
     public KNXCoreTypeMapper() {
 
         @SuppressWarnings("unused")
@@ -672,8 +675,30 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
         return null;
     }
 
+    @Override
+    public byte[] toDPTData(Type type, String dptID) {
+        return binaryCodec.encode(type, dptID);
+    }
+
     @Override
     public Type toType(Datapoint datapoint, byte[] data) {
+        Type type = binaryCodec.decode(datapoint.getDPT(), data);
+        if (type != null) {
+            return type;
+        }
+        return toTypeWithTranslator(datapoint, data);
+    }
+
+    /**
+     * Maps a datapoint value to an openHAB command or state using the string value of the Calimero translator. The
+     * datapoint types that the {@link DPTBinaryCodec} supports are converted by the codec in
+     * {@link #toType(Datapoint, byte[])}.
+     *
+     * @param datapoint the source datapoint
+     * @param data the datapoint value as an ASDU byte array
+     * @return a command or state of openHAB
+     */
+    public Type toTypeWithTranslator(Datapoint datapoint, byte[] data) {
         try {
             DPTXlator translator = TranslatorTypes.createTranslator(datapoint.getMainNumber(), datapoint.getDPT());
             translator.setData(data);
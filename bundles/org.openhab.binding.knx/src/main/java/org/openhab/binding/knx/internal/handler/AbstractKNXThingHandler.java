@@ -137,6 +137,11 @@ public abstract class AbstractKNXThingHandler extends BaseThingHandler implement
         detachFromClient();
     }
 
+    /**
+     * Registers the group addresses of the channels with the client.
+     */
+    protected abstract void registerGroupAddresses();
+
     protected abstract void scheduleReadJobs();
 
     protected abstract void cancelReadFutures();
@@ -195,7 +200,7 @@ public abstract class AbstractKNXThingHandler extends BaseThingHandler implement
             logger.debug("An exception occurred while setting the individual address '{}'", config.getAddress(), e);
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getLocalizedMessage());
         }
-        getClient().registerGroupAddressListener(this);
+        registerGroupAddresses();
         scheduleReadJobs();
     }
 
@@ -15,13 +15,14 @@ package org.openhab.binding.knx.internal.handler;
 import static org.openhab.binding.knx.internal.KNXBindingConstants.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -43,6 +44,7 @@ import org.openhab.binding.knx.internal.KNXTypeMapper;
 import org.openhab.binding.knx.internal.channel.KNXChannelType;
 import org.openhab.binding.knx.internal.channel.KNXChannelTypes;
 import org.openhab.binding.knx.internal.client.AbstractKNXClient;
+import org.openhab.binding.knx.internal.client.GroupAddressIndex;
 import org.openhab.binding.knx.internal.client.InboundSpec;
 import org.openhab.binding.knx.internal.client.OutboundSpec;
 import org.openhab.binding.knx.internal.config.DeviceConfig;
@@ -69,11 +71,10 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
     private final Logger logger = LoggerFactory.getLogger(DeviceThingHandler.class);
 
     private final KNXTypeMapper typeHelper = new KNXCoreTypeMapper();
-    private final Set<GroupAddress> groupAddresses = new HashSet<>();
-    private final Set<GroupAddress> groupAddressesWriteBlockedOnce = new HashSet<>();
-    private final Set<OutboundSpec> groupAddressesRespondingSpec = new HashSet<>();
+    private final Set<GroupAddress> groupAddressesWriteBlockedOnce = ConcurrentHashMap.newKeySet();
+    private final Map<GroupAddress, OutboundSpec> groupAddressesRespondingSpec = new ConcurrentHashMap<>();
     private final Map<GroupAddress, @Nullable ScheduledFuture<?>> readFutures = new HashMap<>();
-    private final Map<ChannelUID, @Nullable ScheduledFuture<?>> channelFutures = new HashMap<>();
+    private final Map<ChannelUID, @Nullable ScheduledFuture<?>> channelFutures = new ConcurrentHashMap<>();
     private @Nullable IndividualAddress address;
     private int readInterval;
 
@@ -86,15 +87,39 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
         super.initialize();
         DeviceConfig config = getConfigAs(DeviceConfig.class);
         readInterval = config.getReadInterval().intValue();
-        initializeGroupAddresses();
     }
 
-    private void initializeGroupAddresses() {
-        forAllChannels((selector, channelConfiguration) -> {
-            groupAddresses.addAll(selector.getReadAddresses(channelConfiguration));
-            groupAddresses.addAll(selector.getWriteAddresses(channelConfiguration));
-            groupAddresses.addAll(selector.getListenAddresses(channelConfiguration));
-        });
+    @Override
+    protected void registerGroupAddresses() {
+        for (Channel channel : getThing().getChannels()) {
+            withKNXType(channel, (selector, configuration) -> {
+                getClient().registerChannel(this, channel.getUID(),
+                        getGroupAddressEntries(channel.getUID(), selector, configuration));
+            });
+        }
+    }
+
+    /**
+     * Resolves the specs of the group addresses of a channel once, so that they are not looked up per telegram.
+     */
+    private List<GroupAddressIndex.Entry> getGroupAddressEntries(ChannelUID channelUID, KNXChannelType selector,
+            Configuration configuration) throws KNXFormatException {
+        Set<GroupAddress> addresses = new HashSet<>();
+        addresses.addAll(selector.getReadAddresses(configuration));
+        addresses.addAll(selector.getWriteAddresses(configuration));
+        addresses.addAll(selector.getListenAddresses(configuration));
+
+        boolean control = isControl(channelUID);
+        List<GroupAddressIndex.Entry> entries = new ArrayList<>();
+        for (GroupAddress groupAddress : addresses) {
+            InboundSpec listenSpec = selector.getListenSpec(configuration, groupAddress);
+            boolean respondsToRead = control
+                    && selector.getResponseSpec(configuration, groupAddress, RefreshType.REFRESH) != null;
+            if (listenSpec != null || respondsToRead) {
+                entries.add(new GroupAddressIndex.Entry(groupAddress, this, channelUID, listenSpec, respondsToRead));
+            }
+        }
+        return entries;
     }
 
     @Override
@@ -130,17 +155,11 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
         }
     }
 
-    private void forAllChannels(ChannelFunction function) {
-        for (Channel channel : getThing().getChannels()) {
-            withKNXType(channel, function);
-        }
-    }
-
     @Override
     public void channelLinked(ChannelUID channelUID) {
         if (!isControl(channelUID)) {
             withKNXType(channelUID, (selector, configuration) -> {
-                scheduleRead(selector, configuration);
+                scheduleRead(channelUID, selector, configuration);
             });
         }
     }
@@ -151,57 +170,59 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
         for (Channel channel : getThing().getChannels()) {
             if (isLinked(channel.getUID().getId()) && !isControl(channel.getUID())) {
                 withKNXType(channel, (selector, configuration) -> {
-                    scheduleRead(selector, configuration);
+                    scheduleRead(channel.getUID(), selector, configuration);
                 });
             }
         }
     }
 
-    private void scheduleRead(KNXChannelType selector, Configuration configuration) throws KNXFormatException {
+    private void scheduleRead(ChannelUID channelUID, KNXChannelType selector, Configuration configuration)
+            throws KNXFormatException {
         List<InboundSpec> readSpecs = selector.getReadSpec(configuration);
         for (InboundSpec readSpec : readSpecs) {
             for (GroupAddress groupAddress : readSpec.getGroupAddresses()) {
-                scheduleReadJob(groupAddress, readSpec.getDPT());
+                scheduleReadJob(channelUID, groupAddress, readSpec.getDPT());
             }
         }
     }
 
-    private void scheduleReadJob(GroupAddress groupAddress, String dpt) {
+    private void scheduleReadJob(ChannelUID channelUID, GroupAddress groupAddress, String dpt) {
+        // An item waiting for its state goes first, the periodic reads only refresh what is known already
+        boolean prioritized = isLinked(channelUID);
         if (readInterval > 0) {
             ScheduledFuture<?> future = readFutures.get(groupAddress);
             if (future == null || future.isDone() || future.isCancelled()) {
-                future = getScheduler().scheduleWithFixedDelay(() -> readDatapoint(groupAddress, dpt), 0, readInterval,
-                        TimeUnit.SECONDS);
+                getScheduler().submit(() -> readDatapoint(groupAddress, dpt, prioritized));
+                future = getScheduler().scheduleWithFixedDelay(() -> readDatapoint(groupAddress, dpt, false),
+                        readInterval, readInterval, TimeUnit.SECONDS);
                 readFutures.put(groupAddress, future);
             }
         } else {
-            getScheduler().submit(() -> readDatapoint(groupAddress, dpt));
+            getScheduler().submit(() -> readDatapoint(groupAddress, dpt, prioritized));
         }
     }
 
-    private void readDatapoint(GroupAddress groupAddress, String dpt) {
+    private void readDatapoint(GroupAddress groupAddress, String dpt, boolean prioritized) {
         if (getClient().isConnected()) {
             if (!isDPTSupported(dpt)) {
                 logger.warn("DPT '{}' is not supported by the KNX binding", dpt);
                 return;
             }
             Datapoint datapoint = new CommandDP(groupAddress, getThing().getUID().toString(), 0, dpt);
-            getClient().readDatapoint(datapoint);
+            getClient().readDatapoint(datapoint, prioritized);
         }
     }
 
-    @Override
-    public boolean listensTo(GroupAddress destination) {
-        return groupAddresses.contains(destination);
-    }
-
-    /** KNXIO remember controls, removeIf may be null */
-    @SuppressWarnings("null")
+    /** KNXIO remember controls */
     private void rememberRespondingSpec(OutboundSpec commandSpec, boolean add) {
         GroupAddress ga = commandSpec.getGroupAddress();
-        groupAddressesRespondingSpec.removeIf(spec -> spec.getGroupAddress().equals(ga));
+        if (ga == null) {
+            return;
+        }
         if (add) {
-            groupAddressesRespondingSpec.add(commandSpec);
+            groupAddressesRespondingSpec.put(ga, commandSpec);
+        } else {
+            groupAddressesRespondingSpec.remove(ga);
         }
         logger.trace("rememberRespondingSpec handled commandSpec for '{}' size '{}' added '{}'", ga,
                 groupAddressesRespondingSpec.size(), add);
@@ -214,7 +235,7 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
         if (command instanceof RefreshType && !isControl(channelUID)) {
             logger.debug("Refreshing channel '{}'", channelUID);
             withKNXType(channelUID, (selector, configuration) -> {
-                scheduleRead(selector, configuration);
+                scheduleRead(channelUID, selector, configuration);
             });
         } else {
             switch (channelUID.getId()) {
@@ -259,24 +280,16 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
     }
 
     /** KNXIO */
-    private void sendGroupValueResponse(Channel channel, GroupAddress destination) {
-        Set<GroupAddress> rsa = getKNXChannelType(channel).getWriteAddresses(channel.getConfiguration());
-        if (rsa.size() > 0) {
-            logger.trace("onGroupRead size '{}'", rsa.size());
-            withKNXType(channel, (selector, configuration) -> {
-                Optional<OutboundSpec> os = groupAddressesRespondingSpec.stream().filter(spec -> {
-                    GroupAddress groupAddress = spec.getGroupAddress();
-                    if (groupAddress != null) {
-                        return groupAddress.equals(destination);
-                    }
-                    return false;
-                }).findFirst();
-                if (os.isPresent()) {
-                    logger.trace("onGroupRead respondToKNX '{}'", os.get().getGroupAddress());
-                    /** KNXIO: sending real "GroupValueResponse" to the KNX bus. */
-                    getClient().respondToKNX(os.get());
-                }
-            });
+    private void sendGroupValueResponse(ChannelUID channelUID, GroupAddress destination) {
+        OutboundSpec responseSpec = groupAddressesRespondingSpec.get(destination);
+        if (responseSpec != null) {
+            logger.trace("onGroupRead respondToKNX '{}'", destination);
+            try {
+                /** KNXIO: sending real "GroupValueResponse" to the KNX bus. */
+                getClient().respondToKNX(responseSpec);
+            } catch (KNXException e) {
+                logger.warn("An error occurred on channel {}: {}", channelUID, e.getMessage(), e);
+            }
         }
     }
 
@@ -284,73 +297,59 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
      * KNXIO, extended with the ability to respond on "GroupValueRead" telegrams with "GroupValueResponse" telegram
      */
     @Override
-    public void onGroupRead(AbstractKNXClient client, IndividualAddress source, GroupAddress destination, byte[] asdu) {
+    public void onGroupRead(AbstractKNXClient client, IndividualAddress source, GroupAddress destination,
+            ChannelUID channelUID) {
         logger.trace("onGroupRead Thing '{}' received a GroupValueRead telegram from '{}' for destination '{}'",
                 getThing().getUID(), source, destination);
-        for (Channel channel : getThing().getChannels()) {
-            if (isControl(channel.getUID())) {
-                withKNXType(channel, (selector, configuration) -> {
-                    OutboundSpec responseSpec = selector.getResponseSpec(configuration, destination,
-                            RefreshType.REFRESH);
-                    if (responseSpec != null) {
-                        logger.trace("onGroupRead isControl -> postCommand");
-                        // This event should be sent to KNX as GroupValueResponse immediately.
-                        sendGroupValueResponse(channel, destination);
-                        // Send REFRESH to openHAB to get this event for scripting with postCommand
-                        // and remember to ignore/block this REFRESH to be sent back to KNX as GroupValueWrite after
-                        // postCommand is done!
-                        groupAddressesWriteBlockedOnce.add(destination);
-                        postCommand(channel.getUID().getId(), RefreshType.REFRESH);
-                    }
-                });
-            }
-        }
+        logger.trace("onGroupRead isControl -> postCommand");
+        // This event should be sent to KNX as GroupValueResponse immediately.
+        sendGroupValueResponse(channelUID, destination);
+        // Send REFRESH to openHAB to get this event for scripting with postCommand
+        // and remember to ignore/block this REFRESH to be sent back to KNX as GroupValueWrite after
+        // postCommand is done!
+        groupAddressesWriteBlockedOnce.add(destination);
+        postCommand(channelUID, RefreshType.REFRESH);
     }
 
     @Override
     public void onGroupReadResponse(AbstractKNXClient client, IndividualAddress source, GroupAddress destination,
-            byte[] asdu) {
+            byte[] asdu, ChannelUID channelUID, InboundSpec listenSpec) {
         // GroupValueResponses are treated the same as GroupValueWrite telegrams
         logger.trace("onGroupReadResponse Thing '{}' processes a GroupValueResponse telegram for destination '{}'",
                 getThing().getUID(), destination);
-        onGroupWrite(client, source, destination, asdu);
+        onGroupWrite(client, source, destination, asdu, channelUID, listenSpec);
     }
 
     /**
      * KNXIO, here value changes are set, coming from KNX OR openHAB.
      */
     @Override
-    public void onGroupWrite(AbstractKNXClient client, IndividualAddress source, GroupAddress destination,
-            byte[] asdu) {
-        logger.debug("onGroupWrite Thing '{}' received a GroupValueWrite telegram from '{}' for destination '{}'",
-                getThing().getUID(), source, destination);
-
-        for (Channel channel : getThing().getChannels()) {
+    public void onGroupWrite(AbstractKNXClient client, IndividualAddress source, GroupAddress destination, byte[] asdu,
+            ChannelUID channelUID, InboundSpec listenSpec) {
+        logger.debug(
+                "onGroupWrite Thing '{}' received a GroupValueWrite telegram from '{}' for destination '{}' for channel '{}'",
+                getThing().getUID(), source, destination, channelUID);
+        Channel channel = getThing().getChannel(channelUID.getId());
+        if (channel == null) {
+            return;
+        }
+        /**
+         * Remember current KNXIO outboundSpec only if it is a control channel.
+         */
+        if (isControl(channelUID)) {
+            logger.trace("onGroupWrite isControl");
             withKNXType(channel, (selector, configuration) -> {
-                InboundSpec listenSpec = selector.getListenSpec(configuration, destination);
-                if (listenSpec != null) {
-                    logger.trace(
-                            "onGroupWrite Thing '{}' processes a GroupValueWrite telegram for destination '{}' for channel '{}'",
-                            getThing().getUID(), destination, channel.getUID());
-                    /**
-                     * Remember current KNXIO outboundSpec only if it is a control channel.
-                     */
-                    if (isControl(channel.getUID())) {
-                        logger.trace("onGroupWrite isControl");
-                        Type type = typeHelper.toType(
-                                new CommandDP(destination, getThing().getUID().toString(), 0, listenSpec.getDPT()),
-                                asdu);
-                        if (type != null) {
-                            OutboundSpec commandSpec = selector.getCommandSpec(configuration, typeHelper, type);
-                            if (commandSpec != null) {
-                                rememberRespondingSpec(commandSpec, true);
-                            }
-                        }
+                Type type = typeHelper.toType(
+                        new CommandDP(destination, getThing().getUID().toString(), 0, listenSpec.getDPT()), asdu);
+                if (type != null) {
+                    OutboundSpec commandSpec = selector.getCommandSpec(configuration, typeHelper, type);
+                    if (commandSpec != null) {
+                        rememberRespondingSpec(commandSpec, true);
                     }
-                    processDataReceived(destination, asdu, listenSpec, channel.getUID());
                 }
             });
         }
+        processDataReceived(destination, asdu, listenSpec, channelUID);
     }
 
     private void processDataReceived(GroupAddress destination, byte[] asdu, InboundSpec listenSpec,
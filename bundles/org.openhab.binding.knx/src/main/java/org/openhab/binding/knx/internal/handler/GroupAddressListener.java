@@ -14,24 +14,17 @@ package org.openhab.binding.knx.internal.handler;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.openhab.binding.knx.internal.client.BusMessageListener;
-
-import tuwien.auto.calimero.GroupAddress;
+import org.openhab.binding.knx.internal.client.KNXClient;
 
 /**
  * The {@link GroupAddressListener} is an interface that needs to be
  * implemented by classes that want to listen to Group Addresses
- * on the KNX bus
+ * on the KNX bus. The Group Addresses are registered per channel
+ * with {@link KNXClient#registerChannel}.
  *
  * @author Karel Goderis - Initial contribution
  */
 @NonNullByDefault
 public interface GroupAddressListener extends BusMessageListener {
 
-    /**
-     * Called to verify if the GroupAddressListener has an interest in the given GroupAddress
-     *
-     * @param destination
-     */
-    public boolean listensTo(GroupAddress destination);
-
 }
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.types.Type;
+import org.openhab.binding.knx.internal.dpt.DPTBinaryCodec;
+import org.openhab.binding.knx.internal.dpt.KNXCoreTypeMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.KNXException;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.datapoint.Datapoint;
+import tuwien.auto.calimero.dptxlator.DPTXlator;
+import tuwien.auto.calimero.dptxlator.TranslatorTypes;
+
+/**
+ * Compares the conversion of telegram data with the string values of the Calimero translators in
+ * {@link KNXCoreTypeMapper} against the {@link DPTBinaryCodec}, for both directions.
+ *
+ * The translator path of an outbound value includes parsing the string value into the translator, as it happens when
+ * the value is written to the bus.
+ *
+ * The datapoint types cover one main type each of the codec; types without a codec are not measured. Run the
+ * {@code main} method from the IDE.
+ *
+ * @author agent - Initial contribution
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DPTCodecBenchmark {
+
+    @Param({ "1.001", "5.001", "7.001", "9.001", "13.010", "14.068", "232.600" })
+    public String dpt;
+
+    private final KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+    private final DPTBinaryCodec codec = new DPTBinaryCodec(mapper::toTypeClass);
+
+    private Datapoint datapoint;
+    private byte[] asdu;
+    private Type type;
+
+    @Setup
+    public void setUp() {
+        datapoint = new CommandDP(new GroupAddress(1, 2, 3), "benchmark", 0, dpt);
+        switch (dpt) {
+            case "1.001":
+                type = OnOffType.ON;
+                break;
+            case "5.001":
+                type = new PercentType(42);
+                break;
+            case "232.600":
+                type = HSBType.fromRGB(12, 200, 99);
+                break;
+            case "7.001":
+            case "13.010":
+                type = new DecimalType(4711);
+                break;
+            default:
+                type = new DecimalType("21.5");
+                break;
+        }
+        asdu = codec.encode(type, dpt);
+        if (asdu == null) {
+            throw new IllegalStateException("The codec does not support " + dpt);
+        }
+    }
+
+    @Benchmark
+    public Type decodeWithTranslator() {
+        return mapper.toTypeWithTranslator(datapoint, asdu);
+    }
+
+    @Benchmark
+    public Type decodeWithCodec() {
+        return codec.decode(dpt, asdu);
+    }
+
+    @Benchmark
+    public byte[] encodeWithTranslator() throws KNXException {
+        DPTXlator translator = TranslatorTypes.createTranslator(0, dpt);
+        translator.setValue(mapper.toDPTValue(type, dpt));
+        return translator.getData();
+    }
+
+    @Benchmark
+    public byte[] encodeWithCodec() {
+        return codec.encode(type, dpt);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DPTCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.junit.Test;
+import org.openhab.binding.knx.internal.handler.GroupAddressListener;
+
+import tuwien.auto.calimero.GroupAddress;
+
+/**
+ * Tests cases for {@link GroupAddressIndex}.
+ *
+ * @author agent - Initial contribution
+ */
+public class GroupAddressIndexTest {
+
+    private final GroupAddressIndex index = new GroupAddressIndex();
+    private final GroupAddressListener thing1 = mock(GroupAddressListener.class);
+    private final GroupAddressListener thing2 = mock(GroupAddressListener.class);
+    private final ChannelUID switch1 = new ChannelUID("knx:device:bridge:thing1:switch");
+    private final ChannelUID dimmer1 = new ChannelUID("knx:device:bridge:thing1:dimmer");
+    private final ChannelUID switch2 = new ChannelUID("knx:device:bridge:thing2:switch");
+    private final GroupAddress ga1 = new GroupAddress(1, 0, 1);
+    private final GroupAddress ga2 = new GroupAddress(1, 0, 2);
+    private final GroupAddress ga3 = new GroupAddress(1, 0, 3);
+
+    private GroupAddressIndex.Entry entry(GroupAddress groupAddress, GroupAddressListener listener,
+            ChannelUID channelUID) {
+        return new GroupAddressIndex.Entry(groupAddress, listener, channelUID, null, false);
+    }
+
+    @Test
+    public void dispatchesToRegisteredChannels() {
+        GroupAddressIndex.Entry switch1Entry = entry(ga1, thing1, switch1);
+        GroupAddressIndex.Entry switch2Entry = entry(ga1, thing2, switch2);
+        index.registerChannel(thing1, switch1, Arrays.asList(switch1Entry, entry(ga2, thing1, switch1)));
+        index.registerChannel(thing1, dimmer1, Collections.singletonList(entry(ga2, thing1, dimmer1)));
+        index.registerChannel(thing2, switch2, Collections.singletonList(switch2Entry));
+
+        assertEquals(Arrays.asList(switch1Entry, switch2Entry), index.get(ga1));
+        assertEquals(2, index.get(ga2).size());
+        assertTrue(index.get(ga3).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void registrationReplacesPreviousOne() {
+        index.registerChannel(thing1, switch1, Arrays.asList(entry(ga1, thing1, switch1), entry(ga2, thing1, switch1)));
+        index.registerChannel(thing1, switch1, Collections.singletonList(entry(ga3, thing1, switch1)));
+
+        assertTrue(index.get(ga1).isEmpty());
+        assertTrue(index.get(ga2).isEmpty());
+        assertEquals(1, index.get(ga3).size());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void unregisterChannel() {
+        index.registerChannel(thing1, switch1, Collections.singletonList(entry(ga1, thing1, switch1)));
+        index.registerChannel(thing1, dimmer1, Collections.singletonList(entry(ga1, thing1, dimmer1)));
+
+        index.unregisterChannel(thing1, switch1);
+        List<GroupAddressIndex.Entry> entries = index.get(ga1);
+        assertEquals(1, entries.size());
+        assertEquals(dimmer1, entries.get(0).getChannelUID());
+    }
+
+    @Test
+    public void unregisterListener() {
+        index.registerChannel(thing1, switch1, Collections.singletonList(entry(ga1, thing1, switch1)));
+        index.registerChannel(thing1, dimmer1, Collections.singletonList(entry(ga2, thing1, dimmer1)));
+        index.registerChannel(thing2, switch2, Collections.singletonList(entry(ga1, thing2, switch2)));
+
+        assertTrue(index.unregisterListener(thing1));
+        assertFalse(index.unregisterListener(thing1));
+        assertEquals(1, index.get(ga1).size());
+        assertTrue(index.get(ga2).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEntriesOfOtherChannels() {
+        index.registerChannel(thing1, switch1, Collections.singletonList(entry(ga1, thing1, dimmer1)));
+    }
+
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.datapoint.Datapoint;
+
+/**
+ * Tests cases for {@link ReadScheduler}.
+ *
+ * @author agent - Initial contribution
+ */
+public class ReadSchedulerTest {
+
+    private static final int READING_PAUSE = 50;
+    private static final long RESPONSE_TIMEOUT = 10000;
+
+    private final ReadScheduler scheduler = new ReadScheduler(READING_PAUSE, RESPONSE_TIMEOUT, 3);
+
+    private Datapoint datapoint(int subGroup, String thing) {
+        return new CommandDP(new GroupAddress(1, 0, subGroup), thing, 0, "1.001");
+    }
+
+    private GroupAddress next(long now) {
+        ReadDatapoint datapoint = scheduler.next(now);
+        assertNotNull(datapoint);
+        scheduler.confirmed(datapoint, now);
+        return (GroupAddress) datapoint.getDatapoint().getMainAddress();
+    }
+
+    @Test
+    public void deduplicatesGroupAddressesOfAllThings() {
+        assertTrue(scheduler.add(datapoint(1, "thing1"), false));
+        assertFalse(scheduler.add(datapoint(1, "thing2"), false));
+        assertEquals(1, scheduler.size());
+
+        next(0);
+        assertFalse("Waiting for the response", scheduler.add(datapoint(1, "thing1"), false));
+        assertEquals(1, scheduler.size());
+    }
+
+    @Test
+    public void prioritizedReadsGoFirst() {
+        scheduler.add(datapoint(1, "thing1"), false);
+        scheduler.add(datapoint(2, "thing1"), false);
+        scheduler.add(datapoint(3, "thing1"), true);
+        assertTrue("Raises the priority", scheduler.add(datapoint(2, "thing2"), true));
+
+        assertEquals(new GroupAddress(1, 0, 3), next(0));
+        assertEquals(new GroupAddress(1, 0, 2), next(READING_PAUSE));
+        assertEquals(new GroupAddress(1, 0, 1), next(2 * READING_PAUSE));
+    }
+
+    @Test
+    public void valueReceivedOnTheBusDropsTheRead() {
+        scheduler.add(datapoint(1, "thing1"), false);
+        scheduler.add(datapoint(2, "thing1"), true);
+        scheduler.valueReceived(new GroupAddress(1, 0, 2));
+
+        assertEquals(new GroupAddress(1, 0, 1), next(0));
+        scheduler.valueReceived(new GroupAddress(1, 0, 1));
+        assertEquals(0, scheduler.size());
+        assertNull(scheduler.next(RESPONSE_TIMEOUT * 2));
+    }
+
+    @Test
+    public void pausesBetweenReads() {
+        scheduler.add(datapoint(1, "thing1"), false);
+        scheduler.add(datapoint(2, "thing1"), false);
+
+        next(0);
+        assertNull(scheduler.next(READING_PAUSE - 1));
+        assertNotNull(scheduler.next(READING_PAUSE));
+    }
+
+    @Test
+    public void adaptsThePauseToTheConfirmationLatency() {
+        long now = 0;
+        for (int i = 0; i < 100; i++) {
+            scheduler.add(datapoint(i, "thing1"), false);
+            ReadDatapoint datapoint = scheduler.next(now);
+            assertNotNull(datapoint);
+            now += 400;
+            scheduler.confirmed(datapoint, now);
+            scheduler.valueReceived((GroupAddress) datapoint.getDatapoint().getMainAddress());
+            now += scheduler.getPause();
+        }
+        assertEquals(400, scheduler.getPause(), 10);
+    }
+
+    @Test
+    public void limitsUnansweredReads() {
+        for (int i = 0; i <= ReadScheduler.MAX_UNANSWERED_READS; i++) {
+            scheduler.add(datapoint(i, "thing1"), false);
+        }
+        long now = 0;
+        for (int i = 0; i < ReadScheduler.MAX_UNANSWERED_READS; i++) {
+            next(now);
+            now += READING_PAUSE;
+        }
+        assertNull(scheduler.next(now));
+        scheduler.valueReceived(new GroupAddress(1, 0, 0));
+        assertEquals(new GroupAddress(1, 0, ReadScheduler.MAX_UNANSWERED_READS), next(now));
+    }
+
+    @Test
+    public void retriesUnansweredReadsUntilTheLimit() {
+        scheduler.add(datapoint(1, "thing1"), false);
+        long now = 0;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(new GroupAddress(1, 0, 1), next(now));
+            now += RESPONSE_TIMEOUT;
+        }
+        assertNull(scheduler.next(now));
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    public void retriesFailedReads() {
+        scheduler.add(datapoint(1, "thing1"), false);
+        ReadDatapoint datapoint = scheduler.next(0);
+        assertNotNull(datapoint);
+        assertTrue(scheduler.failed(datapoint, 0));
+        assertEquals(1, scheduler.size());
+        assertNull(scheduler.next(READING_PAUSE - 1));
+        assertSame(datapoint, scheduler.next(READING_PAUSE));
+    }
+
+}
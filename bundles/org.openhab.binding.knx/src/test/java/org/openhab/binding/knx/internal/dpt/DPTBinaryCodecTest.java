@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.dpt;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.StopMoveType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.Type;
+import org.junit.Test;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.dptxlator.DPT;
+import tuwien.auto.calimero.dptxlator.DPTXlator;
+import tuwien.auto.calimero.dptxlator.TranslatorTypes;
+
+/**
+ * Tests cases for {@link DPTBinaryCodec}, which has to give the same results as the translator path of the
+ * {@link KNXCoreTypeMapper}.
+ *
+ * @author agent - Initial contribution
+ */
+public class DPTBinaryCodecTest {
+
+    private final KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+    private final DPTBinaryCodec codec = new DPTBinaryCodec(mapper::toTypeClass);
+
+    private Type translate(String dpt, byte[] asdu) {
+        return mapper.toTypeWithTranslator(new CommandDP(new GroupAddress(1, 2, 3), "test", 0, dpt), asdu);
+    }
+
+    private byte[] translate(Type type, String dpt) throws Exception {
+        DPTXlator translator = TranslatorTypes.createTranslator(0, dpt);
+        translator.setValue(mapper.toDPTValue(type, dpt));
+        return translator.getData();
+    }
+
+    private void assertSameAsTranslator(String dpt, byte[] asdu) {
+        Type expected = translate(dpt, asdu);
+        Type actual = codec.decode(dpt, asdu);
+        if (expected == null) {
+            assertNull(dpt + " " + asdu[0], actual);
+        } else {
+            assertEquals(dpt + " " + asdu[0], expected, actual);
+        }
+    }
+
+    private void assertCloseToTranslator(String dpt, byte[] asdu) throws Exception {
+        DecimalType expected = (DecimalType) translate(dpt, asdu);
+        Type actual = codec.decode(dpt, asdu);
+        if (expected == null) {
+            assertNull(dpt, actual);
+            return;
+        }
+        if (actual == null) {
+            // Values outside of the range of the datapoint type are left to the translator path
+            DPT type = TranslatorTypes.createTranslator(0, dpt).getType();
+            double value = expected.doubleValue();
+            assertTrue(dpt + " " + value, value < Double.parseDouble(type.getLowerValue().trim())
+                    || value > Double.parseDouble(type.getUpperValue().trim()));
+            return;
+        }
+        assertEquals(expected.getClass(), actual.getClass());
+        double value = expected.doubleValue();
+        assertEquals(dpt, value, ((DecimalType) actual).doubleValue(), Math.abs(value) * 1e-5 + 1e-9);
+    }
+
+    @Test
+    public void decodeBoolean() {
+        for (String dpt : new String[] { "1.001", "1.002", "1.008", "1.009", "1.010", "1.019", "1.022" }) {
+            assertSameAsTranslator(dpt, new byte[] { 0 });
+            assertSameAsTranslator(dpt, new byte[] { 1 });
+        }
+        assertEquals(UpDownType.DOWN, codec.decode("1.008", new byte[] { 1 }));
+    }
+
+    @Test
+    public void decodeUnsigned8() {
+        for (int i = 0; i < 256; i++) {
+            byte[] asdu = new byte[] { (byte) i };
+            assertSameAsTranslator("5.001", asdu);
+            assertSameAsTranslator("5.003", asdu);
+            assertSameAsTranslator("5.010", asdu);
+            if (i <= 100) {
+                assertSameAsTranslator("5.004", asdu);
+            }
+        }
+        assertEquals(PercentType.HUNDRED, codec.decode("5.001", new byte[] { (byte) 255 }));
+    }
+
+    @Test
+    public void decodeUnsigned16AndSigned32() {
+        for (int i = 0; i < 65536; i += 257) {
+            assertSameAsTranslator("7.001", new byte[] { (byte) (i >> 8), (byte) i });
+        }
+        for (int value : new int[] { 0, 1, -1, 1000, Integer.MAX_VALUE, Integer.MIN_VALUE }) {
+            assertSameAsTranslator("13.010",
+                    new byte[] { (byte) (value >> 24), (byte) (value >> 16), (byte) (value >> 8), (byte) value });
+        }
+    }
+
+    @Test
+    public void decodeFloat16() throws Exception {
+        for (int i = 0; i < 65536; i++) {
+            assertCloseToTranslator("9.001", new byte[] { (byte) (i >> 8), (byte) i });
+        }
+        assertEquals(new DecimalType("21.5"), codec.decode("9.001", new byte[] { 0x0C, 0x33 }));
+        assertEquals(new DecimalType("-30"), codec.decode("9.001", new byte[] { (byte) 0x8A, 0x24 }));
+        // -300 is below absolute zero, left to the translator path
+        assertNull(codec.decode("9.001", new byte[] { (byte) 0xA0, (byte) 0xAD }));
+    }
+
+    @Test
+    public void decodeFloat32() throws Exception {
+        for (float value : new float[] { 0, 1.5f, -273.15f, 3.14159f, 99999.9f, 123456.7f, -3.40282347e+38f }) {
+            int bits = Float.floatToIntBits(value);
+            assertCloseToTranslator("14.068",
+                    new byte[] { (byte) (bits >> 24), (byte) (bits >> 16), (byte) (bits >> 8), (byte) bits });
+        }
+    }
+
+    @Test
+    public void decodeRGB() {
+        assertSameAsTranslator("232.600", new byte[] { (byte) 255, 0, 0 });
+        assertSameAsTranslator("232.600", new byte[] { 12, (byte) 200, 99 });
+    }
+
+    @Test
+    public void encode() throws Exception {
+        Object[][] values = { { OnOffType.ON, "1.001" }, { OnOffType.OFF, "1.001" }, { UpDownType.DOWN, "1.008" },
+                { OpenClosedType.CLOSED, "1.009" }, { StopMoveType.MOVE, "1.010" }, { new PercentType(50), "5.001" },
+                { new DecimalType(50), "5.001" }, { new DecimalType(180), "5.003" }, { new DecimalType(42), "5.010" },
+                { new DecimalType(4711), "7.001" }, { new DecimalType("21.5"), "9.001" },
+                { new DecimalType(-30), "9.001" }, { new DecimalType(0), "9.001" }, { new PercentType(33), "9.007" },
+                { new DecimalType(-123456), "13.010" }, { new DecimalType("3.25"), "14.068" },
+                { HSBType.fromRGB(12, 200, 99), "232.600" } };
+        for (Object[] value : values) {
+            Type type = (Type) value[0];
+            String dpt = (String) value[1];
+            assertArrayEquals(type + " " + dpt, translate(type, dpt), codec.encode(type, dpt));
+        }
+    }
+
+    @Test
+    public void encodeFloat16RoundTrip() {
+        for (double value = -670760; value <= 670760; value += 97.3) {
+            byte[] data = codec.encode(new DecimalType(BigDecimal.valueOf(value)), "9.002");
+            assertNotNull(data);
+            double decoded = ((DecimalType) codec.decode("9.002", data)).doubleValue();
+            // The resolution is 0.01 * 2^exponent
+            assertEquals(value, decoded, Math.max(0.01, Math.abs(value) / 2048));
+        }
+    }
+
+    @Test
+    public void unsupportedValuesAreLeftToTheTranslator() {
+        assertNull(codec.encode(new DecimalType("3.5"), "5.010"));
+        assertNull(codec.encode(new DecimalType(101), "5.001"));
+        assertNull(codec.encode(new DecimalType(-274), "9.001"));
+        assertNull(codec.encode(OnOffType.ON, "5.001"));
+        assertNull(codec.decode("9.001", new byte[] { 0x0C }));
+    }
+
+    @Test
+    public void unsupportedDatapointTypes() {
+        assertTrue(codec.isSupported("9.001"));
+        assertFalse(codec.isSupported("7.003"));
+        assertFalse(codec.isSupported("16.001"));
+        assertFalse(codec.isSupported("9.999"));
+        assertFalse(codec.isSupported("invalid"));
+    }
+
+    @Test
+    public void mapperUsesCodec() {
+        assertEquals(OnOffType.ON,
+                mapper.toType(new CommandDP(new GroupAddress(1, 2, 3), "test", 0, "1.001"), new byte[] { 1 }));
+        assertArrayEquals(new byte[] { 1 }, mapper.toDPTData(OnOffType.ON, "1.001"));
+        assertNull(mapper.toDPTData(new DecimalType(3), "17.001"));
+    }
+
+}
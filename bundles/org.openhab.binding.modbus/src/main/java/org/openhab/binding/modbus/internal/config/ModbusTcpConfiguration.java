@@ -33,6 +33,7 @@ public class ModbusTcpConfiguration {
     private int reconnectAfterMillis;
     private int connectTimeoutMillis;
     private boolean enableDiscovery;
+    private int maxInFlightTransactions = 1;
 
     public @Nullable String getHost() {
         return host;
@@ -98,6 +99,14 @@ public class ModbusTcpConfiguration {
         this.connectTimeoutMillis = connectTimeoutMillis;
     }
 
+    public int getMaxInFlightTransactions() {
+        return maxInFlightTransactions;
+    }
+
+    public void setMaxInFlightTransactions(int maxInFlightTransactions) {
+        this.maxInFlightTransactions = maxInFlightTransactions;
+    }
+
     public boolean isDiscoveryEnabled() {
         return enableDiscovery;
     }
@@ -150,6 +150,13 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
     private volatile Map<String, ChannelUID> channelCache = new HashMap<>();
     private volatile Map<ChannelUID, Long> channelLastUpdated = new HashMap<>(NUMER_OF_CHANNELS_HINT);
     private volatile Map<ChannelUID, State> channelLastState = new HashMap<>(NUMER_OF_CHANNELS_HINT);
+    /**
+     * Raw value of the last processed data. Unchanged data is not processed again until some channel is due for the
+     * update of unchanged value (see {@link #updateUnchangedValuesEveryMillis}).
+     */
+    private volatile long lastRawValue;
+    private volatile boolean lastRawValueValid;
+    private volatile long unchangedValuesDueMillis;
 
     private volatile LocalDateTime lastStatusInfoUpdate = LocalDateTime.MIN;
     private volatile ThingStatusInfo statusInfo = new ThingStatusInfo(ThingStatus.UNKNOWN, ThingStatusDetail.NONE,
@@ -419,6 +426,14 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
         statusInfo = new ThingStatusInfo(ThingStatus.UNKNOWN, ThingStatusDetail.NONE, null);
         channelLastUpdated = new HashMap<>(NUMER_OF_CHANNELS_HINT);
         channelLastState = new HashMap<>(NUMER_OF_CHANNELS_HINT);
+        lastRawValueValid = false;
+    }
+
+    @Override
+    public synchronized void channelLinked(ChannelUID channelUID) {
+        super.channelLinked(channelUID);
+        // Make sure the newly linked channel is updated with next poll
+        lastRawValueValid = false;
     }
 
     @Override
@@ -680,8 +695,13 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
             int itemsPerRegister = 16 / readValueType.getBits();
             extractIndex = (readIndex.get() - pollStart) * itemsPerRegister + subIndex;
         }
-        numericState = ModbusBitUtilities.extractStateFromRegisters(registers, extractIndex, readValueType)
-                .map(state -> (State) state).orElse(UnDefType.UNDEF);
+        long rawValue = ModbusBitUtilities.extractRawValueFromRegisters(registers, extractIndex, readValueType);
+        if (isUnchanged(rawValue)) {
+            updateLastReadSuccess();
+            return;
+        }
+        numericState = ModbusBitUtilities.rawValueToState(rawValue, readValueType).map(state -> (State) state)
+                .orElse(UnDefType.UNDEF);
         boolean boolValue = !numericState.equals(DecimalType.ZERO);
         Map<ChannelUID, State> values = processUpdatedValue(numericState, boolValue);
         logger.debug(
@@ -698,6 +718,10 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
             return;
         }
         boolean boolValue = bits.getBit(readIndex.get() - pollStart);
+        if (isUnchanged(boolValue ? 1 : 0)) {
+            updateLastReadSuccess();
+            return;
+        }
         DecimalType numericState = boolValue ? new DecimalType(BigDecimal.ONE) : DecimalType.ZERO;
         Map<ChannelUID, State> values = processUpdatedValue(numericState, boolValue);
         logger.debug(
@@ -724,6 +748,8 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
                     getThing().getUID(), getThing().getLabel(), error.getClass().getName(), error.toString(),
                     error.getMessage(), error);
         }
+        // Process the data again after recovering from the error
+        lastRawValueValid = false;
         Map<@NonNull ChannelUID, @NonNull State> states = new HashMap<>();
         ChannelUID lastReadErrorUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_ERROR);
         if (isLinked(lastReadErrorUID)) {
@@ -794,6 +820,29 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
         }
     }
 
+    /**
+     * Check whether the polled data is unchanged, and can be skipped since no channel is due for update of unchanged
+     * value. The polled data is remembered for the next check.
+     *
+     * @param rawValue raw value of the polled data
+     * @return whether the data can be skipped
+     */
+    private boolean isUnchanged(long rawValue) {
+        boolean unchanged = lastRawValueValid && lastRawValue == rawValue && updateUnchangedValuesEveryMillis > 0L
+                && System.currentTimeMillis() <= unchangedValuesDueMillis;
+        lastRawValue = rawValue;
+        lastRawValueValid = true;
+        return unchanged;
+    }
+
+    private void updateLastReadSuccess() {
+        ChannelUID lastReadSuccessUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_SUCCESS);
+        if (isLinked(lastReadSuccessUID)) {
+            tryUpdateState(lastReadSuccessUID, new DateTimeType());
+            channelLastUpdated.put(lastReadSuccessUID, System.currentTimeMillis());
+        }
+    }
+
     /**
      * Update linked channels
      *
@@ -870,6 +919,11 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
             // Update channels that have not been updated in a while, or when their values has changed
             states.forEach((uid, state) -> updateExpiredChannel(now, uid, state));
             channelLastState = states;
+            // Unchanged data must be processed again when the first of the channels is due for update
+            ChannelUID lastReadSuccessUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_SUCCESS);
+            long firstUpdated = states.keySet().stream().filter(uid -> !uid.equals(lastReadSuccessUID))
+                    .mapToLong(uid -> channelLastUpdated.getOrDefault(uid, 0L)).min().orElse(now);
+            unchangedValuesDueMillis = firstUpdated + updateUnchangedValuesEveryMillis;
         }
     }
 
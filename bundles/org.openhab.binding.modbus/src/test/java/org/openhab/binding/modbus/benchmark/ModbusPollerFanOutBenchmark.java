@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.benchmark;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.openhab.binding.modbus.internal.ModbusBindingConstantsInternal.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.thing.Bridge;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingStatus;
+import org.eclipse.smarthome.core.thing.ThingStatusInfo;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.binding.BaseThingHandler;
+import org.eclipse.smarthome.core.thing.binding.ThingHandlerCallback;
+import org.eclipse.smarthome.core.thing.binding.builder.BridgeBuilder;
+import org.eclipse.smarthome.core.thing.binding.builder.ChannelBuilder;
+import org.eclipse.smarthome.core.thing.binding.builder.ThingBuilder;
+import org.openhab.binding.modbus.internal.handler.ModbusDataThingHandler;
+import org.openhab.binding.modbus.internal.handler.ModbusPollerThingHandlerImpl;
+import org.openhab.binding.modbus.internal.handler.ModbusTcpThingHandler;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusManager;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark of the poll response fan-out: a poller thing receives registers from the transport and passes them to its
+ * data things, which decode, transform and update their channels.
+ *
+ * The transport is replaced by a stand-in manager which only captures the registered poll task; the benchmark plays
+ * the slave by calling the poll callback with the response registers. Channel updates end in a stub callback, so the
+ * cost of the framework (event publishing) is not included.
+ *
+ * Compare the {@code changingData} variants to see the part of the cost that is skipped when the registers of a
+ * data thing did not change. Run the {@code main} method from the IDE.
+ *
+ * @author agent - Initial contribution
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModbusPollerFanOutBenchmark {
+
+    private static final String[] LINKED_CHANNELS = new String[] { CHANNEL_NUMBER, CHANNEL_SWITCH, CHANNEL_STRING,
+            CHANNEL_LAST_READ_SUCCESS };
+
+    /**
+     * Number of data things, each reading its own register
+     */
+    @Param({ "1", "10", "100" })
+    public int dataThings;
+
+    /**
+     * Whether each poll returns different data than the previous one
+     */
+    @Param({ "true", "false" })
+    public boolean changingData;
+
+    private ModbusReadCallback pollerCallback;
+    private ModbusReadRequestBlueprint request;
+    private ModbusRegisterArray[] responses = new ModbusRegisterArray[2];
+    private int pollIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<ThingUID, Bridge> bridges = new HashMap<>();
+        ThingHandlerCallback callback = mock(ThingHandlerCallback.class, withSettings().stubOnly());
+        doReturn(true).when(callback).isChannelLinked(any());
+        doAnswer(invocation -> bridges.get(invocation.getArgument(0))).when(callback).getBridge(any());
+        doAnswer(invocation -> {
+            ((Thing) invocation.getArgument(0)).setStatusInfo(invocation.getArgument(1));
+            return null;
+        }).when(callback).statusUpdated(any(), any());
+
+        // Transport stand-in
+        AtomicReference<PollTask> registeredPoll = new AtomicReference<>();
+        ModbusManager manager = mock(ModbusManager.class, withSettings().stubOnly());
+        doAnswer(invocation -> {
+            registeredPoll.set(invocation.getArgument(0));
+            return null;
+        }).when(manager).registerRegularPoll(any(), anyLong(), anyLong());
+
+        Configuration endpointConfig = new Configuration();
+        endpointConfig.put("host", "127.0.0.1");
+        endpointConfig.put("port", 502);
+        endpointConfig.put("id", 1);
+        Bridge endpoint = BridgeBuilder.create(THING_TYPE_MODBUS_TCP, new ThingUID(THING_TYPE_MODBUS_TCP, "endpoint"))
+                .withConfiguration(endpointConfig).build();
+        initialize(endpoint, new ModbusTcpThingHandler(endpoint, () -> manager), callback);
+        bridges.put(endpoint.getUID(), endpoint);
+
+        Configuration pollerConfig = new Configuration();
+        pollerConfig.put("refresh", 1000L);
+        pollerConfig.put("start", 0);
+        pollerConfig.put("length", dataThings);
+        pollerConfig.put("type", "holding");
+        Bridge poller = BridgeBuilder
+                .create(THING_TYPE_MODBUS_POLLER, new ThingUID(THING_TYPE_MODBUS_POLLER, "poller"))
+                .withBridge(endpoint.getUID()).withConfiguration(pollerConfig).build();
+        ModbusPollerThingHandlerImpl pollerHandler = new ModbusPollerThingHandlerImpl(poller, () -> manager);
+        initialize(poller, pollerHandler, callback);
+        bridges.put(poller.getUID(), poller);
+
+        for (int i = 0; i < dataThings; i++) {
+            ThingUID thingUID = new ThingUID(THING_TYPE_MODBUS_DATA, "data" + i);
+            Configuration dataConfig = new Configuration();
+            dataConfig.put("readStart", String.valueOf(i));
+            dataConfig.put("readValueType", "int16");
+            dataConfig.put("readTransform", "default");
+            ThingBuilder builder = ThingBuilder.create(THING_TYPE_MODBUS_DATA, thingUID).withBridge(poller.getUID())
+                    .withConfiguration(dataConfig);
+            for (String channelId : LINKED_CHANNELS) {
+                builder = builder.withChannel(ChannelBuilder.create(new ChannelUID(thingUID, channelId),
+                        channelId.equals(CHANNEL_LAST_READ_SUCCESS) ? "DateTime" : "Number").build());
+            }
+            Thing data = builder.build();
+            ModbusDataThingHandler dataHandler = new ModbusDataThingHandler(data);
+            initialize(data, dataHandler, callback);
+            pollerHandler.childHandlerInitialized(dataHandler, data);
+        }
+
+        PollTask pollTask = registeredPoll.get();
+        if (pollTask == null || pollTask.getCallback() == null) {
+            throw new IllegalStateException("Poller did not register poll task");
+        }
+        pollerCallback = pollTask.getCallback();
+        request = pollTask.getRequest();
+        int[] values = new int[dataThings];
+        int[] changedValues = new int[dataThings];
+        for (int i = 0; i < dataThings; i++) {
+            values[i] = i;
+            changedValues[i] = i + 1;
+        }
+        responses[0] = new BasicModbusRegisterArray(values);
+        responses[1] = new BasicModbusRegisterArray(changedValues);
+    }
+
+    private static void initialize(Thing thing, BaseThingHandler handler, ThingHandlerCallback callback) {
+        thing.setHandler(handler);
+        handler.setCallback(callback);
+        handler.initialize();
+        ThingStatusInfo status = thing.getStatusInfo();
+        if (status.getStatus() != ThingStatus.ONLINE) {
+            throw new IllegalStateException(String.format("Thing %s did not initialize: %s", thing.getUID(), status));
+        }
+    }
+
+    @Benchmark
+    public void onRegisters() {
+        ModbusRegisterArray registers = changingData ? responses[pollIndex++ & 1] : responses[0];
+        pollerCallback.onRegisters(request, registers);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ModbusPollerFanOutBenchmark.class.getSimpleName()).build()).run();
+    }
+}
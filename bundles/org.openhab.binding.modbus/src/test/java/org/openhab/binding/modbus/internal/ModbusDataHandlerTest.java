@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -768,6 +769,41 @@ public class ModbusDataHandlerTest extends JavaTest {
         // no datetime, conversion not possible without transformation
     }
 
+    @Test
+    public void testOnRegistersUnchangedDataIsNotProcessedAgain() throws InvalidSyntaxException {
+        AtomicInteger transformations = new AtomicInteger();
+        mockTransformation("MULTIPLY", new TransformationService() {
+
+            @Override
+            public String transform(String function, String source) throws TransformationException {
+                transformations.incrementAndGet();
+                return String.valueOf(Integer.parseInt(function) * Integer.parseInt(source));
+            }
+        });
+        ModbusDataThingHandler dataHandler = testReadHandlingGeneric(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS,
+                "0", "MULTIPLY(10)", ModbusConstants.ValueType.INT16, null,
+                new BasicModbusRegisterArray(
+                        new ModbusRegister[] { new BasicModbusRegister((byte) 0xff, (byte) 0xfd) }),
+                null, bundleContext);
+        int transformationsAfterFirstPoll = transformations.get();
+        assertThat(transformationsAfterFirstPoll > 0, is(true));
+
+        // Same data again: no transformations, no channel updates other than the last read success
+        dataHandler.onRegisters(Mockito.mock(ModbusReadRequestBlueprint.class), new BasicModbusRegisterArray(
+                new ModbusRegister[] { new BasicModbusRegister((byte) 0xff, (byte) 0xfd) }));
+        assertThat(transformations.get(), is(equalTo(transformationsAfterFirstPoll)));
+        assertSingleStateUpdate(dataHandler, CHANNEL_NUMBER, new DecimalType(-30));
+        assertThat(stateUpdates.get(dataHandler.getThing().getChannel(CHANNEL_LAST_READ_SUCCESS).getUID()).size(),
+                is(equalTo(2)));
+
+        // Changed data is processed
+        dataHandler.onRegisters(Mockito.mock(ModbusReadRequestBlueprint.class), new BasicModbusRegisterArray(
+                new ModbusRegister[] { new BasicModbusRegister((byte) 0xff, (byte) 0xfe) }));
+        assertThat(transformations.get() > transformationsAfterFirstPoll, is(true));
+        List<State> numberUpdates = stateUpdates.get(dataHandler.getThing().getChannel(CHANNEL_NUMBER).getUID());
+        assertThat(numberUpdates.get(numberUpdates.size() - 1), is(equalTo(new DecimalType(-20))));
+    }
+
     @Test
     public void testOnRegistersNaNFloatInRegisters() throws InvalidSyntaxException {
         ModbusDataThingHandler dataHandler = testReadHandlingGeneric(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS,
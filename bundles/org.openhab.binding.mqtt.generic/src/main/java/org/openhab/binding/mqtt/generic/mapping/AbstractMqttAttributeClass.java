@@ -188,8 +188,8 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
             };
         }
 
-        subscriptions = getAllFields(getFieldsOf().getClass()).stream().filter(AbstractMqttAttributeClass::filterField)
-                .map(this::mapFieldToSubscriber).collect(Collectors.toList());
+        subscriptions = FieldAccessor.of(getFieldsOf().getClass()).stream().map(this::mapFieldToSubscriber)
+                .collect(Collectors.toList());
 
         final CompletableFuture<?>[] futures = subscriptions.stream()
                 .map(m -> m.subscribeAndReceive(connection, timeout)).toArray(CompletableFuture[]::new);
@@ -226,26 +226,21 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
      * Maps the given field to a newly created {@link SubscribeFieldToMQTTtopic}.
      * Requires the scheduler of this class to be set.
      *
-     * @param field A field
+     * @param accessor The accessor of a field
      * @return A newly created {@link SubscribeFieldToMQTTtopic}.
      */
-    protected SubscribeFieldToMQTTtopic mapFieldToSubscriber(Field field) {
+    protected SubscribeFieldToMQTTtopic mapFieldToSubscriber(FieldAccessor accessor) {
         final ScheduledExecutorService scheduler = this.scheduler.get();
         if (scheduler == null) {
             throw new IllegalStateException("No scheduler set!");
         }
 
-        MandatoryField mandatoryField = field.getAnnotation(MandatoryField.class);
-        @SuppressWarnings("null")
-        boolean mandatory = mandatoryField != null;
+        final String fieldPrefix = accessor.topicPrefix;
+        final String localPrefix = (fieldPrefix != null) ? fieldPrefix : prefix;
 
-        TopicPrefix topicUsesPrefix = field.getAnnotation(TopicPrefix.class);
-        @SuppressWarnings("null")
-        String localPrefix = (topicUsesPrefix != null) ? topicUsesPrefix.value() : prefix;
+        final String topic = basetopic + "/" + localPrefix + accessor.field.getName();
 
-        final String topic = basetopic + "/" + localPrefix + field.getName();
-
-        return createSubscriber(scheduler, field, topic, mandatory);
+        return createSubscriber(scheduler, accessor.field, topic, accessor.mandatory);
     }
 
     /**
@@ -303,11 +298,11 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
         // Set field. It is not a reason to fail the future exceptionally if a field could not be set.
         // But at least issue a warning to the log.
         try {
-            field.set(getFieldsOf(), value);
+            FieldAccessor.of(field).set(getFieldsOf(), value);
             final boolean newComplete = !subscriptions.stream().anyMatch(s -> s.isMandatory() && !s.hasReceivedValue());
             attributeChangedListener.attributeChanged(field.getName(), value, connection, scheduler, newComplete);
             complete = newComplete;
-        } catch (IllegalArgumentException | IllegalAccessException e) {
+        } catch (IllegalArgumentException e) {
             logger.warn("Could not assign value {} to field {}", value, field, e);
         }
     }
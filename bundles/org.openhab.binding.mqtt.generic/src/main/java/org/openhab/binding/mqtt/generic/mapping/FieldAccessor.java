@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.mapping;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Everything needed to assign a received MQTT value to a field of an attribute class, computed once per field:
+ * A method handle setter, a converter specialized to the field type and the field annotations.
+ *
+ * The accessors of an attribute class are computed on first use of the class and shared by all its instances.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public final class FieldAccessor {
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final ClassValue<List<FieldAccessor>> ACCESSORS = new ClassValue<List<FieldAccessor>>() {
+        @Override
+        protected List<FieldAccessor> computeValue(@Nullable Class<?> type) {
+            if (type == null) {
+                return Collections.emptyList();
+            }
+            return Collections.unmodifiableList(AbstractMqttAttributeClass.getAllFields(type).stream()
+                    .filter(AbstractMqttAttributeClass::filterField).map(FieldAccessor::new)
+                    .collect(Collectors.toList()));
+        }
+    };
+
+    public final Field field;
+    public final boolean mandatory;
+    /** The topic prefix of the field annotation, or null if the class prefix applies */
+    public final @Nullable String topicPrefix;
+    private final @Nullable MQTTvalueTransform transform;
+    private final @Nullable MethodHandle setter;
+    private final Function<String, Object> converter;
+
+    private FieldAccessor(Field field) {
+        this.field = field;
+        this.mandatory = field.getAnnotation(MandatoryField.class) != null;
+        TopicPrefix topicPrefix = field.getAnnotation(TopicPrefix.class);
+        this.topicPrefix = topicPrefix != null ? topicPrefix.value() : null;
+        this.transform = field.getAnnotation(MQTTvalueTransform.class);
+        this.setter = createSetter(field);
+        this.converter = createConverter(field.getType(), transform);
+    }
+
+    /**
+     * Returns the accessors for all fields of the given attribute class (including super classes) that are neither
+     * final, transient nor static.
+     *
+     * @param type The attribute class
+     */
+    public static List<FieldAccessor> of(Class<?> type) {
+        return ACCESSORS.get(type);
+    }
+
+    /**
+     * Returns the accessor for the given field.
+     *
+     * @param field A field of an attribute class
+     */
+    public static FieldAccessor of(Field field) {
+        for (FieldAccessor accessor : of(field.getDeclaringClass())) {
+            if (accessor.field.equals(field)) {
+                return accessor;
+            }
+        }
+        // Fields that are not subscribed to by the attribute class are not cached
+        return new FieldAccessor(field);
+    }
+
+    private static @Nullable MethodHandle createSetter(Field field) {
+        MethodHandle setter;
+        try {
+            setter = MethodHandles.lookup().unreflectSetter(field);
+        } catch (IllegalAccessException e) {
+            try {
+                field.setAccessible(true);
+                setter = MethodHandles.lookup().unreflectSetter(field);
+            } catch (IllegalAccessException | SecurityException e2) {
+                // Reported when the field is set
+                return null;
+            }
+        }
+        return setter.asType(SETTER_TYPE);
+    }
+
+    private static Function<String, Object> createConverter(Class<?> type, @Nullable MQTTvalueTransform transform) {
+        if (type.isArray()) {
+            if (transform == null) {
+                return value -> {
+                    throw new IllegalArgumentException("No split character defined!");
+                };
+            }
+            final String splitCharacter = transform.splitCharacter();
+            return value -> value.split(splitCharacter);
+        } else if (type == Float.class || type == float.class) {
+            return Float::valueOf;
+        } else if (type == Double.class || type == double.class) {
+            return Double::valueOf;
+        } else if (type == Long.class || type == long.class) {
+            return Long::valueOf;
+        } else if (type == BigDecimal.class) {
+            return BigDecimal::new;
+        } else if (type == Integer.class || type == int.class) {
+            return Integer::valueOf;
+        } else if (type == Boolean.class || type == boolean.class) {
+            return Boolean::valueOf;
+        } else if (type.isEnum()) {
+            final Map<String, Object> constants = new HashMap<>();
+            for (Object constant : type.getEnumConstants()) {
+                constants.put(((Enum<?>) constant).name(), constant);
+            }
+            return value -> {
+                Object constant = constants.get(value);
+                if (constant == null) {
+                    throw new IllegalArgumentException("No enum constant " + type.getName() + "." + value);
+                }
+                return constant;
+            };
+        }
+        return value -> value;
+    }
+
+    /**
+     * Converts a received MQTT value to the type of the field, after applying the prefix and suffix of a
+     * {@link MQTTvalueTransform} annotation.
+     *
+     * @param value The received value
+     * @return The converted value
+     * @throws IllegalArgumentException If the value cannot be converted. This includes {@link NumberFormatException}.
+     */
+    public Object convert(String value) throws IllegalArgumentException {
+        final MQTTvalueTransform transform = this.transform;
+        if (transform != null) {
+            value = transform.prefix() + value + transform.suffix();
+        }
+        return converter.apply(value);
+    }
+
+    /**
+     * Assigns the given value to the field of the given object.
+     *
+     * @param object The object with the field
+     * @param value The new value
+     * @throws IllegalArgumentException If the value does not match the field type.
+     */
+    public void set(Object object, Object value) throws IllegalArgumentException {
+        final MethodHandle setter = this.setter;
+        if (setter == null) {
+            throw new IllegalArgumentException("Field " + field + " is not accessible");
+        }
+        try {
+            setter.invokeExact(object, value);
+        } catch (ClassCastException | NullPointerException e) {
+            throw new IllegalArgumentException("Can not set " + field + " to " + value, e);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -13,7 +13,6 @@
 package org.openhab.binding.mqtt.generic.mapping;
 
 import java.lang.reflect.Field;
-import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
@@ -41,6 +40,7 @@ public class SubscribeFieldToMQTTtopic implements MqttMessageSubscriber {
     private final Logger logger = LoggerFactory.getLogger(SubscribeFieldToMQTTtopic.class);
     protected CompletableFuture<@Nullable Void> future = new CompletableFuture<>();
     public final Field field;
+    public final FieldAccessor accessor;
     public final FieldChanged changeConsumer;
     public final String topic;
     private final ScheduledExecutorService scheduler;
@@ -69,55 +69,12 @@ public class SubscribeFieldToMQTTtopic implements MqttMessageSubscriber {
             String topic, boolean mandatory) {
         this.scheduler = scheduler;
         this.field = field;
+        this.accessor = FieldAccessor.of(field);
         this.changeConsumer = fieldChangeListener;
         this.topic = topic;
         this.mandatory = mandatory;
     }
 
-    static Object numberConvert(Object value, Class<?> type) throws IllegalArgumentException, NumberFormatException {
-        Object result = value;
-        // Handle the conversion case of BigDecimal to Float,Double,Long,Integer and the respective
-        // primitive types
-        String typeName = type.getSimpleName();
-        if (value instanceof BigDecimal && !type.equals(BigDecimal.class)) {
-            BigDecimal bdValue = (BigDecimal) value;
-            if (type.equals(Float.class) || typeName.equals("float")) {
-                result = bdValue.floatValue();
-            } else if (type.equals(Double.class) || typeName.equals("double")) {
-                result = bdValue.doubleValue();
-            } else if (type.equals(Long.class) || typeName.equals("long")) {
-                result = bdValue.longValue();
-            } else if (type.equals(Integer.class) || typeName.equals("int")) {
-                result = bdValue.intValue();
-            }
-        } else
-        // Handle the conversion case of String to Float,Double,Long,Integer,BigDecimal and the respective
-        // primitive types
-        if (value instanceof String && !type.equals(String.class)) {
-            String bdValue = (String) value;
-            if (type.equals(Float.class) || typeName.equals("float")) {
-                result = Float.valueOf(bdValue);
-            } else if (type.equals(Double.class) || typeName.equals("double")) {
-                result = Double.valueOf(bdValue);
-            } else if (type.equals(Long.class) || typeName.equals("long")) {
-                result = Long.valueOf(bdValue);
-            } else if (type.equals(BigDecimal.class)) {
-                result = new BigDecimal(bdValue);
-            } else if (type.equals(Integer.class) || typeName.equals("int")) {
-                result = Integer.valueOf(bdValue);
-            } else if (type.equals(Boolean.class) || typeName.equals("boolean")) {
-                result = Boolean.valueOf(bdValue);
-            } else if (type.isEnum()) {
-                @SuppressWarnings({ "rawtypes", "unchecked" })
-                final Class<? extends Enum> enumType = (Class<? extends Enum>) type;
-                @SuppressWarnings("unchecked")
-                Enum<?> enumValue = Enum.valueOf(enumType, value.toString());
-                result = enumValue;
-            }
-        }
-        return result;
-    }
-
     /**
      * Callback by the {@link MqttBrokerConnection} if a matching topic received a new value.
      * Because routing is already done by aforementioned class, the topic parameter is not checked again.
@@ -139,23 +96,8 @@ public class SubscribeFieldToMQTTtopic implements MqttMessageSubscriber {
             return;
         }
 
-        String valueStr = new String(payload, StandardCharsets.UTF_8);
-
-        // Check if there is a manipulation annotation attached to the field
-        final MQTTvalueTransform transform = field.getAnnotation(MQTTvalueTransform.class);
-        Object value;
-        if (transform != null) {
-            // Add a prefix/suffix to the value
-            valueStr = transform.prefix() + valueStr + transform.suffix();
-            // Split the value if the field is an array. Convert numbers/enums if necessary.
-            value = field.getType().isArray() ? valueStr.split(transform.splitCharacter())
-                    : numberConvert(valueStr, field.getType());
-        } else if (field.getType().isArray()) {
-            throw new IllegalArgumentException("No split character defined!");
-        } else {
-            // Convert numbers/enums if necessary
-            value = numberConvert(valueStr, field.getType());
-        }
+        // Convert numbers/enums and split arrays if necessary
+        Object value = accessor.convert(new String(payload, StandardCharsets.UTF_8));
         receivedValue = true;
         changeConsumer.fieldChanged(field, value);
         future.complete(null);
@@ -13,59 +13,144 @@
 package org.openhab.binding.mqtt.generic.tools;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 
 /**
- * Collects objects over time until a specified delay passed by.
+ * Collects objects over time until a specified delay passed by or a maximum batch size is reached.
  * Then call the user back with a list of accumulated objects and start over again.
  *
+ * Adding objects is lock-free and can be done by many threads. The user is called back by one thread at a time, with
+ * lists of at most the maximum batch size. At most "capacity" objects are queued, an adding thread reserves its slot
+ * before queuing the object. An {@link Overflow} policy decides what happens to further objects.
+ *
  * @author David Graeff - Initial contribution
  *
  * @param <T> Any object
  */
 @NonNullByDefault
 public class DelayedBatchProcessing<T> implements Consumer<T> {
+    /**
+     * What to do with a new object if the queue is full.
+     */
+    public enum Overflow {
+        /** Remove the oldest queued object to make room for the new one */
+        DROP_OLDEST,
+        /** Discard the new object */
+        DROP_NEWEST,
+        /**
+         * The adding thread delivers the queued objects to the consumer itself, before its object is queued. This
+         * slows producers down to the speed of the consumer and no object is lost.
+         */
+        BACKPRESSURE
+    }
+
     private final int delay;
+    private final int maxBatchSize;
+    private final int capacity;
+    private final Overflow overflow;
     private final Consumer<List<T>> consumer;
-    private final List<T> queue = Collections.synchronizedList(new ArrayList<>());
+    private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+    /** The size of the queue. {@link ConcurrentLinkedQueue#size()} is not a constant time operation */
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean armed = new AtomicBoolean();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong delayed = new AtomicLong();
+    private final Object deliveryLock = new Object();
     private final ScheduledExecutorService executor;
     protected @Nullable ScheduledFuture<?> future;
 
     /**
-     * Creates a {@link DelayedBatchProcessing}.
+     * Creates a {@link DelayedBatchProcessing} that only delivers after the delay and has no size limit.
      *
      * @param delay A delay in milliseconds
      * @param consumer A consumer of the list of collected objects
      * @param executor A scheduled executor service
      */
     public DelayedBatchProcessing(int delay, Consumer<List<T>> consumer, ScheduledExecutorService executor) {
+        this(delay, Integer.MAX_VALUE, Integer.MAX_VALUE, Overflow.BACKPRESSURE, consumer, executor);
+    }
+
+    /**
+     * Creates a {@link DelayedBatchProcessing}.
+     *
+     * @param delay A delay in milliseconds
+     * @param maxBatchSize The objects are delivered as soon as this many objects are queued
+     * @param capacity The maximum number of queued objects. Must be at least the maximum batch size.
+     * @param overflow What to do with new objects if the capacity is reached
+     * @param consumer A consumer of the list of collected objects
+     * @param executor A scheduled executor service
+     */
+    public DelayedBatchProcessing(int delay, int maxBatchSize, int capacity, Overflow overflow,
+            Consumer<List<T>> consumer, ScheduledExecutorService executor) {
         this.delay = delay;
+        this.maxBatchSize = maxBatchSize;
+        this.capacity = capacity;
+        this.overflow = overflow;
         this.consumer = consumer;
         this.executor = executor;
         if (delay <= 0) {
             throw new IllegalArgumentException("Delay need to be greater than 0!");
         }
+        if (maxBatchSize <= 0 || capacity < maxBatchSize) {
+            throw new IllegalArgumentException("Batch size need to be greater than 0 and not exceed the capacity!");
+        }
     }
 
     /**
      * Add new object to the batch process list. If the list was empty, the delay timer
      * is armed and all successive objects are accumulated from here on.
+     * If the maximum batch size is reached, the objects are delivered without waiting for the timer.
      *
      * @param t An object
      */
     @Override
     public void accept(T t) {
+        // Reserve a slot before the object is queued, so that the size never falls below the number of queued objects
+        int queued;
+        while (true) {
+            int current = size.get();
+            if (current < capacity) {
+                if (size.compareAndSet(current, current + 1)) {
+                    queued = current + 1;
+                    break;
+                }
+                continue;
+            }
+            if (overflow == Overflow.DROP_NEWEST) {
+                dropped.incrementAndGet();
+                return;
+            } else if (overflow == Overflow.DROP_OLDEST) {
+                // If all slots are reserved by objects that are not queued yet, try again
+                if (queue.poll() != null) {
+                    // The slot of the removed object is taken over by the new one
+                    dropped.incrementAndGet();
+                    queued = current;
+                    break;
+                }
+            } else {
+                delayed.incrementAndGet();
+                deliver();
+            }
+        }
         queue.add(t);
-        final ScheduledFuture<?> scheduledFuture = this.future;
-        if (scheduledFuture == null || scheduledFuture.isDone()) {
+        if (queued >= maxBatchSize) {
+            if (flushScheduled.compareAndSet(false, true)) {
+                executor.execute(this::flush);
+            }
+        } else if (armed.compareAndSet(false, true)) {
             this.future = executor.schedule(this::run, delay, TimeUnit.MILLISECONDS);
         }
     }
@@ -76,14 +161,12 @@ public class DelayedBatchProcessing<T> implements Consumer<T> {
      * @return A list of accumulated objects
      */
     public List<T> join() {
-        ScheduledFuture<?> scheduledFuture = this.future;
-        if (scheduledFuture != null && !scheduledFuture.isDone()) {
-            scheduledFuture.cancel(false);
-        }
+        cancelTimer();
         List<T> lqueue = new ArrayList<>();
-        synchronized (queue) {
-            lqueue.addAll(queue);
-            queue.clear();
+        T t;
+        while ((t = queue.poll()) != null) {
+            size.decrementAndGet();
+            lqueue.add(t);
         }
         return lqueue;
     }
@@ -100,22 +183,56 @@ public class DelayedBatchProcessing<T> implements Consumer<T> {
      * Deliver queued items now to the target consumer.
      */
     public void forceProcessNow() {
+        cancelTimer();
+        deliver();
+    }
+
+    /**
+     * Returns the number of objects that have been discarded because the queue was full.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns how often an adding thread had to deliver the queued objects itself because the queue was full.
+     */
+    public long getDelayedCount() {
+        return delayed.get();
+    }
+
+    private void cancelTimer() {
         ScheduledFuture<?> scheduledFuture = this.future;
         if (scheduledFuture != null && !scheduledFuture.isDone()) {
             scheduledFuture.cancel(false);
         }
-        run();
+        armed.set(false);
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        deliver();
     }
 
     private void run() {
-        List<T> lqueue = new ArrayList<>();
-        synchronized (queue) {
-            lqueue.addAll(queue);
-            queue.clear();
-        }
+        armed.set(false);
+        deliver();
+    }
 
-        if (!lqueue.isEmpty()) {
-            consumer.accept(lqueue);
+    private void deliver() {
+        synchronized (deliveryLock) {
+            while (true) {
+                List<T> lqueue = new ArrayList<>(Math.min(size.get(), maxBatchSize));
+                T t;
+                while (lqueue.size() < maxBatchSize && (t = queue.poll()) != null) {
+                    size.decrementAndGet();
+                    lqueue.add(t);
+                }
+                if (lqueue.isEmpty()) {
+                    return;
+                }
+                consumer.accept(lqueue);
+            }
         }
     }
 }
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.mapping;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.junit.Test;
+
+/**
+ * Tests cases for {@link FieldAccessor}.
+ *
+ * @author agent - Initial contribution
+ */
+public class FieldAccessorTests {
+    @TopicPrefix
+    public static class Attributes extends AbstractMqttAttributeClass {
+        public transient String ignoreTransient = "";
+        public final String ignoreFinal = "";
+
+        public @MandatoryField String aString;
+        public Double aDouble;
+        public @TopicPrefix("a") long aLong;
+        public BigDecimal aDecimal;
+        public boolean aBool;
+        public @MQTTvalueTransform(splitCharacter = ",") String[] properties;
+        public String[] noSplitCharacter;
+
+        public enum DataTypeEnum {
+            unknown,
+            integer_,
+        }
+
+        public @MQTTvalueTransform(suffix = "_") DataTypeEnum datatype = DataTypeEnum.unknown;
+
+        @Override
+        public @NonNull Object getFieldsOf() {
+            return this;
+        }
+    }
+
+    private FieldAccessor accessor(String name) throws NoSuchFieldException {
+        return FieldAccessor.of(Attributes.class.getField(name));
+    }
+
+    @Test
+    public void accessorsPerClass() throws NoSuchFieldException {
+        List<String> names = FieldAccessor.of(Attributes.class).stream().map(a -> a.field.getName())
+                .collect(Collectors.toList());
+        assertThat(names.contains("aString"), is(true));
+        assertThat(names.contains("ignoreTransient"), is(false));
+        assertThat(names.contains("ignoreFinal"), is(false));
+
+        // Computed once per class
+        assertThat(FieldAccessor.of(Attributes.class), is(sameInstance(FieldAccessor.of(Attributes.class))));
+        assertThat(accessor("aString"), is(sameInstance(accessor("aString"))));
+
+        assertThat(accessor("aString").mandatory, is(true));
+        assertThat(accessor("aDouble").mandatory, is(false));
+        assertThat(accessor("aLong").topicPrefix, is("a"));
+        assertThat(accessor("aDouble").topicPrefix, is(nullValue()));
+    }
+
+    @Test
+    public void convertAndSet() throws NoSuchFieldException {
+        Attributes attributes = new Attributes();
+
+        accessor("aString").set(attributes, accessor("aString").convert("text"));
+        accessor("aDouble").set(attributes, accessor("aDouble").convert("1.5"));
+        accessor("aLong").set(attributes, accessor("aLong").convert("10"));
+        accessor("aDecimal").set(attributes, accessor("aDecimal").convert("2.25"));
+        accessor("aBool").set(attributes, accessor("aBool").convert("true"));
+        accessor("properties").set(attributes, accessor("properties").convert("abc,def"));
+        accessor("datatype").set(attributes, accessor("datatype").convert("integer"));
+
+        assertThat(attributes.aString, is("text"));
+        assertThat(attributes.aDouble, is(1.5));
+        assertThat(attributes.aLong, is(10L));
+        assertThat(attributes.aDecimal, is(new BigDecimal("2.25")));
+        assertThat(attributes.aBool, is(true));
+        assertThat(attributes.properties, is(new String[] { "abc", "def" }));
+        assertThat(attributes.datatype, is(Attributes.DataTypeEnum.integer_));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void convertInvalidNumber() throws NoSuchFieldException {
+        accessor("aLong").convert("abc");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void convertUnknownEnumConstant() throws NoSuchFieldException {
+        accessor("datatype").convert("float");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void convertArrayWithoutSplitCharacter() throws NoSuchFieldException {
+        accessor("noSplitCharacter").convert("abc,def");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setWrongType() throws NoSuchFieldException {
+        accessor("aLong").set(new Attributes(), "10");
+    }
+}
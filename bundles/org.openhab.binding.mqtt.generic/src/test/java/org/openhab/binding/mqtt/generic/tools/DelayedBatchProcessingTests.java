@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openhab.binding.mqtt.generic.tools.DelayedBatchProcessing.Overflow;
+
+/**
+ * Tests cases for {@link DelayedBatchProcessing}.
+ *
+ * @author agent - Initial contribution
+ */
+public class DelayedBatchProcessingTests {
+    @Mock
+    private ScheduledExecutorService executor;
+
+    @Mock
+    private ScheduledFuture<?> scheduledFuture;
+
+    private final List<List<Integer>> batches = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        doReturn(scheduledFuture).when(executor).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    private DelayedBatchProcessing<Integer> create(int maxBatchSize, int capacity, Overflow overflow) {
+        return new DelayedBatchProcessing<>(100, maxBatchSize, capacity, overflow, batches::add, executor);
+    }
+
+    @Test
+    public void flushOnDelay() {
+        DelayedBatchProcessing<Integer> processing = create(10, 10, Overflow.DROP_NEWEST);
+        processing.accept(1);
+        processing.accept(2);
+
+        // The timer is armed once
+        ArgumentCaptor<Runnable> timer = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).schedule(timer.capture(), eq(100L), eq(TimeUnit.MILLISECONDS));
+        assertTrue(batches.isEmpty());
+
+        timer.getValue().run();
+        assertThat(batches, is(Arrays.asList(Arrays.asList(1, 2))));
+    }
+
+    @Test
+    public void flushOnBatchSize() {
+        DelayedBatchProcessing<Integer> processing = create(2, 10, Overflow.DROP_NEWEST);
+        processing.accept(1);
+        processing.accept(2);
+        processing.accept(3);
+
+        // The flush is submitted once, no matter how many objects are added in the meantime
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).execute(flush.capture());
+
+        flush.getValue().run();
+        assertThat(batches, is(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3))));
+    }
+
+    @Test
+    public void dropOldest() {
+        DelayedBatchProcessing<Integer> processing = create(2, 2, Overflow.DROP_OLDEST);
+        processing.accept(1);
+        processing.accept(2);
+        processing.accept(3);
+
+        assertThat(processing.getDroppedCount(), is(1L));
+        assertThat(processing.join(), is(Arrays.asList(2, 3)));
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    public void dropNewest() {
+        DelayedBatchProcessing<Integer> processing = create(2, 2, Overflow.DROP_NEWEST);
+        processing.accept(1);
+        processing.accept(2);
+        processing.accept(3);
+
+        assertThat(processing.getDroppedCount(), is(1L));
+        assertThat(processing.join(), is(Arrays.asList(1, 2)));
+    }
+
+    @Test
+    public void backpressure() {
+        DelayedBatchProcessing<Integer> processing = create(2, 2, Overflow.BACKPRESSURE);
+        processing.accept(1);
+        processing.accept(2);
+        // The caller delivers the full queue itself
+        processing.accept(3);
+
+        assertThat(processing.getDroppedCount(), is(0L));
+        assertThat(processing.getDelayedCount(), is(1L));
+        assertThat(batches, is(Arrays.asList(Arrays.asList(1, 2))));
+
+        processing.forceProcessNow();
+        assertThat(batches, is(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3))));
+        verify(scheduledFuture).cancel(false);
+    }
+
+    private static void runConcurrently(int threads, Runnable runnable) throws InterruptedException {
+        List<Thread> started = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(runnable);
+            thread.start();
+            started.add(thread);
+        }
+        for (Thread thread : started) {
+            thread.join(10000);
+        }
+    }
+
+    @Test
+    public void capacityIsNotExceededByConcurrentProducers() throws InterruptedException {
+        DelayedBatchProcessing<Integer> processing = create(100, 100, Overflow.DROP_NEWEST);
+        runConcurrently(8, () -> {
+            for (int i = 0; i < 1000; i++) {
+                processing.accept(i);
+            }
+        });
+
+        assertThat(processing.join().size(), is(100));
+        assertThat(processing.getDroppedCount(), is(7900L));
+    }
+
+    @Test
+    public void concurrentDeliveryLosesNothing() throws InterruptedException {
+        DelayedBatchProcessing<Integer> processing = create(10, 100, Overflow.BACKPRESSURE);
+        AtomicBoolean producing = new AtomicBoolean(true);
+        Thread deliverer = new Thread(() -> {
+            while (producing.get()) {
+                processing.forceProcessNow();
+            }
+        });
+        deliverer.start();
+        runConcurrently(4, () -> {
+            for (int i = 0; i < 10000; i++) {
+                processing.accept(i);
+            }
+        });
+        producing.set(false);
+        deliverer.join(10000);
+
+        int delivered = processing.join().size();
+        for (List<Integer> batch : batches) {
+            assertTrue(batch.size() <= 10);
+            delivered += batch.size();
+        }
+        assertThat(delivered, is(40000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityLessThanBatchSize() {
+        create(10, 5, Overflow.DROP_NEWEST);
+    }
+}
@@ -13,8 +13,6 @@
 package org.openhab.binding.mqtt.homeassistant.internal.discovery;
 
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -65,9 +63,13 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
     private final Logger logger = LoggerFactory.getLogger(HomeAssistantDiscovery.class);
     protected final Map<String, Set<HaID>> componentsPerThingID = new TreeMap<>();
     protected final Map<String, ThingUID> thingIDPerTopic = new TreeMap<>();
-    protected final Map<String, DiscoveryResult> results = new TreeMap<>();
+    /**
+     * The latest discovery result per thing. It is published once no further component of the thing has been found
+     * for {@link #RESULTS_DELAY} ms. Guarded by {@link #componentsPerThingID}.
+     */
+    protected final Map<ThingUID, DiscoveryResult> results = new HashMap<>();
+    private final Map<ThingUID, ScheduledFuture<?>> resultTimers = new HashMap<>();
 
-    private @Nullable ScheduledFuture<?> future;
     private final Gson gson;
 
     public static final Map<String, String> HA_COMP_TO_NAME = new TreeMap<>();
@@ -85,6 +87,7 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
     }
 
     static final String BASE_TOPIC = "homeassistant";
+    static final int RESULTS_DELAY = 2000;
 
     @NonNullByDefault({})
     protected MqttChannelTypeProvider typeProvider;
@@ -137,14 +140,6 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
             return;
         }
 
-        // Reset the found-component timer.
-        // We will collect components for the thing label description for another 2 seconds.
-        final ScheduledFuture<?> future = this.future;
-        if (future != null) {
-            future.cancel(false);
-        }
-        this.future = scheduler.schedule(this::publishResults, 2, TimeUnit.SECONDS);
-
         BaseChannelConfiguration config = BaseChannelConfiguration
                 .fromString(new String(payload, StandardCharsets.UTF_8), gson);
 
@@ -160,46 +155,62 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
 
         final ThingUID thingUID = new ThingUID(typeID, connectionBridge, thingID);
 
-        thingIDPerTopic.put(topic, thingUID);
-
-        // We need to keep track of already found component topics for a specific thing
-        Set<HaID> components = componentsPerThingID.computeIfAbsent(thingID, key -> new HashSet<>());
-        components.add(haID);
+        final String componentNames;
+        final List<String> topics;
+        synchronized (componentsPerThingID) {
+            thingIDPerTopic.put(topic, thingUID);
 
-        final String componentNames = components.stream().map(id -> id.component)
-                .map(c -> HA_COMP_TO_NAME.getOrDefault(c, c)).collect(Collectors.joining(", "));
+            // We need to keep track of already found component topics for a specific thing
+            Set<HaID> components = componentsPerThingID.computeIfAbsent(thingID, key -> new HashSet<>());
+            components.add(haID);
 
-        final List<String> topics = components.stream().map(id -> id.toShortTopic()).collect(Collectors.toList());
+            componentNames = components.stream().map(id -> id.component).map(c -> HA_COMP_TO_NAME.getOrDefault(c, c))
+                    .collect(Collectors.joining(", "));
+            topics = components.stream().map(id -> id.toShortTopic()).collect(Collectors.toList());
+        }
 
         Map<String, Object> properties = new HashMap<>();
         HandlerConfiguration handlerConfig = new HandlerConfiguration(haID.baseTopic, topics);
         properties = handlerConfig.appendToProperties(properties);
         properties = config.appendToProperties(properties);
 
-        synchronized (results) {
-            // Because we need the new properties map with the updated "components" list
-            results.put(thingUID.getAsString(),
-                    DiscoveryResultBuilder.create(thingUID).withProperties(properties)
-                            .withRepresentationProperty("objectid").withBridge(connectionBridge)
-                            .withLabel(config.getThingName() + " (" + componentNames + ")").build());
+        // Because we need the new properties map with the updated "components" list
+        DiscoveryResult result = DiscoveryResultBuilder.create(thingUID).withProperties(properties)
+                .withRepresentationProperty("objectid").withBridge(connectionBridge)
+                .withLabel(config.getThingName() + " (" + componentNames + ")").build();
+
+        synchronized (componentsPerThingID) {
+            results.put(thingUID, result);
+            // Reset the found-component timer of the thing.
+            // We will collect components for the thing label description for another 2 seconds.
+            ScheduledFuture<?> timer = resultTimers.get(thingUID);
+            if (timer != null) {
+                timer.cancel(false);
+            }
+            resultTimers.put(thingUID,
+                    scheduler.schedule(() -> publishResult(thingUID), RESULTS_DELAY, TimeUnit.MILLISECONDS));
         }
     }
 
-    protected void publishResults() {
-        Collection<DiscoveryResult> localResults;
-
-        synchronized (results) {
-            localResults = new ArrayList<>(results.values());
-            results.clear();
-            componentsPerThingID.clear();
+    /**
+     * Publishes the latest discovery result of a thing, which contains all components found so far, and forgets its
+     * components.
+     */
+    protected void publishResult(ThingUID thingUID) {
+        final DiscoveryResult result;
+        synchronized (componentsPerThingID) {
+            result = results.remove(thingUID);
+            if (result == null) {
+                return;
+            }
+            resultTimers.remove(thingUID);
+            componentsPerThingID.remove(thingUID.getId());
         }
-        for (DiscoveryResult result : localResults) {
-            final ThingTypeUID typeID = result.getThingTypeUID();
-            ThingType type = typeProvider.derive(typeID, MqttBindingConstants.HOMEASSISTANT_MQTT_THING).build();
-            typeProvider.setThingTypeIfAbsent(typeID, type);
+        final ThingTypeUID typeID = result.getThingTypeUID();
+        ThingType type = typeProvider.derive(typeID, MqttBindingConstants.HOMEASSISTANT_MQTT_THING).build();
+        typeProvider.setThingTypeIfAbsent(typeID, type);
 
-            thingDiscovered(result);
-        }
+        thingDiscovered(result);
     }
 
     @Override
@@ -207,18 +218,30 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         if (!topic.endsWith("/config")) {
             return;
         }
-        if (thingIDPerTopic.containsKey(topic)) {
-            ThingUID thingUID = thingIDPerTopic.remove(topic);
+        final ThingUID thingUID;
+        synchronized (componentsPerThingID) {
+            thingUID = thingIDPerTopic.remove(topic);
+            if (thingUID == null) {
+                return;
+            }
             final String thingID = thingUID.getId();
 
             HaID haID = new HaID(topic);
 
             Set<HaID> components = componentsPerThingID.getOrDefault(thingID, Collections.emptySet());
             components.remove(haID);
-            if (components.isEmpty()) {
-                thingRemoved(thingUID);
+            if (!components.isEmpty()) {
+                return;
+            }
+            componentsPerThingID.remove(thingID);
+            // The thing is gone before its result has been published
+            results.remove(thingUID);
+            ScheduledFuture<?> timer = resultTimers.remove(thingUID);
+            if (timer != null) {
+                timer.cancel(false);
             }
         }
+        thingRemoved(thingUID);
     }
 
 }
@@ -44,6 +44,7 @@ import org.openhab.binding.mqtt.generic.ChannelState;
 import org.openhab.binding.mqtt.generic.MqttChannelTypeProvider;
 import org.openhab.binding.mqtt.generic.TransformationServiceProvider;
 import org.openhab.binding.mqtt.generic.tools.DelayedBatchProcessing;
+import org.openhab.binding.mqtt.generic.tools.DelayedBatchProcessing.Overflow;
 import org.openhab.binding.mqtt.homeassistant.generic.internal.MqttBindingConstants;
 import org.openhab.binding.mqtt.homeassistant.internal.AbstractComponent;
 import org.openhab.binding.mqtt.homeassistant.internal.CChannel;
@@ -80,6 +81,9 @@ import com.google.gson.GsonBuilder;
 public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
         implements ComponentDiscovered, Consumer<List<AbstractComponent<?>>> {
     public static final String AVAILABILITY_CHANNEL = "availability";
+    /** Discovered components are started in batches of at most this size */
+    private static final int COMPONENT_BATCH_SIZE = 50;
+    private static final int MAX_PENDING_COMPONENTS = 500;
 
     private final Logger logger = LoggerFactory.getLogger(HomeAssistantThingHandler.class);
 
@@ -115,7 +119,8 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
         this.channelTypeProvider = channelTypeProvider;
         this.transformationServiceProvider = transformationServiceProvider;
         this.attributeReceiveTimeout = attributeReceiveTimeout;
-        this.delayedProcessing = new DelayedBatchProcessing<>(attributeReceiveTimeout, this, scheduler);
+        this.delayedProcessing = new DelayedBatchProcessing<>(attributeReceiveTimeout, COMPONENT_BATCH_SIZE,
+                MAX_PENDING_COMPONENTS, Overflow.BACKPRESSURE, this, scheduler);
         this.discoverComponents = new DiscoverComponents(thing.getUID(), scheduler, this, gson,
                 this.transformationServiceProvider);
     }
@@ -15,17 +15,22 @@ package org.openhab.binding.mqtt.homie.internal.discovery;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.config.discovery.DiscoveryResult;
 import org.eclipse.smarthome.config.discovery.DiscoveryResultBuilder;
 import org.eclipse.smarthome.config.discovery.DiscoveryService;
 import org.eclipse.smarthome.core.thing.ThingUID;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.openhab.binding.mqtt.discovery.AbstractMQTTDiscovery;
 import org.openhab.binding.mqtt.discovery.MQTTTopicDiscoveryService;
+import org.openhab.binding.mqtt.generic.tools.DelayedBatchProcessing;
+import org.openhab.binding.mqtt.generic.tools.DelayedBatchProcessing.Overflow;
 import org.openhab.binding.mqtt.generic.tools.WaitForTopicValue;
 import org.openhab.binding.mqtt.homie.generic.internal.MqttBindingConstants;
 import org.osgi.service.component.annotations.Activate;
@@ -45,12 +50,20 @@ import org.slf4j.LoggerFactory;
 public class Homie300Discovery extends AbstractMQTTDiscovery {
     private final Logger logger = LoggerFactory.getLogger(Homie300Discovery.class);
 
+    static final int RESULTS_DELAY = 500;
+    static final int RESULTS_BATCH_SIZE = 100;
+    static final int MAX_PENDING_RESULTS = 1000;
+
     protected final MQTTTopicDiscoveryService discoveryService;
+    /** Found devices are published in batches, devices announced several times are published once per batch */
+    protected final DelayedBatchProcessing<DiscoveryResult> results;
 
     @Activate
     public Homie300Discovery(@Reference MQTTTopicDiscoveryService discoveryService) {
         super(Collections.singleton(MqttBindingConstants.HOMIE300_MQTT_THING), 3, true, "+/+/$homie");
         this.discoveryService = discoveryService;
+        this.results = new DelayedBatchProcessing<>(RESULTS_DELAY, RESULTS_BATCH_SIZE, MAX_PENDING_RESULTS,
+                Overflow.BACKPRESSURE, this::publishResults, scheduler);
     }
 
     @Override
@@ -110,12 +123,23 @@ public class Homie300Discovery extends AbstractMQTTDiscovery {
         properties.put("deviceid", deviceID);
         properties.put("basetopic", topic.substring(0, topic.indexOf("/")));
 
-        thingDiscovered(DiscoveryResultBuilder
+        results.accept(DiscoveryResultBuilder
                 .create(new ThingUID(MqttBindingConstants.HOMIE300_MQTT_THING, connectionBridge, deviceID))
                 .withBridge(connectionBridge).withProperties(properties).withRepresentationProperty("deviceid")
                 .withLabel(name).build());
     }
 
+    /**
+     * Publishes a batch of discovery results, only the latest result per device.
+     */
+    protected void publishResults(List<DiscoveryResult> batch) {
+        Map<ThingUID, DiscoveryResult> latestResults = new LinkedHashMap<>();
+        for (DiscoveryResult result : batch) {
+            latestResults.put(result.getThingUID(), result);
+        }
+        latestResults.values().forEach(this::thingDiscovered);
+    }
+
     @Override
     public void topicVanished(ThingUID connectionBridge, MqttBrokerConnection connection, String topic) {
         String deviceID = extractDeviceID(topic);
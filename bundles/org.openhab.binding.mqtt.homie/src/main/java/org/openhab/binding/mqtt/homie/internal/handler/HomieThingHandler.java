@@ -30,6 +30,7 @@ import org.openhab.binding.mqtt.generic.AbstractMQTTThingHandler;
 import org.openhab.binding.mqtt.generic.ChannelState;
 import org.openhab.binding.mqtt.generic.MqttChannelTypeProvider;
 import org.openhab.binding.mqtt.generic.tools.DelayedBatchProcessing;
+import org.openhab.binding.mqtt.generic.tools.DelayedBatchProcessing.Overflow;
 import org.openhab.binding.mqtt.homie.generic.internal.MqttBindingConstants;
 import org.openhab.binding.mqtt.homie.internal.homie300.Device;
 import org.openhab.binding.mqtt.homie.internal.homie300.DeviceAttributes;
@@ -50,6 +51,11 @@ import org.slf4j.LoggerFactory;
 @NonNullByDefault
 public class HomieThingHandler extends AbstractMQTTThingHandler implements DeviceCallback, Consumer<List<Object>> {
     private final Logger logger = LoggerFactory.getLogger(HomieThingHandler.class);
+    /**
+     * The changed nodes and properties only signal that the channels need to be updated. Queue a bounded number of
+     * them, older ones can be dropped during a retained message storm.
+     */
+    private static final int MAX_PENDING_CHANGES = 1000;
     protected Device device;
     protected final MqttChannelTypeProvider channelTypeProvider;
     /** The timeout per attribute field subscription */
@@ -76,7 +82,8 @@ public class HomieThingHandler extends AbstractMQTTThingHandler implements Devic
         this.channelTypeProvider = channelTypeProvider;
         this.subscribeTimeout = subscribeTimeout;
         this.attributeReceiveTimeout = attributeReceiveTimeout;
-        this.delayedProcessing = new DelayedBatchProcessing<>(subscribeTimeout, this, scheduler);
+        this.delayedProcessing = new DelayedBatchProcessing<>(subscribeTimeout, MAX_PENDING_CHANGES,
+                MAX_PENDING_CHANGES, Overflow.DROP_OLDEST, this, scheduler);
         this.device = new Device(this.thing.getUID(), this, new DeviceAttributes());
     }
 
@@ -17,11 +17,13 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.thing.*;
 import org.eclipse.smarthome.core.thing.binding.BaseBridgeHandler;
 import org.eclipse.smarthome.core.thing.binding.ThingHandlerService;
+import org.eclipse.smarthome.core.thing.type.ChannelTypeUID;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionObserver;
 import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionState;
 import org.eclipse.smarthome.io.transport.mqtt.MqttService;
+import org.openhab.binding.mqtt.MqttBindingConstants;
 import org.openhab.binding.mqtt.action.MQTTActions;
 import org.openhab.binding.mqtt.discovery.MQTTTopicDiscoveryParticipant;
 import org.openhab.binding.mqtt.discovery.TopicSubscribe;
@@ -96,6 +98,12 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
             return;
         }
         for (Channel channel : thing.getChannels()) {
+            final ChannelTypeUID channelTypeUID = channel.getChannelTypeUID();
+            if (channelTypeUID != null
+                    && !MqttBindingConstants.PUBLISH_TRIGGER_CHANNEL.equals(channelTypeUID.getId())) {
+                // Not a publish trigger, like the broker metrics channels
+                continue;
+            }
             final PublishTriggerChannelConfig channelConfig = channel.getConfiguration()
                     .as(PublishTriggerChannelConfig.class);
             PublishTriggerChannel c = new PublishTriggerChannel(channelConfig, channel.getUID(), connection, this);
@@ -0,0 +1,228 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.handler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.openhab.binding.mqtt.internal.TopicTrie;
+
+/**
+ * A {@link MqttBrokerConnection} that subscribes to each distinct topic filter only once on the broker, no matter how
+ * many channels, discovery participants and attribute classes subscribe to it. This keeps SUBSCRIBE packets and the
+ * resubscriptions after a reconnect at one per filter.
+ *
+ * The local subscribers are kept in a {@link TopicTrie} by filter. The core connection hands a received message to the
+ * {@link FilterSubscription} of each matching filter, always with the same payload array. The first of these calls
+ * dispatches the message to the subscribers of all filters the trie matches, the others return without matching. The
+ * "+" and "#" wildcards are matched in O(topic depth) and each message is dispatched once, no matter how many filters
+ * it matches.
+ *
+ * Retained messages are sent by the broker in response to the SUBSCRIBE packet of a filter. Each filter therefore
+ * keeps the last payload of every topic it has received, and replays them to a subscriber that joins the filter later.
+ * Messages received during the replay are delivered to the joining subscriber in order with the replayed ones.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class DispatchingBrokerConnection extends MqttBrokerConnection {
+    private final TopicTrie<FilterSubscription> subscriptions = new TopicTrie<>();
+    /** The broker subscription per distinct filter */
+    private final Map<String, FilterSubscription> filters = new HashMap<>();
+    /** The payload of the last dispatched message */
+    private volatile byte @Nullable [] lastDispatched;
+
+    /**
+     * The local subscribers of a topic filter, registered once with the core connection
+     */
+    class FilterSubscription implements MqttMessageSubscriber {
+        final List<MqttMessageSubscriber> subscribers = new CopyOnWriteArrayList<>();
+        CompletableFuture<Boolean> future = CompletableFuture.completedFuture(true);
+        /** The last payload per received topic, guarded by this */
+        private final Map<String, byte[]> lastPayloads = new HashMap<>();
+        /** The payloads still to be replayed per joining subscriber, each guarded by itself */
+        private final Map<MqttMessageSubscriber, Map<String, byte[]>> replays = new ConcurrentHashMap<>();
+
+        @Override
+        public void processMessage(String topic, byte[] payload) {
+            // The core connection hands the same payload to every matching filter, the first one dispatches it
+            if (payload == lastDispatched) {
+                return;
+            }
+            lastDispatched = payload;
+            List<FilterSubscription> matches = new ArrayList<>();
+            subscriptions.match(topic, matches::add);
+            for (FilterSubscription match : matches) {
+                match.deliver(topic, payload);
+            }
+        }
+
+        private void deliver(String topic, byte[] payload) {
+            synchronized (this) {
+                lastPayloads.put(topic, payload);
+            }
+            for (MqttMessageSubscriber subscriber : subscribers) {
+                @Nullable Map<String, byte[]> replay = replays.isEmpty() ? null : replays.get(subscriber);
+                if (replay == null) {
+                    subscriber.processMessage(topic, payload);
+                    continue;
+                }
+                synchronized (replay) {
+                    // The replayed payload of the topic is older than this one
+                    replay.remove(topic);
+                    subscriber.processMessage(topic, payload);
+                }
+            }
+        }
+
+        /**
+         * Adds a subscriber and returns the last received payloads to replay to it, null if there are none.
+         */
+        synchronized @Nullable Map<String, byte[]> join(MqttMessageSubscriber subscriber) {
+            subscribers.add(subscriber);
+            if (lastPayloads.isEmpty()) {
+                return null;
+            }
+            Map<String, byte[]> replay = new HashMap<>(lastPayloads);
+            replays.put(subscriber, replay);
+            return replay;
+        }
+
+        /**
+         * Replays the payloads returned by {@link #join} to the subscriber, unless newer ones have been delivered.
+         */
+        void replay(MqttMessageSubscriber subscriber, Map<String, byte[]> replay) {
+            for (String topic : new ArrayList<>(replay.keySet())) {
+                synchronized (replay) {
+                    byte @Nullable [] payload = replay.remove(topic);
+                    if (payload != null) {
+                        subscriber.processMessage(topic, payload);
+                    }
+                }
+            }
+            replays.remove(subscriber, replay);
+        }
+    }
+
+    public DispatchingBrokerConnection(String host, @Nullable Integer port, boolean secure, @Nullable String clientId) {
+        super(host, port, secure, clientId);
+    }
+
+    /**
+     * Subscribes to the given topic filter. Only the first subscriber of a filter causes a subscription on the broker.
+     * Further subscribers of the same filter get the result of that subscription and the last payloads the filter has
+     * received. If the broker subscription fails, the filter is removed again and the next subscriber tries again.
+     */
+    @Override
+    public CompletableFuture<Boolean> subscribe(String topic, MqttMessageSubscriber subscriber) {
+        FilterSubscription filter;
+        @Nullable Map<String, byte[]> replay;
+        synchronized (filters) {
+            filter = filters.get(topic);
+            if (filter == null) {
+                FilterSubscription newFilter = new FilterSubscription();
+                newFilter.subscribers.add(subscriber);
+                filters.put(topic, newFilter);
+                // Dispatch through the filter before the broker sends the retained messages
+                subscriptions.add(topic, newFilter);
+                CompletableFuture<Boolean> future = subscribeFilter(topic, newFilter);
+                newFilter.future = future;
+                future.whenComplete((result, error) -> {
+                    if (error != null) {
+                        removeFilter(topic, newFilter);
+                    }
+                });
+                return future;
+            }
+            replay = filter.join(subscriber);
+        }
+        if (replay != null) {
+            filter.replay(subscriber, replay);
+        }
+        return filter.future;
+    }
+
+    private void removeFilter(String topic, FilterSubscription filter) {
+        synchronized (filters) {
+            if (filters.remove(topic, filter)) {
+                subscriptions.remove(topic, filter);
+                unsubscribeFilter(topic, filter);
+            }
+        }
+    }
+
+    /**
+     * Registers the filter with the core connection, which subscribes to it on the broker.
+     */
+    CompletableFuture<Boolean> subscribeFilter(String topic, FilterSubscription filter) {
+        return super.subscribe(topic, filter);
+    }
+
+    /**
+     * Removes the filter from the core connection, which unsubscribes from it on the broker.
+     */
+    CompletableFuture<Boolean> unsubscribeFilter(String topic, FilterSubscription filter) {
+        return super.unsubscribe(topic, filter);
+    }
+
+    /**
+     * Removes the subscriber from the given topic filter. The broker subscription is removed with the last subscriber
+     * of a filter.
+     */
+    @Override
+    public CompletableFuture<Boolean> unsubscribe(String topic, MqttMessageSubscriber subscriber) {
+        synchronized (filters) {
+            FilterSubscription filter = filters.get(topic);
+            if (filter == null || !filter.subscribers.remove(subscriber) || !filter.subscribers.isEmpty()) {
+                return CompletableFuture.completedFuture(true);
+            }
+            filters.remove(topic);
+            // Stop dispatching through the filter before the core connection stops handing messages to it
+            subscriptions.remove(topic, filter);
+            return unsubscribeFilter(topic, filter);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> unsubscribeAll() {
+        synchronized (filters) {
+            filters.clear();
+            subscriptions.clear();
+        }
+        return super.unsubscribeAll();
+    }
+
+    /**
+     * Returns the number of distinct topic filters subscribed to on the broker.
+     */
+    public int getBrokerSubscriptionCount() {
+        synchronized (filters) {
+            return filters.size();
+        }
+    }
+
+    @Nullable FilterSubscription getFilterSubscription(String topic) {
+        synchronized (filters) {
+            return filters.get(topic);
+        }
+    }
+}
@@ -12,25 +12,35 @@
  */
 package org.openhab.binding.mqtt.handler;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.thing.Bridge;
+import org.eclipse.smarthome.core.thing.Channel;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionState;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
 import org.eclipse.smarthome.io.transport.mqtt.MqttService;
 import org.eclipse.smarthome.io.transport.mqtt.MqttServiceObserver;
 import org.eclipse.smarthome.io.transport.mqtt.MqttWillAndTestament;
 import org.eclipse.smarthome.io.transport.mqtt.reconnect.PeriodicReconnectStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This handler does not much except providing all information from a
  * {@link MqttBrokerConnection} via Thing properties and put the Thing
  * offline or online depending on the connection.
+ * <p>
+ * If the broker publishes metrics to "$SYS/broker/" topics, like the embedded broker does, the metrics channels are
+ * updated. The rate and store topics are specific to the embedded broker of openHAB, other brokers like Mosquitto
+ * only publish the client and retained message counts of these.
  *
  * @author David Graeff - Initial contribution
  */
@@ -47,6 +57,27 @@ public class SystemBrokerHandler extends AbstractBrokerHandler implements MqttSe
     public static final String PROPERTY_KEEP_ALIVE_TIME = "keep_alive_time_ms";
     public static final String PROPERTY_CONNECT_TIMEOUT = "connect_timeout_ms";
 
+    // Broker metrics channels
+    public static final String CHANNEL_CLIENTS = "clients";
+    public static final String CHANNEL_PUBLISH_RECEIVED_RATE = "publishReceivedRate";
+    public static final String CHANNEL_PUBLISH_SENT_RATE = "publishSentRate";
+    public static final String CHANNEL_RETAINED_MESSAGES = "retainedMessages";
+    public static final String CHANNEL_STORE_SIZE = "storeSize";
+
+    static final String METRICS_TOPIC = "$SYS/broker/#";
+    static final Map<String, String> CHANNEL_PER_METRICS_TOPIC = new HashMap<>();
+    static {
+        CHANNEL_PER_METRICS_TOPIC.put("$SYS/broker/clients/connected", CHANNEL_CLIENTS);
+        CHANNEL_PER_METRICS_TOPIC.put("$SYS/broker/publish/messages/received/rate", CHANNEL_PUBLISH_RECEIVED_RATE);
+        CHANNEL_PER_METRICS_TOPIC.put("$SYS/broker/publish/messages/sent/rate", CHANNEL_PUBLISH_SENT_RATE);
+        CHANNEL_PER_METRICS_TOPIC.put("$SYS/broker/retained messages/count", CHANNEL_RETAINED_MESSAGES);
+        CHANNEL_PER_METRICS_TOPIC.put("$SYS/broker/store/size", CHANNEL_STORE_SIZE);
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(SystemBrokerHandler.class);
+    private final MqttMessageSubscriber metricsSubscriber = this::processMetric;
+    private @Nullable MqttBrokerConnection metricsConnection;
+
     protected final MqttService service;
 
     protected String brokerID = "";
@@ -85,6 +116,52 @@ public class SystemBrokerHandler extends AbstractBrokerHandler implements MqttSe
 
         updateProperties(properties);
         super.connectionStateChanged(state, error);
+
+        if (state == MqttConnectionState.CONNECTED) {
+            subscribeMetrics();
+        }
+    }
+
+    /**
+     * Subscribes to the broker metrics topics if the Thing has a metrics channel.
+     */
+    private void subscribeMetrics() {
+        final MqttBrokerConnection connection = this.connection;
+        if (connection == null || connection == metricsConnection || !hasMetricsChannel()) {
+            return;
+        }
+        metricsConnection = connection;
+        connection.subscribe(METRICS_TOPIC, metricsSubscriber);
+    }
+
+    private void unsubscribeMetrics() {
+        final MqttBrokerConnection metricsConnection = this.metricsConnection;
+        if (metricsConnection != null) {
+            metricsConnection.unsubscribe(METRICS_TOPIC, metricsSubscriber);
+            this.metricsConnection = null;
+        }
+    }
+
+    private boolean hasMetricsChannel() {
+        for (Channel channel : thing.getChannels()) {
+            if (CHANNEL_PER_METRICS_TOPIC.containsValue(channel.getUID().getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void processMetric(String topic, byte[] payload) {
+        final String channelID = CHANNEL_PER_METRICS_TOPIC.get(topic);
+        if (channelID == null) {
+            return;
+        }
+        final String value = new String(payload, StandardCharsets.UTF_8).trim();
+        try {
+            updateState(channelID, new DecimalType(value));
+        } catch (NumberFormatException e) {
+            logger.debug("Broker metric {} is not a number: {}", topic, value);
+        }
     }
 
     /**
@@ -106,6 +183,7 @@ public class SystemBrokerHandler extends AbstractBrokerHandler implements MqttSe
     public void brokerRemoved(String connectionName, MqttBrokerConnection removedConnection) {
         final MqttBrokerConnection connection = this.connection;
         if (removedConnection.equals(connection)) {
+            unsubscribeMetrics();
             connection.removeConnectionObserver(this);
             this.connection = null;
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, "@text/offline.sharedremoved");
@@ -129,6 +207,7 @@ public class SystemBrokerHandler extends AbstractBrokerHandler implements MqttSe
 
     @Override
     public void dispose() {
+        unsubscribeMetrics();
         service.removeBrokersListener(this);
         super.dispose();
     }
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.internal;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Stores values by MQTT topic filter, one trie level per topic level. The values of all filters matching a topic,
+ * including the "+" and "#" wildcards, are found in O(topic depth), independent of the number of filters.
+ *
+ * Matching is safe to be called concurrently with modifications. Modifications are synchronized.
+ *
+ * @author agent - Initial contribution
+ *
+ * @param <T> The value type
+ */
+@NonNullByDefault
+public class TopicTrie<T> {
+    private static final String SINGLE_LEVEL_WILDCARD = "+";
+    private static final String MULTI_LEVEL_WILDCARD = "#";
+
+    private static class Node<T> {
+        final Map<String, Node<T>> children = new ConcurrentHashMap<>();
+        final List<T> values = new CopyOnWriteArrayList<>();
+
+        boolean isEmpty() {
+            return children.isEmpty() && values.isEmpty();
+        }
+    }
+
+    private final Node<T> root = new Node<>();
+    private int filters = 0;
+
+    private static String[] levels(String topic) {
+        return topic.split("/", -1);
+    }
+
+    /**
+     * Adds a value for the given topic filter.
+     *
+     * @param filter A topic filter, may contain wildcards
+     * @param value The value
+     * @return True if this is the first value of the filter
+     */
+    public synchronized boolean add(String filter, T value) {
+        Node<T> node = root;
+        for (String level : levels(filter)) {
+            node = node.children.computeIfAbsent(level, l -> new Node<>());
+        }
+        node.values.add(value);
+        if (node.values.size() == 1) {
+            filters++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes a value of the given topic filter.
+     *
+     * @param filter A topic filter, as given to {@link #add(String, Object)}
+     * @param value The value
+     * @return True if the value has been removed and it was the last value of the filter
+     */
+    public synchronized boolean remove(String filter, T value) {
+        String[] levels = levels(filter);
+        @SuppressWarnings("unchecked")
+        Node<T>[] path = new Node[levels.length + 1];
+        path[0] = root;
+        for (int i = 0; i < levels.length; i++) {
+            Node<T> child = path[i].children.get(levels[i]);
+            if (child == null) {
+                return false;
+            }
+            path[i + 1] = child;
+        }
+        Node<T> node = path[levels.length];
+        if (!node.values.remove(value) || !node.values.isEmpty()) {
+            return false;
+        }
+        filters--;
+        // Prune empty nodes
+        for (int i = levels.length; i > 0 && path[i].isEmpty(); i--) {
+            path[i - 1].children.remove(levels[i - 1]);
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the given topic filter has at least one value.
+     *
+     * @param filter A topic filter
+     */
+    public boolean contains(String filter) {
+        Node<T> node = root;
+        for (String level : levels(filter)) {
+            node = node.children.get(level);
+            if (node == null) {
+                return false;
+            }
+        }
+        return !node.values.isEmpty();
+    }
+
+    /**
+     * Calls the consumer for each value of each filter matching the given topic.
+     *
+     * @param topic A topic without wildcards
+     * @param consumer The consumer
+     */
+    public void match(String topic, Consumer<T> consumer) {
+        String[] levels = levels(topic);
+        // Topics starting with a "$" are not matched by filters starting with a wildcard
+        match(root, levels, 0, !levels[0].startsWith("$"), consumer);
+    }
+
+    private void match(Node<T> node, String[] levels, int index, boolean wildcards, Consumer<T> consumer) {
+        if (wildcards) {
+            // "#" also matches the parent level: "a/#" matches "a"
+            Node<T> multiLevel = node.children.get(MULTI_LEVEL_WILDCARD);
+            if (multiLevel != null) {
+                multiLevel.values.forEach(consumer);
+            }
+        }
+        if (index == levels.length) {
+            node.values.forEach(consumer);
+            return;
+        }
+        Node<T> child = node.children.get(levels[index]);
+        if (child != null) {
+            match(child, levels, index + 1, true, consumer);
+        }
+        if (wildcards) {
+            Node<T> singleLevel = node.children.get(SINGLE_LEVEL_WILDCARD);
+            if (singleLevel != null) {
+                match(singleLevel, levels, index + 1, true, consumer);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of filters with at least one value.
+     */
+    public synchronized int size() {
+        return filters;
+    }
+
+    /**
+     * Removes all filters and values.
+     */
+    public synchronized void clear() {
+        root.children.clear();
+        root.values.clear();
+        filters = 0;
+    }
+}
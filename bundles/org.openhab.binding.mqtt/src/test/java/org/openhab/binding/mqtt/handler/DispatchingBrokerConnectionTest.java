@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.handler;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.junit.Test;
+
+/**
+ * Tests cases for {@link DispatchingBrokerConnection}.
+ *
+ * @author agent - Initial contribution
+ */
+public class DispatchingBrokerConnectionTest {
+
+    /**
+     * A connection whose broker subscriptions succeed without a broker
+     */
+    private static class SubscribedConnection extends DispatchingBrokerConnection {
+        SubscribedConnection() {
+            super("123.123.123.123", null, false, "clientid");
+        }
+
+        @Override
+        CompletableFuture<Boolean> subscribeFilter(String topic, FilterSubscription filter) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        @Override
+        CompletableFuture<Boolean> unsubscribeFilter(String topic, FilterSubscription filter) {
+            return CompletableFuture.completedFuture(true);
+        }
+    }
+
+    private static void receive(DispatchingBrokerConnection connection, String topic, byte[] payload,
+            String... matchingFilters) {
+        // The core connection hands a message to each matching filter
+        for (String filter : matchingFilters) {
+            DispatchingBrokerConnection.FilterSubscription subscription = connection.getFilterSubscription(filter);
+            if (subscription != null) {
+                subscription.processMessage(topic, payload);
+            }
+        }
+    }
+
+    @Test
+    public void subscribeOncePerFilterAndDispatch() {
+        DispatchingBrokerConnection connection = new SubscribedConnection();
+        MqttMessageSubscriber first = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber second = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber wildcard = mock(MqttMessageSubscriber.class);
+
+        connection.subscribe("zigbee2mqtt/sensor", first);
+        connection.subscribe("zigbee2mqtt/sensor", second);
+        connection.subscribe("zigbee2mqtt/+", wildcard);
+        assertThat(connection.getBrokerSubscriptionCount(), is(2));
+
+        byte[] payload = "{\"temperature\":21}".getBytes();
+        // The message matches two filters, it is dispatched once to the subscribers of both
+        receive(connection, "zigbee2mqtt/sensor", payload, "zigbee2mqtt/sensor", "zigbee2mqtt/+");
+        verify(first).processMessage(eq("zigbee2mqtt/sensor"), eq(payload));
+        verify(second).processMessage(eq("zigbee2mqtt/sensor"), eq(payload));
+        verify(wildcard).processMessage(eq("zigbee2mqtt/sensor"), eq(payload));
+
+        // Equal payloads of consecutive messages are dispatched again
+        receive(connection, "zigbee2mqtt/sensor", payload.clone(), "zigbee2mqtt/sensor", "zigbee2mqtt/+");
+        verify(first, times(2)).processMessage(eq("zigbee2mqtt/sensor"), eq(payload));
+        verify(wildcard, times(2)).processMessage(eq("zigbee2mqtt/sensor"), eq(payload));
+
+        receive(connection, "zigbee2mqtt/other", "{}".getBytes(), "zigbee2mqtt/+");
+        verify(first, times(2)).processMessage(any(), any());
+        verify(wildcard, times(3)).processMessage(any(), any());
+
+        // The broker subscription stays until the last subscriber of a filter is gone
+        connection.unsubscribe("zigbee2mqtt/sensor", first);
+        assertThat(connection.getBrokerSubscriptionCount(), is(2));
+        connection.unsubscribe("zigbee2mqtt/sensor", second);
+        assertThat(connection.getBrokerSubscriptionCount(), is(1));
+        assertThat(connection.getFilterSubscription("zigbee2mqtt/sensor"), is(nullValue()));
+    }
+
+    @Test
+    public void unsubscribedFilterDoesNotDispatch() {
+        DispatchingBrokerConnection connection = new SubscribedConnection();
+        MqttMessageSubscriber exact = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber wildcard = mock(MqttMessageSubscriber.class);
+
+        connection.subscribe("homie/device1/$name", exact);
+        connection.subscribe("homie/+/$name", wildcard);
+        DispatchingBrokerConnection.FilterSubscription removed = connection
+                .getFilterSubscription("homie/device1/$name");
+        connection.unsubscribe("homie/device1/$name", exact);
+
+        // A message still handed to the removed filter is dispatched by the remaining one only
+        byte[] payload = "Device 1".getBytes();
+        removed.processMessage("homie/device1/$name", payload);
+        receive(connection, "homie/device1/$name", payload, "homie/+/$name");
+        verify(exact, never()).processMessage(any(), any());
+        verify(wildcard, times(1)).processMessage(eq("homie/device1/$name"), eq(payload));
+    }
+
+    @Test
+    public void laterSubscribersReceiveTheLastPayloads() {
+        DispatchingBrokerConnection connection = new SubscribedConnection();
+        MqttMessageSubscriber first = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber second = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber wildcard = mock(MqttMessageSubscriber.class);
+        connection.subscribe("zigbee2mqtt/+", first);
+
+        // The retained messages sent by the broker for the subscription of the filter
+        byte[] sensor = "{\"temperature\":21}".getBytes();
+        byte[] lamp = "{\"state\":\"ON\"}".getBytes();
+        receive(connection, "zigbee2mqtt/sensor", sensor, "zigbee2mqtt/+");
+        receive(connection, "zigbee2mqtt/lamp", lamp, "zigbee2mqtt/+");
+
+        connection.subscribe("zigbee2mqtt/+", second);
+        verify(second).processMessage(eq("zigbee2mqtt/sensor"), eq(sensor));
+        verify(second).processMessage(eq("zigbee2mqtt/lamp"), eq(lamp));
+        // The replay is only delivered to the joining subscriber
+        verify(first, times(1)).processMessage(eq("zigbee2mqtt/sensor"), any());
+        verify(first, times(1)).processMessage(eq("zigbee2mqtt/lamp"), any());
+
+        // Only the last payload of a topic is replayed
+        byte[] changed = "{\"temperature\":22}".getBytes();
+        receive(connection, "zigbee2mqtt/sensor", changed, "zigbee2mqtt/+");
+        connection.subscribe("zigbee2mqtt/+", wildcard);
+        verify(wildcard).processMessage(eq("zigbee2mqtt/sensor"), eq(changed));
+        verify(wildcard, never()).processMessage(eq("zigbee2mqtt/sensor"), eq(sensor));
+    }
+
+    @Test
+    public void failedBrokerSubscriptionIsRetried() {
+        // Not started, the core connection fails the subscriptions
+        DispatchingBrokerConnection connection = new DispatchingBrokerConnection("123.123.123.123", null, false,
+                "clientid");
+        CompletableFuture<Boolean> first = connection.subscribe("topic", mock(MqttMessageSubscriber.class));
+        assertThat(first.isCompletedExceptionally(), is(true));
+        // The failed filter is removed again
+        assertThat(connection.getBrokerSubscriptionCount(), is(0));
+        assertThat(connection.getFilterSubscription("topic"), is(nullValue()));
+
+        // The next subscriber subscribes on the broker again
+        CompletableFuture<Boolean> second = connection.subscribe("topic", mock(MqttMessageSubscriber.class));
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(second.isCompletedExceptionally(), is(true));
+    }
+}
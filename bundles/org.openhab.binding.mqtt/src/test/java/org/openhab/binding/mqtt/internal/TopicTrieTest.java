@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link TopicTrie}.
+ *
+ * @author agent - Initial contribution
+ */
+public class TopicTrieTest {
+    private TopicTrie<String> trie;
+
+    @Before
+    public void setUp() {
+        trie = new TopicTrie<>();
+        for (String filter : new String[] { "a/b/c", "a/+/c", "a/#", "#", "+/b/+", "a/b", "$SYS/#", "+/+" }) {
+            trie.add(filter, filter);
+        }
+    }
+
+    private List<String> match(String topic) {
+        List<String> result = new ArrayList<>();
+        trie.match(topic, result::add);
+        Collections.sort(result);
+        return result;
+    }
+
+    private static List<String> sorted(String... values) {
+        List<String> result = Arrays.asList(values);
+        Collections.sort(result);
+        return result;
+    }
+
+    @Test
+    public void matchWildcards() {
+        assertThat(match("a/b/c"), is(sorted("a/b/c", "a/+/c", "a/#", "#", "+/b/+")));
+        assertThat(match("a/x/c"), is(sorted("a/+/c", "a/#", "#")));
+        assertThat(match("a/b"), is(sorted("a/#", "#", "a/b", "+/+")));
+        assertThat(match("a"), is(sorted("a/#", "#")));
+        assertThat(match("x/b/y"), is(sorted("#", "+/b/+")));
+        assertThat(match("a/b/c/d"), is(sorted("a/#", "#")));
+    }
+
+    @Test
+    public void dollarTopicsOnlyMatchExplicitFilters() {
+        assertThat(match("$SYS/broker/uptime"), is(sorted("$SYS/#")));
+    }
+
+    @Test
+    public void addAndRemove() {
+        assertThat(trie.size(), is(8));
+        assertThat(trie.add("a/b/c", "second"), is(false));
+        assertThat(trie.size(), is(8));
+
+        // Not the last value of the filter
+        assertThat(trie.remove("a/b/c", "a/b/c"), is(false));
+        assertThat(trie.contains("a/b/c"), is(true));
+        assertThat(trie.remove("a/b/c", "second"), is(true));
+        assertThat(trie.contains("a/b/c"), is(false));
+        // The parent filter is not affected by pruning
+        assertThat(trie.contains("a/b"), is(true));
+        assertThat(trie.size(), is(7));
+
+        assertThat(trie.remove("unknown/filter", "x"), is(false));
+        assertThat(match("a/b/c"), is(sorted("a/+/c", "a/#", "#", "+/b/+")));
+
+        trie.clear();
+        assertThat(trie.size(), is(0));
+        assertThat(match("a/b/c").isEmpty(), is(true));
+    }
+}
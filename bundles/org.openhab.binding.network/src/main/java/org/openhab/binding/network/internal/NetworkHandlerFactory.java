@@ -24,11 +24,13 @@ import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.thing.binding.ThingHandlerFactory;
 import org.openhab.binding.network.internal.handler.NetworkHandler;
 import org.openhab.binding.network.internal.handler.SpeedTestHandler;
+import org.openhab.binding.network.internal.utils.PresenceDetectionEngine;
 import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
 
 /**
  * The handler factory retrieves the binding configuration and is responsible for creating
@@ -40,6 +42,7 @@ import org.osgi.service.component.annotations.Modified;
 @Component(service = ThingHandlerFactory.class, configurationPid = "binding.network")
 public class NetworkHandlerFactory extends BaseThingHandlerFactory {
     final NetworkBindingConfiguration configuration = new NetworkBindingConfiguration();
+    private @NonNullByDefault({}) PresenceDetectionEngine engine;
 
     @Override
     public boolean supportsThingType(ThingTypeUID thingTypeUID) {
@@ -67,15 +70,24 @@ public class NetworkHandlerFactory extends BaseThingHandlerFactory {
         configuration.update(new Configuration(config).as(NetworkBindingConfiguration.class));
     }
 
+    @Reference
+    protected void setPresenceDetectionEngine(PresenceDetectionEngine engine) {
+        this.engine = engine;
+    }
+
+    protected void unsetPresenceDetectionEngine(PresenceDetectionEngine engine) {
+        this.engine = null;
+    }
+
     @Override
     protected @Nullable ThingHandler createHandler(Thing thing) {
         ThingTypeUID thingTypeUID = thing.getThingTypeUID();
 
         if (thingTypeUID.equals(NetworkBindingConstants.PING_DEVICE)
                 || thingTypeUID.equals(NetworkBindingConstants.BACKWARDS_COMPATIBLE_DEVICE)) {
-            return new NetworkHandler(thing, false, configuration);
+            return new NetworkHandler(thing, false, configuration, engine);
         } else if (thingTypeUID.equals(NetworkBindingConstants.SERVICE_DEVICE)) {
-            return new NetworkHandler(thing, true, configuration);
+            return new NetworkHandler(thing, true, configuration, engine);
         } else if (thingTypeUID.equals(NetworkBindingConstants.SPEEDTEST_DEVICE)) {
             return new SpeedTestHandler(thing);
         }
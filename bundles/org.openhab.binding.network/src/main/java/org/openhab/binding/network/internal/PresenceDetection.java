@@ -12,18 +12,20 @@
  */
 package org.openhab.binding.network.internal;
 
-import java.io.IOException;
 import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -35,6 +37,7 @@ import org.openhab.binding.network.internal.toberemoved.cache.ExpiringCacheAsync
 import org.openhab.binding.network.internal.utils.NetworkUtils;
 import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
 import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
+import org.openhab.binding.network.internal.utils.PresenceDetectionEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -74,15 +77,17 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     /// State variables (cannot be final because of test dependency injections)
     ExpiringCacheAsync<PresenceDetectionValue> cache;
     private final PresenceDetectionListener updateListener;
+    private final PresenceDetectionEngine engine;
     private @Nullable ScheduledFuture<?> refreshJob;
-    protected @Nullable ExecutorService executorService;
+    protected @Nullable CompletableFuture<Void> detection;
     private String dhcpState = "off";
     Integer currentCheck = 0;
     int detectionChecks;
 
-    public PresenceDetection(final PresenceDetectionListener updateListener, int cacheDeviceStateTimeInMS)
-            throws IllegalArgumentException {
+    public PresenceDetection(final PresenceDetectionListener updateListener, int cacheDeviceStateTimeInMS,
+            PresenceDetectionEngine engine) throws IllegalArgumentException {
         this.updateListener = updateListener;
+        this.engine = engine;
         cache = new ExpiringCacheAsync<PresenceDetectionValue>(cacheDeviceStateTimeInMS, () -> {
             performPresenceDetection(false);
         });
@@ -170,6 +175,17 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         }
     }
 
+    /**
+     * Sets the ping method without a feature test. Use this if many presence detections with an already tested
+     * method are created.
+     *
+     * @param pingMethod The ICMP ping method
+     */
+    public void setIcmpPingMethod(IpPingMethodEnum pingMethod) {
+        this.pingMethod = pingMethod;
+        ipPingState = pingMethod == IpPingMethodEnum.JAVA_PING ? "Java ping" : pingMethod.name();
+    }
+
     /**
      * Enables or disables ARP pings. Will be automatically disabled if the destination
      * is not an IPv4 address. If the feature test for the native arping utility fails,
@@ -271,14 +287,10 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         cache.getValue(callback);
     }
 
-    public ExecutorService getThreadsFor(int threadCount) {
-        return Executors.newFixedThreadPool(threadCount);
-    }
-
     /**
      * Perform a presence detection with ICMP-, ARP ping and
-     * TCP connection attempts simultaneously. A fixed thread pool will be created with as many
-     * thread as necessary to perform all tests at once.
+     * TCP connection attempts simultaneously. The checks are performed by the shared
+     * {@link PresenceDetectionEngine}, no threads are created for a detection.
      *
      * This is a NO-OP, if there is already an ongoing detection or if the cached value
      * is not expired yet.
@@ -292,7 +304,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      * @return Return true if a presence detection is performed and false otherwise.
      */
     public boolean performPresenceDetection(boolean waitForDetectionToFinish) {
-        if (executorService != null) {
+        if (detection != null) {
             logger.debug(
                     "There is already an ongoing presence discovery for {} and a new one was issued by the scheduler! TCP Port {}",
                     hostname, tcpPorts);
@@ -319,47 +331,32 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             return false;
         }
 
-        final ExecutorService executorService = getThreadsFor(detectionChecks);
-        this.executorService = executorService;
+        final CompletableFuture<Void> detection = new CompletableFuture<>();
+        this.detection = detection;
 
+        List<CompletableFuture<Void>> checks = new ArrayList<>();
         for (Integer tcpPort : tcpPorts) {
-            executorService.execute(() -> {
-                Thread.currentThread().setName("presenceDetectionTCP_" + hostname + " " + String.valueOf(tcpPort));
-                performServicePing(tcpPort);
-                checkIfFinished();
-            });
+            checks.add(performServicePing(tcpPort));
         }
 
-        // ARP ping for IPv4 addresses. Use single executor for Windows tool and 
-        // each own executor for each network interface for other tools
+        // ARP ping for IPv4 addresses. Use a single check for the Windows tool and
+        // one check for each network interface for other tools
         if (arpPingMethod == ArpPingUtilEnum.ELI_FULKERSON_ARP_PING_FOR_WINDOWS) {
-            executorService.execute(() -> {
-               Thread.currentThread().setName("presenceDetectionARP_" + hostname + " ");
-               // arp-ping.exe tool capable of handling multiple interfaces by itself
-               performARPping("");
-               checkIfFinished();
-            });
-        } else if (interfaceNames != null) {                        
+            // arp-ping.exe tool capable of handling multiple interfaces by itself
+            checks.add(performARPping(""));
+        } else if (interfaceNames != null) {
             for (final String interfaceName : interfaceNames) {
-                executorService.execute(() -> {
-                   Thread.currentThread().setName("presenceDetectionARP_" + hostname + " " + interfaceName);
-                   performARPping(interfaceName);
-                   checkIfFinished();
-               });               
+                checks.add(performARPping(interfaceName));
             }
         }
 
         // ICMP ping
         if (pingMethod != null) {
-            executorService.execute(() -> {
-                if (pingMethod != IpPingMethodEnum.JAVA_PING) {
-                    Thread.currentThread().setName("presenceDetectionICMP_" + hostname);
-                    performSystemPing();
-                } else {
-                    performJavaPing();
-                }
-                checkIfFinished();
-            });
+            checks.add(pingMethod != IpPingMethodEnum.JAVA_PING ? performSystemPing() : performJavaPing());
+        }
+
+        for (CompletableFuture<Void> check : checks) {
+            check.whenComplete((result, e) -> checkIfFinished(detection));
         }
 
         if (waitForDetectionToFinish) {
@@ -372,18 +369,17 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     /**
      * Calls updateListener.finalDetectionResult() with a final result value.
      * Safe to be called from different threads. After a call to this method,
-     * the presence detection process is finished and all threads are forcefully
-     * shut down.
+     * the presence detection process is finished. Results of checks that are
+     * still running are ignored.
      */
     private synchronized void submitFinalResult() {
         // Do nothing if we are not in a detection process
-        ExecutorService service = executorService;
-        if (service == null) {
+        CompletableFuture<Void> detection = this.detection;
+        if (detection == null) {
             return;
         }
         // Finish the detection process
-        service.shutdownNow();
-        executorService = null;
+        this.detection = null;
         detectionChecks = 0;
 
         PresenceDetectionValue v;
@@ -404,6 +400,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             destination.invalidateValue();
         }
         updateListener.finalDetectionResult(v);
+        detection.complete(null);
     }
 
     /**
@@ -411,8 +408,14 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      * If the counter equals the total checks,the final result is submitted. This will
      * happen way before the "timeoutInMS", if all checks were successful.
      * Thread safe.
+     *
+     * @param detection The detection process the check belongs to
      */
-    private synchronized void checkIfFinished() {
+    private synchronized void checkIfFinished(CompletableFuture<Void> detection) {
+        if (this.detection != detection) {
+            // A late result of a finished detection process
+            return;
+        }
         currentCheck += 1;
         if (currentCheck < detectionChecks) {
             return;
@@ -421,22 +424,26 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     }
 
     /**
-     * Waits for the presence detection threads to finish. Returns immediately
-     * if no presence detection is performed right now.
+     * Waits for the presence detection checks to finish, but at most for the timeout.
+     * Returns immediately if no presence detection is performed right now.
      */
     public void waitForPresenceDetection() {
-        ExecutorService service = executorService;
-        if (service == null) {
+        CompletableFuture<Void> detection = this.detection;
+        if (detection == null) {
             return;
         }
         try {
             // We may get interrupted here by cancelRefreshJob().
-            service.awaitTermination(timeoutInMS + 100, TimeUnit.MILLISECONDS);
+            detection.get(timeoutInMS + 100, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
             submitFinalResult();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt(); // Reset interrupt flag
-            service.shutdownNow();
-            executorService = null;
+            synchronized (this) {
+                if (this.detection == detection) {
+                    this.detection = null;
+                }
+            }
         }
     }
 
@@ -465,55 +472,43 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         return v;
     }
 
-    protected void performServicePing(int tcpPort) {
+    protected CompletableFuture<Void> performServicePing(int tcpPort) {
         logger.trace("Perform TCP presence detection for {} on port: {}", hostname, tcpPort);
-        try {
-            double pingTime = System.nanoTime();
-            InetAddress destinationAddress = destination.getValue();
-            if (destinationAddress != null
-                    && networkUtils.servicePing(destinationAddress.getHostAddress(), tcpPort, timeoutInMS)) {
-                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
-                PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.TCP_CONNECTION, latency);
+        InetAddress destinationAddress = destination.getValue();
+        if (destinationAddress == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return engine.servicePing(destinationAddress, tcpPort, timeoutInMS).thenAccept(latency -> {
+            if (latency != PresenceDetectionEngine.UNREACHABLE) {
+                PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.TCP_CONNECTION,
+                        Math.round(latency));
                 v.addReachableTcpService(tcpPort);
                 updateListener.partialDetectionResult(v);
             }
-        } catch (IOException e) {
-            // This should not happen and might be a user configuration issue, we log a warning message therefore.
-            logger.warn("Could not create a socket connection", e);
-        }
+        });
     }
 
     /**
      * Performs an "ARP ping" (ARP request) on the given interface.
-     * If it is an iOS device, the {@see NetworkUtils.wakeUpIOS()} method is
-     * called before performing the ARP ping.
+     * If it is an iOS device, a packet to wake up the device is sent
+     * before performing the ARP ping.
      *
      * @param interfaceName The interface name. You can request a list of interface names
      *            from {@see NetworkUtils.getInterfaceNames()} for example.
      */
-    protected void performARPping(String interfaceName) {
-        try {
-            logger.trace("Perform ARP ping presence detection for {} on interface: {}", hostname, interfaceName);
-            InetAddress destinationAddress = destination.getValue();
-            if (destinationAddress == null) {
-                return;
-            }
-            if (iosDevice) {
-                networkUtils.wakeUpIOS(destinationAddress);
-                Thread.sleep(50);
-            }
-            double pingTime = System.nanoTime();
-            if (networkUtils.nativeARPPing(arpPingMethod, arpPingUtilPath, interfaceName,
-                    destinationAddress.getHostAddress(), timeoutInMS)) {
-                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
-                PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.ARP_PING, latency);
-                updateListener.partialDetectionResult(v);
-            }
-        } catch (IOException e) {
-            logger.trace("Failed to execute an arp ping for ip {}", hostname, e);
-        } catch (InterruptedException ignored) {
-            // This can be ignored, the thread will end anyway
+    protected CompletableFuture<Void> performARPping(String interfaceName) {
+        logger.trace("Perform ARP ping presence detection for {} on interface: {}", hostname, interfaceName);
+        InetAddress destinationAddress = destination.getValue();
+        if (destinationAddress == null) {
+            return CompletableFuture.completedFuture(null);
         }
+        return engine.arpPing(arpPingMethod, arpPingUtilPath, interfaceName, destinationAddress, timeoutInMS,
+                iosDevice).thenAccept(latency -> {
+                    if (latency != PresenceDetectionEngine.UNREACHABLE) {
+                        updateListener.partialDetectionResult(
+                                updateReachableValue(PresenceDetectionType.ARP_PING, Math.round(latency)));
+                    }
+                });
     }
 
     /**
@@ -522,42 +517,31 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      * the TCP echo service on port 7 which barely no device or server supports nowadays.
      * (http://docs.oracle.com/javase/7/docs/api/java/net/InetAddress.html#isReachable%28int%29)
      */
-    protected void performJavaPing() {
-        try {
-            logger.trace("Perform java ping presence detection for {}", hostname);
-            double pingTime = System.nanoTime();
-            InetAddress destinationAddress = destination.getValue();
-            if (destinationAddress == null) {
-                return;
-            }
-            if (destinationAddress.isReachable(timeoutInMS)) {
-                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
-                PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.ICMP_PING, latency);
-                updateListener.partialDetectionResult(v);
-            }
-        } catch (IOException e) {
-            logger.trace("Failed to execute a java ping for ip {}", hostname, e);
+    protected CompletableFuture<Void> performJavaPing() {
+        logger.trace("Perform java ping presence detection for {}", hostname);
+        return performIcmpPing(IpPingMethodEnum.JAVA_PING);
+    }
+
+    protected CompletableFuture<Void> performSystemPing() {
+        logger.trace("Perform native ping presence detection for {}", hostname);
+        IpPingMethodEnum pingMethod = this.pingMethod;
+        if (pingMethod == null) {
+            return CompletableFuture.completedFuture(null);
         }
+        return performIcmpPing(pingMethod);
     }
 
-    protected void performSystemPing() {
-        try {
-            logger.trace("Perform native ping presence detection for {}", hostname);
-            double pingTime = System.nanoTime();
-            InetAddress destinationAddress = destination.getValue();
-            if (destinationAddress == null) {
-                return;
-            }
-            if (networkUtils.nativePing(pingMethod, destinationAddress.getHostAddress(), timeoutInMS)) {
-                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
-                PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.ICMP_PING, latency);
-                updateListener.partialDetectionResult(v);
-            }
-        } catch (IOException e) {
-            logger.trace("Failed to execute a native ping for ip {}", hostname, e);
-        } catch (InterruptedException e) {
-            // This can be ignored, the thread will end anyway
+    private CompletableFuture<Void> performIcmpPing(IpPingMethodEnum method) {
+        InetAddress destinationAddress = destination.getValue();
+        if (destinationAddress == null) {
+            return CompletableFuture.completedFuture(null);
         }
+        return engine.icmpPing(method, destinationAddress, timeoutInMS).thenAccept(latency -> {
+            if (latency != PresenceDetectionEngine.UNREACHABLE) {
+                updateListener.partialDetectionResult(
+                        updateReachableValue(PresenceDetectionType.ICMP_PING, Math.round(latency)));
+            }
+        });
     }
 
     @Override
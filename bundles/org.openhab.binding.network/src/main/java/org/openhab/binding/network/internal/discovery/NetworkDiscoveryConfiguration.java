@@ -0,0 +1,29 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.discovery;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Contains the discovery configuration and default values. The field names represent the configuration names,
+ * do not rename them if you don't intend to break the configuration interface.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class NetworkDiscoveryConfiguration {
+    /** The maximum number of hosts that are probed at the same time */
+    public Integer maxConcurrentProbes = 64;
+    /** The maximum number of packets per second, that the probes of all hosts together send */
+    public Integer packetsPerSecond = 200;
+}
@@ -19,8 +19,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -37,10 +35,13 @@ import org.openhab.binding.network.internal.PresenceDetection;
 import org.openhab.binding.network.internal.PresenceDetectionListener;
 import org.openhab.binding.network.internal.PresenceDetectionValue;
 import org.openhab.binding.network.internal.utils.NetworkUtils;
+import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
+import org.openhab.binding.network.internal.utils.PresenceDetectionEngine;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,24 +57,52 @@ import org.slf4j.LoggerFactory;
 @Component(service = DiscoveryService.class, immediate = true, configurationPid = "discovery.network")
 public class NetworkDiscoveryService extends AbstractDiscoveryService implements PresenceDetectionListener {
     static final int PING_TIMEOUT_IN_MS = 500;
-    static final int MAXIMUM_IPS_PER_INTERFACE = 255;
+    static final int MAXIMUM_IPS_PER_INTERFACE = 4096;
     private static final long DISCOVERY_RESULT_TTL = TimeUnit.MINUTES.toSeconds(10);
     private final Logger logger = LoggerFactory.getLogger(NetworkDiscoveryService.class);
 
     // TCP port 548 (Apple Filing Protocol (AFP))
     // TCP port 554 (Windows share / Linux samba)
     // TCP port 1025 (Xbox / MS-RPC)
-    private Set<Integer> tcpServicePorts = Collections
+    private static final Set<Integer> TCP_SERVICE_PORTS = Collections
             .unmodifiableSet(Stream.of(80, 548, 554, 1025).collect(Collectors.toSet()));
-    private Integer scannedIPcount = 0;
-    private @Nullable ExecutorService executorService = null;
+    private @Nullable SubnetSweep sweep;
     private final NetworkBindingConfiguration configuration = new NetworkBindingConfiguration();
+    private NetworkDiscoveryConfiguration discoveryConfiguration = new NetworkDiscoveryConfiguration();
     private final NetworkUtils networkUtils = new NetworkUtils();
+    private @NonNullByDefault({}) PresenceDetectionEngine engine;
+    /** The scan timeout for the active configuration in seconds */
+    private volatile int scanTimeout;
 
     public NetworkDiscoveryService() {
-        super(SUPPORTED_THING_TYPES_UIDS, (int) Math.round(
-                new NetworkUtils().getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE).size() * (PING_TIMEOUT_IN_MS / 1000.0)),
-                false);
+        // The scan timeout depends on the configuration, see getScanTimeout()
+        super(SUPPORTED_THING_TYPES_UIDS, 0, false);
+    }
+
+    /**
+     * Returns the duration of a scan with the given configuration in seconds. The scan is limited by the packet rate
+     * and by the number of probes in flight, each of which takes up to the ping timeout.
+     */
+    private int estimateScanTimeout(NetworkDiscoveryConfiguration discoveryConfiguration) {
+        long addresses = networkUtils.countNetworkIPs(networkUtils.getInterfaceIPs(), MAXIMUM_IPS_PER_INTERFACE);
+        long rateLimitedMillis = addresses * packetsPerHost(networkUtils) * 1000
+                / Math.max(1, discoveryConfiguration.packetsPerSecond);
+        long concurrencyLimitedMillis = addresses * PING_TIMEOUT_IN_MS
+                / Math.max(1, discoveryConfiguration.maxConcurrentProbes);
+        long millis = Math.max(rateLimitedMillis, concurrencyLimitedMillis) + PING_TIMEOUT_IN_MS;
+        return (int) Math.min(Integer.MAX_VALUE, TimeUnit.MILLISECONDS.toSeconds(millis) + 1);
+    }
+
+    @Override
+    public int getScanTimeout() {
+        return scanTimeout;
+    }
+
+    /**
+     * The packets of the presence detection of a host: One per TCP port, an ICMP ping and an ARP ping per interface.
+     */
+    private static int packetsPerHost(NetworkUtils networkUtils) {
+        return TCP_SERVICE_PORTS.size() + 1 + Math.max(1, networkUtils.getInterfaceNames().size());
     }
 
     @Override
@@ -91,13 +120,26 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
         // configuration, the values are automatically available in all handlers. Because they all
         // share the same instance.
         configuration.update(new Configuration(config).as(NetworkBindingConfiguration.class));
+        discoveryConfiguration = new Configuration(config).as(NetworkDiscoveryConfiguration.class);
+        scanTimeout = estimateScanTimeout(discoveryConfiguration);
+    }
+
+    @Reference
+    protected void setPresenceDetectionEngine(PresenceDetectionEngine engine) {
+        this.engine = engine;
+    }
+
+    protected void unsetPresenceDetectionEngine(PresenceDetectionEngine engine) {
+        this.engine = null;
     }
 
     @Override
     @Deactivate
     protected void deactivate() {
-        if (executorService != null) {
-            executorService.shutdown();
+        final SubnetSweep sweep = this.sweep;
+        if (sweep != null) {
+            sweep.stop();
+            this.sweep = null;
         }
         super.deactivate();
     }
@@ -120,64 +162,74 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Starts the DiscoveryThread for each IP on each interface on the network
+     * Sweeps all IPs on each interface on the network. The addresses are generated while sweeping and probed within
+     * the configured concurrency and packet rate. Devices are reported as soon as they answer.
      */
     @Override
-    protected void startScan() {
-        if (executorService == null) {
-            executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
-        }
-        final ExecutorService service = executorService;
-        if (service == null) {
+    protected synchronized void startScan() {
+        SubnetSweep previous = sweep;
+        if (previous != null && !previous.isDone()) {
+            logger.debug("Network Device Discovery is already running");
             return;
         }
         removeOlderResults(getTimestampOfLastScan(), null);
         logger.trace("Starting Network Device Discovery");
 
-        final Set<String> networkIPs = networkUtils.getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE);
-        scannedIPcount = 0;
-
-        for (String ip : networkIPs) {
-            final PresenceDetection s = new PresenceDetection(this, 2000);
-            s.setHostname(ip);
-            s.setIOSDevice(true);
-            s.setUseDhcpSniffing(false);
-            s.setTimeout(PING_TIMEOUT_IN_MS);
-            // Ping devices
-            s.setUseIcmpPing(true);
-            s.setUseArpPing(true, configuration.arpPingToolPath, configuration.arpPingUtilMethod);
-            // TCP devices
-            s.setServicePorts(tcpServicePorts);
-
-            service.execute(() -> {
-                Thread.currentThread().setName("Discovery thread " + ip);
-                s.performPresenceDetection(true);
-                synchronized (scannedIPcount) {
-                    scannedIPcount += 1;
-                    if (scannedIPcount == networkIPs.size()) {
-                        logger.trace("Scan of {} IPs successful", scannedIPcount);
-                        stopScan();
-                    }
+        // The feature test of the ping method runs a ping process, do it once for all hosts
+        final IpPingMethodEnum pingMethod = networkUtils.determinePingMethod();
+        final SubnetSweep sweep = new SubnetSweep(
+                networkUtils.getNetworkIPIterator(networkUtils.getInterfaceIPs(), MAXIMUM_IPS_PER_INTERFACE),
+                discoveryConfiguration.maxConcurrentProbes, discoveryConfiguration.packetsPerSecond,
+                packetsPerHost(networkUtils), ip -> probe(ip, pingMethod), this::sweepFinished);
+        this.sweep = sweep;
+        sweep.start(scheduler);
+    }
+
+    /**
+     * Starts the presence detection of a single host.
+     *
+     * @return True if a detection has been started, false if there is nothing to detect
+     */
+    private boolean probe(String ip, IpPingMethodEnum pingMethod) {
+        final SubnetSweep sweep = this.sweep;
+        final PresenceDetection s = new PresenceDetection(new PresenceDetectionListener() {
+            @Override
+            public void partialDetectionResult(PresenceDetectionValue value) {
+                NetworkDiscoveryService.this.partialDetectionResult(value);
+            }
+
+            @Override
+            public void finalDetectionResult(PresenceDetectionValue value) {
+                if (sweep != null) {
+                    sweep.probeFinished();
                 }
-            });
-        }
+            }
+        }, 2000, engine);
+        s.setHostname(ip);
+        s.setIOSDevice(true);
+        s.setUseDhcpSniffing(false);
+        s.setTimeout(PING_TIMEOUT_IN_MS);
+        // Ping devices
+        s.setIcmpPingMethod(pingMethod);
+        s.setUseArpPing(true, configuration.arpPingToolPath, configuration.arpPingUtilMethod);
+        // TCP devices
+        s.setServicePorts(TCP_SERVICE_PORTS);
+        return s.performPresenceDetection(false);
+    }
+
+    private void sweepFinished() {
+        final SubnetSweep sweep = this.sweep;
+        logger.trace("Scan of {} IPs successful", sweep != null ? sweep.getProbed() : 0);
+        stopScan();
     }
 
     @Override
     protected synchronized void stopScan() {
         super.stopScan();
-        final ExecutorService service = executorService;
-        if (service == null) {
-            return;
-        }
-
-        try {
-            service.awaitTermination(PING_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt(); // Reset interrupt flag
+        final SubnetSweep sweep = this.sweep;
+        if (sweep != null) {
+            sweep.stop();
         }
-        service.shutdown();
-        executorService = null;
     }
 
     public static ThingUID createServiceUID(String ip, int tcpPort) {
@@ -186,7 +238,8 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Submit newly discovered devices. This method is called by the spawned threads in {@link startScan}.
+     * Submit newly discovered devices. This method is called as soon as a device answers a probe of
+     * {@link #startScan}.
      *
      * @param ip The device IP
      * @param tcpPort The TCP port
@@ -229,7 +282,8 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Submit newly discovered devices. This method is called by the spawned threads in {@link startScan}.
+     * Submit newly discovered devices. This method is called as soon as a device answers a probe of
+     * {@link #startScan}.
      *
      * @param ip The device IP
      */
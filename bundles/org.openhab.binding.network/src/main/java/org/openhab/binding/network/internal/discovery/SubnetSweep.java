@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.discovery;
+
+import java.util.Iterator;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Probes the addresses of a network sweep one after another, while keeping the number of probes in flight and the
+ * packets per second within the configured limits. Addresses are taken from the iterator only when a probe is
+ * started, so a large network is never held in memory.
+ *
+ * The packet rate is enforced by a token bucket, which is refilled every {@value #TICK_IN_MS} ms. A probe costs the
+ * number of packets that a presence detection of a host sends.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+class SubnetSweep {
+    static final int TICK_IN_MS = 50;
+
+    private final Iterator<String> addresses;
+    private final int maxConcurrentProbes;
+    private final int packetsPerSecond;
+    private final int packetsPerProbe;
+    private final Predicate<String> probe;
+    private final Runnable finished;
+    private final LongSupplier nanoTime;
+
+    private @Nullable ScheduledFuture<?> job;
+    private int inFlight;
+    private int probed;
+    private double budget;
+    private long lastTickNanos;
+    private boolean done;
+
+    /**
+     * Creates a sweep. Call {@link #start(ScheduledExecutorService)} to start it.
+     *
+     * @param addresses The addresses to probe
+     * @param maxConcurrentProbes The maximum number of probes in flight
+     * @param packetsPerSecond The maximum packets per second of all probes
+     * @param packetsPerProbe The packets of a single probe
+     * @param probe Starts the probe of an address. Returns true if a probe has been started and
+     *            {@link #probeFinished()} will be called, false otherwise. Called with the lock of the sweep
+     *            held, must not block.
+     * @param finished Called once when all addresses are probed, but not if the sweep is stopped
+     */
+    SubnetSweep(Iterator<String> addresses, int maxConcurrentProbes, int packetsPerSecond, int packetsPerProbe,
+            Predicate<String> probe, Runnable finished) {
+        this(addresses, maxConcurrentProbes, packetsPerSecond, packetsPerProbe, probe, finished, System::nanoTime);
+    }
+
+    /**
+     * Creates a sweep that refills the packet budget according to the given time source.
+     *
+     * @param nanoTime Returns the current time in nanoseconds, like {@link System#nanoTime()}
+     */
+    SubnetSweep(Iterator<String> addresses, int maxConcurrentProbes, int packetsPerSecond, int packetsPerProbe,
+            Predicate<String> probe, Runnable finished, LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        this.addresses = addresses;
+        this.maxConcurrentProbes = Math.max(1, maxConcurrentProbes);
+        this.packetsPerSecond = Math.max(1, packetsPerSecond);
+        this.packetsPerProbe = Math.max(1, packetsPerProbe);
+        this.probe = probe;
+        this.finished = finished;
+    }
+
+    synchronized void start(ScheduledExecutorService scheduler) {
+        lastTickNanos = nanoTime.getAsLong();
+        budget = packetsPerProbe;
+        job = scheduler.scheduleWithFixedDelay(this::tick, 0, TICK_IN_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Refills the packet budget and starts as many probes as the limits allow.
+     */
+    void tick() {
+        if (startProbes()) {
+            finished.run();
+        }
+    }
+
+    private synchronized boolean startProbes() {
+        if (done) {
+            return false;
+        }
+        long now = nanoTime.getAsLong();
+        // A burst is limited to the packets of two ticks, but at least one probe
+        double maxBudget = Math.max(packetsPerProbe, packetsPerSecond * 2.0 * TICK_IN_MS / 1000);
+        budget = Math.min(maxBudget, budget + (now - lastTickNanos) / 1e9 * packetsPerSecond);
+        lastTickNanos = now;
+
+        while (!done && inFlight < maxConcurrentProbes && budget >= packetsPerProbe && addresses.hasNext()) {
+            String address = addresses.next();
+            budget -= packetsPerProbe;
+            inFlight++;
+            if (!probe.test(address)) {
+                inFlight--;
+                probed++;
+            }
+        }
+        return checkFinished();
+    }
+
+    /**
+     * To be called when a probe has finished.
+     */
+    void probeFinished() {
+        boolean sweepFinished;
+        // A probe that finished immediately, while starting the probes. They check for the end themselves.
+        boolean startingProbes = Thread.holdsLock(this);
+        synchronized (this) {
+            if (inFlight > 0) {
+                inFlight--;
+            }
+            probed++;
+            sweepFinished = !startingProbes && checkFinished();
+        }
+        // Not called with the lock held, the callback may stop the sweep from another thread
+        if (sweepFinished) {
+            finished.run();
+        }
+    }
+
+    /**
+     * Stops starting new probes. Probes in flight are not aborted.
+     */
+    synchronized void stop() {
+        done = true;
+        ScheduledFuture<?> job = this.job;
+        if (job != null) {
+            job.cancel(false);
+            this.job = null;
+        }
+    }
+
+    /**
+     * Stops the sweep if all probes are finished.
+     *
+     * @return True if the sweep has been finished by this call
+     */
+    private boolean checkFinished() {
+        if (!done && inFlight == 0 && !addresses.hasNext()) {
+            stop();
+            return true;
+        }
+        return false;
+    }
+
+    /** Returns the number of probes in flight */
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /** Returns the number of finished probes */
+    synchronized int getProbed() {
+        return probed;
+    }
+
+    synchronized boolean isDone() {
+        return done;
+    }
+}
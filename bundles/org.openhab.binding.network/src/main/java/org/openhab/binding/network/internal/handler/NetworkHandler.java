@@ -41,6 +41,7 @@ import org.openhab.binding.network.internal.NetworkHandlerConfiguration;
 import org.openhab.binding.network.internal.PresenceDetection;
 import org.openhab.binding.network.internal.PresenceDetectionListener;
 import org.openhab.binding.network.internal.PresenceDetectionValue;
+import org.openhab.binding.network.internal.utils.PresenceDetectionEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,6 +59,7 @@ public class NetworkHandler extends BaseThingHandler implements PresenceDetectio
 
     private boolean isTCPServiceDevice;
     private NetworkBindingConfiguration configuration;
+    private final PresenceDetectionEngine engine;
 
     // How many retries before a device is deemed offline
     int retries;
@@ -68,10 +70,12 @@ public class NetworkHandler extends BaseThingHandler implements PresenceDetectio
     /**
      * Do not call this directly, but use the {@see NetworkHandlerBuilder} instead.
      */
-    public NetworkHandler(Thing thing, boolean isTCPServiceDevice, NetworkBindingConfiguration configuration) {
+    public NetworkHandler(Thing thing, boolean isTCPServiceDevice, NetworkBindingConfiguration configuration,
+            PresenceDetectionEngine engine) {
         super(thing);
         this.isTCPServiceDevice = isTCPServiceDevice;
         this.configuration = configuration;
+        this.engine = engine;
     }
 
     private void refreshValue(ChannelUID channelUID) {
@@ -209,7 +213,7 @@ public class NetworkHandler extends BaseThingHandler implements PresenceDetectio
     // Create a new network service and apply all configurations.
     @Override
     public void initialize() {
-        initialize(new PresenceDetection(this, configuration.cacheDeviceStateTimeInMS.intValue()));
+        initialize(new PresenceDetection(this, configuration.cacheDeviceStateTimeInMS.intValue(), engine));
     }
 
     /**
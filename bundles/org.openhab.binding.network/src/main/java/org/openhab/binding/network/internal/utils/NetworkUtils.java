@@ -28,9 +28,14 @@ import java.net.Socket;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -143,6 +148,88 @@ public class NetworkUtils {
         return networkIPs;
     }
 
+    /**
+     * Like {@link #getNetworkIPs(Set, int)}, but the addresses are generated while iterating. Networks of several
+     * interfaces that are equal are only iterated once.
+     *
+     * @param interfaceIPs The IPs which are assigned to the Network Interfaces
+     * @param maximumPerInterface The maximum of IP addresses per interface or 0 to get all.
+     * @return An iterator over every single IP which can be assigned on the Networks the computer is connected to
+     */
+    public Iterator<String> getNetworkIPIterator(Set<CidrAddress> interfaceIPs, int maximumPerInterface) {
+        final List<long[]> ranges = getNetworkRanges(interfaceIPs, maximumPerInterface);
+        return new Iterator<String>() {
+            private int range = 0;
+            private long next = ranges.isEmpty() ? 0 : ranges.get(0)[0];
+
+            @Override
+            public boolean hasNext() {
+                while (range < ranges.size() && next >= ranges.get(range)[0] + ranges.get(range)[1]) {
+                    range++;
+                    if (range < ranges.size()) {
+                        next = ranges.get(range)[0];
+                    }
+                }
+                return range < ranges.size();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long address = next++;
+                return ((address >> 24) & 0xFF) + "." + ((address >> 16) & 0xFF) + "." + ((address >> 8) & 0xFF) + "."
+                        + (address & 0xFF);
+            }
+        };
+    }
+
+    /**
+     * Returns the number of addresses {@link #getNetworkIPIterator(Set, int)} returns, without generating them.
+     */
+    public long countNetworkIPs(Set<CidrAddress> interfaceIPs, int maximumPerInterface) {
+        return getNetworkRanges(interfaceIPs, maximumPerInterface).stream().mapToLong(r -> r[1]).sum();
+    }
+
+    /**
+     * Returns the first host address and the number of host addresses of each network, with the same limits as
+     * {@link #getNetworkIPs(Set, int)}.
+     */
+    private List<long[]> getNetworkRanges(Set<CidrAddress> interfaceIPs, int maximumPerInterface) {
+        int minCidrPrefixLength = 8; // historic Class A network, addresses = 16777214
+        if (maximumPerInterface != 0) {
+            minCidrPrefixLength = Integer.numberOfLeadingZeros(maximumPerInterface);
+            if (Integer.bitCount(maximumPerInterface) == 1) {
+                minCidrPrefixLength--;
+            }
+        }
+
+        List<long[]> ranges = new ArrayList<>();
+        for (CidrAddress cidrNotation : interfaceIPs) {
+            byte[] bytes = cidrNotation.getAddress().getAddress();
+            if (bytes.length != 4) {
+                continue;
+            }
+            int prefix = Math.max(cidrNotation.getPrefix(), minCidrPrefixLength);
+            if (prefix > 30) {
+                // Point-to-point links and single hosts have no other hosts in their network
+                continue;
+            }
+            long address = ByteBuffer.wrap(bytes).getInt() & 0xFFFFFFFFL;
+            long hostCount = (1L << (32 - prefix)) - 2;
+            long network = address & ~((1L << (32 - prefix)) - 1) & 0xFFFFFFFFL;
+            if (maximumPerInterface != 0 && maximumPerInterface < hostCount) {
+                hostCount = maximumPerInterface;
+            }
+            long[] range = new long[] { network + 1, hostCount };
+            if (ranges.stream().noneMatch(r -> r[0] == range[0] && r[1] == range[1])) {
+                ranges.add(range);
+            }
+        }
+        return ranges;
+    }
+
     /**
      * Try to establish a tcp connection to the given port. Returns false if a timeout occurred
      * or the connection was denied.
@@ -0,0 +1,535 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang.SystemUtils;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.NamedThreadFactory;
+import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
+import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Performs the presence checks of all network things and the discovery with a bounded set of threads.
+ *
+ * <ul>
+ * <li>TCP service pings are non-blocking connects, multiplexed on a single {@link Selector} thread.
+ * <li>ICMP pings to IPv4 addresses are collected for {@value #ICMP_BATCH_DELAY_IN_MS} ms and sent by a single
+ * <code>fping</code> process per batch, if <code>fping</code> is installed. Otherwise and for ARP pings, which have
+ * no batch capable tool, the native tools are executed on a shared thread pool. The pool grows with the number of
+ * pending tool checks, up to {@value #MAX_TOOL_THREADS} threads, so that a check waits for a free thread only if
+ * that many tools are running already.
+ * <li>Identical checks that are in flight at the same time are only performed once, all callers get the same
+ * result.
+ * </ul>
+ *
+ * All checks complete with the latency in milliseconds or with {@link #UNREACHABLE}. They complete within their
+ * timeout plus the time a check waits for a free thread. Callbacks are executed on the engine threads and must not
+ * block.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+@Component(service = PresenceDetectionEngine.class)
+public class PresenceDetectionEngine {
+    public static final double UNREACHABLE = -1;
+    /** ICMP pings are collected for this time to be sent in one batch */
+    static final int ICMP_BATCH_DELAY_IN_MS = 20;
+    /** The time between waking up an iOS device and the ARP ping */
+    private static final int IOS_WAKEUP_DELAY_IN_MS = 50;
+    /** Threads for the tools without batch support. They wait for a process most of the time. */
+    static final int MIN_TOOL_THREADS = 2;
+    static final int MAX_TOOL_THREADS = 64;
+    /** Threads above the minimum are stopped after being idle for this time */
+    private static final int TOOL_THREAD_KEEP_ALIVE_IN_S = 60;
+    private static final int IOS_WAKEUP_PORT = 5353;
+    private static final Pattern FPING_RESULT = Pattern
+            .compile("^(\\S+) is alive(?: \\(([0-9.]+) ms\\))?", Pattern.MULTILINE);
+
+    private final Logger logger = LoggerFactory.getLogger(PresenceDetectionEngine.class);
+
+    NetworkUtils networkUtils = new NetworkUtils();
+    private final Map<String, CompletableFuture<Double>> inFlight = new ConcurrentHashMap<>();
+    private final Queue<ServicePing> newServicePings = new ConcurrentLinkedQueue<>();
+    private final List<IcmpPing> icmpBatch = new ArrayList<>();
+    private final AtomicInteger pendingToolChecks = new AtomicInteger();
+    private @Nullable ScheduledThreadPoolExecutor executor;
+    private @Nullable Selector selector;
+    private @Nullable DatagramSocket wakeUpSocket;
+    volatile boolean fpingAvailable;
+    @Nullable
+    Future<?> fpingDetection;
+
+    private static class ServicePing {
+        final InetSocketAddress address;
+        final CompletableFuture<Double> future;
+        final long startNanos = System.nanoTime();
+        final long deadlineNanos;
+
+        ServicePing(InetSocketAddress address, int timeoutInMS, CompletableFuture<Double> future) {
+            this.address = address;
+            this.future = future;
+            this.deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutInMS);
+        }
+    }
+
+    private static class IcmpPing {
+        final String hostAddress;
+        final int timeoutInMS;
+        final CompletableFuture<Double> future;
+
+        IcmpPing(String hostAddress, int timeoutInMS, CompletableFuture<Double> future) {
+            this.hostAddress = hostAddress;
+            this.timeoutInMS = timeoutInMS;
+            this.future = future;
+        }
+    }
+
+    @Activate
+    public void activate() throws IOException {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(MIN_TOOL_THREADS,
+                new NamedThreadFactory("networkPresence"));
+        executor.setRemoveOnCancelPolicy(true);
+        executor.setKeepAliveTime(TOOL_THREAD_KEEP_ALIVE_IN_S, TimeUnit.SECONDS);
+        this.executor = executor;
+
+        Selector selector = Selector.open();
+        this.selector = selector;
+        Thread thread = new Thread(() -> selectLoop(selector), "networkPresenceTCP");
+        thread.setDaemon(true);
+        thread.start();
+
+        // Not available on Windows and only useful for IPv4. Until detected, ICMP pings are not batched.
+        if (!SystemUtils.IS_OS_WINDOWS) {
+            fpingDetection = executor.submit(() -> {
+                fpingAvailable = detectFping();
+                logger.debug("Batched ICMP pings: {}", fpingAvailable);
+            });
+        }
+        logger.debug("Presence detection engine started");
+    }
+
+    @Deactivate
+    public void deactivate() {
+        final Selector selector = this.selector;
+        this.selector = null;
+        if (selector != null) {
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+        final ScheduledExecutorService executor = this.executor;
+        this.executor = null;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        synchronized (icmpBatch) {
+            icmpBatch.clear();
+        }
+        final DatagramSocket wakeUpSocket = this.wakeUpSocket;
+        this.wakeUpSocket = null;
+        if (wakeUpSocket != null) {
+            wakeUpSocket.close();
+        }
+        inFlight.values().forEach(future -> future.complete(UNREACHABLE));
+    }
+
+    /**
+     * Returns the result of a pending identical check or starts the check.
+     */
+    private CompletableFuture<Double> coalesce(String key, Consumer<CompletableFuture<Double>> check) {
+        CompletableFuture<Double> future = new CompletableFuture<>();
+        CompletableFuture<Double> pending = inFlight.putIfAbsent(key, future);
+        if (pending != null) {
+            return pending;
+        }
+        future.whenComplete((latency, e) -> inFlight.remove(key, future));
+        if (executor == null) {
+            future.complete(UNREACHABLE);
+        } else {
+            check.accept(future);
+        }
+        return future;
+    }
+
+    private static double latencySince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000000.0;
+    }
+
+    /**
+     * Try to establish a tcp connection to the given port.
+     *
+     * @param address The destination address
+     * @param port The tcp port. Must be not 0.
+     * @param timeoutInMS Timeout in milliseconds
+     * @return The latency or {@link #UNREACHABLE} if the connection was denied or timed out
+     */
+    public CompletableFuture<Double> servicePing(InetAddress address, int port, int timeoutInMS) {
+        return coalesce("tcp " + address.getHostAddress() + ":" + port, future -> {
+            newServicePings.add(new ServicePing(new InetSocketAddress(address, port), timeoutInMS, future));
+            final Selector selector = this.selector;
+            if (selector != null) {
+                selector.wakeup();
+            }
+        });
+    }
+
+    private void selectLoop(Selector selector) {
+        long nextDeadlineNanos = Long.MAX_VALUE;
+        while (selector.isOpen()) {
+            try {
+                startServicePings(selector);
+                long now = System.nanoTime();
+                long waitInMS = nextDeadlineNanos == Long.MAX_VALUE ? 0
+                        : Math.max(1, TimeUnit.NANOSECONDS.toMillis(nextDeadlineNanos - now) + 1);
+                selector.select(waitInMS);
+
+                Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    finishServicePing(key);
+                }
+
+                // Time out the pending connects and determine the next deadline
+                now = System.nanoTime();
+                nextDeadlineNanos = Long.MAX_VALUE;
+                for (SelectionKey key : selector.keys()) {
+                    ServicePing ping = (ServicePing) key.attachment();
+                    if (!key.isValid() || ping == null) {
+                        continue;
+                    }
+                    if (now - ping.deadlineNanos >= 0) {
+                        closeServicePing(key, UNREACHABLE);
+                    } else {
+                        nextDeadlineNanos = Math.min(nextDeadlineNanos, ping.deadlineNanos);
+                    }
+                }
+            } catch (ClosedSelectorException e) {
+                break;
+            } catch (IOException e) {
+                logger.warn("TCP presence detection failed", e);
+            }
+        }
+        newServicePings.forEach(ping -> ping.future.complete(UNREACHABLE));
+    }
+
+    private void startServicePings(Selector selector) {
+        ServicePing ping;
+        while ((ping = newServicePings.poll()) != null) {
+            SocketChannel channel = null;
+            try {
+                channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                if (channel.connect(ping.address)) {
+                    channel.close();
+                    ping.future.complete(latencySince(ping.startNanos));
+                } else {
+                    channel.register(selector, SelectionKey.OP_CONNECT, ping);
+                }
+            } catch (IOException e) {
+                // Refused or no route to host
+                closeQuietly(channel);
+                ping.future.complete(UNREACHABLE);
+            }
+        }
+    }
+
+    private void finishServicePing(SelectionKey key) {
+        ServicePing ping = (ServicePing) key.attachment();
+        try {
+            if (key.isValid() && key.isConnectable() && ((SocketChannel) key.channel()).finishConnect()) {
+                closeServicePing(key, latencySince(ping.startNanos));
+            }
+        } catch (IOException e) {
+            closeServicePing(key, UNREACHABLE);
+        }
+    }
+
+    private void closeServicePing(SelectionKey key, double latency) {
+        key.cancel();
+        closeQuietly((SocketChannel) key.channel());
+        ((ServicePing) key.attachment()).future.complete(latency);
+    }
+
+    private static void closeQuietly(@Nullable SocketChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Performs an ICMP ping with the given method.
+     *
+     * @param method The ping method. Native pings to IPv4 addresses are batched if possible.
+     * @param address The destination address
+     * @param timeoutInMS Timeout in milliseconds
+     * @return The latency or {@link #UNREACHABLE} if the device did not respond
+     */
+    public CompletableFuture<Double> icmpPing(IpPingMethodEnum method, InetAddress address, int timeoutInMS) {
+        final String hostAddress = address.getHostAddress();
+        if (method == IpPingMethodEnum.JAVA_PING) {
+            return coalesce("java " + hostAddress, future -> execute(future, () -> {
+                long start = System.nanoTime();
+                return address.isReachable(timeoutInMS) ? latencySince(start) : UNREACHABLE;
+            }));
+        }
+        if (fpingAvailable && address instanceof Inet4Address) {
+            return coalesce("icmp " + hostAddress, future -> {
+                synchronized (icmpBatch) {
+                    icmpBatch.add(new IcmpPing(hostAddress, timeoutInMS, future));
+                    if (icmpBatch.size() == 1 && !scheduleTool(this::sendIcmpBatch, ICMP_BATCH_DELAY_IN_MS)) {
+                        icmpBatch.forEach(ping -> ping.future.complete(UNREACHABLE));
+                        icmpBatch.clear();
+                    }
+                }
+            });
+        }
+        return coalesce("icmp " + hostAddress, future -> execute(future, () -> {
+            long start = System.nanoTime();
+            return networkUtils.nativePing(method, hostAddress, timeoutInMS) ? latencySince(start) : UNREACHABLE;
+        }));
+    }
+
+    private void sendIcmpBatch() {
+        List<IcmpPing> batch;
+        synchronized (icmpBatch) {
+            batch = new ArrayList<>(icmpBatch);
+            icmpBatch.clear();
+        }
+        // One process per timeout, usually all things use the same timeout
+        Map<Integer, List<IcmpPing>> perTimeout = batch.stream().collect(Collectors.groupingBy(p -> p.timeoutInMS));
+        perTimeout.forEach((timeoutInMS, pings) -> {
+            List<String> command = new ArrayList<>();
+            command.add("fping");
+            command.add("-e");
+            command.add("-r");
+            command.add("0");
+            command.add("-t");
+            command.add(String.valueOf(timeoutInMS));
+            pings.forEach(p -> command.add(p.hostAddress));
+            Map<String, Double> latencies = new HashMap<>();
+            try {
+                latencies = runFping(command);
+            } catch (IOException e) {
+                logger.debug("Batched ICMP ping failed", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (IcmpPing ping : pings) {
+                ping.future.complete(latencies.getOrDefault(ping.hostAddress, UNREACHABLE));
+            }
+        });
+    }
+
+    private Map<String, Double> runFping(List<String> command) throws IOException, InterruptedException {
+        Process proc = new ProcessBuilder(command).redirectErrorStream(true).start();
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(proc.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.append(line).append('\n');
+            }
+        }
+        // The exit code is 1 if some hosts are unreachable
+        proc.waitFor();
+        return parseFping(output.toString());
+    }
+
+    /**
+     * Parses the output of <code>fping -e</code>: One line per host, "&lt;address&gt; is alive (&lt;latency&gt;
+     * ms)" for reachable hosts.
+     *
+     * @return The latency per reachable host address
+     */
+    static Map<String, Double> parseFping(String output) {
+        Map<String, Double> latencies = new HashMap<>();
+        Matcher matcher = FPING_RESULT.matcher(output);
+        while (matcher.find()) {
+            String latency = matcher.group(2);
+            latencies.put(matcher.group(1), latency == null ? 0 : Double.parseDouble(latency));
+        }
+        return latencies;
+    }
+
+    private boolean detectFping() {
+        try {
+            return runFping(Arrays.asList("fping", "-e", "-r", "0", "-t", "1000", "127.0.0.1"))
+                    .containsKey("127.0.0.1");
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Performs an ARP ping with the native arping tool.
+     *
+     * @param arpingTool The arping tool
+     * @param arpUtilPath The path of the arping tool
+     * @param interfaceName The interface name, empty for the Windows tool
+     * @param address The IPv4 destination address
+     * @param timeoutInMS Timeout in milliseconds
+     * @param wakeUpIOS Send a packet to the Bonjour port before, to wake up iOS devices in deep sleep mode
+     * @return The latency or {@link #UNREACHABLE} if the device did not respond
+     */
+    public CompletableFuture<Double> arpPing(ArpPingUtilEnum arpingTool, String arpUtilPath, String interfaceName,
+            InetAddress address, int timeoutInMS, boolean wakeUpIOS) {
+        final String hostAddress = address.getHostAddress();
+        return coalesce("arp " + interfaceName + " " + hostAddress, future -> {
+            if (wakeUpIOS) {
+                wakeUpIOS(address);
+            }
+            execute(future, () -> {
+                long start = System.nanoTime();
+                return networkUtils.nativeARPPing(arpingTool, arpUtilPath, interfaceName, hostAddress, timeoutInMS)
+                        ? latencySince(start)
+                        : UNREACHABLE;
+            }, wakeUpIOS ? IOS_WAKEUP_DELAY_IN_MS : 0);
+        });
+    }
+
+    /**
+     * iOS devices are in a deep sleep mode, where they only listen to UDP traffic on port 5353 (Bonjour service
+     * discovery). A packet on port 5353 will wake up the network stack to respond to ARP pings at least.
+     */
+    private synchronized void wakeUpIOS(InetAddress address) {
+        try {
+            DatagramSocket socket = wakeUpSocket;
+            if (socket == null) {
+                socket = new DatagramSocket();
+                wakeUpSocket = socket;
+            }
+            byte[] buffer = new byte[0];
+            socket.send(new DatagramPacket(buffer, buffer.length, address, IOS_WAKEUP_PORT));
+        } catch (IOException e) {
+            logger.trace("Failed to wake up {}", address, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        double perform() throws IOException, InterruptedException;
+    }
+
+    private void execute(CompletableFuture<Double> future, Check check) {
+        execute(future, check, 0);
+    }
+
+    private void execute(CompletableFuture<Double> future, Check check, int delayInMS) {
+        boolean scheduled = scheduleTool(() -> {
+            try {
+                future.complete(check.perform());
+            } catch (IOException e) {
+                logger.trace("Presence check failed", e);
+                future.complete(UNREACHABLE);
+            } catch (InterruptedException e) {
+                future.complete(UNREACHABLE);
+            }
+        }, delayInMS);
+        if (!scheduled) {
+            future.complete(UNREACHABLE);
+        }
+    }
+
+    /**
+     * Schedules a runnable that blocks while a tool is running. The pool is grown to one thread per pending tool.
+     *
+     * @return False if the engine has been stopped and the runnable will not be executed
+     */
+    private boolean scheduleTool(Runnable runnable, int delayInMS) {
+        resizeToolThreads(pendingToolChecks.incrementAndGet());
+        boolean scheduled = schedule(() -> {
+            try {
+                runnable.run();
+            } finally {
+                resizeToolThreads(pendingToolChecks.decrementAndGet());
+            }
+        }, delayInMS);
+        if (!scheduled) {
+            resizeToolThreads(pendingToolChecks.decrementAndGet());
+        }
+        return scheduled;
+    }
+
+    private void resizeToolThreads(int pendingChecks) {
+        final ScheduledThreadPoolExecutor executor = this.executor;
+        if (executor != null) {
+            // Idle threads above the core size are stopped after the keep alive time
+            executor.setCorePoolSize(Math.max(MIN_TOOL_THREADS, Math.min(MAX_TOOL_THREADS, pendingChecks)));
+        }
+    }
+
+    /**
+     * @return False if the engine has been stopped and the runnable will not be executed
+     */
+    private boolean schedule(Runnable runnable, int delayInMS) {
+        final ScheduledExecutorService executor = this.executor;
+        if (executor == null) {
+            return false;
+        }
+        try {
+            executor.schedule(runnable, delayInMS, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            logger.trace("Presence detection engine stopped");
+            return false;
+        }
+    }
+}
@@ -20,7 +20,7 @@ import static org.mockito.Mockito.*;
 import java.io.IOException;
 import java.net.UnknownHostException;
 import java.util.Collections;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -35,6 +35,7 @@ import org.openhab.binding.network.internal.toberemoved.cache.ExpiringCacheHelpe
 import org.openhab.binding.network.internal.utils.NetworkUtils;
 import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
 import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
+import org.openhab.binding.network.internal.utils.PresenceDetectionEngine;
 
 /**
  * Tests cases for {@see PresenceDetectionValue}
@@ -50,7 +51,7 @@ public class PresenceDetectionTest {
     PresenceDetectionListener listener;
 
     @Mock
-    ExecutorService executorService;
+    PresenceDetectionEngine engine;
 
     @Mock
     Consumer<PresenceDetectionValue> callback;
@@ -66,7 +67,7 @@ public class PresenceDetectionTest {
         doReturn(ArpPingUtilEnum.IPUTILS_ARPING).when(networkUtils).determineNativeARPpingMethod(anyString());
         doReturn(IpPingMethodEnum.WINDOWS_PING).when(networkUtils).determinePingMethod();
 
-        subject = spy(new PresenceDetection(listener, (int) CACHETIME));
+        subject = spy(new PresenceDetection(listener, (int) CACHETIME, engine));
         subject.networkUtils = networkUtils;
         subject.cache = spy(new ExpiringCacheAsync<PresenceDetectionValue>(CACHETIME, () -> {
             subject.performPresenceDetection(false);
@@ -89,34 +90,54 @@ public class PresenceDetectionTest {
         subject.waitForPresenceDetection();
     }
 
-    // Depending on the amount of test methods an according amount of threads is spawned.
-    // We will check if they spawn and return in time.
+    // Depending on the amount of test methods an according amount of checks is performed.
+    // We will check if they are started and the detection finishes with the last one.
     @Test
-    public void threadCountTest() {
-        assertNull(subject.executorService);
+    public void checkCountTest() {
+        assertNull(subject.detection);
 
-        doNothing().when(subject).performARPping(any());
-        doNothing().when(subject).performJavaPing();
-        doNothing().when(subject).performSystemPing();
-        doNothing().when(subject).performServicePing(anyInt());
+        CompletableFuture<Void> pending = new CompletableFuture<>();
+        doReturn(pending).when(subject).performARPping(any());
+        doReturn(pending).when(subject).performJavaPing();
+        doReturn(pending).when(subject).performSystemPing();
+        doReturn(pending).when(subject).performServicePing(anyInt());
 
         subject.performPresenceDetection(false);
 
-        // Thread count: ARP + ICMP + 1*TCP
+        // Check count: ARP + ICMP + 1*TCP
         assertThat(subject.detectionChecks, is(3));
-        assertNotNull(subject.executorService);
+        assertNotNull(subject.detection);
 
-        subject.waitForPresenceDetection();
+        pending.complete(null);
         assertThat(subject.detectionChecks, is(0));
-        assertNull(subject.executorService);
+        assertNull(subject.detection);
+        verify(listener).finalDetectionResult(any());
+    }
+
+    @Test
+    public void timeoutTest() {
+        CompletableFuture<Void> pending = new CompletableFuture<>();
+        doReturn(pending).when(subject).performARPping(any());
+        doReturn(pending).when(subject).performSystemPing();
+        doReturn(pending).when(subject).performServicePing(anyInt());
+
+        // Checks that do not finish in time do not block the detection
+        subject.performPresenceDetection(true);
+        assertNull(subject.detection);
+        verify(listener).finalDetectionResult(any());
+
+        // Late results are ignored
+        pending.complete(null);
+        verify(listener).finalDetectionResult(any());
     }
 
     @Test
     public void partialAndFinalCallbackTests() throws InterruptedException, IOException {
-        doReturn(true).when(networkUtils).nativePing(eq(IpPingMethodEnum.WINDOWS_PING), anyString(), anyInt());
-        doReturn(true).when(networkUtils).nativeARPPing(eq(ArpPingUtilEnum.IPUTILS_ARPING), anyString(), anyString(),
+        doReturn(CompletableFuture.completedFuture(1.0)).when(engine).icmpPing(eq(IpPingMethodEnum.WINDOWS_PING),
                 any(), anyInt());
-        doReturn(true).when(networkUtils).servicePing(anyString(), anyInt(), anyInt());
+        doReturn(CompletableFuture.completedFuture(1.0)).when(engine).arpPing(eq(ArpPingUtilEnum.IPUTILS_ARPING),
+                anyString(), anyString(), any(), anyInt(), anyBoolean());
+        doReturn(CompletableFuture.completedFuture(1.0)).when(engine).servicePing(any(), anyInt(), anyInt());
 
         assertTrue(subject.performPresenceDetection(false));
         subject.waitForPresenceDetection();
@@ -134,31 +155,42 @@ public class PresenceDetectionTest {
     }
 
     @Test
-    public void cacheTest() throws InterruptedException, IOException {
-        doReturn(true).when(networkUtils).nativePing(eq(IpPingMethodEnum.WINDOWS_PING), anyString(), anyInt());
-        doReturn(true).when(networkUtils).nativeARPPing(eq(ArpPingUtilEnum.IPUTILS_ARPING), anyString(), anyString(),
-                any(), anyInt());
-        doReturn(true).when(networkUtils).servicePing(anyString(), anyInt(), anyInt());
+    public void unreachableTest() {
+        CompletableFuture<Double> unreachable = CompletableFuture.completedFuture(PresenceDetectionEngine.UNREACHABLE);
+        doReturn(unreachable).when(engine).icmpPing(any(), any(), anyInt());
+        doReturn(unreachable).when(engine).arpPing(any(), anyString(), anyString(), any(), anyInt(), anyBoolean());
+        doReturn(unreachable).when(engine).servicePing(any(), anyInt(), anyInt());
 
-        doReturn(executorService).when(subject).getThreadsFor(anyInt());
+        assertTrue(subject.performPresenceDetection(true));
+
+        verify(listener, times(0)).partialDetectionResult(any());
+        ArgumentCaptor<PresenceDetectionValue> capture = ArgumentCaptor.forClass(PresenceDetectionValue.class);
+        verify(listener).finalDetectionResult(capture.capture());
+        assertFalse(capture.getValue().isReachable());
+    }
+
+    @Test
+    public void cacheTest() throws InterruptedException, IOException {
+        CompletableFuture<Double> result = new CompletableFuture<>();
+        doReturn(result).when(engine).icmpPing(eq(IpPingMethodEnum.WINDOWS_PING), any(), anyInt());
+        doReturn(result).when(engine).arpPing(eq(ArpPingUtilEnum.IPUTILS_ARPING), anyString(), anyString(), any(),
+                anyInt(), anyBoolean());
+        doReturn(result).when(engine).servicePing(any(), anyInt(), anyInt());
 
         // We expect no valid value
         assertTrue(subject.cache.isExpired());
         // Get value will issue a PresenceDetection internally.
         subject.getValue(callback);
         verify(subject).performPresenceDetection(eq(false));
-        assertNotNull(subject.executorService);
+        assertNotNull(subject.detection);
         // There should be no straight callback yet
         verify(callback, times(0)).accept(any());
 
-        // Perform the different presence detection threads now
-        ArgumentCaptor<Runnable> capture = ArgumentCaptor.forClass(Runnable.class);
-        verify(executorService, times(3)).execute(capture.capture());
-        for (Runnable r : capture.getAllValues()) {
-            r.run();
-        }
+        // The engine performs the different checks now
+        result.complete(1.0);
         // "Wait" for the presence detection to finish
         subject.waitForPresenceDetection();
+        assertNull(subject.detection);
 
         // Although there are multiple partial results and a final result,
         // the getValue() consumers get the fastest response possible, and only once.
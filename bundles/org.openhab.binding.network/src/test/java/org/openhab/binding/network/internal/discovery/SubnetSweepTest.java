@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.discovery;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Tests cases for {@link SubnetSweep}.
+ *
+ * @author agent - Initial contribution
+ */
+public class SubnetSweepTest {
+    private final List<String> probed = new ArrayList<>();
+    private final AtomicInteger finished = new AtomicInteger();
+
+    private SubnetSweep createSweep(int maxConcurrentProbes, int packetsPerSecond, String... addresses) {
+        return new SubnetSweep(Arrays.asList(addresses).iterator(), maxConcurrentProbes, packetsPerSecond, 5,
+                address -> probed.add(address), finished::incrementAndGet);
+    }
+
+    @Test
+    public void concurrencyLimit() {
+        SubnetSweep sweep = createSweep(2, 100000, "a", "b", "c", "d", "e");
+        sweep.tick();
+        assertThat(probed, is(Arrays.asList("a", "b")));
+        assertThat(sweep.getInFlight(), is(2));
+
+        // A finished probe makes room for the next one
+        sweep.probeFinished();
+        sweep.tick();
+        assertThat(probed.size(), is(3));
+        assertThat(sweep.getInFlight(), is(2));
+
+        sweep.probeFinished();
+        sweep.probeFinished();
+        sweep.tick();
+        sweep.probeFinished();
+        sweep.probeFinished();
+        assertThat(probed.size(), is(5));
+        assertThat(sweep.getProbed(), is(5));
+        assertThat(finished.get(), is(1));
+        assertTrue(sweep.isDone());
+
+        // Nothing happens after the sweep is done
+        sweep.tick();
+        assertThat(finished.get(), is(1));
+    }
+
+    @Test
+    public void packetRateLimit() {
+        // One probe of 5 packets per second
+        AtomicLong nanoTime = new AtomicLong();
+        SubnetSweep sweep = new SubnetSweep(Arrays.asList("a", "b", "c").iterator(), 100, 5, 5,
+                address -> probed.add(address), finished::incrementAndGet, nanoTime::get);
+        sweep.start(mock(ScheduledExecutorService.class));
+        sweep.tick();
+        assertThat(probed.size(), is(1));
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(900));
+        sweep.tick();
+        assertThat(probed.size(), is(1));
+
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        sweep.tick();
+        assertThat(probed.size(), is(2));
+    }
+
+    @Test
+    public void probesThatAreNotStarted() {
+        SubnetSweep sweep = new SubnetSweep(Arrays.asList("a", "b").iterator(), 10, 100000, 1, address -> false,
+                finished::incrementAndGet);
+        sweep.tick();
+        assertThat(sweep.getInFlight(), is(0));
+        assertThat(sweep.getProbed(), is(2));
+        assertThat(finished.get(), is(1));
+    }
+
+    @Test
+    public void stop() {
+        SubnetSweep sweep = createSweep(1, 100000, "a", "b");
+        sweep.tick();
+        sweep.stop();
+        sweep.probeFinished();
+        sweep.tick();
+        assertThat(probed.size(), is(1));
+        assertThat(finished.get(), is(0));
+    }
+}
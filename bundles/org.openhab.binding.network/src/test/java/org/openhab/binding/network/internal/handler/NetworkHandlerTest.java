@@ -39,6 +39,7 @@ import org.openhab.binding.network.internal.NetworkBindingConfiguration;
 import org.openhab.binding.network.internal.NetworkBindingConstants;
 import org.openhab.binding.network.internal.PresenceDetection;
 import org.openhab.binding.network.internal.PresenceDetectionValue;
+import org.openhab.binding.network.internal.utils.PresenceDetectionEngine;
 
 /**
  * Tests cases for {@link NetworkHandler}.
@@ -53,6 +54,9 @@ public class NetworkHandlerTest extends JavaTest {
     @Mock
     private Thing thing;
 
+    @Mock
+    private PresenceDetectionEngine engine;
+
     @Before
     public void setUp() {
         initMocks(this);
@@ -62,7 +66,7 @@ public class NetworkHandlerTest extends JavaTest {
     @Test
     public void checkAllConfigurations() {
         NetworkBindingConfiguration config = new NetworkBindingConfiguration();
-        NetworkHandler handler = spy(new NetworkHandler(thing, true, config));
+        NetworkHandler handler = spy(new NetworkHandler(thing, true, config, engine));
         handler.setCallback(callback);
         // Provide all possible configuration
         when(thing.getConfiguration()).thenAnswer(a -> {
@@ -74,7 +78,7 @@ public class NetworkHandlerTest extends JavaTest {
             conf.put(NetworkBindingConstants.PARAMETER_TIMEOUT, 1234);
             return conf;
         });
-        PresenceDetection presenceDetection = spy(new PresenceDetection(handler, 2000));
+        PresenceDetection presenceDetection = spy(new PresenceDetection(handler, 2000, engine));
         // Mock start/stop automatic refresh
         doNothing().when(presenceDetection).startAutomaticRefresh(any());
         doNothing().when(presenceDetection).stopAutomaticRefresh();
@@ -90,7 +94,7 @@ public class NetworkHandlerTest extends JavaTest {
     @Test
     public void tcpDeviceInitTests() {
         NetworkBindingConfiguration config = new NetworkBindingConfiguration();
-        NetworkHandler handler = spy(new NetworkHandler(thing, true, config));
+        NetworkHandler handler = spy(new NetworkHandler(thing, true, config, engine));
         Assert.assertThat(handler.isTCPServiceDevice(), is(true));
         handler.setCallback(callback);
         // Port is missing, should make the device OFFLINE
@@ -99,7 +103,7 @@ public class NetworkHandlerTest extends JavaTest {
             conf.put(NetworkBindingConstants.PARAMETER_HOSTNAME, "127.0.0.1");
             return conf;
         });
-        handler.initialize(new PresenceDetection(handler, 2000));
+        handler.initialize(new PresenceDetection(handler, 2000, engine));
         // Check that we are offline
         ArgumentCaptor<ThingStatusInfo> statusInfoCaptor = ArgumentCaptor.forClass(ThingStatusInfo.class);
         verify(callback).statusUpdated(eq(thing), statusInfoCaptor.capture());
@@ -111,7 +115,7 @@ public class NetworkHandlerTest extends JavaTest {
     @Test
     public void pingDeviceInitTests() {
         NetworkBindingConfiguration config = new NetworkBindingConfiguration();
-        NetworkHandler handler = spy(new NetworkHandler(thing, false, config));
+        NetworkHandler handler = spy(new NetworkHandler(thing, false, config, engine));
         handler.setCallback(callback);
         // Provide minimal configuration
         when(thing.getConfiguration()).thenAnswer(a -> {
@@ -119,7 +123,7 @@ public class NetworkHandlerTest extends JavaTest {
             conf.put(NetworkBindingConstants.PARAMETER_HOSTNAME, "127.0.0.1");
             return conf;
         });
-        PresenceDetection presenceDetection = spy(new PresenceDetection(handler, 2000));
+        PresenceDetection presenceDetection = spy(new PresenceDetection(handler, 2000, engine));
         // Mock start/stop automatic refresh
         doNothing().when(presenceDetection).startAutomaticRefresh(any());
         doNothing().when(presenceDetection).stopAutomaticRefresh();
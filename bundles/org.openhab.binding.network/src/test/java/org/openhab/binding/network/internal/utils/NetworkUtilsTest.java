@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.smarthome.core.net.CidrAddress;
+import org.junit.Test;
+
+/**
+ * Tests cases for {@link NetworkUtils}.
+ *
+ * @author agent - Initial contribution
+ */
+public class NetworkUtilsTest {
+    private final NetworkUtils networkUtils = new NetworkUtils();
+
+    private static Set<CidrAddress> cidr(String address, int prefix) throws UnknownHostException {
+        return new HashSet<>(Arrays.asList(new CidrAddress(InetAddress.getByName(address), (short) prefix)));
+    }
+
+    private static List<String> list(Iterator<String> iterator) {
+        List<String> result = new ArrayList<>();
+        iterator.forEachRemaining(result::add);
+        return result;
+    }
+
+    @Test
+    public void iteratorMatchesSet() throws UnknownHostException {
+        Set<CidrAddress> interfaceIPs = cidr("192.168.1.77", 24);
+        List<String> addresses = list(networkUtils.getNetworkIPIterator(interfaceIPs, 0));
+        assertThat(addresses, is(new ArrayList<>(networkUtils.getNetworkIPs(interfaceIPs, 0))));
+        assertThat(addresses.size(), is(254));
+        assertThat(addresses.get(0), is("192.168.1.1"));
+        assertThat(addresses.get(253), is("192.168.1.254"));
+        assertThat(networkUtils.countNetworkIPs(interfaceIPs, 0), is(254L));
+    }
+
+    @Test
+    public void largeNetwork() throws UnknownHostException {
+        Set<CidrAddress> interfaceIPs = cidr("10.20.37.5", 20);
+        assertThat(networkUtils.countNetworkIPs(interfaceIPs, 0), is(4094L));
+        Iterator<String> iterator = networkUtils.getNetworkIPIterator(interfaceIPs, 0);
+        assertThat(iterator.next(), is("10.20.32.1"));
+
+        // Limited to a /24
+        assertThat(networkUtils.countNetworkIPs(interfaceIPs, 255), is(254L));
+        assertThat(networkUtils.getNetworkIPIterator(interfaceIPs, 255).next(), is("10.20.37.1"));
+    }
+
+    @Test
+    public void noHosts() throws UnknownHostException {
+        assertFalse(networkUtils.getNetworkIPIterator(cidr("10.0.0.1", 32), 0).hasNext());
+        assertThat(networkUtils.countNetworkIPs(cidr("10.0.0.1", 31), 0), is(0L));
+    }
+}
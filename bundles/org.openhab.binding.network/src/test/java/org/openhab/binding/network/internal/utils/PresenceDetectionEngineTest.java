@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
+
+/**
+ * Tests cases for {@link PresenceDetectionEngine}.
+ *
+ * @author agent - Initial contribution
+ */
+public class PresenceDetectionEngineTest {
+    private final PresenceDetectionEngine engine = new PresenceDetectionEngine();
+    private final InetAddress localhost = InetAddress.getLoopbackAddress();
+
+    @Before
+    public void setUp() throws Exception {
+        engine.activate();
+        Future<?> fpingDetection = engine.fpingDetection;
+        if (fpingDetection != null) {
+            fpingDetection.get(5, TimeUnit.SECONDS);
+        }
+        engine.fpingAvailable = false;
+    }
+
+    @After
+    public void tearDown() {
+        engine.deactivate();
+    }
+
+    @Test
+    public void servicePing() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 10, localhost)) {
+            double latency = engine.servicePing(localhost, server.getLocalPort(), 1000).get(2, TimeUnit.SECONDS);
+            assertTrue(latency >= 0);
+        }
+    }
+
+    @Test
+    public void servicePingRefused() throws Exception {
+        int port;
+        try (ServerSocket server = new ServerSocket(0, 10, localhost)) {
+            port = server.getLocalPort();
+        }
+        assertThat(engine.servicePing(localhost, port, 1000).get(2, TimeUnit.SECONDS),
+                is(PresenceDetectionEngine.UNREACHABLE));
+    }
+
+    @Test
+    public void identicalChecksAreCoalesced() throws Exception {
+        NetworkUtils networkUtils = mock(NetworkUtils.class);
+        engine.networkUtils = networkUtils;
+        when(networkUtils.nativePing(any(), anyString(), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return true;
+        });
+
+        CompletableFuture<Double> first = engine.icmpPing(IpPingMethodEnum.IPUTILS_LINUX_PING, localhost, 1000);
+        CompletableFuture<Double> second = engine.icmpPing(IpPingMethodEnum.IPUTILS_LINUX_PING, localhost, 1000);
+        assertSame(first, second);
+        assertTrue(first.get(2, TimeUnit.SECONDS) >= 0);
+        verify(networkUtils, times(1)).nativePing(any(), anyString(), anyInt());
+
+        // A new check after the first one finished
+        engine.icmpPing(IpPingMethodEnum.IPUTILS_LINUX_PING, localhost, 1000).get(2, TimeUnit.SECONDS);
+        verify(networkUtils, times(2)).nativePing(any(), anyString(), anyInt());
+    }
+
+    @Test
+    public void poolGrowsWithPendingChecks() throws Exception {
+        NetworkUtils networkUtils = mock(NetworkUtils.class);
+        engine.networkUtils = networkUtils;
+        int checks = PresenceDetectionEngine.MIN_TOOL_THREADS + 4;
+        CountDownLatch running = new CountDownLatch(checks);
+        CountDownLatch release = new CountDownLatch(1);
+        when(networkUtils.nativePing(any(), anyString(), anyInt())).thenAnswer(invocation -> {
+            running.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+
+        List<CompletableFuture<Double>> futures = new ArrayList<>();
+        for (int i = 0; i < checks; i++) {
+            InetAddress address = InetAddress.getByName("127.0.0." + (i + 1));
+            futures.add(engine.icmpPing(IpPingMethodEnum.IPUTILS_LINUX_PING, address, 1000));
+        }
+        // All checks run at the same time instead of waiting for a free thread
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        for (CompletableFuture<Double> future : futures) {
+            assertTrue(future.get(2, TimeUnit.SECONDS) >= 0);
+        }
+    }
+
+    @Test
+    public void stoppedEngine() throws Exception {
+        engine.deactivate();
+        assertThat(engine.servicePing(localhost, 80, 1000).get(1, TimeUnit.SECONDS),
+                is(PresenceDetectionEngine.UNREACHABLE));
+    }
+
+    @Test
+    public void parseFping() {
+        Map<String, Double> latencies = PresenceDetectionEngine
+                .parseFping("192.168.0.1 is alive (0.52 ms)\n192.168.0.2 is unreachable\n192.168.0.3 is alive\n");
+        assertThat(latencies.size(), is(2));
+        assertThat(latencies.get("192.168.0.1"), is(0.52));
+        assertThat(latencies.get("192.168.0.3"), is(0.0));
+    }
+}
@@ -314,6 +314,10 @@ public class ConfigStore {
         return highestAssignedHueID;
     }
 
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
     /**
      * Sets the link button state.
      *
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.hueemulation.internal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.events.EventPublisher;
+import org.eclipse.smarthome.core.items.events.ItemEventFactory;
+import org.eclipse.smarthome.core.types.Command;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Posts item commands of the REST API asynchronously, so that a request which controls many lights, like a group action
+ * or a scene recall, can be answered right away.
+ * <p>
+ * Commands are queued per item. A queued command that is not posted yet is replaced by a newer command for the same
+ * item, which also drops identical commands. The queued commands are posted in small batches, so that the event bus is
+ * not flooded. If the queue is full or the scheduler rejects the batch, commands are posted directly on the calling
+ * thread.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ItemCommandDispatcher {
+    static final int MAX_PENDING = 256;
+    static final int BATCH_SIZE = 10;
+    static final int BATCH_PAUSE_MS = 20;
+
+    private static final String SOURCE = "hueemulation";
+
+    private final Logger logger = LoggerFactory.getLogger(ItemCommandDispatcher.class);
+
+    private final Supplier<@Nullable EventPublisher> eventPublisher;
+    private final ScheduledExecutorService scheduler;
+    /** The commands to be posted by item UID, in the order they were queued. Guarded by itself. */
+    private final Map<String, Command> pending = new LinkedHashMap<>();
+    private boolean scheduled;
+
+    /**
+     * @param eventPublisher Returns the event publisher, if there is one
+     * @param scheduler The scheduler to post the commands with
+     */
+    public ItemCommandDispatcher(Supplier<@Nullable EventPublisher> eventPublisher,
+            ScheduledExecutorService scheduler) {
+        this.eventPublisher = eventPublisher;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Queues a command to be posted to the given item.
+     *
+     * @param itemUID The item UID
+     * @param command The command
+     */
+    public void dispatch(String itemUID, Command command) {
+        boolean queued;
+        boolean schedule = false;
+        synchronized (pending) {
+            queued = pending.size() < MAX_PENDING || pending.containsKey(itemUID);
+            if (queued) {
+                pending.put(itemUID, command);
+                schedule = !scheduled;
+                scheduled = true;
+            }
+        }
+        if (!queued) {
+            logger.debug("Too many queued commands, posting {} to {} directly", command, itemUID);
+            post(itemUID, command);
+        } else if (schedule) {
+            schedulePostBatch(0);
+        }
+    }
+
+    /**
+     * Posts all queued commands right away, e.g. before the service is deactivated.
+     */
+    public void flush() {
+        Map<String, Command> batch;
+        synchronized (pending) {
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+            scheduled = false;
+        }
+        batch.forEach(this::post);
+    }
+
+    private void schedulePostBatch(long delay) {
+        try {
+            scheduler.schedule(this::postBatch, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Scheduler rejected the queued commands, posting them directly");
+            flush();
+        }
+    }
+
+    private void postBatch() {
+        Map<String, Command> batch = new LinkedHashMap<>();
+        boolean more;
+        synchronized (pending) {
+            Iterator<Entry<String, Command>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext() && batch.size() < BATCH_SIZE) {
+                Entry<String, Command> entry = iterator.next();
+                batch.put(entry.getKey(), entry.getValue());
+                iterator.remove();
+            }
+            more = !pending.isEmpty();
+            scheduled = more;
+        }
+        batch.forEach(this::post);
+        if (more) {
+            schedulePostBatch(BATCH_PAUSE_MS);
+        }
+    }
+
+    private void post(String itemUID, Command command) {
+        EventPublisher localEventPublisher = eventPublisher.get();
+        if (localEventPublisher == null) {
+            logger.warn("No event publisher. Cannot post item '{}' command!", itemUID);
+            return;
+        }
+        logger.debug("sending {} to {}", command, itemUID);
+        try {
+            localEventPublisher.post(ItemEventFactory.createCommandEvent(itemUID, command, SOURCE));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to post command {} to item '{}'", command, itemUID, e);
+        }
+    }
+
+    /**
+     * Returns the number of queued commands.
+     */
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+}
@@ -16,10 +16,15 @@ import java.net.InetAddress;
 import java.net.NetworkInterface;
 import java.net.SocketException;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.UriInfo;
@@ -114,6 +119,52 @@ public class NetworkUtils {
         return Response.status(httpCode).entity(str).build();
     }
 
+    /**
+     * Returns the SHA-256 digest of the given json, suitable as an entity tag.
+     *
+     * @param json The json body
+     * @return The url-safe Base64 encoded digest
+     */
+    public static String digest(String json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Creates a json response tagged with the digest of the body, or a "304 Not Modified" response if the client
+     * already has this version.
+     *
+     * @param request The request, which might contain an If-None-Match header
+     * @param json The json body
+     * @return
+     */
+    public static Response okOrNotModified(Request request, String json) {
+        return okOrNotModified(request, json, digest(json));
+    }
+
+    /**
+     * Creates a json response tagged with the given entity tag, or a "304 Not Modified" response if the client
+     * already has the tagged version.
+     *
+     * @param request The request, which might contain an If-None-Match header
+     * @param json The json body
+     * @param etag The entity tag of the body
+     * @return
+     */
+    public static Response okOrNotModified(Request request, String json, String etag) {
+        EntityTag entityTag = new EntityTag(etag);
+        ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        return Response.ok(json).tag(entityTag).build();
+    }
+
     public static Response singleSuccess(Gson gson, String message, String uriPart) {
         List<HueResponse> responses = new ArrayList<>();
         responses.add(new HueResponse(new HueSuccessGeneric(message, uriPart)));
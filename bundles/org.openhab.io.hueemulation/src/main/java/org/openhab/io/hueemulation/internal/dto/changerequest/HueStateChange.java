@@ -35,4 +35,6 @@ public class HueStateChange {
     public Integer sat_inc;
     public List<Double> xy_inc;
     public Integer ct_inc;
+    /** Only for group actions: the id of a scene to recall */
+    public String scene;
 }
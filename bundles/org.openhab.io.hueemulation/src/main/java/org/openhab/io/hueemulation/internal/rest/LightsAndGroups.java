@@ -14,6 +14,7 @@ package org.openhab.io.hueemulation.internal.rest;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -27,6 +28,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
@@ -43,6 +45,7 @@ import org.eclipse.smarthome.core.library.CoreItemFactory;
 import org.eclipse.smarthome.core.types.Command;
 import org.openhab.io.hueemulation.internal.ConfigStore;
 import org.openhab.io.hueemulation.internal.DeviceType;
+import org.openhab.io.hueemulation.internal.ItemCommandDispatcher;
 import org.openhab.io.hueemulation.internal.NetworkUtils;
 import org.openhab.io.hueemulation.internal.StateUtils;
 import org.openhab.io.hueemulation.internal.dto.HueGroupEntry;
@@ -112,6 +115,11 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     protected @NonNullByDefault({}) ItemRegistry itemRegistry;
     @Reference(policy = ReferencePolicy.DYNAMIC, cardinality = ReferenceCardinality.OPTIONAL)
     protected volatile @Nullable EventPublisher eventPublisher;
+    @Reference(policy = ReferencePolicy.DYNAMIC, cardinality = ReferenceCardinality.OPTIONAL)
+    protected volatile @Nullable Scenes scenes;
+
+    private @NonNullByDefault({}) LightsJsonCache lightsJsonCache;
+    private @NonNullByDefault({}) ItemCommandDispatcher commandDispatcher;
 
     /**
      * Registers to the {@link ItemRegistry} and enumerates currently existing items.
@@ -119,6 +127,8 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     @Activate
     protected void activate() {
         cs.ds.resetGroupsAndLights();
+        lightsJsonCache = new LightsJsonCache(cs.gson);
+        commandDispatcher = new ItemCommandDispatcher(() -> eventPublisher, cs.getScheduler());
 
         itemRegistry.removeRegistryChangeListener(this);
         itemRegistry.addRegistryChangeListener(this);
@@ -129,11 +139,12 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     }
 
     /**
-     * Unregisters from the {@link ItemRegistry}.
+     * Unregisters from the {@link ItemRegistry} and posts the commands that are still queued.
      */
     @Deactivate
     protected void deactivate() {
         itemRegistry.removeRegistryChangeListener(this);
+        commandDispatcher.flush();
     }
 
     @Override
@@ -243,12 +254,13 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     @Path("{username}/lights")
     @ApiOperation(value = "Return all lights")
     @ApiResponses(value = { @ApiResponse(code = 200, message = "OK") })
-    public Response getAllLightsApi(@Context UriInfo uri,
+    public Response getAllLightsApi(@Context UriInfo uri, @Context Request request,
             @PathParam("username") @ApiParam(value = "username") String username) {
         if (!userManagement.authorizeUser(username)) {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.UNAUTHORIZED, "Not Authorized");
         }
-        return Response.ok(cs.gson.toJson(cs.ds.lights)).build();
+        LightsJsonCache.Snapshot snapshot = lightsJsonCache.getAll(cs.ds.lights);
+        return NetworkUtils.okOrNotModified(request, snapshot.json, snapshot.etag);
     }
 
     @GET
@@ -285,7 +297,11 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
         if (!userManagement.authorizeUser(username)) {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.UNAUTHORIZED, "Not Authorized");
         }
-        return Response.ok(cs.gson.toJson(cs.ds.lights.get(id))).build();
+        HueLightEntry hueDevice = cs.ds.lights.get(id);
+        if (hueDevice == null) {
+            return Response.ok(cs.gson.toJson(null)).build();
+        }
+        return Response.ok(lightsJsonCache.get(id, hueDevice)).build();
     }
 
     @SuppressWarnings({ "null", "unused" })
@@ -398,8 +414,7 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.UNAUTHORIZED, "Not Authorized");
         }
         HueGroupEntry hueDevice = cs.ds.groups.get(id);
-        GroupItem groupItem = hueDevice.groupItem;
-        if (hueDevice == null || groupItem == null) {
+        if (hueDevice == null) {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.NOT_AVAILABLE, "Group not existing");
         }
 
@@ -409,6 +424,23 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
                     "Invalid request: No state change data received!");
         }
 
+        // A scene recall is answered right away, the commands are posted in the background
+        String sceneId = state.scene;
+        if (sceneId != null) {
+            Scenes localScenes = scenes;
+            Map<String, Command> commands = localScenes != null ? localScenes.getSceneCommands(sceneId) : null;
+            if (commands == null) {
+                return NetworkUtils.singleError(cs.gson, uri, HueResponse.NOT_AVAILABLE, "Scene not existing");
+            }
+            commands.forEach(commandDispatcher::dispatch);
+            return NetworkUtils.singleSuccess(cs.gson, sceneId, "/groups/" + id + "/action/scene");
+        }
+
+        GroupItem groupItem = hueDevice.groupItem;
+        if (groupItem == null) {
+            return NetworkUtils.singleError(cs.gson, uri, HueResponse.NOT_AVAILABLE, "Group not existing");
+        }
+
         // First synchronize the internal state information with the framework
         hueDevice.action = StateUtils.colorStateFromItemState(groupItem.getState(), hueDevice.deviceType);
 
@@ -416,16 +448,9 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
         Command command = StateUtils.computeCommandByState(responses, "/groups/" + id + "/state/", hueDevice.action,
                 state);
 
-        // If a command could be created, post it to the framework now
+        // If a command could be created, queue it for the framework. The group item forwards it to all members.
         if (command != null) {
-            logger.debug("sending {} to {}", command, id);
-            EventPublisher localEventPublisher = eventPublisher;
-            if (localEventPublisher != null) {
-                localEventPublisher
-                        .post(ItemEventFactory.createCommandEvent(groupItem.getUID(), command, "hueemulation"));
-            } else {
-                logger.warn("No event publisher. Cannot post item '{}' command!", groupItem.getUID());
-            }
+            commandDispatcher.dispatch(groupItem.getUID(), command);
         }
 
         return Response.ok(cs.gson.toJson(responses, new TypeToken<List<?>>() {
@@ -436,12 +461,14 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     @Path("{username}/groups")
     @ApiOperation(value = "Return all groups")
     @ApiResponses(value = { @ApiResponse(code = 200, message = "OK") })
-    public Response getAllGroupsApi(@Context UriInfo uri,
+    public Response getAllGroupsApi(@Context UriInfo uri, @Context Request request,
             @PathParam("username") @ApiParam(value = "username") String username) {
         if (!userManagement.authorizeUser(username)) {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.UNAUTHORIZED, "Not Authorized");
         }
-        return Response.ok(cs.gson.toJson(cs.ds.groups)).build();
+        // Groups are few and change in many ways, so they are serialized on each request
+        String json = cs.gson.toJson(cs.ds.groups);
+        return NetworkUtils.okOrNotModified(request, json);
     }
 
     @GET
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.hueemulation.internal.rest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.items.GenericItem;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.io.hueemulation.internal.NetworkUtils;
+import org.openhab.io.hueemulation.internal.dto.HueLightEntry;
+
+import com.google.gson.Gson;
+
+/**
+ * Keeps the JSON representation of each {@link HueLightEntry} and of the complete lights map, so that the lights API,
+ * which is polled aggressively by Alexa and Harmony hubs, does not serialize all lights on every request.
+ * <p>
+ * The JSON of a light only depends on its entry, the state and the label of its item. A fragment is therefore reused
+ * as long as the entry, the item and the item state are the same instances and the label is equal to the ones it was
+ * serialized from. Item states are immutable and replaced by every state event, and registry changes replace the item
+ * or the entry, so the fragments are invalidated without subscribing to any events.
+ * <p>
+ * The complete response is only assembled again if a fragment or the set of lights has changed. Each assembled
+ * response gets an ETag derived from the SHA-256 digest of its content.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class LightsJsonCache {
+
+    /**
+     * An assembled response for all lights.
+     */
+    public static class Snapshot {
+        public final String json;
+        public final String etag;
+
+        Snapshot(String json) {
+            this.json = json;
+            this.etag = NetworkUtils.digest(json);
+        }
+    }
+
+    private static class Fragment {
+        final HueLightEntry entry;
+        final GenericItem item;
+        final State state;
+        final @Nullable String label;
+        final String json;
+
+        Fragment(HueLightEntry entry, GenericItem item, State state, @Nullable String label, String json) {
+            this.entry = entry;
+            this.item = item;
+            this.state = state;
+            this.label = label;
+            this.json = json;
+        }
+
+        boolean isValidFor(HueLightEntry entry) {
+            return this.entry == entry && item == entry.item && state == entry.item.getState()
+                    && Objects.equals(label, entry.item.getLabel());
+        }
+    }
+
+    private final Gson gson;
+    private final Map<String, Fragment> fragments = new HashMap<>();
+    private Snapshot snapshot = new Snapshot("{}");
+    /** A fragment was replaced without assembling a new snapshot */
+    private boolean dirty = true;
+
+    /**
+     * @param gson the gson instance with the {@link HueLightEntry.Serializer} registered
+     */
+    public LightsJsonCache(Gson gson) {
+        this.gson = gson;
+    }
+
+    /**
+     * Returns the JSON of all given lights, reusing the fragments of unchanged lights and the previous snapshot if
+     * nothing has changed.
+     *
+     * @param lights the lights by their hue id, in the order of the response
+     * @return the snapshot of the lights
+     */
+    public synchronized Snapshot getAll(Map<String, HueLightEntry> lights) {
+        boolean changed = dirty;
+        for (Entry<String, HueLightEntry> light : lights.entrySet()) {
+            changed |= update(light.getKey(), light.getValue()) != null;
+        }
+        if (fragments.size() != lights.size()) {
+            fragments.keySet().retainAll(lights.keySet());
+            changed = true;
+        }
+        if (changed) {
+            StringBuilder json = new StringBuilder(snapshot.json.length() + 64).append('{');
+            for (String hueID : lights.keySet()) {
+                if (json.length() > 1) {
+                    json.append(',');
+                }
+                json.append(gson.toJson(hueID)).append(':').append(fragments.get(hueID).json);
+            }
+            snapshot = new Snapshot(json.append('}').toString());
+            dirty = false;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the JSON of a single light.
+     *
+     * @param hueID the hue id of the light
+     * @param light the light
+     * @return the JSON of the light
+     */
+    public synchronized String get(String hueID, HueLightEntry light) {
+        Fragment fragment = update(hueID, light);
+        if (fragment != null) {
+            dirty = true;
+            return fragment.json;
+        }
+        return fragments.get(hueID).json;
+    }
+
+    /**
+     * Serializes the light again, if its fragment is missing or outdated.
+     *
+     * @return the new fragment or null if the existing one is still valid
+     */
+    private @Nullable Fragment update(String hueID, HueLightEntry light) {
+        Fragment fragment = fragments.get(hueID);
+        if (fragment != null && fragment.isValidFor(light)) {
+            return null;
+        }
+        // Taken before serializing, so that a concurrent state change invalidates the fragment
+        GenericItem item = light.item;
+        State state = item.getState();
+        String label = item.getLabel();
+        fragment = new Fragment(light, item, state, label, gson.toJson(light));
+        fragments.put(hueID, fragment);
+        return fragment;
+    }
+}
@@ -15,6 +15,7 @@ package org.openhab.io.hueemulation.internal.rest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -35,6 +36,7 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.config.core.Configuration;
 import org.eclipse.smarthome.core.common.registry.RegistryChangeListener;
 import org.eclipse.smarthome.core.items.GroupItem;
@@ -43,6 +45,7 @@ import org.eclipse.smarthome.core.items.ItemNotFoundException;
 import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.TypeParser;
 import org.openhab.core.automation.Action;
 import org.openhab.core.automation.Rule;
 import org.openhab.core.automation.RuleRegistry;
@@ -162,6 +165,39 @@ public class Scenes implements RegistryChangeListener<Rule> {
         added(element);
     }
 
+    /**
+     * Returns the commands of a scene, ordered like the scene actions, for recalling the scene.
+     *
+     * @param id The scene id
+     * @return The commands by item UID or null if there is no such scene
+     */
+    public @Nullable Map<String, Command> getSceneCommands(String id) {
+        Rule scene = ruleRegistry.get(id);
+        if (scene == null || !scene.getTags().contains("scene")) {
+            return null;
+        }
+        Map<String, Command> commands = new LinkedHashMap<>();
+        for (Action a : scene.getActions()) {
+            if (!a.getTypeUID().equals("core.ItemCommandAction")) {
+                continue;
+            }
+            ItemCommandActionConfig config = a.getConfiguration().as(ItemCommandActionConfig.class);
+            Item item = itemRegistry.get(config.itemName);
+            if (item == null) {
+                logger.warn("Rule {} is referring to a non existing item {}", scene.getName(), config.itemName);
+                continue;
+            }
+            Command command = TypeParser.parseCommand(item.getAcceptedCommandTypes(), config.command);
+            if (command == null) {
+                logger.warn("Rule {} has an invalid command {} for item {}", scene.getName(), config.command,
+                        config.itemName);
+                continue;
+            }
+            commands.put(item.getUID(), command);
+        }
+        return commands;
+    }
+
     @GET
     @Path("{username}/scenes")
     @Produces(MediaType.APPLICATION_JSON)
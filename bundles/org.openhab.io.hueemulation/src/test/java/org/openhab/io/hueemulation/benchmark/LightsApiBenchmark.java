@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.hueemulation.benchmark;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.library.items.ColorItem;
+import org.eclipse.smarthome.core.library.items.DimmerItem;
+import org.eclipse.smarthome.core.library.items.SwitchItem;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.openhab.io.hueemulation.internal.DeviceType;
+import org.openhab.io.hueemulation.internal.dto.HueLightEntry;
+import org.openhab.io.hueemulation.internal.rest.LightsJsonCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Compares the requests per second of the lights API when serializing all lights on every request, as it used to be,
+ * against the {@link LightsJsonCache}. Between two requests, the state of the given number of lights changes.
+ *
+ * Without changes between requests, {@code cached} only has to verify that the light states are unchanged; the more
+ * lights change, the smaller the gain. Run the {@code main} method from the IDE.
+ *
+ * @author agent - Initial contribution
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LightsApiBenchmark {
+
+    @Param({ "300" })
+    public int lightCount;
+
+    @Param({ "0", "1", "30" })
+    public int changesPerRequest;
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(HueLightEntry.class, new HueLightEntry.Serializer()).create();
+    private final Map<String, HueLightEntry> lights = new TreeMap<>();
+    private final LightsJsonCache cache = new LightsJsonCache(gson);
+
+    private HueLightEntry[] entries;
+    private int next;
+    private int brightness;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < lightCount; i++) {
+            HueLightEntry entry;
+            switch (i % 3) {
+                case 0:
+                    SwitchItem switchItem = new SwitchItem("switch" + i);
+                    switchItem.setState(OnOffType.ON);
+                    entry = new HueLightEntry(switchItem, "switch" + i, DeviceType.SwitchType);
+                    break;
+                case 1:
+                    DimmerItem dimmerItem = new DimmerItem("dimmer" + i);
+                    dimmerItem.setState(new PercentType(50));
+                    entry = new HueLightEntry(dimmerItem, "dimmer" + i, DeviceType.WhiteType);
+                    break;
+                default:
+                    ColorItem colorItem = new ColorItem("color" + i);
+                    colorItem.setState(HSBType.fromRGB(200, 100, 50));
+                    entry = new HueLightEntry(colorItem, "color" + i, DeviceType.ColorType);
+                    break;
+            }
+            entry.item.setLabel("Light " + i);
+            lights.put(String.valueOf(i + 1), entry);
+        }
+        entries = lights.values().toArray(new HueLightEntry[0]);
+    }
+
+    private void changeStates() {
+        for (int i = 0; i < changesPerRequest; i++) {
+            HueLightEntry entry = entries[next];
+            next = (next + 1) % entries.length;
+            brightness = (brightness + 1) % 100;
+            if (entry.item instanceof SwitchItem && !(entry.item instanceof DimmerItem)) {
+                entry.item.setState(brightness % 2 == 0 ? OnOffType.ON : OnOffType.OFF);
+            } else if (entry.item instanceof ColorItem) {
+                entry.item.setState(new HSBType(new DecimalType(30), PercentType.HUNDRED, new PercentType(brightness)));
+            } else {
+                entry.item.setState(new PercentType(brightness));
+            }
+        }
+    }
+
+    @Benchmark
+    public String serializeAll() {
+        changeStates();
+        return gson.toJson(lights);
+    }
+
+    @Benchmark
+    public String cached() {
+        changeStates();
+        return cache.getAll(lights).json;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LightsApiBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.hueemulation.internal;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.core.events.EventPublisher;
+import org.eclipse.smarthome.core.items.events.ItemCommandEvent;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Tests for {@link ItemCommandDispatcher}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ItemCommandDispatcherTests {
+    private final EventPublisher eventPublisher = mock(EventPublisher.class);
+    private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+    private final List<Runnable> scheduled = new ArrayList<>();
+
+    private final ItemCommandDispatcher subject = new ItemCommandDispatcher(() -> eventPublisher, scheduler);
+
+    @Before
+    public void setUp() {
+        // Collect scheduled tasks to run them step by step
+        when(scheduler.schedule(any(Runnable.class), anyLong(), any())).thenAnswer(answer -> {
+            scheduled.add(answer.getArgument(0));
+            return null;
+        });
+    }
+
+    private void runScheduled() {
+        List<Runnable> tasks = new ArrayList<>(scheduled);
+        scheduled.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private List<ItemCommandEvent> postedEvents(int count) {
+        ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+        verify(eventPublisher, times(count)).post(captor.capture());
+        List<ItemCommandEvent> events = new ArrayList<>();
+        captor.getAllValues().forEach(e -> events.add((ItemCommandEvent) e));
+        return events;
+    }
+
+    @Test
+    public void postsAsynchronously() {
+        subject.dispatch("switch", OnOffType.ON);
+        verify(eventPublisher, never()).post(any());
+        assertEquals(1, subject.getPendingCount());
+
+        runScheduled();
+        List<ItemCommandEvent> events = postedEvents(1);
+        assertEquals("switch", events.get(0).getItemName());
+        assertEquals(OnOffType.ON, events.get(0).getItemCommand());
+        assertEquals(0, subject.getPendingCount());
+    }
+
+    @Test
+    public void coalescesCommandsPerItem() {
+        subject.dispatch("dimmer", new PercentType(10));
+        subject.dispatch("switch", OnOffType.ON);
+        subject.dispatch("dimmer", new PercentType(20));
+        subject.dispatch("switch", OnOffType.ON);
+        assertEquals("Only scheduled once", 1, scheduled.size());
+
+        runScheduled();
+        List<ItemCommandEvent> events = postedEvents(2);
+        assertEquals("dimmer", events.get(0).getItemName());
+        assertEquals(new PercentType(20), events.get(0).getItemCommand());
+        assertEquals("switch", events.get(1).getItemName());
+    }
+
+    @Test
+    public void postsInBatches() {
+        for (int i = 0; i < ItemCommandDispatcher.BATCH_SIZE + 5; ++i) {
+            subject.dispatch("item" + i, OnOffType.ON);
+        }
+
+        runScheduled();
+        verify(eventPublisher, times(ItemCommandDispatcher.BATCH_SIZE)).post(any());
+        verify(scheduler).schedule(any(Runnable.class), eq((long) ItemCommandDispatcher.BATCH_PAUSE_MS),
+                eq(TimeUnit.MILLISECONDS));
+
+        runScheduled();
+        verify(eventPublisher, times(ItemCommandDispatcher.BATCH_SIZE + 5)).post(any());
+        assertTrue(scheduled.isEmpty());
+    }
+
+    @Test
+    public void postsDirectlyIfQueueIsFull() {
+        for (int i = 0; i < ItemCommandDispatcher.MAX_PENDING; ++i) {
+            subject.dispatch("item" + i, OnOffType.ON);
+        }
+        verify(eventPublisher, never()).post(any());
+
+        subject.dispatch("item0", OnOffType.OFF);
+        verify(eventPublisher, never()).post(any());
+
+        subject.dispatch("another", OnOffType.ON);
+        assertEquals("another", postedEvents(1).get(0).getItemName());
+    }
+
+    @Test
+    public void flushPostsQueuedCommands() {
+        subject.dispatch("dimmer", new PercentType(10));
+        subject.dispatch("switch", OnOffType.ON);
+
+        subject.flush();
+        assertEquals(2, postedEvents(2).size());
+        assertEquals(0, subject.getPendingCount());
+
+        // The scheduled batch finds nothing left to post
+        runScheduled();
+        verify(eventPublisher, times(2)).post(any());
+    }
+
+    @Test
+    public void postsDirectlyIfSchedulingIsRejected() {
+        when(scheduler.schedule(any(Runnable.class), anyLong(), any())).thenThrow(new RejectedExecutionException());
+        subject.dispatch("switch", OnOffType.ON);
+        assertEquals("switch", postedEvents(1).get(0).getItemName());
+        assertEquals(0, subject.getPendingCount());
+
+        // Scheduling is tried again for the next command
+        subject.dispatch("dimmer", new PercentType(10));
+        verify(scheduler, times(2)).schedule(any(Runnable.class), anyLong(), any());
+        verify(eventPublisher, times(2)).post(any());
+    }
+}
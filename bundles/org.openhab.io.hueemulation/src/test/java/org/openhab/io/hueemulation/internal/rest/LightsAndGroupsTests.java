@@ -15,11 +15,15 @@ package org.openhab.io.hueemulation.internal.rest;
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.argThat;
-import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.*;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -31,12 +35,15 @@ import org.eclipse.smarthome.core.library.items.ColorItem;
 import org.eclipse.smarthome.core.library.items.SwitchItem;
 import org.eclipse.smarthome.core.library.types.HSBType;
 import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.types.Command;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.openhab.io.hueemulation.internal.ConfigStore;
 import org.openhab.io.hueemulation.internal.DeviceType;
+import org.openhab.io.hueemulation.internal.NetworkUtils;
 import org.openhab.io.hueemulation.internal.dto.HueGroupEntry;
 import org.openhab.io.hueemulation.internal.dto.HueLightEntry;
 import org.openhab.io.hueemulation.internal.dto.HueStateColorBulb;
@@ -229,6 +236,29 @@ public class LightsAndGroupsTests {
         }));
     }
 
+    @Test
+    public void recallScene() {
+        Map<String, Command> commands = new LinkedHashMap<>();
+        commands.put("switch", OnOffType.ON);
+        commands.put("color", new PercentType(50));
+        Scenes scenes = mock(Scenes.class);
+        when(scenes.getSceneCommands("scene1")).thenReturn(commands);
+        subject.scenes = scenes;
+
+        // Group 0 has no group item, but can be used to recall a scene
+        String body = "{'scene':'scene1'}";
+        Response response = commonSetup.client.target(commonSetup.basePath + "/testuser/groups/0/action").request()
+                .put(Entity.json(body));
+        assertEquals(200, response.getStatus());
+        assertThat(response.readEntity(String.class), containsString("/groups/0/action/scene"));
+        verify(commonSetup.eventPublisher, times(2)).post(any());
+
+        body = "{'scene':'unknown'}";
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/groups/0/action").request()
+                .put(Entity.json(body));
+        assertThat(response.readEntity(String.class), containsString("error"));
+    }
+
     @Test
     public void changeOnValue() {
 
@@ -339,6 +369,38 @@ public class LightsAndGroupsTests {
         assertThat(body, containsString("color"));
     }
 
+    @Test
+    public void allLightsNotModified() {
+        Response response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request().get();
+        assertEquals(200, response.getStatus());
+        EntityTag etag = response.getEntityTag();
+        assertThat(etag, notNullValue());
+
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request()
+                .header(HttpHeaders.IF_NONE_MATCH, etag.toString()).get();
+        assertEquals(304, response.getStatus());
+
+        // A state change invalidates the cached light
+        cs.ds.lights.get("1").item.setState(OnOffType.ON);
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request()
+                .header(HttpHeaders.IF_NONE_MATCH, etag.toString()).get();
+        assertEquals(200, response.getStatus());
+        assertThat(response.getEntityTag(), not(etag));
+        assertThat(response.readEntity(String.class), containsString("\"on\":true"));
+    }
+
+    @Test
+    public void allGroupsNotModified() {
+        Response response = commonSetup.client.target(commonSetup.basePath + "/testuser/groups").request().get();
+        assertEquals(200, response.getStatus());
+        EntityTag etag = response.getEntityTag();
+        assertThat(etag.getValue(), is(NetworkUtils.digest(response.readEntity(String.class))));
+
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/groups").request()
+                .header(HttpHeaders.IF_NONE_MATCH, etag.toString()).get();
+        assertEquals(304, response.getStatus());
+    }
+
     private boolean assertHueValue(ItemCommandEvent ce, int hueValue) {
         assertThat(((HSBType) ce.getItemCommand()).getHue().intValue(), is(hueValue * 360 / HueStateColorBulb.MAX_HUE));
         return true;
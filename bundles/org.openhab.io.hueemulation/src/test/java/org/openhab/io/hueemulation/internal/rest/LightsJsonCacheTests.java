@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.hueemulation.internal.rest;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.library.items.ColorItem;
+import org.eclipse.smarthome.core.library.items.SwitchItem;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.junit.Test;
+import org.openhab.io.hueemulation.internal.DeviceType;
+import org.openhab.io.hueemulation.internal.dto.HueLightEntry;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Tests for {@link LightsJsonCache}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class LightsJsonCacheTests {
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(HueLightEntry.class, new HueLightEntry.Serializer()).create();
+    private final LightsJsonCache cache = new LightsJsonCache(gson);
+    private final Map<String, HueLightEntry> lights = new TreeMap<>();
+
+    public LightsJsonCacheTests() {
+        lights.put("1", new HueLightEntry(new SwitchItem("switch"), "switch", DeviceType.SwitchType));
+        lights.put("2", new HueLightEntry(new ColorItem("color"), "color", DeviceType.ColorType));
+    }
+
+    @Test
+    public void sameJsonAsSerializingTheMap() {
+        assertThat(cache.getAll(lights).json, is(gson.toJson(lights)));
+        assertThat(cache.get("2", lights.get("2")), is(gson.toJson(lights.get("2"))));
+    }
+
+    @Test
+    public void reusesTheSnapshotIfNothingChanged() {
+        LightsJsonCache.Snapshot snapshot = cache.getAll(lights);
+        assertThat(cache.getAll(lights), is(sameInstance(snapshot)));
+        cache.get("1", lights.get("1"));
+        assertThat(cache.getAll(lights), is(sameInstance(snapshot)));
+    }
+
+    @Test
+    public void stateAndLabelChangesInvalidate() {
+        LightsJsonCache.Snapshot snapshot = cache.getAll(lights);
+
+        lights.get("1").item.setState(OnOffType.ON);
+        LightsJsonCache.Snapshot changed = cache.getAll(lights);
+        assertThat(changed, is(not(sameInstance(snapshot))));
+        assertThat(changed.etag, is(not(snapshot.etag)));
+        assertThat(changed.json, is(gson.toJson(lights)));
+
+        lights.get("2").item.setLabel("Color light");
+        assertThat(cache.get("2", lights.get("2")), containsString("Color light"));
+        assertThat(cache.getAll(lights).json, is(gson.toJson(lights)));
+    }
+
+    @Test
+    public void addedAndRemovedLightsInvalidate() {
+        cache.getAll(lights);
+
+        lights.remove("1");
+        assertThat(cache.getAll(lights).json, is(gson.toJson(lights)));
+
+        lights.put("3", new HueLightEntry(new SwitchItem("other"), "other", DeviceType.SwitchType));
+        assertThat(cache.getAll(lights).json, is(gson.toJson(lights)));
+    }
+}
@@ -0,0 +1,351 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.mqttembeddedbroker.internal;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.moquette.interception.InterceptHandler;
+import io.moquette.interception.messages.InterceptAcknowledgedMessage;
+import io.moquette.interception.messages.InterceptConnectMessage;
+import io.moquette.interception.messages.InterceptConnectionLostMessage;
+import io.moquette.interception.messages.InterceptDisconnectMessage;
+import io.moquette.interception.messages.InterceptPublishMessage;
+import io.moquette.interception.messages.InterceptSubscribeMessage;
+import io.moquette.interception.messages.InterceptUnsubscribeMessage;
+
+/**
+ * Collects runtime metrics of the embedded broker: Connected clients, received and delivered publishes and their
+ * rates, retained topics and the fan-out of each topic.
+ *
+ * The number of deliveries of a publish is the number of connected or persistent clients with a matching
+ * subscription. It is computed once per topic, and computed again only for the topics matched by a changed
+ * subscription.
+ *
+ * Messages to "$SYS/" topics, published by the broker itself, are not counted.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class BrokerMetrics {
+    public static final String SYS_TOPIC_PREFIX = "$SYS/";
+    public static final String TOPIC_CLIENTS_CONNECTED = "$SYS/broker/clients/connected";
+    public static final String TOPIC_PUBLISH_RECEIVED = "$SYS/broker/publish/messages/received";
+    public static final String TOPIC_PUBLISH_SENT = "$SYS/broker/publish/messages/sent";
+    public static final String TOPIC_PUBLISH_RECEIVED_RATE = "$SYS/broker/publish/messages/received/rate";
+    public static final String TOPIC_PUBLISH_SENT_RATE = "$SYS/broker/publish/messages/sent/rate";
+    public static final String TOPIC_RETAINED_COUNT = "$SYS/broker/retained messages/count";
+    public static final String TOPIC_STORE_SIZE = "$SYS/broker/store/size";
+    public static final String TOPIC_STORE_FLUSH_TIME = "$SYS/broker/store/flush/time";
+
+    /** Per-topic statistics are kept for at most this many topics */
+    static final int MAX_TOPICS = 10000;
+
+    private final Logger logger = LoggerFactory.getLogger(BrokerMetrics.class);
+
+    /**
+     * The statistics of a single topic.
+     */
+    public static class TopicStatistics {
+        public final String topic;
+        private final LongAdder messages = new LongAdder();
+        private volatile int fanOut;
+
+        TopicStatistics(String topic) {
+            this.topic = topic;
+        }
+
+        /** Returns the number of publishes to this topic */
+        public long getMessages() {
+            return messages.sum();
+        }
+
+        /** Returns the number of subscribers the last publish was delivered to */
+        public int getFanOut() {
+            return fanOut;
+        }
+
+        /** Returns the number of delivered messages, assuming the current fan-out */
+        public long getDeliveries() {
+            return messages.sum() * fanOut;
+        }
+    }
+
+    private final Set<String> connectedClients = ConcurrentHashMap.newKeySet();
+    private final Set<String> cleanSessionClients = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<String>> subscriptionsPerClient = new ConcurrentHashMap<>();
+    private final Map<String, Integer> fanOutPerTopic = new ConcurrentHashMap<>();
+    private final Map<String, TopicStatistics> topicStatistics = new ConcurrentHashMap<>();
+    private final Set<String> retainedTopics = ConcurrentHashMap.newKeySet();
+    private final LongAdder publishedIn = new LongAdder();
+    private final LongAdder publishedOut = new LongAdder();
+
+    private long lastSampleNanos = System.nanoTime();
+    private long lastPublishedIn;
+    private long lastPublishedOut;
+    private volatile double publishInRate;
+    private volatile double publishOutRate;
+
+    @NonNullByDefault({})
+    class Interceptor implements InterceptHandler {
+        @Override
+        public String getID() {
+            return "metrics";
+        }
+
+        @Override
+        public Class<?>[] getInterceptedMessageTypes() {
+            return new Class<?>[] { InterceptConnectMessage.class, InterceptDisconnectMessage.class,
+                    InterceptConnectionLostMessage.class, InterceptPublishMessage.class,
+                    InterceptSubscribeMessage.class, InterceptUnsubscribeMessage.class };
+        }
+
+        @Override
+        public void onConnect(InterceptConnectMessage msg) {
+            logger.debug("MQTT Client connected: {}", msg.getClientID());
+            clientConnected(msg.getClientID(), msg.isCleanSession());
+        }
+
+        @Override
+        public void onDisconnect(InterceptDisconnectMessage msg) {
+            logger.debug("MQTT Client disconnected: {}", msg.getClientID());
+            clientDisconnected(msg.getClientID());
+        }
+
+        @Override
+        public void onConnectionLost(InterceptConnectionLostMessage msg) {
+            logger.debug("MQTT Client connection lost: {}", msg.getClientID());
+            clientDisconnected(msg.getClientID());
+        }
+
+        @Override
+        public void onPublish(InterceptPublishMessage msg) {
+            published(msg.getTopicName(), msg.getPayload().readableBytes(), msg.isRetainFlag());
+        }
+
+        @Override
+        public void onSubscribe(InterceptSubscribeMessage msg) {
+            subscribed(msg.getClientID(), msg.getTopicFilter());
+        }
+
+        @Override
+        public void onUnsubscribe(InterceptUnsubscribeMessage msg) {
+            unsubscribed(msg.getClientID(), msg.getTopicFilter());
+        }
+
+        @Override
+        public void onMessageAcknowledged(InterceptAcknowledgedMessage msg) {
+        }
+    }
+
+    private final InterceptHandler interceptor = new Interceptor();
+
+    /**
+     * Returns the handler to be added to the broker with {@link io.moquette.broker.Server#addInterceptHandler}.
+     */
+    public InterceptHandler getInterceptHandler() {
+        return interceptor;
+    }
+
+    void clientConnected(String clientID, boolean cleanSession) {
+        connectedClients.add(clientID);
+        if (cleanSession) {
+            cleanSessionClients.add(clientID);
+            // A clean session starts without subscriptions
+            invalidate(subscriptionsPerClient.remove(clientID));
+        } else {
+            cleanSessionClients.remove(clientID);
+        }
+    }
+
+    void clientDisconnected(String clientID) {
+        connectedClients.remove(clientID);
+        // The subscriptions of a persistent session remain, messages are queued for the client
+        if (cleanSessionClients.remove(clientID)) {
+            invalidate(subscriptionsPerClient.remove(clientID));
+        }
+    }
+
+    void subscribed(String clientID, String topicFilter) {
+        if (subscriptionsPerClient.computeIfAbsent(clientID, id -> ConcurrentHashMap.newKeySet()).add(topicFilter)) {
+            invalidate(topicFilter);
+        }
+    }
+
+    void unsubscribed(String clientID, String topicFilter) {
+        Set<String> filters = subscriptionsPerClient.get(clientID);
+        if (filters != null && filters.remove(topicFilter)) {
+            invalidate(topicFilter);
+        }
+    }
+
+    private void invalidate(@Nullable Set<String> topicFilters) {
+        if (topicFilters != null) {
+            topicFilters.forEach(this::invalidate);
+        }
+    }
+
+    /**
+     * Forgets the cached fan-out of the topics matched by the given filter.
+     */
+    private void invalidate(String topicFilter) {
+        fanOutPerTopic.keySet().removeIf(topic -> matches(topicFilter, topic));
+    }
+
+    void published(String topic, int payloadLength, boolean retain) {
+        if (topic.startsWith(SYS_TOPIC_PREFIX)) {
+            return;
+        }
+        if (retain) {
+            // A retained message without payload removes the retained message of the topic
+            if (payloadLength > 0) {
+                retainedTopics.add(topic);
+            } else {
+                retainedTopics.remove(topic);
+            }
+        }
+
+        Integer cachedFanOut = fanOutPerTopic.get(topic);
+        final int fanOut;
+        if (cachedFanOut == null) {
+            fanOut = computeFanOut(topic);
+            if (fanOutPerTopic.size() < MAX_TOPICS) {
+                fanOutPerTopic.put(topic, fanOut);
+            }
+        } else {
+            fanOut = cachedFanOut;
+        }
+
+        publishedIn.increment();
+        publishedOut.add(fanOut);
+
+        TopicStatistics statistics = topicStatistics.get(topic);
+        if (statistics == null && topicStatistics.size() < MAX_TOPICS) {
+            statistics = topicStatistics.computeIfAbsent(topic, TopicStatistics::new);
+        }
+        if (statistics != null) {
+            statistics.messages.increment();
+            statistics.fanOut = fanOut;
+        }
+    }
+
+    private int computeFanOut(String topic) {
+        int fanOut = 0;
+        for (Set<String> filters : subscriptionsPerClient.values()) {
+            for (String filter : filters) {
+                if (matches(filter, topic)) {
+                    fanOut++;
+                    break;
+                }
+            }
+        }
+        return fanOut;
+    }
+
+    /**
+     * Returns true if the given MQTT topic filter, possibly containing the wildcards "+" and "#", matches the topic.
+     */
+    static boolean matches(String filter, String topic) {
+        String[] filterLevels = filter.split("/", -1);
+        String[] topicLevels = topic.split("/", -1);
+        // Topics starting with a "$" are not matched by filters starting with a wildcard
+        if (topicLevels[0].startsWith("$") && (filterLevels[0].equals("+") || filterLevels[0].equals("#"))) {
+            return false;
+        }
+        for (int i = 0; i < filterLevels.length; i++) {
+            if (filterLevels[i].equals("#")) {
+                return true;
+            }
+            if (i >= topicLevels.length) {
+                return false;
+            }
+            if (!filterLevels[i].equals("+") && !filterLevels[i].equals(topicLevels[i])) {
+                return false;
+            }
+        }
+        return filterLevels.length == topicLevels.length;
+    }
+
+    /**
+     * Computes the publish rates since the last call. To be called periodically.
+     */
+    public synchronized void updateRates() {
+        long now = System.nanoTime();
+        double seconds = (now - lastSampleNanos) / 1e9;
+        long in = publishedIn.sum();
+        long out = publishedOut.sum();
+        if (seconds > 0) {
+            publishInRate = (in - lastPublishedIn) / seconds;
+            publishOutRate = (out - lastPublishedOut) / seconds;
+        }
+        lastSampleNanos = now;
+        lastPublishedIn = in;
+        lastPublishedOut = out;
+    }
+
+    /** Returns the number of currently connected clients */
+    public int getConnectedClients() {
+        return connectedClients.size();
+    }
+
+    /** Returns the number of subscriptions of connected clients and persistent sessions */
+    public int getSubscriptions() {
+        return subscriptionsPerClient.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /** Returns the number of received publishes since the broker start */
+    public long getPublishedIn() {
+        return publishedIn.sum();
+    }
+
+    /** Returns the number of delivered publishes since the broker start */
+    public long getPublishedOut() {
+        return publishedOut.sum();
+    }
+
+    /** Returns the received publishes per second, as computed by the last {@link #updateRates()} */
+    public double getPublishInRate() {
+        return publishInRate;
+    }
+
+    /** Returns the delivered publishes per second, as computed by the last {@link #updateRates()} */
+    public double getPublishOutRate() {
+        return publishOutRate;
+    }
+
+    /** Returns the number of topics with a retained message, that have been published since the broker start */
+    public int getRetainedCount() {
+        return retainedTopics.size();
+    }
+
+    /**
+     * Returns the topics with the most delivered messages.
+     *
+     * @param limit The maximum number of topics
+     */
+    public List<TopicStatistics> getTopTopics(int limit) {
+        return topicStatistics.values().stream()
+                .sorted(Comparator.comparingLong(TopicStatistics::getDeliveries).reversed()).limit(limit)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.mqttembeddedbroker.internal;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.io.console.Console;
+import org.eclipse.smarthome.io.console.extensions.AbstractConsoleCommandExtension;
+import org.eclipse.smarthome.io.console.extensions.ConsoleCommandExtension;
+import org.openhab.io.mqttembeddedbroker.internal.BrokerMetrics.TopicStatistics;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+/**
+ * Console commands for inspecting the embedded MQTT broker.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+@Component(service = ConsoleCommandExtension.class)
+public class EmbeddedBrokerConsoleCommandExtension extends AbstractConsoleCommandExtension {
+    private static final String SUBCMD_STATS = "stats";
+    private static final String SUBCMD_TOPICS = "topics";
+    private static final int DEFAULT_TOPICS = 20;
+
+    private final EmbeddedBrokerService brokerService;
+
+    @Activate
+    public EmbeddedBrokerConsoleCommandExtension(@Reference EmbeddedBrokerService brokerService) {
+        super("mqttbroker", "Inspect the embedded MQTT broker.");
+        this.brokerService = brokerService;
+    }
+
+    @Override
+    public void execute(String[] args, Console console) {
+        if (args.length == 1 && SUBCMD_STATS.equals(args[0])) {
+            printStatistics(console);
+        } else if (args.length >= 1 && args.length <= 2 && SUBCMD_TOPICS.equals(args[0])) {
+            try {
+                printTopics(console, args.length == 2 ? Integer.parseInt(args[1]) : DEFAULT_TOPICS);
+            } catch (NumberFormatException e) {
+                printUsage(console);
+            }
+        } else {
+            printUsage(console);
+        }
+    }
+
+    @Override
+    public List<String> getUsages() {
+        return Arrays.asList(
+                buildCommandUsage(SUBCMD_STATS, "shows clients, publish rates, retained messages and store size"),
+                buildCommandUsage(SUBCMD_TOPICS + " [<count>]",
+                        "shows the topics with the most delivered messages and their fan-out"));
+    }
+
+    private void printStatistics(Console console) {
+        BrokerMetrics metrics = brokerService.getMetrics();
+        console.println(String.format("clients:      %d connected, %d subscriptions", metrics.getConnectedClients(),
+                metrics.getSubscriptions()));
+        console.println(String.format(Locale.ROOT, "received:     %d publishes (%.1f/s)", metrics.getPublishedIn(),
+                metrics.getPublishInRate()));
+        console.println(String.format(Locale.ROOT, "delivered:    %d publishes (%.1f/s)", metrics.getPublishedOut(),
+                metrics.getPublishOutRate()));
+        console.println(String.format("retained:     %d topics", metrics.getRetainedCount()));
+        console.println(String.format("store:        %d bytes", brokerService.getStoreSize()));
+        RetainedMessageLog retainedLog = brokerService.getRetainedLog();
+        if (retainedLog != null) {
+            console.println(String.format("log:          %d records, last flush %d ms, last compaction %d ms",
+                    retainedLog.getRecords(), retainedLog.getLastFlushMillis(),
+                    retainedLog.getLastCompactionMillis()));
+            console.println(String.format("recovery:     %d ms, %d corrupt bytes truncated",
+                    retainedLog.getRecoveryMillis(), retainedLog.getTruncatedBytes()));
+        }
+    }
+
+    private void printTopics(Console console, int count) {
+        List<TopicStatistics> topics = brokerService.getMetrics().getTopTopics(count);
+        if (topics.isEmpty()) {
+            console.println("No messages published");
+            return;
+        }
+        for (TopicStatistics topic : topics) {
+            console.println(String.format("%s: %d publishes, fan-out %d, %d deliveries", topic.topic,
+                    topic.getMessages(), topic.getFanOut(), topic.getDeliveries()));
+        }
+    }
+}
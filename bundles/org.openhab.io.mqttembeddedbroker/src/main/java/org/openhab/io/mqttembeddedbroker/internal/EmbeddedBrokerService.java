@@ -15,18 +15,22 @@ package org.openhab.io.mqttembeddedbroker.internal;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -45,6 +49,7 @@ import org.eclipse.smarthome.io.transport.mqtt.MqttService;
 import org.eclipse.smarthome.io.transport.mqtt.MqttServiceObserver;
 import org.openhab.io.mqttembeddedbroker.Constants;
 import org.openhab.io.mqttembeddedbroker.internal.MqttEmbeddedBrokerDetectStart.MqttEmbeddedBrokerStartedListener;
+import org.openhab.io.mqttembeddedbroker.internal.RetainedMessageLog.RetainedMessage;
 import org.osgi.service.component.annotations.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,14 +60,9 @@ import io.moquette.broker.Server;
 import io.moquette.broker.config.MemoryConfig;
 import io.moquette.broker.security.IAuthenticator;
 import io.moquette.broker.security.IAuthorizatorPolicy;
-import io.moquette.interception.InterceptHandler;
-import io.moquette.interception.messages.InterceptAcknowledgedMessage;
-import io.moquette.interception.messages.InterceptConnectMessage;
-import io.moquette.interception.messages.InterceptConnectionLostMessage;
-import io.moquette.interception.messages.InterceptDisconnectMessage;
-import io.moquette.interception.messages.InterceptPublishMessage;
-import io.moquette.interception.messages.InterceptSubscribeMessage;
-import io.moquette.interception.messages.InterceptUnsubscribeMessage;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.mqtt.MqttMessageBuilders;
+import io.netty.handler.codec.mqtt.MqttQoS;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 
@@ -83,63 +83,26 @@ import io.netty.handler.ssl.SslContextBuilder;
 @NonNullByDefault
 public class EmbeddedBrokerService
         implements ConfigurableService, MqttConnectionObserver, MqttServiceObserver, MqttEmbeddedBrokerStartedListener {
+    private static final int DEFAULT_METRICS_INTERVAL = 10;
+    /** Retained messages are written to the log at most this often, in seconds */
+    private static final int RETAINED_LOG_FLUSH_INTERVAL = 1;
+    static final String PERSISTENCE_TYPE_LOG = "log";
+    static final String RETAINED_LOG_EXTENSION = ".log";
+
     private final MqttService service;
     private String persistenceFilename = "";
+    private String persistenceType = "";
     // private NetworkServerTls networkServerTls; //TODO wait for NetworkServerTls implementation
 
-    @NonNullByDefault({})
-    class BrokerMetricsListenerEx implements InterceptHandler {
-
-        @Override
-        public String getID() {
-            return "logger";
-        }
-
-        @Override
-        public Class<?>[] getInterceptedMessageTypes() {
-            return new Class<?>[] { InterceptConnectMessage.class, InterceptDisconnectMessage.class };
-        }
-
-        @Override
-        public void onConnect(InterceptConnectMessage arg0) {
-            logger.debug("MQTT Client connected: {}", arg0.getClientID());
-        }
-
-        @Override
-        public void onConnectionLost(InterceptConnectionLostMessage arg0) {
-
-        }
-
-        @Override
-        public void onDisconnect(InterceptDisconnectMessage arg0) {
-            logger.debug("MQTT Client disconnected: {}", arg0.getClientID());
-        }
-
-        @Override
-        public void onMessageAcknowledged(InterceptAcknowledgedMessage arg0) {
-
-        }
-
-        @Override
-        public void onPublish(InterceptPublishMessage arg0) {
-
-        }
-
-        @Override
-        public void onSubscribe(InterceptSubscribeMessage arg0) {
-
-        }
-
-        @Override
-        public void onUnsubscribe(InterceptUnsubscribeMessage arg0) {
-
-        }
-    }
-
     protected @Nullable Server server;
     private final Logger logger = LoggerFactory.getLogger(EmbeddedBrokerService.class);
     protected MqttEmbeddedBrokerDetectStart detectStart = new MqttEmbeddedBrokerDetectStart(this);
-    protected BrokerMetricsListenerEx metrics = new BrokerMetricsListenerEx();
+    protected BrokerMetrics metrics = new BrokerMetrics();
+    private int metricsInterval;
+    private @Nullable ScheduledExecutorService scheduler;
+    private @Nullable ScheduledFuture<?> metricsFuture;
+    private @Nullable RetainedMessageLog retainedLog;
+    private @Nullable ScheduledFuture<?> retainedLogFuture;
 
     private @Nullable MqttBrokerConnection connection;
 
@@ -157,6 +120,8 @@ public class EmbeddedBrokerService
     public void initialize(Map<String, Object> configuration) throws IOException {
         ServiceConfiguration config = new Configuration(configuration).as(ServiceConfiguration.class);
         int port = config.port == null ? (config.port = config.secure ? 8883 : 1883) : config.port;
+        metricsInterval = config.metricsInterval;
+        persistenceType = config.persistenceType;
 
         // Create MqttBrokerConnection
         connection = service.getBrokerConnection(Constants.CLIENTID);
@@ -174,15 +139,17 @@ public class EmbeddedBrokerService
         }
 
         if (!config.persistenceFile.isEmpty()) {
-            final String persistenceFilename = config.persistenceFile;
-            if (!Paths.get(persistenceFilename).isAbsolute()) {
+            Path persistenceFile = Paths.get(config.persistenceFile);
+            if (!persistenceFile.isAbsolute()) {
                 Path path = Paths.get(ConfigConstants.getUserDataFolder()).toAbsolutePath();
                 Files.createDirectories(path);
-                this.persistenceFilename = path.resolve(persistenceFilename).toString();
+                persistenceFile = path.resolve(persistenceFile);
             }
+            this.persistenceFilename = persistenceFile.toString();
 
             logger.info("Broker persistence file: {}", persistenceFilename);
         } else {
+            this.persistenceFilename = "";
             logger.info("Using in-memory persistence. No persistence file has been set!");
         }
 
@@ -195,12 +162,14 @@ public class EmbeddedBrokerService
         if (service != null) {
             service.removeBrokersListener(this);
         }
+        stopScheduledTasks();
         MqttBrokerConnection connection = this.connection;
         if (connection == null) {
             if (server != null) {
                 server.stopServer();
             }
             server = null;
+            closeRetainedLog();
             return;
         }
 
@@ -216,6 +185,7 @@ public class EmbeddedBrokerService
         } catch (InterruptedException | ExecutionException | TimeoutException e) {
            logger.warn("Could not cleanly shutdown connection or server.", e);
         }
+        closeRetainedLog();
         connection = null;
     }
 
@@ -291,7 +261,9 @@ public class EmbeddedBrokerService
             logger.debug("Broker anonymous access enabled");
         }
 
-        if (!persistenceFilename.isEmpty()) { // Persistence: If not set, an in-memory database is used.
+        final boolean useRetainedLog = !persistenceFilename.isEmpty() && PERSISTENCE_TYPE_LOG.equals(persistenceType);
+        // Persistence: If not set, an in-memory database is used. The retained message log also uses it.
+        if (!persistenceFilename.isEmpty() && !useRetainedLog) {
             properties.put(BrokerConstants.PERSISTENT_STORE_PROPERTY_NAME, persistenceFilename);
             properties.put(BrokerConstants.AUTOSAVE_INTERVAL_PROPERTY_NAME, "30"); // in seconds
         }
@@ -314,19 +286,191 @@ public class EmbeddedBrokerService
             }
         }
         this.server = server;
-        server.addInterceptHandler(metrics);
         ScheduledExecutorService s = new ScheduledThreadPoolExecutor(1);
+        scheduler = s;
+        if (useRetainedLog) {
+            // The server accepts connections already. Clients subscribing before the restore has finished receive the
+            // restored messages as regular publishes.
+            openRetainedLog(server, Paths.get(persistenceFilename + RETAINED_LOG_EXTENSION));
+            final RetainedMessageLog retainedLog = this.retainedLog;
+            if (retainedLog != null) {
+                retainedLogFuture = s.scheduleWithFixedDelay(this::flushRetainedLog, RETAINED_LOG_FLUSH_INTERVAL,
+                        RETAINED_LOG_FLUSH_INTERVAL, TimeUnit.SECONDS);
+            }
+        }
+        metrics = new BrokerMetrics();
+        server.addInterceptHandler(metrics.getInterceptHandler());
         detectStart.startBrokerStartedDetection(port, s);
+        // The publish rates are computed even if the metrics are not published
+        int interval = metricsInterval > 0 ? metricsInterval : DEFAULT_METRICS_INTERVAL;
+        metricsFuture = s.scheduleWithFixedDelay(this::updateMetrics, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Opens the retained message log, publishes the stored retained messages to the broker and registers the log
+     * for all further retained messages. A log that is not readable is moved aside and a new log is started.
+     */
+    private void openRetainedLog(Server server, Path path) {
+        RetainedMessageLog retainedLog;
+        try {
+            try {
+                retainedLog = new RetainedMessageLog(path);
+            } catch (IOException e) {
+                if (!Files.exists(path)) {
+                    throw e;
+                }
+                Path corruptPath = Paths.get(path.toString() + ".corrupt");
+                logger.warn("Retained message log unreadable: {}, moving it to {}", e.getMessage(), corruptPath);
+                Files.move(path, corruptPath, StandardCopyOption.REPLACE_EXISTING);
+                retainedLog = new RetainedMessageLog(path);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not open the retained message log {}. Retained messages are not persisted.", path, e);
+            return;
+        }
+
+        final long start = System.nanoTime();
+        Map<String, RetainedMessage> messages = retainedLog.getMessages();
+        messages.forEach((topic, message) -> {
+            server.internalPublish(MqttMessageBuilders.publish().topicName(topic).retained(true)
+                    .qos(MqttQoS.valueOf(message.qos)).payload(Unpooled.wrappedBuffer(message.payload)).build(),
+                    Constants.CLIENTID);
+        });
+        logger.info("Restored {} retained messages in {} ms (reading the log took {} ms)", messages.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + retainedLog.getRecoveryMillis(),
+                retainedLog.getRecoveryMillis());
+
+        // Registered after restoring, the restored messages are stored already
+        server.addInterceptHandler(retainedLog.getInterceptHandler());
+        this.retainedLog = retainedLog;
+    }
+
+    private void flushRetainedLog() {
+        final RetainedMessageLog retainedLog = this.retainedLog;
+        if (retainedLog == null) {
+            return;
+        }
+        try {
+            retainedLog.flush();
+        } catch (IOException e) {
+            logger.warn("Could not write the retained message log", e);
+        }
+    }
+
+    private void closeRetainedLog() {
+        final RetainedMessageLog retainedLog = this.retainedLog;
+        if (retainedLog == null) {
+            return;
+        }
+        this.retainedLog = null;
+        try {
+            retainedLog.close();
+        } catch (IOException e) {
+            logger.warn("Could not close the retained message log", e);
+        }
     }
 
     public void stopEmbeddedServer() {
+        stopScheduledTasks();
         Server server = this.server;
         if (server != null) {
-            server.removeInterceptHandler(metrics);
+            server.removeInterceptHandler(metrics.getInterceptHandler());
+            final RetainedMessageLog retainedLog = this.retainedLog;
+            if (retainedLog != null) {
+                server.removeInterceptHandler(retainedLog.getInterceptHandler());
+            }
             detectStart.stopBrokerStartDetection();
             server.stopServer();
             this.server = null;
         }
+        closeRetainedLog();
+    }
+
+    private void stopScheduledTasks() {
+        ScheduledFuture<?> metricsFuture = this.metricsFuture;
+        if (metricsFuture != null) {
+            metricsFuture.cancel(false);
+            this.metricsFuture = null;
+        }
+        ScheduledFuture<?> retainedLogFuture = this.retainedLogFuture;
+        if (retainedLogFuture != null) {
+            retainedLogFuture.cancel(false);
+            this.retainedLogFuture = null;
+        }
+        ScheduledExecutorService scheduler = this.scheduler;
+        if (scheduler != null) {
+            scheduler.shutdown();
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * Updates the publish rates and publishes all metrics as retained messages to the "$SYS/broker/" topics, if
+     * enabled.
+     */
+    protected void updateMetrics() {
+        metrics.updateRates();
+        if (metricsInterval <= 0) {
+            return;
+        }
+        publishMetric(BrokerMetrics.TOPIC_CLIENTS_CONNECTED, String.valueOf(metrics.getConnectedClients()));
+        publishMetric(BrokerMetrics.TOPIC_PUBLISH_RECEIVED, String.valueOf(metrics.getPublishedIn()));
+        publishMetric(BrokerMetrics.TOPIC_PUBLISH_SENT, String.valueOf(metrics.getPublishedOut()));
+        publishMetric(BrokerMetrics.TOPIC_PUBLISH_RECEIVED_RATE,
+                String.format(Locale.ROOT, "%.1f", metrics.getPublishInRate()));
+        publishMetric(BrokerMetrics.TOPIC_PUBLISH_SENT_RATE,
+                String.format(Locale.ROOT, "%.1f", metrics.getPublishOutRate()));
+        publishMetric(BrokerMetrics.TOPIC_RETAINED_COUNT, String.valueOf(metrics.getRetainedCount()));
+        publishMetric(BrokerMetrics.TOPIC_STORE_SIZE, String.valueOf(getStoreSize()));
+        final RetainedMessageLog retainedLog = this.retainedLog;
+        if (retainedLog != null) {
+            publishMetric(BrokerMetrics.TOPIC_STORE_FLUSH_TIME, String.valueOf(retainedLog.getLastFlushMillis()));
+        }
+    }
+
+    private void publishMetric(String topic, String value) {
+        Server server = this.server;
+        if (server == null) {
+            return;
+        }
+        // Moquette does not keep retained messages with QoS 0
+        server.internalPublish(MqttMessageBuilders.publish().topicName(topic).retained(true)
+                .qos(MqttQoS.AT_LEAST_ONCE).payload(Unpooled.copiedBuffer(value, StandardCharsets.UTF_8)).build(),
+                Constants.CLIENTID);
+    }
+
+    /**
+     * Returns the runtime metrics of the embedded broker.
+     */
+    public BrokerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the retained message log, if that persistence type is used.
+     */
+    public @Nullable RetainedMessageLog getRetainedLog() {
+        return retainedLog;
+    }
+
+    /**
+     * Returns the size of the persistence store in bytes, or 0 for in-memory persistence.
+     */
+    public long getStoreSize() {
+        if (persistenceFilename.isEmpty()) {
+            return 0;
+        }
+        try {
+            final RetainedMessageLog retainedLog = this.retainedLog;
+            if (retainedLog != null) {
+                return retainedLog.getSize();
+            }
+            Path path = Paths.get(persistenceFilename);
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException e) {
+            logger.debug("Could not determine the size of the persistence file {}", persistenceFilename, e);
+            return 0;
+        }
     }
 
     /**
@@ -0,0 +1,406 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.mqttembeddedbroker.internal;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.moquette.interception.AbstractInterceptHandler;
+import io.moquette.interception.InterceptHandler;
+import io.moquette.interception.messages.InterceptPublishMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.mqtt.MqttQoS;
+
+/**
+ * Stores the retained messages of the embedded broker in an append-only log file.
+ * <p>
+ * Each change of a retained message appends a record with a CRC32 checksum. Records are collected in memory and
+ * written and synced to disk with {@link #flush()}, so that a burst of retained messages costs one write. If the log
+ * contains much more records than retained messages, it is compacted: The current retained messages are written to a
+ * new file, which replaces the log. The log is therefore at most about twice the size of the retained messages and
+ * is read in one sequential pass on startup.
+ * <p>
+ * A record that is incomplete or fails the checksum ends the log: It and everything after it is truncated, all
+ * records before are kept.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RetainedMessageLog implements Closeable {
+    private static final int MAGIC = 0x4F48524D; // "OHRM"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    /** Length and checksum of the record body */
+    private static final int RECORD_HEADER_SIZE = 8;
+    /** Type, QoS, topic length, payload length */
+    private static final int MIN_BODY_SIZE = 10;
+    /** Larger records are considered corrupt. MQTT payloads are limited to 256 MB, but not in home automation. */
+    static final int MAX_BODY_SIZE = 16 * 1024 * 1024;
+    private static final byte TYPE_RETAIN = 1;
+    private static final byte TYPE_REMOVE = 2;
+    /** The log is compacted if it has more than this many records and twice as many records as retained messages */
+    static final int MIN_COMPACTION_RECORDS = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(RetainedMessageLog.class);
+
+    /**
+     * A retained message as stored in the log.
+     */
+    public static class RetainedMessage {
+        public final int qos;
+        public final byte[] payload;
+
+        public RetainedMessage(int qos, byte[] payload) {
+            this.qos = qos;
+            this.payload = payload;
+        }
+    }
+
+    private final Path path;
+    private final Map<String, RetainedMessage> messages = new LinkedHashMap<>();
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    /** The number of records in the file and in the pending buffer */
+    private int records;
+    private long recoveryMillis;
+    private long truncatedBytes;
+    private long lastFlushMillis;
+    private long lastCompactionMillis;
+
+    @NonNullByDefault({})
+    class Interceptor extends AbstractInterceptHandler {
+        @Override
+        public String getID() {
+            return "retainedlog";
+        }
+
+        @Override
+        public Class<?>[] getInterceptedMessageTypes() {
+            return new Class<?>[] { InterceptPublishMessage.class };
+        }
+
+        @Override
+        public void onPublish(InterceptPublishMessage msg) {
+            if (!msg.isRetainFlag() || msg.getTopicName().startsWith(BrokerMetrics.SYS_TOPIC_PREFIX)) {
+                return;
+            }
+            // Moquette does not retain messages with QoS 0, it clears the retained message of the topic instead
+            if (msg.getQos() == MqttQoS.AT_MOST_ONCE) {
+                retain(msg.getTopicName(), 0, new byte[0]);
+                return;
+            }
+            ByteBuf buffer = msg.getPayload();
+            byte[] payload = new byte[buffer.readableBytes()];
+            buffer.getBytes(buffer.readerIndex(), payload);
+            retain(msg.getTopicName(), msg.getQos().value(), payload);
+        }
+    }
+
+    private final InterceptHandler interceptor = new Interceptor();
+
+    /**
+     * Opens the log at the given path and reads all retained messages. A missing file is created.
+     *
+     * @param path The log file
+     * @throws IOException If the file cannot be read or written or is not a retained message log
+     */
+    public RetainedMessageLog(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            recover();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void recover() throws IOException {
+        final long start = System.nanoTime();
+        final long size = channel.size();
+        if (size == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            channel.write(header, 0);
+            channel.force(true);
+            channel.position(HEADER_SIZE);
+            return;
+        }
+
+        long validEnd;
+        channel.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 65536));
+        try {
+            if (size < HEADER_SIZE || in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a retained message log: " + path);
+            }
+            validEnd = HEADER_SIZE;
+            while (validEnd + RECORD_HEADER_SIZE <= size) {
+                int length = in.readInt();
+                long checksum = in.readInt() & 0xFFFFFFFFL;
+                if (length < MIN_BODY_SIZE || length > MAX_BODY_SIZE
+                        || validEnd + RECORD_HEADER_SIZE + length > size) {
+                    break;
+                }
+                byte[] body = new byte[length];
+                in.readFully(body);
+                crc.reset();
+                crc.update(body, 0, length);
+                if (crc.getValue() != checksum || !apply(body)) {
+                    break;
+                }
+                validEnd += RECORD_HEADER_SIZE + length;
+                records++;
+            }
+        } catch (EOFException e) {
+            throw new IOException("Unexpected end of " + path, e);
+        }
+
+        if (validEnd < size) {
+            truncatedBytes = size - validEnd;
+            logger.warn("Retained message log {} has a corrupt tail. Truncating {} bytes after {} valid records.",
+                    path, truncatedBytes, records);
+            channel.truncate(validEnd);
+            channel.force(true);
+        }
+        channel.position(validEnd);
+        recoveryMillis = (System.nanoTime() - start) / 1000000;
+    }
+
+    /**
+     * Applies a record body to the retained messages.
+     *
+     * @return False if the body is malformed
+     */
+    private boolean apply(byte[] body) {
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        byte type = buffer.get();
+        int qos = buffer.get();
+        int topicLength = buffer.getInt();
+        if (topicLength < 0 || topicLength > buffer.remaining() - 4) {
+            return false;
+        }
+        String topic = new String(body, buffer.position(), topicLength, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + topicLength);
+        int payloadLength = buffer.getInt();
+        if (payloadLength != buffer.remaining()) {
+            return false;
+        }
+        if (type == TYPE_RETAIN) {
+            messages.remove(topic);
+            messages.put(topic, new RetainedMessage(qos, Arrays.copyOfRange(body, buffer.position(), body.length)));
+        } else if (type == TYPE_REMOVE) {
+            messages.remove(topic);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the handler to be added to the broker with {@link io.moquette.broker.Server#addInterceptHandler}.
+     * It stores all retained publishes.
+     */
+    public InterceptHandler getInterceptHandler() {
+        return interceptor;
+    }
+
+    /**
+     * Returns a copy of the retained messages, in the order of their last change.
+     */
+    public synchronized Map<String, RetainedMessage> getMessages() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(messages));
+    }
+
+    /**
+     * Stores a retained message, to be written with the next {@link #flush()}. An empty payload removes the retained
+     * message of the topic. Unchanged messages are not stored again.
+     *
+     * @param topic The topic
+     * @param qos The QoS of the message
+     * @param payload The payload
+     */
+    public synchronized void retain(String topic, int qos, byte[] payload) {
+        RetainedMessage existing = messages.get(topic);
+        if (payload.length == 0) {
+            if (existing == null) {
+                return;
+            }
+            messages.remove(topic);
+            append(TYPE_REMOVE, topic, 0, payload);
+        } else {
+            if (existing != null && existing.qos == qos && Arrays.equals(existing.payload, payload)) {
+                return;
+            }
+            messages.remove(topic);
+            messages.put(topic, new RetainedMessage(qos, payload));
+            append(TYPE_RETAIN, topic, qos, payload);
+        }
+    }
+
+    private void append(byte type, String topic, int qos, byte[] payload) {
+        byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+        byte[] record = encode(type, topicBytes, qos, payload);
+        pending.write(record, 0, record.length);
+        records++;
+    }
+
+    private byte[] encode(byte type, byte[] topic, int qos, byte[] payload) {
+        int length = MIN_BODY_SIZE + topic.length + payload.length;
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+        buffer.putInt(length);
+        buffer.putInt(0); // Checksum placeholder
+        buffer.put(type).put((byte) qos).putInt(topic.length).put(topic).putInt(payload.length).put(payload);
+        byte[] record = buffer.array();
+        crc.reset();
+        crc.update(record, RECORD_HEADER_SIZE, length);
+        ByteBuffer.wrap(record).putInt(4, (int) crc.getValue());
+        return record;
+    }
+
+    /**
+     * Writes and syncs the pending records to disk. Compacts the log if necessary.
+     *
+     * @throws IOException If writing fails. The pending records are kept and written with the next flush.
+     */
+    public synchronized void flush() throws IOException {
+        if (pending.size() == 0) {
+            return;
+        }
+        final long start = System.nanoTime();
+        ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+        long position = channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // Do not leave a partial write behind, it would be truncated as corrupt tail anyway
+            channel.truncate(position);
+            channel.position(position);
+            throw e;
+        }
+        pending.reset();
+        lastFlushMillis = (System.nanoTime() - start) / 1000000;
+
+        if (records > MIN_COMPACTION_RECORDS && records > 2 * messages.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Replaces the log by a file with one record per retained message.
+     *
+     * @throws IOException If the new file cannot be written. The log stays unchanged.
+     */
+    public synchronized void compact() throws IOException {
+        final long start = System.nanoTime();
+        Path temp = Paths.get(path.toString() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            data.write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).array());
+            for (Map.Entry<String, RetainedMessage> entry : messages.entrySet()) {
+                byte[] record = encode(TYPE_RETAIN, entry.getKey().getBytes(StandardCharsets.UTF_8),
+                        entry.getValue().qos, entry.getValue().payload);
+                data.write(record);
+            }
+            // Records not yet flushed are part of the messages already
+            ByteBuffer buffer = ByteBuffer.wrap(data.toByteArray());
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        channel.close();
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            // Continue with the old log if the replacement failed
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+        pending.reset();
+        records = messages.size();
+        lastCompactionMillis = (System.nanoTime() - start) / 1000000;
+        logger.debug("Compacted retained message log {} to {} messages in {} ms", path, records,
+                lastCompactionMillis);
+    }
+
+    /**
+     * Flushes the pending records and closes the log.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /** Returns the size of the log file including the records not yet flushed, in bytes */
+    public synchronized long getSize() throws IOException {
+        return channel.size() + pending.size();
+    }
+
+    /** Returns the number of records in the log, including the records not yet flushed */
+    public synchronized int getRecords() {
+        return records;
+    }
+
+    /** Returns the time it took to read the log on opening, in milliseconds */
+    public long getRecoveryMillis() {
+        return recoveryMillis;
+    }
+
+    /** Returns the number of bytes of a corrupt tail that have been truncated on opening */
+    public long getTruncatedBytes() {
+        return truncatedBytes;
+    }
+
+    /** Returns the duration of the last write and sync, in milliseconds */
+    public synchronized long getLastFlushMillis() {
+        return lastFlushMillis;
+    }
+
+    /** Returns the duration of the last compaction, in milliseconds */
+    public synchronized long getLastCompactionMillis() {
+        return lastCompactionMillis;
+    }
+}
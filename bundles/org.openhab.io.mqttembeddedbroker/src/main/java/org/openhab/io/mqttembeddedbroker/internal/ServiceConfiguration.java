@@ -25,6 +25,13 @@ public class ServiceConfiguration {
     public @Nullable Integer port;
     public Boolean secure = false;
     public String persistenceFile = "mqttembedded.bin";
+    /**
+     * "moquette" to let the broker store everything in the persistence file, "log" to store only retained messages in
+     * an append-only log next to the persistence file
+     */
+    public String persistenceType = "moquette";
+    /** The interval in seconds for publishing the broker metrics to "$SYS/broker/" topics. 0 disables publishing. */
+    public Integer metricsInterval = 10;
 
     public @Nullable String username;
     public @Nullable String password;
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.mqttembeddedbroker.benchmark;
+
+import static org.mockito.Mockito.mock;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttService;
+import org.openhab.io.mqttembeddedbroker.internal.BrokerMetrics;
+import org.openhab.io.mqttembeddedbroker.internal.EmbeddedBrokerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Load generator for the embedded broker: M clients publish N messages per second in total for a given duration, a
+ * subscriber receives all messages. Reports the achieved throughput, lost messages and the publish to receive
+ * latency, and the broker metrics. Use it to size a broker host and to catch throughput regressions.
+ *
+ * The parameters are system properties:
+ * <ul>
+ * <li>load.clients: The number of publishing clients, default 4
+ * <li>load.rate: Messages per second of all clients together, default 1000
+ * <li>load.duration: Duration in seconds, default 10
+ * <li>load.topics: Topics per client, default 10
+ * <li>load.qos: QoS of the publishes and the subscription, default 0
+ * <li>load.host and load.port: Load an external broker instead of starting the embedded broker on port 12346
+ * </ul>
+ *
+ * This is not a JMH benchmark; it runs for the given duration and reports the results at the end. Start it with
+ * <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.openhab.io.mqttembeddedbroker.benchmark.BrokerLoadGenerator -Dload.rate=5000</code>.
+ *
+ * @author agent - Initial contribution
+ */
+public class BrokerLoadGenerator {
+    private static final String BASE_TOPIC = "load";
+    private static final int TICKS_PER_SECOND = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(BrokerLoadGenerator.class);
+
+    private final int clients = Integer.getInteger("load.clients", 4);
+    private final int rate = Integer.getInteger("load.rate", 1000);
+    private final int duration = Integer.getInteger("load.duration", 10);
+    private final int topics = Integer.getInteger("load.topics", 10);
+    private final int qos = Integer.getInteger("load.qos", 0);
+    private final String host = System.getProperty("load.host", "");
+    private final int port = Integer.getInteger("load.port", 12346);
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+    public static void main(String[] args) throws Exception {
+        new BrokerLoadGenerator().run();
+    }
+
+    private MqttBrokerConnection connect(String clientID) throws Exception {
+        MqttBrokerConnection connection = new MqttBrokerConnection(host.isEmpty() ? "localhost" : host, port, false,
+                clientID);
+        connection.setQos(qos);
+        if (!connection.start().get(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Could not connect " + clientID);
+        }
+        return connection;
+    }
+
+    private void run() throws Exception {
+        EmbeddedBrokerService broker = null;
+        if (host.isEmpty()) {
+            Map<String, Object> config = new HashMap<>();
+            config.put("port", port);
+            config.put("secure", false);
+            config.put("persistenceFile", "");
+            config.put("metricsInterval", 1);
+            broker = new EmbeddedBrokerService(mock(MqttService.class), config);
+            // Wait for the broker to accept connections
+            Thread.sleep(2000);
+        }
+
+        MqttBrokerConnection subscriber = connect("load-subscriber");
+        subscriber.subscribe(BASE_TOPIC + "/#", (topic, payload) -> {
+            // Only meaningful if publisher and subscriber run on the same host, which they do
+            latencies.add(System.nanoTime() - ByteBuffer.wrap(payload).getLong());
+            received.incrementAndGet();
+        }).get(10, TimeUnit.SECONDS);
+
+        List<MqttBrokerConnection> publishers = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            publishers.add(connect("load-publisher-" + i));
+        }
+
+        // Every tick each client publishes its share of the rate, the remainder is spread over the ticks
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(clients);
+        final double perTick = (double) rate / TICKS_PER_SECOND / clients;
+        for (int i = 0; i < clients; i++) {
+            final MqttBrokerConnection publisher = publishers.get(i);
+            final String clientTopic = BASE_TOPIC + "/client" + i + "/topic";
+            final double[] due = { 0 };
+            final long[] counter = { 0 };
+            scheduler.scheduleAtFixedRate(() -> {
+                due[0] += perTick;
+                while (due[0] >= 1) {
+                    due[0]--;
+                    byte[] payload = ByteBuffer.allocate(Long.BYTES).putLong(System.nanoTime()).array();
+                    publisher.publish(clientTopic + (counter[0]++ % topics), payload, qos, false);
+                    sent.incrementAndGet();
+                }
+            }, 0, 1000 / TICKS_PER_SECOND, TimeUnit.MILLISECONDS);
+        }
+
+        long start = System.nanoTime();
+        for (int second = 1; second <= duration; second++) {
+            Thread.sleep(1000);
+            logger.info("{} s: sent {}, received {}", second, sent.get(), received.get());
+        }
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        // Give the broker time to deliver the remaining messages
+        Thread.sleep(2000);
+        double seconds = (System.nanoTime() - start) / 1e9 - 2;
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        logger.info("{} clients, {} topics each, QoS {}, target {} msg/s", clients, topics, qos, rate);
+        logger.info("sent {} ({} msg/s), received {}, lost {}", sent.get(), format(sent.get() / seconds, 0),
+                received.get(), sent.get() - received.get());
+        if (sorted.length > 0) {
+            logger.info("latency p50 {} ms, p95 {} ms, p99 {} ms, max {} ms", format(percentile(sorted, 50), 2),
+                    format(percentile(sorted, 95), 2), format(percentile(sorted, 99), 2),
+                    format(sorted[sorted.length - 1] / 1e6, 2));
+        }
+
+        if (broker != null) {
+            BrokerMetrics metrics = broker.getMetrics();
+            logger.info("broker: {} clients, {} received, {} delivered", metrics.getConnectedClients(),
+                    metrics.getPublishedIn(), metrics.getPublishedOut());
+        }
+
+        List<CompletableFuture<Boolean>> stopped = new ArrayList<>();
+        publishers.forEach(p -> stopped.add(p.stop()));
+        stopped.add(subscriber.stop());
+        CompletableFuture.allOf(stopped.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        if (broker != null) {
+            broker.deactivate();
+        }
+        System.exit(0);
+    }
+
+    private static String format(double value, int decimals) {
+        return String.format(Locale.ROOT, "%." + decimals + "f", value);
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
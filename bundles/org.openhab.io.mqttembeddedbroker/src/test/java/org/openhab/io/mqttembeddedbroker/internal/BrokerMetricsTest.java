@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.mqttembeddedbroker.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.openhab.io.mqttembeddedbroker.internal.BrokerMetrics.TopicStatistics;
+
+/**
+ * Tests cases for {@link BrokerMetrics}.
+ *
+ * @author agent - Initial contribution
+ */
+public class BrokerMetricsTest {
+    private final BrokerMetrics metrics = new BrokerMetrics();
+
+    @Test
+    public void matches() {
+        assertTrue(BrokerMetrics.matches("a/b", "a/b"));
+        assertTrue(BrokerMetrics.matches("a/+", "a/b"));
+        assertTrue(BrokerMetrics.matches("a/#", "a/b/c"));
+        assertTrue(BrokerMetrics.matches("a/#", "a"));
+        assertTrue(BrokerMetrics.matches("#", "a/b"));
+        assertFalse(BrokerMetrics.matches("a/+", "a/b/c"));
+        assertFalse(BrokerMetrics.matches("a/b/c", "a/b"));
+        assertFalse(BrokerMetrics.matches("#", "$SYS/broker"));
+        assertTrue(BrokerMetrics.matches("$SYS/#", "$SYS/broker"));
+    }
+
+    @Test
+    public void clientsAndFanOut() {
+        metrics.clientConnected("c1", true);
+        metrics.clientConnected("c2", false);
+        metrics.subscribed("c1", "home/+/temperature");
+        metrics.subscribed("c1", "home/#");
+        metrics.subscribed("c2", "home/kitchen/temperature");
+        assertThat(metrics.getConnectedClients(), is(2));
+        assertThat(metrics.getSubscriptions(), is(3));
+
+        // Delivered once per client, even with several matching subscriptions
+        metrics.published("home/kitchen/temperature", 2, false);
+        metrics.published("home/kitchen/temperature", 2, false);
+        metrics.published("home/kitchen/humidity", 2, false);
+        assertThat(metrics.getPublishedIn(), is(3L));
+        assertThat(metrics.getPublishedOut(), is(5L));
+
+        List<TopicStatistics> topics = metrics.getTopTopics(10);
+        assertThat(topics.size(), is(2));
+        assertThat(topics.get(0).topic, is("home/kitchen/temperature"));
+        assertThat(topics.get(0).getMessages(), is(2L));
+        assertThat(topics.get(0).getFanOut(), is(2));
+
+        // The subscriptions of a clean session vanish with the client, a persistent session keeps them
+        metrics.clientDisconnected("c1");
+        metrics.clientDisconnected("c2");
+        assertThat(metrics.getConnectedClients(), is(0));
+        metrics.published("home/kitchen/temperature", 2, false);
+        assertThat(metrics.getPublishedOut(), is(6L));
+
+        metrics.unsubscribed("c2", "home/kitchen/temperature");
+        metrics.published("home/kitchen/temperature", 2, false);
+        assertThat(metrics.getPublishedOut(), is(6L));
+    }
+
+    @Test
+    public void subscriptionChangesUpdateTheMatchedTopics() {
+        metrics.clientConnected("c1", true);
+        metrics.clientConnected("c2", true);
+        metrics.subscribed("c1", "a/#");
+        metrics.published("a/x", 1, false);
+        metrics.published("b/x", 1, false);
+        assertThat(metrics.getPublishedOut(), is(1L));
+
+        metrics.subscribed("c2", "b/+");
+        metrics.published("a/x", 1, false);
+        metrics.published("b/x", 1, false);
+        assertThat(metrics.getPublishedOut(), is(3L));
+
+        metrics.clientDisconnected("c1");
+        metrics.published("a/x", 1, false);
+        metrics.published("b/x", 1, false);
+        assertThat(metrics.getPublishedOut(), is(4L));
+    }
+
+    @Test
+    public void retainedMessages() {
+        metrics.published("a", 1, true);
+        metrics.published("b", 1, true);
+        metrics.published("c", 1, false);
+        assertThat(metrics.getRetainedCount(), is(2));
+
+        // An empty retained message clears the topic
+        metrics.published("a", 0, true);
+        assertThat(metrics.getRetainedCount(), is(1));
+
+        // The broker's own metrics are not counted
+        metrics.published(BrokerMetrics.TOPIC_CLIENTS_CONNECTED, 1, true);
+        assertThat(metrics.getRetainedCount(), is(1));
+        assertThat(metrics.getPublishedIn(), is(4L));
+    }
+
+    @Test
+    public void rates() throws InterruptedException {
+        metrics.updateRates();
+        metrics.published("a", 1, false);
+        Thread.sleep(10);
+        metrics.updateRates();
+        assertTrue(metrics.getPublishInRate() > 0);
+        assertThat(metrics.getPublishOutRate(), is(0.0));
+    }
+}
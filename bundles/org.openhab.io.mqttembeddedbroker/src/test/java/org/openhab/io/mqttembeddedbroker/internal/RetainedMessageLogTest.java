@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.mqttembeddedbroker.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openhab.io.mqttembeddedbroker.internal.RetainedMessageLog.RetainedMessage;
+
+import io.moquette.interception.messages.InterceptPublishMessage;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.mqtt.MqttMessageBuilders;
+import io.netty.handler.codec.mqtt.MqttQoS;
+
+/**
+ * Tests cases for {@link RetainedMessageLog}.
+ *
+ * @author agent - Initial contribution
+ */
+public class RetainedMessageLogTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Path logFile() {
+        return folder.getRoot().toPath().resolve("retained.log");
+    }
+
+    @Test
+    public void restoresMessages() throws IOException {
+        try (RetainedMessageLog log = new RetainedMessageLog(logFile())) {
+            log.retain("homie/dev/$name", 1, bytes("Device"));
+            log.retain("homie/dev/$state", 1, bytes("init"));
+            log.retain("homie/dev/$state", 1, bytes("ready"));
+            log.retain("homie/dev/temp", 0, bytes("21.5"));
+            // An empty payload removes the retained message
+            log.retain("homie/dev/temp", 0, new byte[0]);
+        }
+
+        try (RetainedMessageLog log = new RetainedMessageLog(logFile())) {
+            Map<String, RetainedMessage> messages = log.getMessages();
+            assertThat(messages.size(), is(2));
+            assertArrayEquals(bytes("ready"), messages.get("homie/dev/$state").payload);
+            assertThat(messages.get("homie/dev/$state").qos, is(1));
+            assertArrayEquals(bytes("Device"), messages.get("homie/dev/$name").payload);
+            assertThat(log.getRecords(), is(5));
+            assertThat(log.getTruncatedBytes(), is(0L));
+        }
+    }
+
+    private static InterceptPublishMessage publish(String topic, MqttQoS qos, String payload) {
+        return new InterceptPublishMessage(MqttMessageBuilders.publish().topicName(topic).retained(true).qos(qos)
+                .payload(Unpooled.copiedBuffer(payload, StandardCharsets.UTF_8)).build(), "client", "user");
+    }
+
+    @Test
+    public void storesRetainedPublishesExceptQos0() throws IOException {
+        try (RetainedMessageLog log = new RetainedMessageLog(logFile())) {
+            log.getInterceptHandler().onPublish(publish("a", MqttQoS.AT_LEAST_ONCE, "1"));
+            // Not retained by the broker
+            log.getInterceptHandler().onPublish(publish("b", MqttQoS.AT_MOST_ONCE, "2"));
+            log.getInterceptHandler().onPublish(publish(BrokerMetrics.TOPIC_STORE_SIZE, MqttQoS.AT_LEAST_ONCE, "3"));
+            assertThat(log.getMessages().keySet(), is(Collections.singleton("a")));
+        }
+    }
+
+    @Test
+    public void retainedQos0PublishRemovesRetainedMessage() throws IOException {
+        try (RetainedMessageLog log = new RetainedMessageLog(logFile())) {
+            log.getInterceptHandler().onPublish(publish("a", MqttQoS.AT_LEAST_ONCE, "1"));
+            // The broker clears the retained message of the topic
+            log.getInterceptHandler().onPublish(publish("a", MqttQoS.AT_MOST_ONCE, "2"));
+            assertTrue(log.getMessages().isEmpty());
+        }
+
+        // Nothing is restored after a restart
+        try (RetainedMessageLog log = new RetainedMessageLog(logFile())) {
+            assertTrue(log.getMessages().isEmpty());
+            assertThat(log.getRecords(), is(2));
+        }
+    }
+
+    @Test
+    public void unchangedMessagesAreNotStored() throws IOException {
+        try (RetainedMessageLog log = new RetainedMessageLog(logFile())) {
+            log.retain("a", 1, bytes("1"));
+            log.retain("a", 1, bytes("1"));
+            log.retain("b", 1, new byte[0]);
+            assertThat(log.getRecords(), is(1));
+        }
+    }
+
+    @Test
+    public void compaction() throws IOException {
+        try (RetainedMessageLog log = new RetainedMessageLog(logFile())) {
+            for (int i = 0; i <= RetainedMessageLog.MIN_COMPACTION_RECORDS; i++) {
+                log.retain("counter", 0, bytes(String.valueOf(i)));
+            }
+            log.retain("config", 1, bytes("{}"));
+            log.flush();
+            assertThat(log.getRecords(), is(2));
+            assertThat(log.getSize(), is(Files.size(logFile())));
+
+            // The log is usable after compaction
+            log.retain("other", 1, bytes("x"));
+        }
+
+        try (RetainedMessageLog log = new RetainedMessageLog(logFile())) {
+            Map<String, RetainedMessage> messages = log.getMessages();
+            assertThat(messages.size(), is(3));
+            assertArrayEquals(bytes(String.valueOf(RetainedMessageLog.MIN_COMPACTION_RECORDS)),
+                    messages.get("counter").payload);
+        }
+    }
+
+    @Test
+    public void truncatesIncompleteTail() throws IOException {
+        try (RetainedMessageLog log = new RetainedMessageLog(logFile())) {
+            log.retain("a", 1, bytes("1"));
+            log.retain("b", 1, bytes("2"));
+        }
+        long validSize = Files.size(logFile());
+        // A record interrupted while being written
+        Files.write(logFile(), new byte[] { 0, 0, 0, 20, 1, 2 }, StandardOpenOption.APPEND);
+
+        try (RetainedMessageLog log = new RetainedMessageLog(logFile())) {
+            assertThat(log.getMessages().size(), is(2));
+            assertThat(log.getTruncatedBytes(), is(6L));
+            assertThat(Files.size(logFile()), is(validSize));
+        }
+    }
+
+    @Test
+    public void truncatesCorruptRecord() throws IOException {
+        try (RetainedMessageLog log = new RetainedMessageLog(logFile())) {
+            log.retain("a", 1, bytes("1"));
+            log.flush();
+            log.retain("b", 1, bytes("2"));
+            log.retain("c", 1, bytes("3"));
+        }
+        // Damage the payload of the second record, the third one is lost as well. Each record has 20 bytes.
+        try (RandomAccessFile file = new RandomAccessFile(logFile().toFile(), "rw")) {
+            long secondRecordPayload = 8 + 20 + 19;
+            file.seek(secondRecordPayload);
+            int value = file.read();
+            file.seek(secondRecordPayload);
+            file.write(value ^ 0xFF);
+        }
+
+        try (RetainedMessageLog log = new RetainedMessageLog(logFile())) {
+            Map<String, RetainedMessage> messages = log.getMessages();
+            assertThat(messages.size(), is(1));
+            assertTrue(messages.containsKey("a"));
+            assertTrue(log.getTruncatedBytes() > 0);
+
+            // New records are appended after the valid ones
+            log.retain("d", 1, bytes("4"));
+        }
+        try (RetainedMessageLog log = new RetainedMessageLog(logFile())) {
+            assertThat(log.getMessages().size(), is(2));
+            assertThat(log.getTruncatedBytes(), is(0L));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        Files.write(logFile(), bytes("SQLite format 3"));
+        new RetainedMessageLog(logFile()).close();
+    }
+}
@@ -14,8 +14,6 @@ package org.openhab.io.transport.modbus;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.util.Optional;
 
@@ -101,6 +99,31 @@ public class ModbusBitUtilities {
      */
     public static Optional<DecimalType> extractStateFromRegisters(ModbusRegisterArray registers, int index,
             ModbusConstants.ValueType type) {
+        return rawValueToState(extractRawValueFromRegisters(registers, index, type), type);
+    }
+
+    /**
+     * Read data from registers without converting the result to DecimalType
+     *
+     * Interpretation of <tt>index</tt> is the same as with
+     * {@link #extractStateFromRegisters(ModbusRegisterArray, int, ModbusConstants.ValueType)}. The data is read
+     * directly from the register values, without intermediate buffers.
+     *
+     * Signed integer types are sign-extended, and unsigned integer types zero-extended to long. With UINT64 and
+     * UINT64_SWAP, values larger than <tt>Long.MAX_VALUE</tt> are returned as negative numbers. With FLOAT32 and
+     * FLOAT32_SWAP, the IEEE 754 bit layout of the floating point number is returned.
+     *
+     * Items of the same type have equal raw values if and only if the data in registers is equal. The raw value can be
+     * converted to DecimalType using {@link #rawValueToState(long, ModbusConstants.ValueType)}.
+     *
+     * @param registers list of registers, each register represent 16bit of data
+     * @param index zero based item index
+     * @param type item type
+     * @return raw value of the item
+     * @throws IllegalArgumentException when <tt>index</tt> is out of bounds of registers
+     */
+    public static long extractRawValueFromRegisters(ModbusRegisterArray registers, int index,
+            ModbusConstants.ValueType type) {
         int endBitIndex = (type.getBits() >= 16 ? 16 * index : type.getBits() * index) + type.getBits() - 1;
         // each register has 16 bits
         int lastValidIndex = registers.size() * 16 - 1;
@@ -111,105 +134,79 @@ public class ModbusBitUtilities {
         }
         switch (type) {
             case BIT:
-                return Optional
-                        .of(new DecimalType((registers.getRegister(index / 16).toUnsignedShort() >> (index % 16)) & 1));
+                return (registers.getRegister(index / 16).toUnsignedShort() >> (index % 16)) & 1;
             case INT8:
-                return Optional.of(new DecimalType(registers.getRegister(index / 2).getBytes()[1 - (index % 2)]));
+                return (byte) (registers.getRegister(index / 2).toUnsignedShort() >> (8 * (index % 2)));
             case UINT8:
-                return Optional.of(new DecimalType(
-                        (registers.getRegister(index / 2).toUnsignedShort() >> (8 * (index % 2))) & 0xff));
-            case INT16: {
-                ByteBuffer buff = ByteBuffer.allocate(2);
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getShort(0)));
-            }
+                return (registers.getRegister(index / 2).toUnsignedShort() >> (8 * (index % 2))) & 0xff;
+            case INT16:
+                return (short) registers.getRegister(index).toUnsignedShort();
             case UINT16:
-                return Optional.of(new DecimalType(registers.getRegister(index).toUnsignedShort()));
-            case INT32: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getInt(0)));
-            }
-            case UINT32: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.position(4);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0)));
-            }
-            case FLOAT32: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                try {
-                    return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getFloat(0)));
-                } catch (NumberFormatException e) {
-                    // floating point NaN or infinity encountered
-                    return Optional.empty();
-                }
-            }
-            case INT64: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 3).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0)));
-            }
-            case UINT64: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 3).getBytes());
-                return Optional.of(
-                        new DecimalType(new BigDecimal(new BigInteger(1, buff.order(ByteOrder.BIG_ENDIAN).array()))));
-            }
-            case INT32_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getInt(0)));
-            }
-            case UINT32_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.position(4);
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0)));
-            }
+                return registers.getRegister(index).toUnsignedShort();
+            case INT32:
+                return (int) concatRegisters(registers, index, 2, false);
+            case UINT32:
+            case FLOAT32:
+                return concatRegisters(registers, index, 2, false);
+            case INT32_SWAP:
+                return (int) concatRegisters(registers, index, 2, true);
+            case UINT32_SWAP:
+            case FLOAT32_SWAP:
+                return concatRegisters(registers, index, 2, true);
+            case INT64:
+            case UINT64:
+                return concatRegisters(registers, index, 4, false);
+            case INT64_SWAP:
+            case UINT64_SWAP:
+                return concatRegisters(registers, index, 4, true);
+            default:
+                throw new IllegalArgumentException(type.getConfigValue());
+        }
+    }
+
+    /**
+     * Convert raw value, as returned by
+     * {@link #extractRawValueFromRegisters(ModbusRegisterArray, int, ModbusConstants.ValueType)}, to DecimalType
+     *
+     * @param rawValue raw value of the item
+     * @param type item type
+     * @return number representation of the value. Empty optional is returned with NaN and infinity floating point
+     *         values
+     */
+    public static Optional<DecimalType> rawValueToState(long rawValue, ModbusConstants.ValueType type) {
+        switch (type) {
+            case FLOAT32:
             case FLOAT32_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                try {
-                    return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getFloat(0)));
-                } catch (NumberFormatException e) {
-                    // floating point NaN or infinity encountered
+                float floatValue = Float.intBitsToFloat((int) rawValue);
+                if (Float.isNaN(floatValue) || Float.isInfinite(floatValue)) {
                     return Optional.empty();
                 }
+                return Optional.of(new DecimalType(floatValue));
             }
-            case INT64_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index + 3).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0)));
-            }
-            case UINT64_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index + 3).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(
-                        new DecimalType(new BigDecimal(new BigInteger(1, buff.order(ByteOrder.BIG_ENDIAN).array()))));
-            }
+            case UINT64:
+            case UINT64_SWAP:
+                if (rawValue < 0) {
+                    // Larger than Long.MAX_VALUE
+                    return Optional.of(new DecimalType(new BigDecimal(new BigInteger(Long.toUnsignedString(rawValue)))));
+                }
+                return Optional.of(new DecimalType(rawValue));
             default:
-                throw new IllegalArgumentException(type.getConfigValue());
+                return Optional.of(new DecimalType(rawValue));
+        }
+    }
+
+    /**
+     * Concatenate registers, first register containing the most significant bits
+     *
+     * @param swap whether to concatenate the registers in reverse order
+     */
+    private static long concatRegisters(ModbusRegisterArray registers, int index, int count, boolean swap) {
+        long value = 0;
+        for (int i = 0; i < count; i++) {
+            ModbusRegister register = registers.getRegister(swap ? index + count - 1 - i : index + i);
+            value = (value << 16) | register.toUnsignedShort();
         }
+        return value;
     }
 
     /**
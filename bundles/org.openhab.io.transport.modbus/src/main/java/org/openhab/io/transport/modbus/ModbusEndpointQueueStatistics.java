@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus;
+
+import org.apache.commons.lang.builder.StandardToStringStyle;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+
+/**
+ * Snapshot of the queue of operations waiting for their turn with an endpoint
+ *
+ * One-off operations, i.e. writes and one-time polls (e.g. refresh of a channel), are executed before the regular
+ * polls waiting for the same endpoint.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusEndpointQueueStatistics {
+
+    private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
+    static {
+        toStringStyle.setUseShortClassName(true);
+    }
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final int queuedOneOff;
+    private final int queuedRegular;
+    private final long oneOffCount;
+    private final long oneOffTotalWaitMillis;
+    private final long oneOffMaxWaitMillis;
+    private final long regularCount;
+    private final long regularTotalWaitMillis;
+    private final long regularMaxWaitMillis;
+
+    public ModbusEndpointQueueStatistics(ModbusSlaveEndpoint endpoint, int queuedOneOff, int queuedRegular,
+            long oneOffCount, long oneOffTotalWaitMillis, long oneOffMaxWaitMillis, long regularCount,
+            long regularTotalWaitMillis, long regularMaxWaitMillis) {
+        this.endpoint = endpoint;
+        this.queuedOneOff = queuedOneOff;
+        this.queuedRegular = queuedRegular;
+        this.oneOffCount = oneOffCount;
+        this.oneOffTotalWaitMillis = oneOffTotalWaitMillis;
+        this.oneOffMaxWaitMillis = oneOffMaxWaitMillis;
+        this.regularCount = regularCount;
+        this.regularTotalWaitMillis = regularTotalWaitMillis;
+        this.regularMaxWaitMillis = regularMaxWaitMillis;
+    }
+
+    public ModbusSlaveEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return number of one-off operations currently waiting
+     */
+    public int getQueuedOneOff() {
+        return queuedOneOff;
+    }
+
+    /**
+     * @return number of regular polls currently waiting
+     */
+    public int getQueuedRegular() {
+        return queuedRegular;
+    }
+
+    /**
+     * @return number of one-off operations that have got their turn
+     */
+    public long getOneOffCount() {
+        return oneOffCount;
+    }
+
+    /**
+     * @return average time one-off operations have waited for their turn, in milliseconds
+     */
+    public long getOneOffAverageWaitMillis() {
+        return oneOffCount == 0 ? 0 : oneOffTotalWaitMillis / oneOffCount;
+    }
+
+    /**
+     * @return longest time a one-off operation has waited for its turn, in milliseconds
+     */
+    public long getOneOffMaxWaitMillis() {
+        return oneOffMaxWaitMillis;
+    }
+
+    /**
+     * @return number of regular polls that have got their turn
+     */
+    public long getRegularCount() {
+        return regularCount;
+    }
+
+    /**
+     * @return average time regular polls have waited for their turn, in milliseconds
+     */
+    public long getRegularAverageWaitMillis() {
+        return regularCount == 0 ? 0 : regularTotalWaitMillis / regularCount;
+    }
+
+    /**
+     * @return longest time a regular poll has waited for its turn, in milliseconds
+     */
+    public long getRegularMaxWaitMillis() {
+        return regularMaxWaitMillis;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, toStringStyle).append("endpoint", endpoint)
+                .append("queuedOneOff", queuedOneOff).append("queuedRegular", queuedRegular)
+                .append("oneOffCount", oneOffCount).append("oneOffAverageWaitMillis", getOneOffAverageWaitMillis())
+                .append("oneOffMaxWaitMillis", oneOffMaxWaitMillis).append("regularCount", regularCount)
+                .append("regularAverageWaitMillis", getRegularAverageWaitMillis())
+                .append("regularMaxWaitMillis", regularMaxWaitMillis).toString();
+    }
+}
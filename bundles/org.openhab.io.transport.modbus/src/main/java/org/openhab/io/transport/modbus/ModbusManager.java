@@ -12,6 +12,8 @@
  */
 package org.openhab.io.transport.modbus;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ScheduledFuture;
 
@@ -104,4 +106,15 @@ public interface ModbusManager {
      */
     public Set<PollTask> getRegisteredRegularPolls();
 
+    /**
+     * Get statistics of the operations waiting for their turn with each endpoint
+     *
+     * Writes and one-time polls are executed before regular polls waiting for the same endpoint.
+     *
+     * @return snapshot of queue statistics per endpoint
+     */
+    public default Map<ModbusSlaveEndpoint, ModbusEndpointQueueStatistics> getEndpointQueueStatistics() {
+        return Collections.emptyMap();
+    }
+
 }
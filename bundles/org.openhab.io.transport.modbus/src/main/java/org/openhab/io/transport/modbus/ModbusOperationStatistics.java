@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus;
+
+import org.apache.commons.lang.builder.StandardToStringStyle;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Snapshot of the statistics of the operations (reads and writes) executed with an endpoint, or on behalf of a single
+ * regular poll
+ *
+ * Latencies are in milliseconds. The percentiles are calculated from the most recent operations only.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusOperationStatistics {
+
+    private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
+    static {
+        toStringStyle.setUseShortClassName(true);
+    }
+
+    private final long operations;
+    private final long errors;
+    private final long slaveErrors;
+    private final long ioErrors;
+    private final long timeouts;
+    private final long connectionErrors;
+    private final long transactionP50Millis;
+    private final long transactionP95Millis;
+    private final long transactionP99Millis;
+    private final long transactionMaxMillis;
+    private final long queueWaitP50Millis;
+    private final long queueWaitP95Millis;
+    private final long queueWaitP99Millis;
+    private final long averageConnectionMillis;
+    private final long averageCallbackMillis;
+    private final double operationsPerSecond;
+
+    public ModbusOperationStatistics(long operations, long errors, long slaveErrors, long ioErrors, long timeouts,
+            long connectionErrors, long transactionP50Millis, long transactionP95Millis, long transactionP99Millis,
+            long transactionMaxMillis, long queueWaitP50Millis, long queueWaitP95Millis, long queueWaitP99Millis,
+            long averageConnectionMillis, long averageCallbackMillis, double operationsPerSecond) {
+        this.operations = operations;
+        this.errors = errors;
+        this.slaveErrors = slaveErrors;
+        this.ioErrors = ioErrors;
+        this.timeouts = timeouts;
+        this.connectionErrors = connectionErrors;
+        this.transactionP50Millis = transactionP50Millis;
+        this.transactionP95Millis = transactionP95Millis;
+        this.transactionP99Millis = transactionP99Millis;
+        this.transactionMaxMillis = transactionMaxMillis;
+        this.queueWaitP50Millis = queueWaitP50Millis;
+        this.queueWaitP95Millis = queueWaitP95Millis;
+        this.queueWaitP99Millis = queueWaitP99Millis;
+        this.averageConnectionMillis = averageConnectionMillis;
+        this.averageCallbackMillis = averageCallbackMillis;
+        this.operationsPerSecond = operationsPerSecond;
+    }
+
+    /**
+     * @return number of operations executed, successful or not
+     */
+    public long getOperations() {
+        return operations;
+    }
+
+    /**
+     * @return number of operations that failed after all tries
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return number of operations that failed with an exception response from the slave
+     */
+    public long getSlaveErrors() {
+        return slaveErrors;
+    }
+
+    /**
+     * @return number of operations that failed with an I/O error, timeouts excluded
+     */
+    public long getIOErrors() {
+        return ioErrors;
+    }
+
+    /**
+     * @return number of operations that failed since the slave did not respond in time
+     */
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * @return number of operations that failed since connection could not be established
+     */
+    public long getConnectionErrors() {
+        return connectionErrors;
+    }
+
+    /**
+     * @return median duration of the transaction(s) with the slave, including retries
+     */
+    public long getTransactionP50Millis() {
+        return transactionP50Millis;
+    }
+
+    public long getTransactionP95Millis() {
+        return transactionP95Millis;
+    }
+
+    public long getTransactionP99Millis() {
+        return transactionP99Millis;
+    }
+
+    public long getTransactionMaxMillis() {
+        return transactionMaxMillis;
+    }
+
+    /**
+     * @return median time waited for the turn with the endpoint
+     */
+    public long getQueueWaitP50Millis() {
+        return queueWaitP50Millis;
+    }
+
+    public long getQueueWaitP95Millis() {
+        return queueWaitP95Millis;
+    }
+
+    public long getQueueWaitP99Millis() {
+        return queueWaitP99Millis;
+    }
+
+    /**
+     * @return average time spent borrowing and returning connections, including the inter-transaction delay
+     */
+    public long getAverageConnectionMillis() {
+        return averageConnectionMillis;
+    }
+
+    /**
+     * @return average time spent in the callbacks
+     */
+    public long getAverageCallbackMillis() {
+        return averageCallbackMillis;
+    }
+
+    /**
+     * @return operations per second since the statistics were started or reset
+     */
+    public double getOperationsPerSecond() {
+        return operationsPerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, toStringStyle).append("operations", operations).append("errors", errors)
+                .append("slaveErrors", slaveErrors).append("ioErrors", ioErrors).append("timeouts", timeouts)
+                .append("connectionErrors", connectionErrors).append("transactionP50Millis", transactionP50Millis)
+                .append("transactionP95Millis", transactionP95Millis)
+                .append("transactionP99Millis", transactionP99Millis)
+                .append("transactionMaxMillis", transactionMaxMillis).append("queueWaitP50Millis", queueWaitP50Millis)
+                .append("queueWaitP95Millis", queueWaitP95Millis).append("queueWaitP99Millis", queueWaitP99Millis)
+                .append("averageConnectionMillis", averageConnectionMillis)
+                .append("averageCallbackMillis", averageCallbackMillis)
+                .append("operationsPerSecond", operationsPerSecond).toString();
+    }
+}
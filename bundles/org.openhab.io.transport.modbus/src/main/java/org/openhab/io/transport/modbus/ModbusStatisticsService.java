@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus;
+
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.io.transport.modbus.endpoint.EndpointPoolConfiguration;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+
+/**
+ * Service providing latency, error and throughput statistics of the Modbus operations
+ *
+ * Useful for tuning the connection settings (e.g. {@link EndpointPoolConfiguration#getInterTransactionDelayMillis()})
+ * of each slave.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public interface ModbusStatisticsService {
+
+    /**
+     * Get statistics of all operations per endpoint
+     *
+     * @return snapshot of statistics per endpoint
+     */
+    public Map<ModbusSlaveEndpoint, ModbusOperationStatistics> getEndpointStatistics();
+
+    /**
+     * Get statistics of the registered regular polls
+     *
+     * @return snapshot of statistics per regular poll
+     */
+    public Map<PollTask, ModbusOperationStatistics> getPollTaskStatistics();
+
+    /**
+     * Reset all statistics
+     */
+    public void resetStatistics();
+}
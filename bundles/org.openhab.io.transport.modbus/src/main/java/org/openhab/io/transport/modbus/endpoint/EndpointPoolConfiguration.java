@@ -61,6 +61,13 @@ public class EndpointPoolConfiguration {
      */
     private int connectTimeoutMillis;
 
+    /**
+     * How many transactions can be outstanding at the same time. Only supported with TCP endpoints, and only useful
+     * with slaves that process several requests concurrently. Default of 1 means that the next transaction is started
+     * only after the response of the previous one has been received.
+     */
+    private int maxInFlightTransactions = 1;
+
     private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
 
     static {
@@ -107,10 +114,19 @@ public class EndpointPoolConfiguration {
         this.connectTimeoutMillis = connectTimeoutMillis;
     }
 
+    public int getMaxInFlightTransactions() {
+        return maxInFlightTransactions;
+    }
+
+    public void setMaxInFlightTransactions(int maxInFlightTransactions) {
+        this.maxInFlightTransactions = maxInFlightTransactions;
+    }
+
     @Override
     public int hashCode() {
         return new HashCodeBuilder(2149, 3117).append(interTransactionDelayMillis).append(interConnectDelayMillis)
-                .append(connectMaxTries).append(reconnectAfterMillis).append(connectTimeoutMillis).toHashCode();
+                .append(connectMaxTries).append(reconnectAfterMillis).append(connectTimeoutMillis)
+                .append(maxInFlightTransactions).toHashCode();
     }
 
     @Override
@@ -119,7 +135,8 @@ public class EndpointPoolConfiguration {
                 .append("interTransactionDelayMillis", interTransactionDelayMillis)
                 .append("interConnectDelayMillis", interConnectDelayMillis).append("connectMaxTries", connectMaxTries)
                 .append("reconnectAfterMillis", reconnectAfterMillis)
-                .append("connectTimeoutMillis", connectTimeoutMillis).toString();
+                .append("connectTimeoutMillis", connectTimeoutMillis)
+                .append("maxInFlightTransactions", maxInFlightTransactions).toString();
     }
 
     @Override
@@ -137,7 +154,8 @@ public class EndpointPoolConfiguration {
         return new EqualsBuilder().append(interTransactionDelayMillis, rhs.interTransactionDelayMillis)
                 .append(interConnectDelayMillis, rhs.interConnectDelayMillis)
                 .append(connectMaxTries, rhs.connectMaxTries).append(reconnectAfterMillis, rhs.reconnectAfterMillis)
-                .append(connectTimeoutMillis, rhs.connectTimeoutMillis).isEquals();
+                .append(connectTimeoutMillis, rhs.connectTimeoutMillis)
+                .append(maxInFlightTransactions, rhs.maxInFlightTransactions).isEquals();
     }
 
 }
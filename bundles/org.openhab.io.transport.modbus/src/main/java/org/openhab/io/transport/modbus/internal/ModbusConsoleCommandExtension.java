@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.io.console.Console;
+import org.eclipse.smarthome.io.console.extensions.AbstractConsoleCommandExtension;
+import org.eclipse.smarthome.io.console.extensions.ConsoleCommandExtension;
+import org.openhab.io.transport.modbus.ModbusEndpointQueueStatistics;
+import org.openhab.io.transport.modbus.ModbusManager;
+import org.openhab.io.transport.modbus.ModbusOperationStatistics;
+import org.openhab.io.transport.modbus.ModbusStatisticsService;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+/**
+ * Console commands for inspecting the Modbus operation statistics.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+@Component(service = ConsoleCommandExtension.class)
+public class ModbusConsoleCommandExtension extends AbstractConsoleCommandExtension {
+    private static final String SUBCMD_STATS = "stats";
+    private static final String SUBCMD_POLLS = "polls";
+    private static final String SUBCMD_RESET = "reset";
+
+    private final ModbusStatisticsService statisticsService;
+    private final ModbusManager manager;
+
+    @Activate
+    public ModbusConsoleCommandExtension(@Reference ModbusStatisticsService statisticsService,
+            @Reference ModbusManager manager) {
+        super("modbus", "Inspect the Modbus transport.");
+        this.statisticsService = statisticsService;
+        this.manager = manager;
+    }
+
+    @Override
+    public void execute(String[] args, Console console) {
+        if (args.length == 1 && SUBCMD_STATS.equals(args[0])) {
+            printEndpointStatistics(console);
+        } else if (args.length == 1 && SUBCMD_POLLS.equals(args[0])) {
+            printPollTaskStatistics(console);
+        } else if (args.length == 1 && SUBCMD_RESET.equals(args[0])) {
+            statisticsService.resetStatistics();
+            console.println("Statistics reset");
+        } else {
+            printUsage(console);
+        }
+    }
+
+    @Override
+    public List<String> getUsages() {
+        return Arrays.asList(buildCommandUsage(SUBCMD_STATS, "shows the latency and error statistics per endpoint"),
+                buildCommandUsage(SUBCMD_POLLS, "shows the latency and error statistics per regular poll"),
+                buildCommandUsage(SUBCMD_RESET, "resets the statistics"));
+    }
+
+    private void printEndpointStatistics(Console console) {
+        Map<ModbusSlaveEndpoint, ModbusOperationStatistics> statistics = statisticsService.getEndpointStatistics();
+        if (statistics.isEmpty()) {
+            console.println("No operations executed");
+            return;
+        }
+        Map<ModbusSlaveEndpoint, ModbusEndpointQueueStatistics> queues = manager.getEndpointQueueStatistics();
+        statistics.forEach((endpoint, endpointStatistics) -> {
+            console.println(endpoint.toString());
+            printStatistics(console, endpointStatistics);
+            ModbusEndpointQueueStatistics queue = queues.get(endpoint);
+            if (queue != null) {
+                console.println(String.format("  queued:       %d one-off, %d regular", queue.getQueuedOneOff(),
+                        queue.getQueuedRegular()));
+            }
+        });
+    }
+
+    private void printPollTaskStatistics(Console console) {
+        Map<PollTask, ModbusOperationStatistics> statistics = statisticsService.getPollTaskStatistics();
+        if (statistics.isEmpty()) {
+            console.println("No regular polls executed");
+            return;
+        }
+        statistics.forEach((task, taskStatistics) -> {
+            console.println(task.getEndpoint() + " " + task.getRequest());
+            printStatistics(console, taskStatistics);
+        });
+    }
+
+    private void printStatistics(Console console, ModbusOperationStatistics statistics) {
+        console.println(String.format(Locale.ROOT, "  operations:   %d (%.2f/s)", statistics.getOperations(),
+                statistics.getOperationsPerSecond()));
+        console.println(String.format("  errors:       %d (slave %d, I/O %d, timeout %d, connection %d)",
+                statistics.getErrors(), statistics.getSlaveErrors(), statistics.getIOErrors(),
+                statistics.getTimeouts(), statistics.getConnectionErrors()));
+        console.println(String.format("  transaction:  p50 %d ms, p95 %d ms, p99 %d ms, max %d ms",
+                statistics.getTransactionP50Millis(), statistics.getTransactionP95Millis(),
+                statistics.getTransactionP99Millis(), statistics.getTransactionMaxMillis()));
+        console.println(String.format("  queue wait:   p50 %d ms, p95 %d ms, p99 %d ms",
+                statistics.getQueueWaitP50Millis(), statistics.getQueueWaitP95Millis(),
+                statistics.getQueueWaitP99Millis()));
+        console.println(String.format("  connection:   avg %d ms, callback avg %d ms",
+                statistics.getAverageConnectionMillis(), statistics.getAverageCallbackMillis()));
+    }
+}
@@ -0,0 +1,252 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.ModbusEndpointQueueStatistics;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queue of operations waiting for their turn with a single endpoint
+ *
+ * Operations are only handed to the executor once they have the turn, so waiting operations do not occupy threads of
+ * the executor. At most <code>capacity</code> operations are executed at the same time with the endpoint. When an
+ * operation finishes, the longest waiting one-off operation (write or one-time poll) gets the turn. Regular polls get
+ * the turn only when no one-off operation is waiting. Operations of the same priority are served in arrival order.
+ *
+ * A regular poll that is still waiting from its previous period is not queued again.
+ *
+ * When the executor rejects an operation, the operation and all the waiting operations are dropped and their
+ * rejection handlers are called with the {@link RejectedExecutionException}, outside the lock of the queue.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusEndpointQueue {
+
+    private final Logger logger = LoggerFactory.getLogger(ModbusEndpointQueue.class);
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final Executor executor;
+    private final Deque<Operation> oneOffWaiters = new ArrayDeque<>();
+    private final Deque<Operation> regularWaiters = new ArrayDeque<>();
+    private final Set<Object> waitingRegularKeys = new HashSet<>();
+    private int capacity;
+    private int running;
+
+    // Statistics, guarded by this
+    private long oneOffCount;
+    private long oneOffTotalWaitMillis;
+    private long oneOffMaxWaitMillis;
+    private long regularCount;
+    private long regularTotalWaitMillis;
+    private long regularMaxWaitMillis;
+
+    /**
+     * Operations dropped by {@link #dispatch()}, to be rejected once the lock of the queue has been released
+     */
+    private static class Dropped {
+        private static final Dropped NONE = new Dropped(Collections.emptyList(), new RejectedExecutionException());
+
+        private final List<Operation> operations;
+        private final RejectedExecutionException error;
+
+        Dropped(List<Operation> operations, RejectedExecutionException error) {
+            this.operations = operations;
+            this.error = error;
+        }
+
+        void reject() {
+            for (Operation operation : operations) {
+                operation.onRejected.accept(error);
+            }
+        }
+    }
+
+    private class Operation implements Runnable {
+        private final Object key;
+        private final boolean oneOff;
+        private final Runnable runnable;
+        private final Consumer<RejectedExecutionException> onRejected;
+        private final long queuedMillis = System.currentTimeMillis();
+
+        Operation(Object key, boolean oneOff, Runnable runnable, Consumer<RejectedExecutionException> onRejected) {
+            this.key = key;
+            this.oneOff = oneOff;
+            this.runnable = runnable;
+            this.onRejected = onRejected;
+        }
+
+        @Override
+        public void run() {
+            try {
+                runnable.run();
+            } finally {
+                finished();
+            }
+        }
+    }
+
+    /**
+     * @param endpoint endpoint of the operations
+     * @param capacity number of operations executed concurrently
+     * @param executor executor to run the operations with, once they have the turn
+     */
+    public ModbusEndpointQueue(ModbusSlaveEndpoint endpoint, int capacity, Executor executor) {
+        this.endpoint = endpoint;
+        this.capacity = Math.max(1, capacity);
+        this.executor = executor;
+    }
+
+    /**
+     * Change the number of operations executed concurrently
+     *
+     * @param capacity new capacity
+     */
+    public void setCapacity(int capacity) {
+        Dropped dropped;
+        synchronized (this) {
+            this.capacity = Math.max(1, capacity);
+            dropped = dispatch();
+        }
+        dropped.reject();
+    }
+
+    /**
+     * Queue an operation. The operation is executed by the executor once it has the turn.
+     *
+     * @param key identifies the operation. Regular polls with the key of a waiting regular poll are not queued.
+     * @param oneOff whether the operation is one-off (high priority) or regular poll
+     * @param runnable operation to execute
+     * @param onRejected called instead of the operation when the executor rejects the operation
+     * @return whether the operation was queued
+     */
+    public boolean submit(Object key, boolean oneOff, Runnable runnable,
+            Consumer<RejectedExecutionException> onRejected) {
+        Dropped dropped;
+        synchronized (this) {
+            if (oneOff) {
+                oneOffWaiters.addLast(new Operation(key, true, runnable, onRejected));
+            } else if (waitingRegularKeys.add(key)) {
+                regularWaiters.addLast(new Operation(key, false, runnable, onRejected));
+            } else {
+                return false;
+            }
+            dropped = dispatch();
+        }
+        dropped.reject();
+        return true;
+    }
+
+    /**
+     * Remove a waiting regular poll
+     *
+     * @param key key of the regular poll
+     */
+    public synchronized void remove(Object key) {
+        if (waitingRegularKeys.remove(key)) {
+            regularWaiters.removeIf(operation -> operation.key.equals(key));
+        }
+    }
+
+    private void finished() {
+        Dropped dropped;
+        synchronized (this) {
+            running--;
+            dropped = dispatch();
+        }
+        dropped.reject();
+    }
+
+    /**
+     * Hand the operations having the turn to the executor. Must be called holding the lock of the queue.
+     *
+     * @return operations dropped since the executor rejected them
+     */
+    private Dropped dispatch() {
+        while (running < capacity) {
+            Operation next = next();
+            if (next == null) {
+                return Dropped.NONE;
+            }
+            running++;
+            long waited = System.currentTimeMillis() - next.queuedMillis;
+            if (next.oneOff) {
+                oneOffCount++;
+                oneOffTotalWaitMillis += waited;
+                oneOffMaxWaitMillis = Math.max(oneOffMaxWaitMillis, waited);
+            } else {
+                regularCount++;
+                regularTotalWaitMillis += waited;
+                regularMaxWaitMillis = Math.max(regularMaxWaitMillis, waited);
+            }
+            try {
+                executor.execute(next);
+            } catch (RejectedExecutionException e) {
+                running--;
+                logger.debug("Executor rejected the operations of endpoint {}, dropping {} waiting operations",
+                        endpoint, oneOffWaiters.size() + regularWaiters.size() + 1);
+                List<Operation> operations = new ArrayList<>(oneOffWaiters.size() + regularWaiters.size() + 1);
+                operations.add(next);
+                operations.addAll(oneOffWaiters);
+                operations.addAll(regularWaiters);
+                oneOffWaiters.clear();
+                regularWaiters.clear();
+                waitingRegularKeys.clear();
+                return new Dropped(operations, e);
+            }
+        }
+        return Dropped.NONE;
+    }
+
+    private @Nullable Operation next() {
+        Operation next = oneOffWaiters.pollFirst();
+        if (next == null) {
+            next = regularWaiters.pollFirst();
+            if (next != null) {
+                waitingRegularKeys.remove(next.key);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * @return number of operations waiting for their turn
+     */
+    public synchronized int getQueueDepth() {
+        return oneOffWaiters.size() + regularWaiters.size();
+    }
+
+    /**
+     * @return snapshot of the queue statistics
+     */
+    public synchronized ModbusEndpointQueueStatistics getStatistics() {
+        return new ModbusEndpointQueueStatistics(endpoint, oneOffWaiters.size(), regularWaiters.size(), oneOffCount,
+                oneOffTotalWaitMillis, oneOffMaxWaitMillis, regularCount, regularTotalWaitMillis,
+                regularMaxWaitMillis);
+    }
+}
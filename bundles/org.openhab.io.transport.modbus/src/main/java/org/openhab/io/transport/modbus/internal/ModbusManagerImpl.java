@@ -14,12 +14,16 @@ package org.openhab.io.transport.modbus.internal;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -34,14 +38,18 @@ import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.config.core.ConfigurableService;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.io.transport.modbus.ModbusCallback;
 import org.openhab.io.transport.modbus.ModbusConnectionException;
+import org.openhab.io.transport.modbus.ModbusEndpointQueueStatistics;
 import org.openhab.io.transport.modbus.ModbusManager;
 import org.openhab.io.transport.modbus.ModbusManagerListener;
+import org.openhab.io.transport.modbus.ModbusOperationStatistics;
 import org.openhab.io.transport.modbus.ModbusReadCallback;
 import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
 import org.openhab.io.transport.modbus.ModbusRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusStatisticsService;
 import org.openhab.io.transport.modbus.ModbusUnexpectedTransactionIdException;
 import org.openhab.io.transport.modbus.ModbusWriteCallback;
 import org.openhab.io.transport.modbus.ModbusWriteRequestBlueprint;
@@ -54,7 +62,11 @@ import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
 import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpointVisitor;
 import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
 import org.openhab.io.transport.modbus.endpoint.ModbusUDPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.pipelining.ModbusPipelineReader;
+import org.openhab.io.transport.modbus.internal.pipelining.ModbusPipelinedConnectException;
+import org.openhab.io.transport.modbus.internal.pipelining.ModbusPipelinedTCPConnection;
 import org.openhab.io.transport.modbus.internal.pooling.ModbusSlaveConnectionFactoryImpl;
+import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
@@ -79,9 +91,14 @@ import net.wimpi.modbus.net.ModbusSlaveConnection;
  *
  * @author Sami Salonen - Initial contribution
  */
-@Component(service = ModbusManager.class, immediate = true, configurationPid = "transport.modbus")
+@Component(service = { ModbusManager.class,
+        ModbusStatisticsService.class }, immediate = true, configurationPid = "transport.modbus", property = {
+                Constants.SERVICE_PID + "=transport.modbus",
+                ConfigurableService.SERVICE_PROPERTY_DESCRIPTION_URI + "=io:modbus",
+                ConfigurableService.SERVICE_PROPERTY_CATEGORY + "=io",
+                ConfigurableService.SERVICE_PROPERTY_LABEL + "=Modbus Transport" })
 @NonNullByDefault
-public class ModbusManagerImpl implements ModbusManager {
+public class ModbusManagerImpl implements ModbusManager, ModbusStatisticsService {
 
     static class PollTaskUnregistered extends Exception {
         public PollTaskUnregistered(String msg) {
@@ -101,15 +118,80 @@ public class ModbusManagerImpl implements ModbusManager {
          *
          * @param timer aggregate stop watch for performance profiling
          * @param task task to execute
-         * @param connection connection to use
+         * @param transactionExecutor executes the transaction with the endpoint
          * @throws Exception on IO errors, slave exception responses, and when transaction IDs of the request and
          *             response do not match
          */
-        public void accept(AggregateStopWatch timer, T task, ModbusSlaveConnection connection)
+        public void accept(AggregateStopWatch timer, T task, TransactionExecutor transactionExecutor)
                 throws ModbusException, IIOException, ModbusUnexpectedTransactionIdException;
 
     }
 
+    /**
+     * Executes a single transaction, either using a pooled connection or a pipelined TCP connection
+     */
+    @FunctionalInterface
+    private interface TransactionExecutor {
+
+        /**
+         * Send the request and wait for the response
+         *
+         * @param libRequest request to send
+         * @return response of the slave
+         * @throws ModbusException on IO errors and slave exception responses
+         */
+        public ModbusResponse execute(ModbusRequest libRequest) throws ModbusException;
+    }
+
+    /**
+     * Future of an operation queued for its turn with the endpoint
+     *
+     * The future completes once the operation has been executed and the callback has been called. Canceling the
+     * future before the operation has the turn prevents its execution, and canceling with interruption interrupts the
+     * thread executing the operation.
+     */
+    private static class OperationFuture extends FutureTask<@Nullable Void> implements ScheduledFuture<@Nullable Void> {
+
+        private final Object key;
+
+        OperationFuture(Object key, Runnable runnable) {
+            super(runnable, null);
+            this.key = key;
+        }
+
+        /**
+         * Whether this is an operation of the given poll task, either alone or merged with other polls
+         *
+         * @param task poll task
+         */
+        boolean isFor(PollTask task) {
+            return key.equals(task) || (key instanceof ModbusReadPlanner.CoalescedPollTask
+                    && ((ModbusReadPlanner.CoalescedPollTask) key).getMembers().contains(task));
+        }
+
+        /**
+         * Complete the future exceptionally, when the operation could not be queued for execution
+         *
+         * @param error reason of the rejection
+         */
+        void reject(Exception error) {
+            setException(error);
+        }
+
+        @Override
+        public long getDelay(@Nullable TimeUnit unit) {
+            return 0;
+        }
+
+        @Override
+        public int compareTo(@Nullable Delayed other) {
+            if (other == null) {
+                return 1;
+            }
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+
     /**
      * Check that transaction id of the response and request match
      *
@@ -142,23 +224,20 @@ public class ModbusManagerImpl implements ModbusManager {
      */
     private class PollOperation implements ModbusOperation<PollTask> {
         @Override
-        public void accept(AggregateStopWatch timer, PollTask task, ModbusSlaveConnection connection)
+        public void accept(AggregateStopWatch timer, PollTask task, TransactionExecutor transactionExecutor)
                 throws ModbusException, ModbusUnexpectedTransactionIdException {
-            ModbusSlaveEndpoint endpoint = task.getEndpoint();
             ModbusReadRequestBlueprint request = task.getRequest();
             ModbusReadCallback callback = task.getCallback();
             String operationId = timer.operationId;
 
-            ModbusTransaction transaction = ModbusLibraryWrapper.createTransactionForEndpoint(endpoint, connection);
             ModbusRequest libRequest = ModbusLibraryWrapper.createRequest(request);
-            transaction.setRequest(libRequest);
 
             logger.trace("Going execute transaction with request request (FC={}): {} [operation ID {}]",
                     request.getFunctionCode(), libRequest.getHexMessage(), operationId);
             // Might throw ModbusIOException (I/O error) or ModbusSlaveException (explicit exception response from
             // slave)
-            timer.transaction.timeRunnableWithModbusException(() -> transaction.execute());
-            ModbusResponse response = transaction.getResponse();
+            ModbusResponse response = timer.transaction
+                    .timeSupplierWithModbusException(() -> transactionExecutor.execute(libRequest));
             logger.trace("Response for read request (FC={}, transaction ID={}): {} [operation ID {}]",
                     response.getFunctionCode(), response.getTransactionID(), response.getHexMessage(), operationId);
             checkTransactionId(response, libRequest, task, operationId);
@@ -177,24 +256,21 @@ public class ModbusManagerImpl implements ModbusManager {
      */
     private class WriteOperation implements ModbusOperation<WriteTask> {
         @Override
-        public void accept(AggregateStopWatch timer, WriteTask task, ModbusSlaveConnection connection)
+        public void accept(AggregateStopWatch timer, WriteTask task, TransactionExecutor transactionExecutor)
                 throws ModbusException, ModbusUnexpectedTransactionIdException {
-            ModbusSlaveEndpoint endpoint = task.getEndpoint();
             ModbusWriteRequestBlueprint request = task.getRequest();
             ModbusWriteCallback callback = task.getCallback();
             String operationId = timer.operationId;
 
-            ModbusTransaction transaction = ModbusLibraryWrapper.createTransactionForEndpoint(endpoint, connection);
             ModbusRequest libRequest = ModbusLibraryWrapper.createRequest(request);
-            transaction.setRequest(libRequest);
 
             logger.trace("Going execute transaction with read request (FC={}): {} [operation ID {}]",
                     request.getFunctionCode(), libRequest.getHexMessage(), operationId);
 
             // Might throw ModbusIOException (I/O error) or ModbusSlaveException (explicit exception response from
             // slave)
-            timer.transaction.timeRunnableWithModbusException(() -> transaction.execute());
-            ModbusResponse response = transaction.getResponse();
+            ModbusResponse response = timer.transaction
+                    .timeSupplierWithModbusException(() -> transactionExecutor.execute(libRequest));
             logger.trace("Response for write request (FC={}, transaction ID={}): {} [operation ID {}]",
                     response.getFunctionCode(), response.getTransactionID(), response.getHexMessage(), operationId);
 
@@ -254,6 +330,22 @@ public class ModbusManagerImpl implements ModbusManager {
 
     private volatile long lastQueueMonitorLog = -1;
 
+    /**
+     * Configuration key to enable merging of regular polls to the same slave with the same poll period
+     */
+    public static final String CONFIG_READ_COALESCING = "readCoalescing";
+
+    /**
+     * Configuration key for the maximum number of unrequested registers (or bits) between two merged polls
+     */
+    public static final String CONFIG_READ_COALESCING_MAX_GAP = "readCoalescingMaxGap";
+
+    /**
+     * Planner for merged regular polls, null when merging is disabled
+     */
+    @Nullable
+    private volatile ModbusReadPlanner readPlanner;
+
     /**
      * We use connection pool to ensure that only single transaction is ongoing per each endpoint. This is especially
      * important with serial slaves but practice has shown that even many tcp slaves have limited
@@ -268,6 +360,25 @@ public class ModbusManagerImpl implements ModbusManager {
     @Nullable
     private volatile ModbusSlaveConnectionFactoryImpl connectionFactory;
     private volatile Map<PollTask, ScheduledFuture<?>> scheduledPollTasks = new ConcurrentHashMap<>();
+    /**
+     * Connections of the TCP endpoints allowing multiple outstanding transactions (see
+     * {@link EndpointPoolConfiguration#getMaxInFlightTransactions()}). These bypass the connection pool.
+     */
+    private final Map<ModbusSlaveEndpoint, ModbusPipelinedTCPConnection> pipelinedConnections =
+            new ConcurrentHashMap<>();
+    private final ModbusPipelineReader pipelineReader = new ModbusPipelineReader();
+    /**
+     * Operations waiting for their turn with each endpoint. One-off operations are prioritized over regular polls.
+     */
+    private final Map<ModbusSlaveEndpoint, ModbusEndpointQueue> endpointQueues = new ConcurrentHashMap<>();
+    /**
+     * Regular poll operations that are waiting for their turn or executing, canceled when their poll is unregistered
+     */
+    private final Set<OperationFuture> regularOperations = ConcurrentHashMap.newKeySet();
+    /**
+     * Latency and error statistics of the executed operations
+     */
+    private final ModbusStatisticsCollector statistics = new ModbusStatisticsCollector();
     /**
      * Executor for requests
      */
@@ -468,6 +579,17 @@ public class ModbusManagerImpl implements ModbusManager {
     }
 
     private void verifyTaskIsRegistered(PollTask task) throws PollTaskUnregistered {
+        if (task instanceof ModbusReadPlanner.CoalescedPollTask) {
+            // Merged read is still needed as long as any of the merged poll tasks is registered
+            for (PollTask member : ((ModbusReadPlanner.CoalescedPollTask) task).getMembers()) {
+                if (this.scheduledPollTasks.containsKey(member)) {
+                    return;
+                }
+            }
+            String msg = String.format("All poll tasks of merged read %s are unregistered", task);
+            logger.debug(msg);
+            throw new PollTaskUnregistered(msg);
+        }
         if (!this.scheduledPollTasks.containsKey(task)) {
             String msg = String.format("Poll task %s is unregistered", task);
             logger.debug(msg);
@@ -476,7 +598,8 @@ public class ModbusManagerImpl implements ModbusManager {
     }
 
     /**
-     * Execute operation using a retry mechanism.
+     * Execute operation using a retry mechanism. The operation is queued and executed asynchronously once it has the
+     * turn with the endpoint.
      *
      * This is a helper function for executing read and write operations and handling the exceptions in a common way.
      *
@@ -488,20 +611,82 @@ public class ModbusManagerImpl implements ModbusManager {
      * @param task
      * @param oneOffTask
      * @param operation
+     * @return future completing once the operation has been executed and the callback has been called. The future is
+     *         canceled if the operation is not queued.
      */
-    private <R extends ModbusRequestBlueprint, C extends ModbusCallback, T extends TaskWithEndpoint<R, C>> void executeOperation(
+    private <R extends ModbusRequestBlueprint, C extends ModbusCallback, T extends TaskWithEndpoint<R, C>> OperationFuture executeOperation(
             @NonNull T task, boolean oneOffTask, ModbusOperation<T> operation) {
         AggregateStopWatch timer = new AggregateStopWatch();
         timer.total.resume();
-        String operationId = timer.operationId;
 
         ModbusSlaveConnectionFactoryImpl connectionFactory = this.connectionFactory;
-        if (connectionFactory == null) {
+        ScheduledExecutorService executor = this.scheduledThreadPoolExecutor;
+        if (connectionFactory == null || executor == null) {
             // deactivated manager
             logger.trace("Deactivated manager - aborting operation.");
-            return;
+            OperationFuture future = new OperationFuture(task, () -> {
+            });
+            future.cancel(false);
+            return future;
         }
 
+        ModbusSlaveEndpoint endpoint = task.getEndpoint();
+        ModbusPipelinedTCPConnection pipelinedConnection = getPipelinedConnection(endpoint, connectionFactory);
+        ModbusEndpointQueue queue = getEndpointQueue(endpoint,
+                pipelinedConnection == null ? 1 : pipelinedConnection.getMaxInFlight(), executor);
+        // One-off writes and polls take over regular polls waiting for the same endpoint. The operation is handed to
+        // the executor only once it has the turn, so waiting operations do not block threads of the executor.
+        OperationFuture future = new OperationFuture(task, () -> {
+            timer.queue.suspend();
+            logger.trace("Task {} waited {} ms for its turn with endpoint {} [operation ID {}]", task,
+                    timer.queue.getTotalTimeMillis(), endpoint, timer.operationId);
+            if (oneOffTask) {
+                runOperation(timer, task, oneOffTask, operation, connectionFactory, pipelinedConnection);
+                return;
+            }
+            long started = System.currentTimeMillis();
+            logger.debug("Executing regular poll task {}. Current millis: {}", task, started);
+            try {
+                runOperation(timer, task, oneOffTask, operation, connectionFactory, pipelinedConnection);
+            } finally {
+                long finished = System.currentTimeMillis();
+                logger.debug(
+                        "Execution of regular poll task {} finished at {}. Was started at millis: {} (=duration of {} millis)",
+                        task, finished, started, finished - started);
+            }
+        });
+        timer.queue.resume();
+        boolean queued = queue.submit(task, oneOffTask, future, error -> {
+            logger.warn("Could not execute task {} with endpoint {}, executor rejected it [operation ID {}]", task,
+                    endpoint, timer.operationId);
+            timer.suspendAllRunning();
+            @Nullable
+            C callback = task.getCallback();
+            try {
+                if (callback != null) {
+                    invokeCallbackWithError(task.getRequest(), callback, error);
+                }
+            } finally {
+                future.reject(error);
+            }
+        });
+        if (!queued) {
+            logger.debug("Poll task {} is still waiting for its turn from the previous period, skipping", task);
+            timer.suspendAllRunning();
+            future.cancel(false);
+        }
+        return future;
+    }
+
+    /**
+     * Run operation once it has the turn with the endpoint
+     */
+    private <R extends ModbusRequestBlueprint, C extends ModbusCallback, T extends TaskWithEndpoint<R, C>> void runOperation(
+            AggregateStopWatch timer, @NonNull T task, boolean oneOffTask, ModbusOperation<T> operation,
+            ModbusSlaveConnectionFactoryImpl connectionFactory,
+            @Nullable ModbusPipelinedTCPConnection pipelinedConnection) {
+        String operationId = timer.operationId;
+
         logTaskQueueInfo();
         R request = task.getRequest();
         ModbusSlaveEndpoint endpoint = task.getEndpoint();
@@ -516,23 +701,33 @@ public class ModbusManagerImpl implements ModbusManager {
             throw new IllegalArgumentException("maxTries should be positive");
         }
 
+        if (pipelinedConnection != null) {
+            executePipelinedOperation(timer, task, oneOffTask, operation, pipelinedConnection, retryDelay);
+            return;
+        }
+
         Optional<ModbusSlaveConnection> connection = Optional.empty();
+        // Whether the operation was attempted, and should be accounted in the statistics
+        boolean executed = false;
         try {
             logger.trace("Starting new operation with task {}. Trying to get connection [operation ID {}]", task,
                     operationId);
             connection = getConnection(timer, oneOffTask, task);
+            executed = true;
             logger.trace("Operation with task {}. Got a connection {} [operation ID {}]", task,
                     connection.isPresent() ? "successfully" : "which was unconnected (connection issue)", operationId);
             if (!connection.isPresent()) {
                 // Could not acquire connection, time to abort
                 // Error logged already, error callback called as well
                 logger.trace("Initial connection was not successful, aborting. [operation ID {}]", operationId);
+                lastError.set(new ModbusConnectionException(endpoint));
                 return;
             }
 
             if (scheduledThreadPoolExecutor == null) {
                 logger.debug("Manager has been shut down, aborting proecssing request {} [operation ID {}]", request,
                         operationId);
+                executed = false;
                 return;
             }
 
@@ -551,10 +746,12 @@ public class ModbusManagerImpl implements ModbusManager {
                     // re-established. Error has been logged, time to abort.
                     logger.trace("Try {} out of {}. Connection was not successful, aborting. [operation ID {}]",
                             tryIndex + 1, maxTries, operationId);
+                    lastError.set(new ModbusConnectionException(endpoint));
                     return;
                 }
                 if (Thread.interrupted()) {
                     logger.warn("Thread interrupted. Aborting operation [operation ID {}]", operationId);
+                    executed = false;
                     return;
                 }
                 // Check poll task is still registered (this is all asynchronous)
@@ -572,7 +769,9 @@ public class ModbusManagerImpl implements ModbusManager {
                 try {
                     tryIndex++;
                     willRetry = tryIndex < maxTries;
-                    operation.accept(timer, task, connection.get());
+                    ModbusSlaveConnection slaveConnection = connection.get();
+                    operation.accept(timer, task,
+                            libRequest -> executeTransaction(endpoint, slaveConnection, libRequest));
                     lastError.set(null);
                     break;
                 } catch (IOException e) {
@@ -675,10 +874,12 @@ public class ModbusManagerImpl implements ModbusManager {
         } catch (PollTaskUnregistered e) {
             logger.warn("Poll task was unregistered -- not executing/proceeding with the poll: {} [operation ID {}]",
                     e.getMessage(), operationId);
+            executed = false;
             return;
         } catch (InterruptedException e) {
             logger.warn("Poll task was canceled -- not executing/proceeding with the poll: {} [operation ID {}]",
                     e.getMessage(), operationId);
+            executed = false;
             // Invalidate connection, and empty (so that new connection is acquired before new retry)
             timer.connection.timeConsumer(c -> invalidate(endpoint, c), connection);
             connection = Optional.empty();
@@ -686,23 +887,143 @@ public class ModbusManagerImpl implements ModbusManager {
             timer.connection.timeConsumer(c -> returnConnection(endpoint, c), connection);
             logger.trace("Connection was returned to the pool, ending operation [operation ID {}]", operationId);
             timer.suspendAllRunning();
+            if (executed) {
+                recordStatistics(endpoint, task, oneOffTask, timer, lastError.get());
+            }
             logger.debug("Modbus operation ended, timing info: {} [operation ID {}]", timer, operationId);
         }
     }
 
+    /**
+     * Execute operation using a pipelined TCP connection, with a retry mechanism.
+     *
+     * Unlike with pooled connections, other operations with the same endpoint can be executed concurrently. I/O
+     * errors and timeouts do not reset the connection, unless the connection itself has failed.
+     *
+     * @param timer aggregate stop watch for performance profiling
+     * @param task task to execute
+     * @param oneOffTask whether this is one-off, or execution of previously scheduled poll
+     * @param operation operation to execute
+     * @param pipelinedConnection connection to use
+     * @param retryDelay minimum delay between the tries
+     */
+    private <R extends ModbusRequestBlueprint, C extends ModbusCallback, T extends TaskWithEndpoint<R, C>> void executePipelinedOperation(
+            AggregateStopWatch timer, @NonNull T task, boolean oneOffTask, ModbusOperation<T> operation,
+            ModbusPipelinedTCPConnection pipelinedConnection, long retryDelay) {
+        String operationId = timer.operationId;
+        R request = task.getRequest();
+        @Nullable
+        C callback = task.getCallback();
+        int maxTries = task.getMaxTries();
+        @Nullable
+        Exception lastError = null;
+        boolean executed = true;
+        try {
+            @Nullable
+            Long lastTryMillis = null;
+            for (int tryIndex = 1; tryIndex <= maxTries; tryIndex++) {
+                if (Thread.interrupted()) {
+                    logger.warn("Thread interrupted. Aborting operation [operation ID {}]", operationId);
+                    executed = false;
+                    return;
+                }
+                // Check poll task is still registered (this is all asynchronous)
+                if (!oneOffTask && task instanceof PollTask) {
+                    verifyTaskIsRegistered((PollTask) task);
+                }
+                ModbusSlaveConnectionFactoryImpl.waitAtleast(lastTryMillis, retryDelay);
+                try {
+                    // Pooled TCP connections use the default timeout of the Modbus library as well
+                    operation.accept(timer, task,
+                            libRequest -> pipelinedConnection.execute(libRequest, Modbus.DEFAULT_TIMEOUT));
+                    lastError = null;
+                    break;
+                } catch (ModbusSlaveException e) {
+                    lastError = new ModbusSlaveErrorResponseExceptionImpl(e);
+                } catch (ModbusPipelinedConnectException e) {
+                    logger.debug("Pipelined connection failed: {} [operation ID {}]", e.getMessage(), operationId);
+                    lastError = new ModbusConnectionException(task.getEndpoint());
+                } catch (ModbusIOException e) {
+                    lastError = new ModbusSlaveIOExceptionImpl(e);
+                } catch (ModbusException | IIOException | ModbusUnexpectedTransactionIdException e) {
+                    lastError = e;
+                } finally {
+                    lastTryMillis = System.currentTimeMillis();
+                }
+                logger.warn(
+                        "Try {} out of {} failed when executing pipelined request ({}). Error details: {} {} [operation ID {}]",
+                        tryIndex, maxTries, request, lastError.getClass().getName(), lastError.getMessage(),
+                        operationId);
+            }
+            Exception exception = lastError;
+            if (exception != null && callback != null) {
+                // All retries failed with some error
+                timer.callback.timeRunnable(() -> invokeCallbackWithError(request, callback, exception));
+            }
+        } catch (PollTaskUnregistered e) {
+            logger.warn("Poll task was unregistered -- not executing/proceeding with the poll: {} [operation ID {}]",
+                    e.getMessage(), operationId);
+            executed = false;
+        } catch (InterruptedException e) {
+            logger.warn("Poll task was canceled -- not executing/proceeding with the poll: {} [operation ID {}]",
+                    e.getMessage(), operationId);
+            executed = false;
+        } finally {
+            timer.suspendAllRunning();
+            if (executed) {
+                recordStatistics(task.getEndpoint(), task, oneOffTask, timer, lastError);
+            }
+            logger.debug("Pipelined Modbus operation ended, timing info: {} [operation ID {}]", timer, operationId);
+        }
+    }
+
+    private void recordStatistics(ModbusSlaveEndpoint endpoint, TaskWithEndpoint<?, ?> task, boolean oneOffTask,
+            AggregateStopWatch timer, @Nullable Exception error) {
+        @Nullable
+        PollTask pollTask = !oneOffTask && task instanceof PollTask ? (PollTask) task : null;
+        statistics.record(endpoint, pollTask, timer, error);
+    }
+
+    private ModbusEndpointQueue getEndpointQueue(ModbusSlaveEndpoint endpoint, int capacity, Executor executor) {
+        ModbusEndpointQueue queue = endpointQueues.computeIfAbsent(endpoint,
+                key -> new ModbusEndpointQueue(key, capacity, executor));
+        queue.setCapacity(capacity);
+        return queue;
+    }
+
+    private static ModbusResponse executeTransaction(ModbusSlaveEndpoint endpoint, ModbusSlaveConnection connection,
+            ModbusRequest libRequest) throws ModbusException {
+        ModbusTransaction transaction = ModbusLibraryWrapper.createTransactionForEndpoint(endpoint, connection);
+        transaction.setRequest(libRequest);
+        transaction.execute();
+        return transaction.getResponse();
+    }
+
+    /**
+     * Get pipelined connection for the endpoint, if pipelining has been enabled for the endpoint
+     *
+     * @param endpoint endpoint of the operation
+     * @param connectionFactory factory holding the endpoint configuration
+     * @return pipelined connection, or null when the pooled connections should be used
+     */
+    private @Nullable ModbusPipelinedTCPConnection getPipelinedConnection(ModbusSlaveEndpoint endpoint,
+            ModbusSlaveConnectionFactoryImpl connectionFactory) {
+        if (!(endpoint instanceof ModbusTCPSlaveEndpoint)) {
+            return null;
+        }
+        EndpointPoolConfiguration configuration = connectionFactory.getEndpointPoolConfiguration(endpoint);
+        if (configuration == null || configuration.getMaxInFlightTransactions() <= 1) {
+            return null;
+        }
+        return pipelinedConnections.computeIfAbsent(endpoint,
+                key -> new ModbusPipelinedTCPConnection((ModbusTCPSlaveEndpoint) key, pipelineReader, configuration));
+    }
+
     @Override
     public ScheduledFuture<?> submitOneTimePoll(PollTask task) {
-        ScheduledExecutorService executor = scheduledThreadPoolExecutor;
-        Objects.requireNonNull(executor, "Not activated!");
-        long scheduleTime = System.currentTimeMillis();
+        Objects.requireNonNull(scheduledThreadPoolExecutor, "Not activated!");
         logger.debug("Scheduling one-off poll task {}", task);
-        ScheduledFuture<?> future = executor.schedule(() -> {
-            long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
-            logger.debug("Will now execute one-off poll task {}, waited in thread pool for {}", task,
-                    millisInThreadPoolWaiting);
-            executeOperation(task, true, pollOperation);
-        }, 0L, TimeUnit.MILLISECONDS);
-        return future;
+        return executeOperation(task, true, pollOperation);
     }
 
     @Override
@@ -716,15 +1037,35 @@ public class ModbusManagerImpl implements ModbusManager {
                 logger.trace("Unregistering previous poll task (possibly with different period)");
                 unregisterRegularPoll(task);
             }
+            statistics.addPollTask(task);
+            ModbusReadPlanner readPlanner = this.readPlanner;
+            if (readPlanner != null) {
+                ModbusReadPlanner.PollGroup group = readPlanner.addTask(task, pollPeriodMillis);
+                ScheduledFuture<?> future = group.getFuture();
+                // The group starts with the smallest initial delay of its polls
+                if (future == null || future.getDelay(TimeUnit.MILLISECONDS) > initialDelayMillis) {
+                    if (future != null) {
+                        future.cancel(false);
+                    }
+                    future = executor.scheduleWithFixedDelay(() -> {
+                        for (ModbusReadPlanner.CoalescedPollTask read : group.getPlan()) {
+                            logger.debug("Queueing scheduled ({}ms) merged read {}", pollPeriodMillis, read);
+                            executeRegularPoll(read);
+                        }
+                    }, initialDelayMillis, pollPeriodMillis, TimeUnit.MILLISECONDS);
+                    group.setFuture(future);
+                    for (PollTask member : group.getTasks()) {
+                        scheduledPollTasks.put(member, future);
+                    }
+                }
+                scheduledPollTasks.put(task, future);
+                logger.trace("Registered poll task {} with period {} to be read together with {} other reads", task,
+                        pollPeriodMillis, group.getPlan().size() - 1);
+                return;
+            }
             ScheduledFuture<?> future = executor.scheduleWithFixedDelay(() -> {
-                long started = System.currentTimeMillis();
-                logger.debug("Executing scheduled ({}ms) poll task {}. Current millis: {}", pollPeriodMillis, task,
-                        started);
-                executeOperation(task, false, pollOperation);
-                long finished = System.currentTimeMillis();
-                logger.debug(
-                        "Execution of scheduled ({}ms) poll task {} finished at {}. Was started at millis: {} (=duration of {} millis)",
-                        pollPeriodMillis, task, finished, started, finished - started);
+                logger.debug("Queueing scheduled ({}ms) poll task {}", pollPeriodMillis, task);
+                executeRegularPoll(task);
             }, initialDelayMillis, pollPeriodMillis, TimeUnit.MILLISECONDS);
 
             scheduledPollTasks.put(task, future);
@@ -733,6 +1074,33 @@ public class ModbusManagerImpl implements ModbusManager {
         }
     }
 
+    /**
+     * Queue a regular poll, keeping track of the operation until it completes so that it can be canceled
+     */
+    private void executeRegularPoll(PollTask task) {
+        OperationFuture operation = executeOperation(task, false, pollOperation);
+        regularOperations.removeIf(OperationFuture::isDone);
+        if (!operation.isDone()) {
+            regularOperations.add(operation);
+        }
+    }
+
+    /**
+     * Cancel the operations of a regular poll: waiting operations are removed from the queue of the endpoint and
+     * executing operations are interrupted
+     */
+    private void cancelRegularOperations(PollTask task) {
+        ModbusEndpointQueue queue = endpointQueues.get(task.getEndpoint());
+        for (OperationFuture operation : regularOperations) {
+            if (operation.isFor(task) && regularOperations.remove(operation)) {
+                if (queue != null) {
+                    queue.remove(operation.key);
+                }
+                operation.cancel(true);
+            }
+        }
+    }
+
     @SuppressWarnings({ "null", "unused" })
     @Override
     public boolean unregisterRegularPoll(PollTask task) {
@@ -756,7 +1124,16 @@ public class ModbusManagerImpl implements ModbusManager {
             // is usually pretty soon as transactions should be relatively short-lived)
             factory.disconnectOnReturn(task.getEndpoint(), System.currentTimeMillis());
 
-            future.cancel(true);
+            ModbusReadPlanner readPlanner = this.readPlanner;
+            if (readPlanner == null || readPlanner.removeTask(task)) {
+                future.cancel(true);
+                cancelRegularOperations(task);
+            }
+            ModbusEndpointQueue queue = endpointQueues.get(task.getEndpoint());
+            if (queue != null) {
+                queue.remove(task);
+            }
+            statistics.removePollTask(task);
 
             logger.info("Poll task {} canceled", task);
 
@@ -777,17 +1154,9 @@ public class ModbusManagerImpl implements ModbusManager {
 
     @Override
     public ScheduledFuture<?> submitOneTimeWrite(WriteTask task) {
-        ScheduledExecutorService scheduledThreadPoolExecutor = this.scheduledThreadPoolExecutor;
         Objects.requireNonNull(scheduledThreadPoolExecutor, "Not activated!");
-        long scheduleTime = System.currentTimeMillis();
         logger.debug("Scheduling one-off write task {}", task);
-        ScheduledFuture<?> future = scheduledThreadPoolExecutor.schedule(() -> {
-            long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
-            logger.debug("Will now execute one-off write task {}, waited in thread pool for {}", task,
-                    millisInThreadPoolWaiting);
-            executeOperation(task, true, writeOperation);
-        }, 0L, TimeUnit.MILLISECONDS);
-        return future;
+        return executeOperation(task, true, writeOperation);
     }
 
     @Override
@@ -795,6 +1164,11 @@ public class ModbusManagerImpl implements ModbusManager {
             @Nullable EndpointPoolConfiguration configuration) {
         Objects.requireNonNull(connectionFactory, "Not activated!");
         connectionFactory.setEndpointPoolConfiguration(endpoint, configuration);
+        // Pipelined connection is re-created with the new configuration on next use
+        ModbusPipelinedTCPConnection pipelinedConnection = pipelinedConnections.remove(endpoint);
+        if (pipelinedConnection != null) {
+            pipelinedConnection.close();
+        }
         for (ModbusManagerListener listener : listeners) {
             listener.onEndpointPoolConfigurationSet(endpoint, configuration);
         }
@@ -821,10 +1195,39 @@ public class ModbusManagerImpl implements ModbusManager {
         return this.scheduledPollTasks.keySet();
     }
 
+    @Override
+    public Map<ModbusSlaveEndpoint, ModbusEndpointQueueStatistics> getEndpointQueueStatistics() {
+        Map<ModbusSlaveEndpoint, ModbusEndpointQueueStatistics> queueStatistics = new HashMap<>();
+        endpointQueues.forEach((endpoint, queue) -> queueStatistics.put(endpoint, queue.getStatistics()));
+        return queueStatistics;
+    }
+
+    @Override
+    public Map<ModbusSlaveEndpoint, ModbusOperationStatistics> getEndpointStatistics() {
+        return statistics.getEndpointStatistics();
+    }
+
+    @Override
+    public Map<PollTask, ModbusOperationStatistics> getPollTaskStatistics() {
+        return statistics.getPollTaskStatistics();
+    }
+
+    @Override
+    public void resetStatistics() {
+        statistics.reset();
+    }
+
     @Activate
     protected void activate(Map<String, Object> configProperties) {
         synchronized (this) {
             logger.info("Modbus manager activated");
+            if (parseBoolean(configProperties.get(CONFIG_READ_COALESCING))) {
+                int maxGap = parseInt(configProperties.get(CONFIG_READ_COALESCING_MAX_GAP), 0);
+                logger.debug("Merging regular polls to the same slave, allowing gaps of {} registers", maxGap);
+                readPlanner = new ModbusReadPlanner(maxGap);
+            } else {
+                readPlanner = null;
+            }
             if (connectionPool == null) {
                 constructConnectionPool();
             }
@@ -855,6 +1258,9 @@ public class ModbusManagerImpl implements ModbusManager {
                 connectionPool.close();
                 this.connectionPool = connectionPool = null;
             }
+            pipelinedConnections.values().forEach(ModbusPipelinedTCPConnection::close);
+            pipelinedConnections.clear();
+            pipelineReader.stop();
 
             if (monitorFuture != null) {
                 monitorFuture.cancel(true);
@@ -864,10 +1270,33 @@ public class ModbusManagerImpl implements ModbusManager {
             // when pool is received from ThreadPoolManager is called
             scheduledThreadPoolExecutor = null;
             connectionFactory = null;
+            endpointQueues.clear();
+            regularOperations.clear();
             logger.debug("Modbus manager deactivated");
         }
     }
 
+    private static boolean parseBoolean(@Nullable Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return value != null && Boolean.parseBoolean(value.toString());
+    }
+
+    private int parseInt(@Nullable Object value, int defaultValue) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.toString().trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid integer configuration value '{}', using default {}", value, defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
     private void logTaskQueueInfo() {
         synchronized (pollMonitorLogger) {
             ScheduledExecutorService scheduledThreadPoolExecutor = this.scheduledThreadPoolExecutor;
@@ -0,0 +1,531 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+
+import org.apache.commons.lang.builder.StandardToStringStyle;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegister;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusSlaveErrorResponseException;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Plans the execution of regular polls such that polls sharing the endpoint, unit ID, function code and poll period
+ * are merged into as few Modbus transactions as possible.
+ *
+ * Overlapping or nearly adjacent (at most <code>maxGap</code> registers or bits apart) read ranges are merged, as long
+ * as the merged read stays within the maximum size of a single Modbus read. The response of the merged read is fanned
+ * out to the callbacks of the original poll tasks, each receiving the request of the original poll task and the slice
+ * of the data it asked for.
+ *
+ * When a merged read is answered with an exception response (e.g. because the gap between the ranges contains
+ * registers the slave does not implement), the polls of that read are isolated and executed separately for a while.
+ * Afterwards merging is retried. The isolation period doubles each time the merged read fails again, and is reset once
+ * a merged read succeeds.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusReadPlanner {
+
+    /**
+     * Maximum number of registers in a single read (function codes 3 and 4)
+     */
+    public static final int MAX_REGISTERS_PER_READ = 125;
+
+    /**
+     * Maximum number of coils or discrete inputs in a single read (function codes 1 and 2)
+     */
+    public static final int MAX_BITS_PER_READ = 2000;
+
+    /**
+     * Default time after which isolated polls are merged again, in milliseconds
+     */
+    public static final long DEFAULT_MIN_ISOLATION_MILLIS = 60_000;
+
+    /**
+     * Maximum time polls are isolated before merging is retried, in milliseconds
+     */
+    public static final long MAX_ISOLATION_MILLIS = 3_600_000;
+
+    private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
+    static {
+        toStringStyle.setUseShortClassName(true);
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(ModbusReadPlanner.class);
+
+    private final int maxGap;
+    private final long minIsolationMillis;
+    private final Map<GroupKey, PollGroup> groups = new HashMap<>();
+    private final Map<PollTask, PollGroup> groupByTask = new HashMap<>();
+
+    /**
+     * Key identifying the polls that can be merged
+     */
+    private static class GroupKey {
+        private final ModbusSlaveEndpoint endpoint;
+        private final int unitId;
+        private final int protocolId;
+        private final ModbusReadFunctionCode functionCode;
+        private final long pollPeriodMillis;
+
+        GroupKey(PollTask task, long pollPeriodMillis) {
+            this.endpoint = task.getEndpoint();
+            this.unitId = task.getRequest().getUnitID();
+            this.protocolId = task.getRequest().getProtocolID();
+            this.functionCode = task.getRequest().getFunctionCode();
+            this.pollPeriodMillis = pollPeriodMillis;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(endpoint, unitId, protocolId, functionCode, pollPeriodMillis);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            GroupKey rhs = (GroupKey) obj;
+            return endpoint.equals(rhs.endpoint) && unitId == rhs.unitId && protocolId == rhs.protocolId
+                    && functionCode == rhs.functionCode && pollPeriodMillis == rhs.pollPeriodMillis;
+        }
+    }
+
+    /**
+     * Regular polls that are executed together with a single schedule
+     */
+    public class PollGroup {
+        private final Set<PollTask> members = new HashSet<>();
+        private final Set<PollTask> isolated = new HashSet<>();
+        private volatile List<CoalescedPollTask> plan = Collections.emptyList();
+        private volatile @Nullable ScheduledFuture<?> future;
+        private volatile long isolationMillis;
+        private volatile long retryMergeAt;
+
+        /**
+         * Get the reads to execute for one poll of this group
+         *
+         * @return reads to execute, in order of their start address
+         */
+        public List<CoalescedPollTask> getPlan() {
+            long retryAt = retryMergeAt;
+            if (retryAt != 0 && System.currentTimeMillis() >= retryAt) {
+                mergeIsolated();
+            }
+            return plan;
+        }
+
+        /**
+         * Get the regular polls of this group
+         *
+         * @return copy of the poll tasks
+         */
+        public synchronized List<PollTask> getTasks() {
+            return new ArrayList<>(members);
+        }
+
+        public @Nullable ScheduledFuture<?> getFuture() {
+            return future;
+        }
+
+        public void setFuture(ScheduledFuture<?> future) {
+            this.future = future;
+        }
+
+        private synchronized void add(PollTask task) {
+            members.add(task);
+            replan();
+        }
+
+        private synchronized boolean remove(PollTask task) {
+            members.remove(task);
+            isolated.remove(task);
+            replan();
+            return members.isEmpty();
+        }
+
+        private synchronized void isolate(Collection<PollTask> tasks) {
+            isolated.addAll(tasks);
+            isolated.retainAll(members);
+            isolationMillis = Math.min(MAX_ISOLATION_MILLIS, Math.max(minIsolationMillis, isolationMillis * 2));
+            retryMergeAt = System.currentTimeMillis() + isolationMillis;
+            replan();
+        }
+
+        private synchronized void mergeIsolated() {
+            if (retryMergeAt == 0) {
+                return;
+            }
+            logger.debug("Retrying to merge {} isolated polls", isolated.size());
+            isolated.clear();
+            retryMergeAt = 0;
+            replan();
+        }
+
+        private void mergeSucceeded() {
+            if (isolationMillis != 0) {
+                isolationMillis = 0;
+            }
+        }
+
+        private void replan() {
+            List<CoalescedPollTask> newPlan = new ArrayList<>();
+            for (List<PollTask> block : plan(members, isolated, maxGap)) {
+                newPlan.add(new CoalescedPollTask(this, block));
+            }
+            plan = Collections.unmodifiableList(newPlan);
+        }
+    }
+
+    /**
+     * A single read executed on behalf of one or more regular polls
+     */
+    public class CoalescedPollTask implements PollTask, ModbusReadCallback {
+        private final PollGroup group;
+        private final List<PollTask> members;
+        private final ModbusSlaveEndpoint endpoint;
+        private final ModbusReadRequestBlueprint request;
+
+        private CoalescedPollTask(PollGroup group, List<PollTask> members) {
+            this.group = group;
+            this.members = members;
+            PollTask first = members.get(0);
+            this.endpoint = first.getEndpoint();
+            if (members.size() == 1) {
+                this.request = first.getRequest();
+            } else {
+                ModbusReadRequestBlueprint firstRequest = first.getRequest();
+                int start = firstRequest.getReference();
+                int end = members.stream().mapToInt(t -> t.getRequest().getReference() + t.getRequest().getDataLength())
+                        .max().getAsInt();
+                int maxTries = members.stream().mapToInt(PollTask::getMaxTries).max().getAsInt();
+                this.request = new BasicModbusReadRequestBlueprint(firstRequest.getUnitID(),
+                        firstRequest.getFunctionCode(), start, end - start, maxTries);
+            }
+        }
+
+        /**
+         * Get the poll tasks served by this read
+         *
+         * @return poll tasks
+         */
+        public List<PollTask> getMembers() {
+            return members;
+        }
+
+        @Override
+        public ModbusSlaveEndpoint getEndpoint() {
+            return endpoint;
+        }
+
+        @Override
+        public ModbusReadRequestBlueprint getRequest() {
+            return request;
+        }
+
+        @Override
+        public ModbusReadCallback getCallback() {
+            return this;
+        }
+
+        @Override
+        public void onRegisters(ModbusReadRequestBlueprint mergedRequest, ModbusRegisterArray registers) {
+            if (members.size() > 1) {
+                group.mergeSucceeded();
+            }
+            for (PollTask member : members) {
+                ModbusReadCallback callback = member.getCallback();
+                if (callback == null) {
+                    continue;
+                }
+                ModbusReadRequestBlueprint memberRequest = member.getRequest();
+                int offset = memberRequest.getReference() - mergedRequest.getReference();
+                int length = memberRequest.getDataLength();
+                try {
+                    if (offset + length > registers.size()) {
+                        callback.onError(memberRequest, new ModbusSlaveIOExceptionImpl(new IOException(String
+                                .format("Response has %d registers, expected %d", registers.size(), offset + length))));
+                    } else {
+                        callback.onRegisters(memberRequest, new RegisterArraySlice(registers, offset, length));
+                    }
+                } catch (RuntimeException e) {
+                    logger.warn("Callback {} of poll task {} failed: {} {}", callback, member,
+                            e.getClass().getName(), e.getMessage(), e);
+                }
+            }
+        }
+
+        @Override
+        public void onBits(ModbusReadRequestBlueprint mergedRequest, BitArray bits) {
+            if (members.size() > 1) {
+                group.mergeSucceeded();
+            }
+            for (PollTask member : members) {
+                ModbusReadCallback callback = member.getCallback();
+                if (callback == null) {
+                    continue;
+                }
+                ModbusReadRequestBlueprint memberRequest = member.getRequest();
+                int offset = memberRequest.getReference() - mergedRequest.getReference();
+                int length = memberRequest.getDataLength();
+                try {
+                    if (offset + length > bits.size()) {
+                        callback.onError(memberRequest, new ModbusSlaveIOExceptionImpl(new IOException(
+                                String.format("Response has %d bits, expected %d", bits.size(), offset + length))));
+                    } else {
+                        callback.onBits(memberRequest, new BitArraySlice(bits, offset, length));
+                    }
+                } catch (RuntimeException e) {
+                    logger.warn("Callback {} of poll task {} failed: {} {}", callback, member,
+                            e.getClass().getName(), e.getMessage(), e);
+                }
+            }
+        }
+
+        @Override
+        public void onError(ModbusReadRequestBlueprint mergedRequest, Exception error) {
+            if (members.size() > 1 && error instanceof ModbusSlaveErrorResponseException) {
+                logger.info(
+                        "Merged read {} of endpoint {} failed with an exception response. Reading the {} merged polls separately for a while.",
+                        mergedRequest, endpoint, members.size());
+                group.isolate(members);
+            }
+            for (PollTask member : members) {
+                ModbusReadCallback callback = member.getCallback();
+                if (callback == null) {
+                    continue;
+                }
+                try {
+                    callback.onError(member.getRequest(), error);
+                } catch (RuntimeException e) {
+                    logger.warn("Callback {} of poll task {} failed: {} {}", callback, member,
+                            e.getClass().getName(), e.getMessage(), e);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, toStringStyle).append("request", request).append("endpoint", endpoint)
+                    .append("members", members.size()).toString();
+        }
+    }
+
+    /**
+     * View of a part of a {@link ModbusRegisterArray}
+     */
+    private static class RegisterArraySlice implements ModbusRegisterArray {
+        private final ModbusRegisterArray wrapped;
+        private final int offset;
+        private final int length;
+
+        RegisterArraySlice(ModbusRegisterArray wrapped, int offset, int length) {
+            this.wrapped = wrapped;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public ModbusRegister getRegister(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException();
+            }
+            return wrapped.getRegister(offset + index);
+        }
+
+        @Override
+        public int size() {
+            return length;
+        }
+
+        @Override
+        public String toString() {
+            if (length == 0) {
+                return "RegisterArraySlice(<empty>)";
+            }
+            StringBuffer buffer = new StringBuffer(length * 2).append("RegisterArraySlice(");
+            return appendHexString(buffer).append(')').toString();
+        }
+    }
+
+    /**
+     * View of a part of a {@link BitArray}
+     */
+    private static class BitArraySlice implements BitArray {
+        private final BitArray wrapped;
+        private final int offset;
+        private final int length;
+
+        BitArraySlice(BitArray wrapped, int offset, int length) {
+            this.wrapped = wrapped;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public boolean getBit(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException();
+            }
+            return wrapped.getBit(offset + index);
+        }
+
+        @Override
+        public int size() {
+            return length;
+        }
+
+        @Override
+        public String toString() {
+            return new StringBuilder("BitArraySlice(bits=").append(length == 0 ? "<empty>" : toBinaryString())
+                    .append(")").toString();
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            return sizeAndValuesEquals(obj);
+        }
+    }
+
+    /**
+     * Construct planner
+     *
+     * @param maxGap maximum number of unrequested registers or bits between two polls that are still merged
+     */
+    public ModbusReadPlanner(int maxGap) {
+        this(maxGap, DEFAULT_MIN_ISOLATION_MILLIS);
+    }
+
+    /**
+     * Construct planner
+     *
+     * @param maxGap maximum number of unrequested registers or bits between two polls that are still merged
+     * @param minIsolationMillis time after which polls isolated due to an exception response are merged again
+     */
+    public ModbusReadPlanner(int maxGap, long minIsolationMillis) {
+        this.maxGap = Math.max(0, maxGap);
+        this.minIsolationMillis = Math.max(1, minIsolationMillis);
+    }
+
+    /**
+     * Add regular poll to the matching group
+     *
+     * @param task poll task to add
+     * @param pollPeriodMillis poll period of the task
+     * @return group of the task. If the group has no future yet, it needs to be scheduled by the caller.
+     */
+    public synchronized PollGroup addTask(PollTask task, long pollPeriodMillis) {
+        PollGroup group = groups.computeIfAbsent(new GroupKey(task, pollPeriodMillis), key -> new PollGroup());
+        group.add(task);
+        groupByTask.put(task, group);
+        return group;
+    }
+
+    /**
+     * Remove regular poll from its group
+     *
+     * @param task poll task to remove
+     * @return whether the schedule of the group of the task should be canceled, i.e. whether the group is now empty
+     *         or the task is not planned by this planner
+     */
+    public synchronized boolean removeTask(PollTask task) {
+        PollGroup group = groupByTask.remove(task);
+        if (group == null) {
+            return true;
+        }
+        boolean empty = group.remove(task);
+        if (empty) {
+            groups.values().remove(group);
+        }
+        return empty;
+    }
+
+    /**
+     * Split the given polls into blocks of polls that are read with a single transaction
+     *
+     * All the polls must share the endpoint, unit ID and function code.
+     *
+     * @param tasks polls to plan
+     * @param isolated polls that should be read separately
+     * @param maxGap maximum number of unrequested registers or bits between two polls that are still merged
+     * @return blocks of polls, ordered by start address
+     */
+    public static List<List<PollTask>> plan(Collection<PollTask> tasks, Collection<PollTask> isolated, int maxGap) {
+        List<PollTask> sorted = new ArrayList<>(tasks);
+        sorted.sort(Comparator.<PollTask> comparingInt(t -> t.getRequest().getReference())
+                .thenComparingInt(t -> t.getRequest().getDataLength()));
+
+        List<List<PollTask>> blocks = new ArrayList<>();
+        List<PollTask> block = null;
+        int blockStart = 0;
+        int blockEnd = 0;
+        for (PollTask task : sorted) {
+            ModbusReadRequestBlueprint request = task.getRequest();
+            int start = request.getReference();
+            int end = start + request.getDataLength();
+            int maxLength = maxReadLength(request.getFunctionCode());
+            boolean mergeable = block != null && !isolated.contains(task) && !isolated.contains(block.get(0))
+                    && start <= blockEnd + maxGap && Math.max(blockEnd, end) - blockStart <= maxLength;
+            if (block != null && mergeable) {
+                block.add(task);
+                blockEnd = Math.max(blockEnd, end);
+            } else {
+                block = new ArrayList<>();
+                block.add(task);
+                blocks.add(block);
+                blockStart = start;
+                blockEnd = end;
+            }
+        }
+        return blocks;
+    }
+
+    private static int maxReadLength(ModbusReadFunctionCode functionCode) {
+        switch (functionCode) {
+            case READ_COILS:
+            case READ_INPUT_DISCRETES:
+                return MAX_BITS_PER_READ;
+            default:
+                return MAX_REGISTERS_PER_READ;
+        }
+    }
+}
@@ -33,10 +33,12 @@ public class ModbusSlaveIOExceptionImpl extends ModbusSlaveIOException {
 
     public ModbusSlaveIOExceptionImpl(ModbusIOException e) {
         this.error = e;
+        initCause(e);
     }
 
     public ModbusSlaveIOExceptionImpl(IOException e) {
         this.error = e;
+        initCause(e);
     }
 
     @Override
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.ModbusConnectionException;
+import org.openhab.io.transport.modbus.ModbusOperationStatistics;
+import org.openhab.io.transport.modbus.ModbusSlaveErrorResponseException;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.pipelining.ModbusTransactionTimeoutException;
+
+/**
+ * Collects the timing and outcome of the executed operations, per endpoint and per regular poll
+ *
+ * The time values are taken from the {@link AggregateStopWatch} of each operation. Percentiles are calculated from a
+ * window of the most recent operations.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusStatisticsCollector {
+
+    /**
+     * Number of most recent operations used for calculating the percentiles
+     */
+    static final int WINDOW_SIZE = 1024;
+
+    private final Map<ModbusSlaveEndpoint, Recorder> endpoints = new ConcurrentHashMap<>();
+    private final Map<PollTask, Recorder> pollTasks = new ConcurrentHashMap<>();
+
+    /**
+     * Ring buffer of the most recent values
+     */
+    private static class Window {
+        private final long[] values = new long[WINDOW_SIZE];
+        private int size;
+        private int next;
+
+        void add(long value) {
+            values[next] = value;
+            next = (next + 1) % values.length;
+            size = Math.min(size + 1, values.length);
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        static long percentile(long[] sorted, int percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+    }
+
+    private static class Recorder {
+        private final long started = System.currentTimeMillis();
+        private final Window transactionMillis = new Window();
+        private final Window queueMillis = new Window();
+        private long operations;
+        private long errors;
+        private long slaveErrors;
+        private long ioErrors;
+        private long timeouts;
+        private long connectionErrors;
+        private long transactionMaxMillis;
+        private long totalConnectionMillis;
+        private long totalCallbackMillis;
+
+        synchronized void record(AggregateStopWatch timer, @Nullable Exception error) {
+            operations++;
+            long transaction = timer.transaction.getTotalTimeMillis();
+            transactionMillis.add(transaction);
+            transactionMaxMillis = Math.max(transactionMaxMillis, transaction);
+            queueMillis.add(timer.queue.getTotalTimeMillis());
+            totalConnectionMillis += timer.connection.getTotalTimeMillis();
+            totalCallbackMillis += timer.callback.getTotalTimeMillis();
+            if (error == null) {
+                return;
+            }
+            errors++;
+            if (error instanceof ModbusSlaveErrorResponseException) {
+                slaveErrors++;
+            } else if (error instanceof ModbusConnectionException) {
+                connectionErrors++;
+            } else if (isTimeout(error)) {
+                timeouts++;
+            } else {
+                ioErrors++;
+            }
+        }
+
+        synchronized ModbusOperationStatistics snapshot() {
+            long[] transactions = transactionMillis.sorted();
+            long[] queue = queueMillis.sorted();
+            long elapsedMillis = Math.max(1, System.currentTimeMillis() - started);
+            return new ModbusOperationStatistics(operations, errors, slaveErrors, ioErrors, timeouts,
+                    connectionErrors, Window.percentile(transactions, 50), Window.percentile(transactions, 95),
+                    Window.percentile(transactions, 99), transactionMaxMillis, Window.percentile(queue, 50),
+                    Window.percentile(queue, 95), Window.percentile(queue, 99),
+                    operations == 0 ? 0 : totalConnectionMillis / operations,
+                    operations == 0 ? 0 : totalCallbackMillis / operations, operations * 1000.0 / elapsedMillis);
+        }
+    }
+
+    /**
+     * Record an executed operation
+     *
+     * @param endpoint endpoint of the operation
+     * @param pollTask regular poll the operation was executed for, null for one-off operations
+     * @param timer timing of the operation
+     * @param error error passed to the callback, or null if the operation succeeded
+     */
+    public void record(ModbusSlaveEndpoint endpoint, @Nullable PollTask pollTask, AggregateStopWatch timer,
+            @Nullable Exception error) {
+        endpoints.computeIfAbsent(endpoint, key -> new Recorder()).record(timer, error);
+        if (pollTask instanceof ModbusReadPlanner.CoalescedPollTask) {
+            // Account the merged read to each of the polls it was executed for
+            for (PollTask member : ((ModbusReadPlanner.CoalescedPollTask) pollTask).getMembers()) {
+                recordPollTask(member, timer, error);
+            }
+        } else if (pollTask != null) {
+            recordPollTask(pollTask, timer, error);
+        }
+    }
+
+    private void recordPollTask(PollTask pollTask, AggregateStopWatch timer, @Nullable Exception error) {
+        // Operations still running when the poll is unregistered must not bring back its statistics
+        Recorder recorder = pollTasks.get(pollTask);
+        if (recorder != null) {
+            recorder.record(timer, error);
+        }
+    }
+
+    /**
+     * Start collecting the statistics of a registered poll
+     *
+     * @param pollTask registered poll
+     */
+    public void addPollTask(PollTask pollTask) {
+        pollTasks.put(pollTask, new Recorder());
+    }
+
+    /**
+     * Forget the statistics of an unregistered poll
+     *
+     * @param pollTask unregistered poll
+     */
+    public void removePollTask(PollTask pollTask) {
+        pollTasks.remove(pollTask);
+    }
+
+    public Map<ModbusSlaveEndpoint, ModbusOperationStatistics> getEndpointStatistics() {
+        return snapshot(endpoints);
+    }
+
+    public Map<PollTask, ModbusOperationStatistics> getPollTaskStatistics() {
+        return snapshot(pollTasks);
+    }
+
+    public void reset() {
+        endpoints.clear();
+        pollTasks.replaceAll((pollTask, recorder) -> new Recorder());
+    }
+
+    private static <K> Map<K, ModbusOperationStatistics> snapshot(Map<K, Recorder> recorders) {
+        Map<K, ModbusOperationStatistics> statistics = new HashMap<>();
+        recorders.forEach((key, recorder) -> statistics.put(key, recorder.snapshot()));
+        return statistics;
+    }
+
+    private static boolean isTimeout(Exception error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SocketTimeoutException || cause instanceof ModbusTransactionTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
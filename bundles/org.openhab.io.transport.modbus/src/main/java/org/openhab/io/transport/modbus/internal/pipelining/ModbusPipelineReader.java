@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal.pipelining;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single thread reading the responses of all pipelined TCP connections
+ *
+ * The thread waits for any of the registered sockets to become readable and lets the owning
+ * {@link ModbusPipelinedTCPConnection} consume the received bytes.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusPipelineReader {
+
+    private static final String THREAD_NAME = "modbusManagerPipelineReader";
+
+    private final Logger logger = LoggerFactory.getLogger(ModbusPipelineReader.class);
+
+    private final Queue<Registration> registrations = new ConcurrentLinkedQueue<>();
+    private volatile @Nullable Loop loop;
+    private @Nullable Thread thread;
+
+    /**
+     * Connection and read buffer of a registered channel, only accessed by the reader thread
+     */
+    private static class Attachment {
+        private final ModbusPipelinedTCPConnection connection;
+        private final ByteBuffer buffer = ByteBuffer.allocate(ModbusPipelinedTCPConnection.READ_BUFFER_SIZE);
+
+        Attachment(ModbusPipelinedTCPConnection connection) {
+            this.connection = connection;
+        }
+    }
+
+    private static class Registration {
+        private final SocketChannel channel;
+        private final ModbusPipelinedTCPConnection connection;
+
+        Registration(SocketChannel channel, ModbusPipelinedTCPConnection connection) {
+            this.channel = channel;
+            this.connection = connection;
+        }
+    }
+
+    /**
+     * Read loop of a single reader thread. Each started thread has its own selector and running flag, so that a thread
+     * that is still stopping cannot be revived by a later start, nor stop the thread started after it.
+     */
+    private class Loop implements Runnable {
+        private final Selector selector;
+        private final AtomicBoolean running = new AtomicBoolean(true);
+
+        Loop(Selector selector) {
+            this.selector = selector;
+        }
+
+        void stop() {
+            if (running.compareAndSet(true, false)) {
+                selector.wakeup();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running.get()) {
+                    selector.select();
+                    Registration registration;
+                    while ((registration = registrations.poll()) != null) {
+                        try {
+                            registration.channel.register(selector, SelectionKey.OP_READ,
+                                    new Attachment(registration.connection));
+                        } catch (ClosedChannelException e) {
+                            logger.debug("Channel of {} was closed before it could be registered",
+                                    registration.connection);
+                        }
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (!key.isValid() || !key.isReadable()) {
+                            continue;
+                        }
+                        Attachment attachment = (Attachment) key.attachment();
+                        SocketChannel channel = (SocketChannel) key.channel();
+                        try {
+                            attachment.connection.readAvailable(channel, attachment.buffer);
+                        } catch (IOException e) {
+                            key.cancel();
+                            attachment.connection.close(channel, e);
+                        }
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.error("Pipelined Modbus reader failed: {} {}", e.getClass().getName(), e.getMessage(), e);
+            } finally {
+                running.set(false);
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    logger.debug("Could not close selector: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Start the reader thread, if not running already
+     *
+     * @throws IOException when selector cannot be opened
+     */
+    public synchronized void start() throws IOException {
+        Loop loop = this.loop;
+        if (loop != null && loop.running.get()) {
+            return;
+        }
+        loop = new Loop(Selector.open());
+        Thread thread = new Thread(loop, THREAD_NAME);
+        thread.setDaemon(true);
+        this.loop = loop;
+        this.thread = thread;
+        thread.start();
+    }
+
+    /**
+     * Stop the reader thread. Registered connections are not closed.
+     */
+    public synchronized void stop() {
+        Loop loop = this.loop;
+        if (loop != null) {
+            loop.stop();
+        }
+        this.loop = null;
+        Thread thread = this.thread;
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.thread = null;
+    }
+
+    /**
+     * Register channel for reading. The channel must be in non-blocking mode.
+     *
+     * @param channel connected channel
+     * @param connection connection consuming the data read from the channel
+     */
+    void register(SocketChannel channel, ModbusPipelinedTCPConnection connection) {
+        registrations.add(new Registration(channel, connection));
+        Loop loop = this.loop;
+        if (loop != null) {
+            loop.selector.wakeup();
+        }
+    }
+}
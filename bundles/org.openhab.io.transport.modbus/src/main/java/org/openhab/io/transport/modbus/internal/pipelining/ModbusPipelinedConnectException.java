@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal.pipelining;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import net.wimpi.modbus.ModbusIOException;
+
+/**
+ * Thrown when the pipelined connection to the slave could not be established
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusPipelinedConnectException extends ModbusIOException {
+
+    private static final long serialVersionUID = 4205968837213659120L;
+
+    public ModbusPipelinedConnectException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,428 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal.pipelining;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.lang.builder.StandardToStringStyle;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.endpoint.EndpointPoolConfiguration;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.pooling.ModbusSlaveConnectionFactoryImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.wimpi.modbus.ModbusException;
+import net.wimpi.modbus.ModbusIOException;
+import net.wimpi.modbus.ModbusSlaveException;
+import net.wimpi.modbus.msg.ExceptionResponse;
+import net.wimpi.modbus.msg.ModbusRequest;
+import net.wimpi.modbus.msg.ModbusResponse;
+
+/**
+ * Modbus TCP connection allowing multiple outstanding transactions
+ *
+ * Requests are written to the socket right away, as long as less than <code>maxInFlight</code> transactions are
+ * waiting for a response. The responses are read by the shared {@link ModbusPipelineReader} and matched to the waiting
+ * requests using the transaction identifier of the MBAP header. This allows slaves and gateways that process several
+ * requests concurrently to be polled with higher throughput, without opening more connections.
+ *
+ * The {@link EndpointPoolConfiguration} of the endpoint is honoured as far as it applies to a shared connection:
+ * <ul>
+ * <li>requests are sent at least <code>interTransactionDelayMillis</code> apart</li>
+ * <li>connecting is tried <code>connectMaxTries</code> times, at least <code>interConnectDelayMillis</code> apart,
+ * each try waiting at most <code>connectTimeoutMillis</code></li>
+ * <li>the connection is re-established after <code>reconnectAfterMillis</code> once no transaction is outstanding</li>
+ * </ul>
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusPipelinedTCPConnection {
+
+    /**
+     * Length of MBAP header, including the unit identifier
+     */
+    private static final int MBAP_HEADER_LENGTH = 7;
+
+    /**
+     * Maximum length of Modbus TCP frame (MBAP header + PDU)
+     */
+    private static final int MAX_FRAME_LENGTH = 260;
+
+    /**
+     * Size of the buffer for reading the responses, allowing several responses to be read at once
+     */
+    static final int READ_BUFFER_SIZE = MAX_FRAME_LENGTH * 4;
+
+    private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
+    static {
+        toStringStyle.setUseShortClassName(true);
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(ModbusPipelinedTCPConnection.class);
+
+    private final ModbusTCPSlaveEndpoint endpoint;
+    private final ModbusPipelineReader reader;
+    private final EndpointPoolConfiguration configuration;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final Map<Integer, CompletableFuture<ModbusResponse>> pending = new ConcurrentHashMap<>();
+    /** Serializes the writes to the channel, so that the frames are not interleaved */
+    private final Object writeLock = new Object();
+    /** Serializes connecting, guards lastConnectMillis */
+    private final Object connectLock = new Object();
+
+    private volatile @Nullable SocketChannel channel;
+    private int lastTransactionId;
+    private long connectedMillis;
+    private @Nullable Long lastConnectMillis;
+    private @Nullable Long lastSendMillis;
+    private volatile boolean closed;
+
+    /**
+     * Construct connection. The connection is established lazily with the first transaction.
+     *
+     * @param endpoint endpoint to connect to
+     * @param reader reader for the responses
+     * @param configuration configuration of the endpoint, defining the maximum number of outstanding transactions
+     */
+    public ModbusPipelinedTCPConnection(ModbusTCPSlaveEndpoint endpoint, ModbusPipelineReader reader,
+            EndpointPoolConfiguration configuration) {
+        this.endpoint = endpoint;
+        this.reader = reader;
+        this.configuration = configuration;
+        this.maxInFlight = Math.max(1, configuration.getMaxInFlightTransactions());
+        this.inFlight = new Semaphore(this.maxInFlight, true);
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * @return number of transactions waiting for response
+     */
+    public int getInFlight() {
+        return pending.size();
+    }
+
+    /**
+     * Execute a transaction
+     *
+     * Blocks until the response with matching transaction identifier is received, or timeout occurs. Other threads may
+     * execute transactions with the same connection concurrently.
+     *
+     * @param request request to send. Transaction identifier of the request is overwritten.
+     * @param timeoutMillis time to wait for free transaction slot, for sending the request, and for the response
+     * @return response to the request
+     * @throws ModbusTransactionTimeoutException when the transaction could not be completed within the timeout
+     * @throws ModbusPipelinedConnectException when the connection could not be established
+     * @throws ModbusIOException on other I/O errors and interrupts
+     * @throws ModbusSlaveException when slave responded with an exception response
+     */
+    public ModbusResponse execute(ModbusRequest request, long timeoutMillis) throws ModbusException {
+        try {
+            if (!inFlight.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ModbusTransactionTimeoutException(
+                        String.format("No free transaction slot for %s within %d ms (%d in flight)", endpoint,
+                                timeoutMillis, maxInFlight));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ModbusIOException("Interrupted while waiting for a free transaction slot");
+        }
+        int transactionId = -1;
+        CompletableFuture<ModbusResponse> future = new CompletableFuture<>();
+        try {
+            SocketChannel channel;
+            while (true) {
+                // Connecting may take long, the monitor is only held to publish the transaction
+                channel = connect();
+                synchronized (this) {
+                    if (closed) {
+                        throw new ModbusIOException("Connection is closed");
+                    }
+                    if (channel != this.channel) {
+                        // Channel was closed or replaced after connect() returned it, try again
+                        continue;
+                    }
+                    transactionId = nextTransactionId();
+                    request.setTransactionID(transactionId);
+                    pending.put(transactionId, future);
+                    break;
+                }
+            }
+            synchronized (writeLock) {
+                ModbusSlaveConnectionFactoryImpl.waitAtleast(lastSendMillis,
+                        configuration.getInterTransactionDelayMillis());
+                try {
+                    write(channel, request, timeoutMillis);
+                } catch (SocketTimeoutException e) {
+                    close(channel, e);
+                    throw new ModbusTransactionTimeoutException(e.getMessage());
+                } catch (IOException e) {
+                    close(channel, e);
+                    throw new ModbusIOException(
+                            String.format("Could not send request to %s: %s", endpoint, e.getMessage()));
+                } finally {
+                    lastSendMillis = System.currentTimeMillis();
+                }
+            }
+            ModbusResponse response = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            if (response instanceof ExceptionResponse) {
+                throw new ModbusSlaveException(((ExceptionResponse) response).getExceptionCode());
+            }
+            return response;
+        } catch (TimeoutException e) {
+            throw new ModbusTransactionTimeoutException(String.format(
+                    "No response from %s within %d ms for transaction %d", endpoint, timeoutMillis, transactionId));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw new ModbusIOException(cause == null ? e.getMessage() : cause.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ModbusIOException("Interrupted while sending request or waiting for response");
+        } finally {
+            pending.remove(transactionId, future);
+            inFlight.release();
+        }
+    }
+
+    /**
+     * Close the connection, failing all transactions waiting for response
+     */
+    public synchronized void close() {
+        closed = true;
+        SocketChannel channel = this.channel;
+        if (channel != null) {
+            close(channel, new IOException("Connection closed"));
+        }
+    }
+
+    /**
+     * Close the given channel due to error, failing all transactions waiting for response. New connection is
+     * established with the next transaction.
+     *
+     * @param channel channel that failed
+     * @param error cause
+     */
+    synchronized void close(SocketChannel channel, IOException error) {
+        if (channel != this.channel) {
+            return;
+        }
+        logger.debug("Closing pipelined connection to {}: {}", endpoint, error.getMessage());
+        this.channel = null;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.debug("Error closing connection to {}: {}", endpoint, e.getMessage());
+        }
+        pending.values().forEach(future -> future.completeExceptionally(error));
+        pending.clear();
+    }
+
+    /**
+     * Read the available bytes from the channel and complete the transactions for all fully received responses. Called
+     * by the reader thread.
+     *
+     * @param channel channel to read
+     * @param readBuffer buffer of the channel, holding the bytes of incomplete responses. Owned by the reader thread.
+     * @throws IOException on I/O errors and framing errors
+     */
+    void readAvailable(SocketChannel channel, ByteBuffer readBuffer) throws IOException {
+        if (channel != this.channel) {
+            // Stale channel
+            channel.close();
+            return;
+        }
+        if (channel.read(readBuffer) < 0) {
+            throw new EOFException(String.format("Connection closed by %s", endpoint));
+        }
+        readBuffer.flip();
+        while (readBuffer.remaining() >= MBAP_HEADER_LENGTH) {
+            int length = readBuffer.getShort(readBuffer.position() + 4) & 0xffff;
+            int frameLength = MBAP_HEADER_LENGTH - 1 + length;
+            if (length < 2 || frameLength > MAX_FRAME_LENGTH) {
+                throw new IOException(String.format("Invalid MBAP length %d received from %s", length, endpoint));
+            }
+            if (readBuffer.remaining() < frameLength) {
+                break;
+            }
+            byte[] frame = new byte[frameLength];
+            readBuffer.get(frame);
+            dispatch(frame);
+        }
+        readBuffer.compact();
+    }
+
+    private void dispatch(byte[] frame) {
+        int transactionId = ((frame[0] & 0xff) << 8) | (frame[1] & 0xff);
+        CompletableFuture<ModbusResponse> future = pending.remove(transactionId);
+        if (future == null) {
+            // Late response of a transaction that has timed out already
+            logger.debug("Ignoring response with unknown transaction id {} from {}", transactionId, endpoint);
+            return;
+        }
+        try {
+            ModbusResponse response = ModbusResponse.createModbusResponse(frame[MBAP_HEADER_LENGTH] & 0xff);
+            response.readFrom(new DataInputStream(new ByteArrayInputStream(frame)));
+            future.complete(response);
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Get the connected channel, establishing new connection if necessary
+     *
+     * Connecting is serialized with {@link #connectLock}. The monitor of the connection is held only for checking and
+     * publishing the channel, so that {@link #close()} and transactions using an established connection are not
+     * blocked while connecting.
+     */
+    private SocketChannel connect() throws ModbusIOException, InterruptedException {
+        synchronized (connectLock) {
+            synchronized (this) {
+                if (closed) {
+                    throw new ModbusIOException("Connection is closed");
+                }
+                SocketChannel channel = this.channel;
+                if (channel != null && channel.isOpen()) {
+                    int reconnectAfterMillis = configuration.getReconnectAfterMillis();
+                    if (reconnectAfterMillis < 0 || !pending.isEmpty()
+                            || System.currentTimeMillis() - connectedMillis < reconnectAfterMillis) {
+                        return channel;
+                    }
+                    close(channel, new IOException(String.format("Reconnecting after %d ms", reconnectAfterMillis)));
+                }
+            }
+            try {
+                reader.start();
+            } catch (IOException e) {
+                throw new ModbusPipelinedConnectException(
+                        String.format("Could not start reader for %s: %s", endpoint, e.getMessage()));
+            }
+            SocketChannel channel;
+            int maxTries = Math.max(1, configuration.getConnectMaxTries());
+            for (int tryIndex = 1;; tryIndex++) {
+                ModbusSlaveConnectionFactoryImpl.waitAtleast(lastConnectMillis,
+                        configuration.getInterConnectDelayMillis());
+                lastConnectMillis = System.currentTimeMillis();
+                try {
+                    channel = open();
+                    break;
+                } catch (IOException e) {
+                    if (tryIndex >= maxTries) {
+                        throw new ModbusPipelinedConnectException(
+                                String.format("Could not connect to %s: %s", endpoint, e.getMessage()));
+                    }
+                    logger.debug("Try {} out of {} to connect to {} failed: {}", tryIndex, maxTries, endpoint,
+                            e.getMessage());
+                }
+            }
+            synchronized (this) {
+                if (closed) {
+                    closeQuietly(channel);
+                    throw new ModbusIOException("Connection is closed");
+                }
+                connectedMillis = System.currentTimeMillis();
+                this.channel = channel;
+            }
+            reader.register(channel, this);
+            logger.debug("Established pipelined connection to {} allowing {} transactions in flight", endpoint,
+                    maxInFlight);
+            return channel;
+        }
+    }
+
+    private SocketChannel open() throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.socket().connect(new InetSocketAddress(endpoint.getAddress(), endpoint.getPort()),
+                    configuration.getConnectTimeoutMillis());
+            channel.socket().setTcpNoDelay(true);
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            // Reporting the original error
+            closeQuietly(channel);
+            throw e;
+        }
+        return channel;
+    }
+
+    private void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.debug("Error closing connection to {}: {}", endpoint, e.getMessage());
+        }
+    }
+
+    private int nextTransactionId() {
+        // Transaction identifier is unsigned 16 bit integer. Skip identifiers still waiting for response.
+        do {
+            lastTransactionId = (lastTransactionId + 1) & 0xffff;
+        } while (pending.containsKey(lastTransactionId));
+        return lastTransactionId;
+    }
+
+    private void write(SocketChannel channel, ModbusRequest request, long timeoutMillis) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(MAX_FRAME_LENGTH);
+        request.writeTo(new DataOutputStream(bytes));
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        channel.write(buffer);
+        if (!buffer.hasRemaining()) {
+            return;
+        }
+        // The socket send buffer is full, wait until the slave has consumed enough data
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        try (Selector selector = Selector.open()) {
+            channel.register(selector, SelectionKey.OP_WRITE);
+            while (buffer.hasRemaining()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new SocketTimeoutException(
+                            String.format("Could not send request to %s within %d ms", endpoint, timeoutMillis));
+                }
+                selector.select(remaining);
+                channel.write(buffer);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, toStringStyle).append("endpoint", endpoint)
+                .append("maxInFlight", maxInFlight).append("inFlight", pending.size()).toString();
+    }
+}
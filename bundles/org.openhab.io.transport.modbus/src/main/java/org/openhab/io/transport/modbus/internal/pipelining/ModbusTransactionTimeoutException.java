@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal.pipelining;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import net.wimpi.modbus.ModbusIOException;
+
+/**
+ * Thrown when a pipelined transaction could not be completed within the timeout
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusTransactionTimeoutException extends ModbusIOException {
+
+    private static final long serialVersionUID = -2592165339574287437L;
+
+    public ModbusTransactionTimeoutException(String message) {
+        super(message);
+    }
+}
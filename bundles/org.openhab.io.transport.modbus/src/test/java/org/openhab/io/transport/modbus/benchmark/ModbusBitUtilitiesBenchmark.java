@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.openhab.io.transport.modbus.BasicBitArray;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusBitUtilities;
+import org.openhab.io.transport.modbus.ModbusConstants.ValueType;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarks for decoding and encoding data with {@link ModbusBitUtilities}, and for reading {@link BasicBitArray}
+ *
+ * These are pure CPU benchmarks without I/O, so the numbers are stable enough to compare the value types against
+ * each other. Run the {@code main} method, or restrict the run to one benchmark with the JMH include pattern.
+ *
+ * @author agent - Initial contribution
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModbusBitUtilitiesBenchmark {
+
+    /**
+     * Number of registers in the decoded poll response, maximum of a single read
+     */
+    private static final int REGISTERS = 125;
+
+    private static ModbusRegisterArray randomRegisters(long seed) {
+        Random random = new Random(seed);
+        int[] values = new int[REGISTERS];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(0x10000);
+        }
+        return new BasicModbusRegisterArray(values);
+    }
+
+    @State(Scope.Benchmark)
+    public static class DecodeState {
+        @Param({ "bit", "int8", "uint8", "int16", "uint16", "int32", "uint32", "float32", "int64", "uint64",
+                "int32_swap", "uint32_swap", "float32_swap", "int64_swap", "uint64_swap" })
+        public String valueType;
+
+        ValueType type;
+        ModbusRegisterArray registers;
+        int items;
+
+        @Setup
+        public void setUp() {
+            type = ValueType.fromConfigValue(valueType);
+            registers = randomRegisters(42);
+            items = type.getBits() >= 16 ? REGISTERS - type.getBits() / 16 + 1 : REGISTERS * 16 / type.getBits();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class StringState {
+        @Param({ "2", "16", "64" })
+        public int length;
+
+        ModbusRegisterArray registers;
+
+        @Setup
+        public void setUp() {
+            int[] values = new int[REGISTERS];
+            for (int i = 0; i < values.length; i++) {
+                // Printable ASCII, no NUL terminators
+                values[i] = ('A' + i % 26) << 8 | ('a' + i % 26);
+            }
+            registers = new BasicModbusRegisterArray(values);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class EncodeState {
+        @Param({ "int16", "uint16", "int32", "uint32", "float32", "int64", "uint64", "int32_swap", "uint32_swap",
+                "float32_swap", "int64_swap", "uint64_swap" })
+        public String valueType;
+
+        ValueType type;
+        DecimalType command = new DecimalType("1234.5");
+
+        @Setup
+        public void setUp() {
+            type = ValueType.fromConfigValue(valueType);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BitState {
+        @Param({ "16", "2000" })
+        public int bits;
+
+        BasicBitArray array;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(42);
+            array = new BasicBitArray(bits);
+            for (int i = 0; i < bits; i++) {
+                array.setBit(i, random.nextBoolean());
+            }
+        }
+    }
+
+    /**
+     * Decode all items of given type from a full poll response, as done when every item has its own data thing
+     */
+    @Benchmark
+    public void extractStateFromRegisters(DecodeState state, Blackhole blackhole) {
+        for (int index = 0; index < state.items; index++) {
+            Optional<DecimalType> value = ModbusBitUtilities.extractStateFromRegisters(state.registers, index,
+                    state.type);
+            blackhole.consume(value);
+        }
+    }
+
+    /**
+     * Decode all items of given type without converting them to DecimalType
+     */
+    @Benchmark
+    public void extractRawValueFromRegisters(DecodeState state, Blackhole blackhole) {
+        for (int index = 0; index < state.items; index++) {
+            blackhole.consume(ModbusBitUtilities.extractRawValueFromRegisters(state.registers, index, state.type));
+        }
+    }
+
+    @Benchmark
+    public StringType extractStringFromRegisters(StringState state) {
+        return ModbusBitUtilities.extractStringFromRegisters(state.registers, 0, state.length,
+                StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public ModbusRegisterArray commandToRegisters(EncodeState state) {
+        return ModbusBitUtilities.commandToRegisters(state.command, state.type);
+    }
+
+    @Benchmark
+    public int bitArrayGetBit(BitState state) {
+        int set = 0;
+        for (int i = 0; i < state.bits; i++) {
+            if (state.array.getBit(i)) {
+                set++;
+            }
+        }
+        return set;
+    }
+
+    @Benchmark
+    public int bitArrayIterator(BitState state) {
+        int set = 0;
+        for (boolean bit : state.array) {
+            if (bit) {
+                set++;
+            }
+        }
+        return set;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ModbusBitUtilitiesBenchmark.class.getSimpleName()).build()).run();
+    }
+}
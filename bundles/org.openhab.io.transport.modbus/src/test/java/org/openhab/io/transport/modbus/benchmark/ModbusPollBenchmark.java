@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.benchmark;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusBitUtilities;
+import org.openhab.io.transport.modbus.ModbusConstants.ValueType;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.EndpointPoolConfiguration;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.test.IntegrationTestSupport.NonOSGIModbusManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import net.wimpi.modbus.ModbusCoupler;
+import net.wimpi.modbus.net.ModbusTCPListener;
+import net.wimpi.modbus.net.TCPSlaveConnection;
+import net.wimpi.modbus.net.TCPSlaveConnection.ModbusTCPTransportFactory;
+import net.wimpi.modbus.procimg.SimpleProcessImage;
+import net.wimpi.modbus.procimg.SimpleRegister;
+
+/**
+ * End-to-end benchmark of a one-off poll: the request is sent to an in-process slave over the loopback interface, and
+ * the response is decoded in the callback, one item per register.
+ *
+ * The result is dominated by the loopback round trip and the thread hand-overs of the manager, so compare runs on the
+ * same machine only. Run the {@code main} method; the slave listens on a free local port.
+ *
+ * @author agent - Initial contribution
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModbusPollBenchmark {
+
+    private static final int SLAVE_UNIT_ID = 1;
+
+    @Param({ "1", "16", "125" })
+    public int registers;
+
+    private ModbusTCPListener listener;
+    private NonOSGIModbusManager manager;
+    private PollTask task;
+    /**
+     * Sum of the decoded values, keeps the decoding from being optimized away
+     */
+    private volatile long checksum;
+
+    @Setup(Level.Trial)
+    public void setUp() throws UnknownHostException, InterruptedException {
+        SimpleProcessImage spi = new SimpleProcessImage();
+        for (int i = 0; i < registers; i++) {
+            spi.addRegister(new SimpleRegister(i));
+        }
+        ModbusCoupler.getReference().setProcessImage(spi);
+        ModbusCoupler.getReference().setMaster(false);
+        ModbusCoupler.getReference().setUnitID(SLAVE_UNIT_ID);
+
+        listener = new ModbusTCPListener(1, InetAddress.getByName("127.0.0.1"),
+                socket -> new TCPSlaveConnection(socket, new ModbusTCPTransportFactory()));
+        // Use any open port
+        listener.setPort(0);
+        listener.start();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (listener.getLocalPort() <= 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        ModbusTCPSlaveEndpoint endpoint = new ModbusTCPSlaveEndpoint("127.0.0.1", listener.getLocalPort());
+        manager = new NonOSGIModbusManager();
+        // Measure the transaction itself, not the delay protecting slow slaves
+        EndpointPoolConfiguration configuration = new EndpointPoolConfiguration();
+        configuration.setInterTransactionDelayMillis(0);
+        manager.setEndpointPoolConfiguration(endpoint, configuration);
+        task = new BasicPollTaskImpl(endpoint,
+                new BasicModbusReadRequestBlueprint(SLAVE_UNIT_ID, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0,
+                        registers, 1),
+                new DecodingCallback());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        manager.close();
+        listener.stop();
+    }
+
+    private class DecodingCallback implements ModbusReadCallback {
+
+        @Override
+        public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+            long sum = 0;
+            for (int i = 0; i < registers.size(); i++) {
+                sum += ModbusBitUtilities.extractStateFromRegisters(registers, i, ValueType.UINT16).get().longValue();
+            }
+            checksum += sum;
+        }
+
+        @Override
+        public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+        }
+
+        @Override
+        public void onError(ModbusReadRequestBlueprint request, Exception error) {
+            throw new IllegalStateException("Poll failed", error);
+        }
+    }
+
+    @Benchmark
+    public long oneTimePoll() throws InterruptedException, ExecutionException {
+        // The future completes once the queued poll has been executed and the callback has been called. The error
+        // raised by the callback fails get().
+        manager.submitOneTimePoll(task).get();
+        return checksum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ModbusPollBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusEndpointQueueStatistics;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+
+import net.wimpi.modbus.procimg.SimpleRegister;
+
+/**
+ * Tests for prioritizing one-off operations over regular polls
+ *
+ * @author agent - Initial contribution
+ */
+public class EndpointQueueTest extends IntegrationTestSupport {
+
+    private static final int REGULAR_POLLS = 4;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final CountDownLatch firstRunning = new CountDownLatch(1);
+    private final CountDownLatch firstMayFinish = new CountDownLatch(1);
+
+    private class OrderRecordingCallback implements ModbusReadCallback {
+        private final CountDownLatch called;
+        private volatile int order = -1;
+
+        OrderRecordingCallback(CountDownLatch called) {
+            this.called = called;
+        }
+
+        @Override
+        public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+            if (order >= 0) {
+                return;
+            }
+            order = sequence.getAndIncrement();
+            if (order == 0) {
+                // Keep the turn with the endpoint until the test has queued the other operations
+                firstRunning.countDown();
+                try {
+                    firstMayFinish.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            called.countDown();
+        }
+
+        @Override
+        public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+        }
+
+        @Override
+        public void onError(ModbusReadRequestBlueprint request, Exception error) {
+        }
+    }
+
+    private PollTask poll(ModbusSlaveEndpoint endpoint, int reference, ModbusReadCallback callback) {
+        return new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, reference, 1, 1), callback);
+    }
+
+    @Test
+    public void testOneTimePollTakesOverWaitingRegularPolls() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            spi.addRegister(new SimpleRegister(i));
+        }
+        artificialServerWait = 10;
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+        CountDownLatch called = new CountDownLatch(REGULAR_POLLS + 1);
+
+        for (int i = 0; i < REGULAR_POLLS; i++) {
+            modbusManager.registerRegularPoll(poll(endpoint, i, new OrderRecordingCallback(called)), 60000, 0);
+        }
+        // The first regular poll holds the turn, the others queue up for the endpoint
+        assertTrue(firstRunning.await(10, TimeUnit.SECONDS));
+        waitForAssert(() -> assertThat(modbusManager.getEndpointQueueStatistics().get(endpoint).getQueuedRegular(),
+                is(equalTo(REGULAR_POLLS - 1))));
+
+        OrderRecordingCallback oneOffCallback = new OrderRecordingCallback(called);
+        modbusManager.submitOneTimePoll(poll(endpoint, 5, oneOffCallback));
+        waitForAssert(() -> assertThat(modbusManager.getEndpointQueueStatistics().get(endpoint).getQueuedOneOff(),
+                is(equalTo(1))));
+        firstMayFinish.countDown();
+
+        assertTrue(called.await(10, TimeUnit.SECONDS));
+        // The one-time poll is executed right after the regular poll that was executing
+        assertThat(oneOffCallback.order, is(equalTo(1)));
+
+        ModbusEndpointQueueStatistics statistics = modbusManager.getEndpointQueueStatistics().get(endpoint);
+        assertThat(statistics.getOneOffCount(), is(equalTo(1L)));
+        assertThat(statistics.getRegularCount(), is(equalTo((long) REGULAR_POLLS)));
+        assertThat(statistics.getQueuedOneOff() + statistics.getQueuedRegular(), is(equalTo(0)));
+        assertThat(statistics.getRegularMaxWaitMillis() > 0, is(true));
+    }
+
+    @Test
+    public void testOneTimePollFutureCompletesAfterCallback() throws Exception {
+        spi.addRegister(new SimpleRegister(1));
+        artificialServerWait = 100;
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+        CountDownLatch called = new CountDownLatch(1);
+        OrderRecordingCallback callback = new OrderRecordingCallback(called);
+        firstMayFinish.countDown();
+
+        modbusManager.submitOneTimePoll(poll(endpoint, 0, callback)).get(10, TimeUnit.SECONDS);
+
+        // The callback has been called by the time the future completes
+        assertThat(called.getCount(), is(equalTo(0L)));
+        assertThat(callback.order, is(equalTo(0)));
+    }
+}
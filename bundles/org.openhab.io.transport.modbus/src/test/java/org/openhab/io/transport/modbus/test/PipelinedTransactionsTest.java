@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusSlaveErrorResponseException;
+import org.openhab.io.transport.modbus.endpoint.EndpointPoolConfiguration;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+
+import net.wimpi.modbus.procimg.SimpleRegister;
+
+/**
+ * Tests for TCP endpoints with multiple outstanding transactions
+ *
+ * @author agent - Initial contribution
+ */
+public class PipelinedTransactionsTest extends IntegrationTestSupport {
+
+    private static final int REQUESTS = 20;
+
+    private ModbusSlaveEndpoint configurePipelinedEndpoint() {
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+        EndpointPoolConfiguration configuration = new EndpointPoolConfiguration();
+        configuration.setMaxInFlightTransactions(4);
+        configuration.setConnectTimeoutMillis(1000);
+        modbusManager.setEndpointPoolConfiguration(endpoint, configuration);
+        return endpoint;
+    }
+
+    @Test
+    public void testResponsesAreMatchedToRequests() throws InterruptedException {
+        for (int i = 0; i < REQUESTS; i++) {
+            spi.addRegister(new SimpleRegister(i * 7));
+        }
+        ModbusSlaveEndpoint endpoint = configurePipelinedEndpoint();
+        CountDownLatch called = new CountDownLatch(REQUESTS);
+        AtomicInteger unexpectedCount = new AtomicInteger();
+        ConcurrentHashMap<Integer, Integer> values = new ConcurrentHashMap<>();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            modbusManager.submitOneTimePoll(new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(
+                    SLAVE_UNIT_ID, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, i, 1, 1), new ModbusReadCallback() {
+
+                        @Override
+                        public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+                            values.put(request.getReference(), registers.getRegister(0).toUnsignedShort());
+                            called.countDown();
+                        }
+
+                        @Override
+                        public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+                            unexpectedCount.incrementAndGet();
+                            called.countDown();
+                        }
+
+                        @Override
+                        public void onError(ModbusReadRequestBlueprint request, Exception error) {
+                            unexpectedCount.incrementAndGet();
+                            called.countDown();
+                        }
+                    }));
+        }
+
+        assertTrue(called.await(5, TimeUnit.SECONDS));
+        assertThat(unexpectedCount.get(), is(equalTo(0)));
+        for (int i = 0; i < REQUESTS; i++) {
+            assertThat(values.get(i), is(equalTo(i * 7)));
+        }
+        waitForRequests(REQUESTS);
+        // All transactions share one connection
+        waitForConnectionsReceived(1);
+    }
+
+    @Test
+    public void testSlaveErrorResponse() throws InterruptedException {
+        ModbusSlaveEndpoint endpoint = configurePipelinedEndpoint();
+        CountDownLatch called = new CountDownLatch(1);
+        AtomicInteger slaveErrors = new AtomicInteger();
+
+        modbusManager.submitOneTimePoll(new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(
+                SLAVE_UNIT_ID, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 5, 1), new ModbusReadCallback() {
+
+                    @Override
+                    public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+                        called.countDown();
+                    }
+
+                    @Override
+                    public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+                        called.countDown();
+                    }
+
+                    @Override
+                    public void onError(ModbusReadRequestBlueprint request, Exception error) {
+                        if (error instanceof ModbusSlaveErrorResponseException) {
+                            slaveErrors.incrementAndGet();
+                        }
+                        called.countDown();
+                    }
+                }));
+
+        assertTrue(called.await(5, TimeUnit.SECONDS));
+        assertThat(slaveErrors.get(), is(equalTo(1)));
+    }
+}
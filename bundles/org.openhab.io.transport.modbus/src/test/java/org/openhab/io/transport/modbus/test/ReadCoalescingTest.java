@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusSlaveErrorResponseException;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.ModbusManagerImpl;
+import org.openhab.io.transport.modbus.internal.ModbusReadPlanner;
+
+import net.wimpi.modbus.msg.ModbusRequest;
+import net.wimpi.modbus.msg.ReadMultipleRegistersRequest;
+import net.wimpi.modbus.procimg.SimpleRegister;
+
+/**
+ * Tests for merging regular polls to the same slave
+ *
+ * @author agent - Initial contribution
+ */
+public class ReadCoalescingTest extends IntegrationTestSupport {
+
+    private static class RecordingCallback implements ModbusReadCallback {
+        private final CountDownLatch called;
+        private final AtomicReference<ModbusReadRequestBlueprint> lastRequest = new AtomicReference<>();
+        private final AtomicReference<ModbusRegisterArray> lastRegisters = new AtomicReference<>();
+        private final AtomicInteger errors = new AtomicInteger();
+
+        RecordingCallback(CountDownLatch called) {
+            this.called = called;
+        }
+
+        @Override
+        public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+            lastRequest.set(request);
+            lastRegisters.set(registers);
+            called.countDown();
+        }
+
+        @Override
+        public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+            errors.incrementAndGet();
+            called.countDown();
+        }
+
+        @Override
+        public void onError(ModbusReadRequestBlueprint request, Exception error) {
+            if (error instanceof ModbusSlaveErrorResponseException) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+
+    private void restartManagerWithCoalescing(int maxGap) {
+        modbusManager.close();
+        Map<String, Object> config = new HashMap<>();
+        config.put(ModbusManagerImpl.CONFIG_READ_COALESCING, true);
+        config.put(ModbusManagerImpl.CONFIG_READ_COALESCING_MAX_GAP, maxGap);
+        modbusManager = new NonOSGIModbusManager(config);
+    }
+
+    private void generateRegisters(int count) {
+        for (int i = 0; i < count; i++) {
+            spi.addRegister(new SimpleRegister(i * 3));
+        }
+    }
+
+    private PollTask holdingPoll(ModbusSlaveEndpoint endpoint, int start, int length, ModbusReadCallback callback) {
+        return new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, start, length, 1), callback);
+    }
+
+    private void assertRegisters(RecordingCallback callback, int start, int length) {
+        ModbusRegisterArray registers = callback.lastRegisters.get();
+        assertThat(callback.lastRequest.get().getReference(), is(equalTo(start)));
+        assertThat(registers.size(), is(equalTo(length)));
+        for (int i = 0; i < length; i++) {
+            assertThat(registers.getRegister(i).toUnsignedShort(), is(equalTo((start + i) * 3)));
+        }
+    }
+
+    @Test
+    public void testPlanMergesWithinGapAndLimit() {
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+        ModbusReadCallback callback = new RecordingCallback(new CountDownLatch(0));
+        PollTask first = holdingPoll(endpoint, 0, 5, callback);
+        PollTask adjacent = holdingPoll(endpoint, 5, 5, callback);
+        PollTask nearby = holdingPoll(endpoint, 12, 3, callback);
+        PollTask tooFar = holdingPoll(endpoint, 200, 1, callback);
+        PollTask tooLong = holdingPoll(endpoint, 210, 120, callback);
+
+        List<List<PollTask>> plan = ModbusReadPlanner.plan(Arrays.asList(tooLong, nearby, first, tooFar, adjacent),
+                Collections.emptyList(), 2);
+        assertThat(plan, is(equalTo(Arrays.asList(Arrays.asList(first, adjacent, nearby), Arrays.asList(tooFar),
+                Arrays.asList(tooLong)))));
+
+        plan = ModbusReadPlanner.plan(Arrays.asList(first, adjacent, nearby), Collections.singleton(adjacent), 2);
+        assertThat(plan, is(equalTo(
+                Arrays.asList(Arrays.asList(first), Arrays.asList(adjacent), Arrays.asList(nearby)))));
+    }
+
+    @Test
+    public void testAdjacentPollsAreReadWithSingleRequest() throws InterruptedException {
+        restartManagerWithCoalescing(5);
+        generateRegisters(30);
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+        CountDownLatch called = new CountDownLatch(3);
+        RecordingCallback callback1 = new RecordingCallback(called);
+        RecordingCallback callback2 = new RecordingCallback(called);
+        RecordingCallback callback3 = new RecordingCallback(called);
+
+        modbusManager.registerRegularPoll(holdingPoll(endpoint, 0, 5, callback1), 5000, 200);
+        modbusManager.registerRegularPoll(holdingPoll(endpoint, 5, 5, callback2), 5000, 200);
+        modbusManager.registerRegularPoll(holdingPoll(endpoint, 12, 8, callback3), 5000, 200);
+
+        assertTrue(called.await(5, TimeUnit.SECONDS));
+        waitForRequests(1);
+        ModbusRequest request = modbustRequestCaptor.getAllReturnValues().get(0);
+        assertThat(request, is(instanceOf(ReadMultipleRegistersRequest.class)));
+        assertThat(((ReadMultipleRegistersRequest) request).getReference(), is(equalTo(0)));
+        assertThat(((ReadMultipleRegistersRequest) request).getWordCount(), is(equalTo(20)));
+
+        assertRegisters(callback1, 0, 5);
+        assertRegisters(callback2, 5, 5);
+        assertRegisters(callback3, 12, 8);
+    }
+
+    @Test
+    public void testMergedReadIsSplitAfterSlaveErrorResponse() throws InterruptedException {
+        restartManagerWithCoalescing(20);
+        // Registers 10-19 are not implemented by the slave, reading over them results in an exception response
+        generateRegisters(10);
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+        CountDownLatch called = new CountDownLatch(1);
+        RecordingCallback callback1 = new RecordingCallback(called);
+        RecordingCallback callback2 = new RecordingCallback(new CountDownLatch(1));
+
+        modbusManager.registerRegularPoll(holdingPoll(endpoint, 0, 5, callback1), 200, 200);
+        modbusManager.registerRegularPoll(holdingPoll(endpoint, 20, 5, callback2), 200, 200);
+
+        assertTrue(called.await(5, TimeUnit.SECONDS));
+        assertThat(callback1.errors.get(), is(equalTo(1)));
+        assertThat(callback2.errors.get(), is(not(equalTo(0))));
+        assertRegisters(callback1, 0, 5);
+        assertThat(callback2.lastRegisters.get(), is(nullValue()));
+    }
+
+    @Test
+    public void testIsolatedPollsAreMergedAgainAfterIsolationPeriod() throws InterruptedException {
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+        ModbusReadPlanner planner = new ModbusReadPlanner(0, 100);
+        RecordingCallback callback = new RecordingCallback(new CountDownLatch(1));
+        planner.addTask(holdingPoll(endpoint, 0, 5, callback), 1000);
+        ModbusReadPlanner.PollGroup group = planner.addTask(holdingPoll(endpoint, 5, 5, callback), 1000);
+        assertThat(group.getPlan().size(), is(equalTo(1)));
+
+        ModbusReadPlanner.CoalescedPollTask read = group.getPlan().get(0);
+        read.onError(read.getRequest(), new ModbusSlaveErrorResponseException() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public int getExceptionCode() {
+                return ILLEGAL_DATA_ACCESS;
+            }
+        });
+        assertThat(group.getPlan().size(), is(equalTo(2)));
+
+        Thread.sleep(150);
+        assertThat(group.getPlan().size(), is(equalTo(1)));
+    }
+}
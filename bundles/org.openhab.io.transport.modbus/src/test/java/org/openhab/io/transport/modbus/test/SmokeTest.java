@@ -826,6 +826,69 @@ public class SmokeTest extends IntegrationTestSupport {
         assertThat(unexpectedCount.get(), is(equalTo(0)));
     }
 
+    /**
+     * A regular poll waiting for its turn behind a slow one-off poll is not executed once unregistered
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testUnregisterPollingRemovesWaitingPoll() throws InterruptedException {
+        artificialServerWait = 1000;
+        generateData();
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+
+        CountDownLatch oneOffCalled = new CountDownLatch(1);
+        AtomicInteger regularCount = new AtomicInteger();
+        ModbusReadCallback oneOffCallback = new ModbusReadCallback() {
+
+            @Override
+            public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+                oneOffCalled.countDown();
+            }
+
+            @Override
+            public void onError(ModbusReadRequestBlueprint request, Exception error) {
+                oneOffCalled.countDown();
+            }
+
+            @Override
+            public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+                oneOffCalled.countDown();
+            }
+        };
+        ModbusReadCallback regularCallback = new ModbusReadCallback() {
+
+            @Override
+            public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+                regularCount.incrementAndGet();
+            }
+
+            @Override
+            public void onError(ModbusReadRequestBlueprint request, Exception error) {
+                regularCount.incrementAndGet();
+            }
+
+            @Override
+            public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+                regularCount.incrementAndGet();
+            }
+        };
+        BasicPollTaskImpl oneOff = new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 5, 1), oneOffCallback);
+        BasicPollTaskImpl task = new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 1, 5, 1), regularCallback);
+
+        modbusManager.submitOneTimePoll(oneOff);
+        modbusManager.registerRegularPoll(task, 60000, 0);
+        // Give the regular poll time to be queued behind the one-off poll
+        Thread.sleep(200);
+        modbusManager.unregisterRegularPoll(task);
+
+        assertTrue(oneOffCalled.await(5, TimeUnit.SECONDS));
+        Thread.sleep(1500);
+        assertThat(regularCount.get(), is(equalTo(0)));
+    }
+
     @SuppressWarnings("null")
     @Test
     public void testPoolConfigurationWithoutListener() {
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusOperationStatistics;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+
+import net.wimpi.modbus.procimg.SimpleRegister;
+
+/**
+ * Tests for the operation statistics
+ *
+ * @author agent - Initial contribution
+ */
+public class StatisticsTest extends IntegrationTestSupport {
+
+    private static class CountingCallback implements ModbusReadCallback {
+        private final CountDownLatch called;
+
+        CountingCallback(CountDownLatch called) {
+            this.called = called;
+        }
+
+        @Override
+        public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+            called.countDown();
+        }
+
+        @Override
+        public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+            called.countDown();
+        }
+
+        @Override
+        public void onError(ModbusReadRequestBlueprint request, Exception error) {
+            called.countDown();
+        }
+    }
+
+    private PollTask poll(ModbusSlaveEndpoint endpoint, int reference, ModbusReadCallback callback) {
+        return new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, reference, 1, 1), callback);
+    }
+
+    @Test
+    public void testEndpointStatistics() throws Exception {
+        spi.addRegister(new SimpleRegister(1));
+        artificialServerWait = 20;
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+        CountDownLatch called = new CountDownLatch(2);
+
+        Future<?> success = modbusManager.submitOneTimePoll(poll(endpoint, 0, new CountingCallback(called)));
+        // No such register, slave responds with an error
+        Future<?> error = modbusManager.submitOneTimePoll(poll(endpoint, 5, new CountingCallback(called)));
+        // The futures complete once the operations, including their statistics, have been completed
+        success.get(5, TimeUnit.SECONDS);
+        error.get(5, TimeUnit.SECONDS);
+        assertThat(called.getCount(), is(equalTo(0L)));
+
+        ModbusOperationStatistics statistics = modbusManager.getEndpointStatistics().get(endpoint);
+        assertThat(statistics.getOperations(), is(equalTo(2L)));
+        assertThat(statistics.getErrors(), is(equalTo(1L)));
+        assertThat(statistics.getSlaveErrors(), is(equalTo(1L)));
+        assertThat(statistics.getTimeouts(), is(equalTo(0L)));
+        assertThat(statistics.getTransactionMaxMillis() >= 20, is(true));
+        assertThat(statistics.getTransactionP50Millis() <= statistics.getTransactionP99Millis(), is(true));
+        // One-off operations are not accounted to any regular poll
+        assertTrue(modbusManager.getPollTaskStatistics().isEmpty());
+
+        modbusManager.resetStatistics();
+        assertTrue(modbusManager.getEndpointStatistics().isEmpty());
+    }
+
+    @Test
+    public void testPollTaskStatistics() throws InterruptedException {
+        spi.addRegister(new SimpleRegister(1));
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+        CountDownLatch called = new CountDownLatch(3);
+        PollTask task = poll(endpoint, 0, new CountingCallback(called));
+
+        modbusManager.registerRegularPoll(task, 50, 0);
+        assertTrue(called.await(5, TimeUnit.SECONDS));
+        // Statistics are recorded after the callback has been called
+        waitForAssert(() -> {
+            ModbusOperationStatistics statistics = modbusManager.getPollTaskStatistics().get(task);
+            assertNotNull(statistics);
+            assertThat(statistics.getOperations() >= 3, is(true));
+        });
+        assertThat(modbusManager.getPollTaskStatistics().get(task).getErrors(), is(equalTo(0L)));
+        assertThat(modbusManager.getEndpointStatistics().get(endpoint).getOperations() >= 3, is(true));
+    }
+
+    @Test
+    public void testPollTaskStatisticsAreRemovedWithThePoll() throws Exception {
+        spi.addRegister(new SimpleRegister(1));
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+        CountDownLatch called = new CountDownLatch(1);
+        PollTask task = poll(endpoint, 0, new CountingCallback(called));
+
+        modbusManager.registerRegularPoll(task, 10, 0);
+        assertTrue(called.await(5, TimeUnit.SECONDS));
+        assertTrue(modbusManager.unregisterRegularPoll(task));
+        // Operation possibly still running must not record the statistics of the unregistered poll again. A one-off
+        // poll gets the turn with the endpoint only once such operation has finished.
+        modbusManager.submitOneTimePoll(poll(endpoint, 0, new CountingCallback(new CountDownLatch(1)))).get(5,
+                TimeUnit.SECONDS);
+        assertThat(modbusManager.getPollTaskStatistics().containsKey(task), is(false));
+    }
+}
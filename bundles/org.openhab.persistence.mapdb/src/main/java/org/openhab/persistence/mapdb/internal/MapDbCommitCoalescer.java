@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.mapdb.DB;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Groups the commits of the MapDB database. Instead of committing after every write, the writes since the last commit
+ * are counted and committed together, either when a number of writes is pending or when the oldest pending write has
+ * waited for a given delay, whatever happens first.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbCommitCoalescer {
+    private final Logger logger = LoggerFactory.getLogger(MapDbCommitCoalescer.class);
+
+    private final DB db;
+    private final ScheduledExecutorService scheduler;
+    private final int maxPendingWrites;
+    private final long maxDelayMillis;
+
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final AtomicBoolean commitScheduled = new AtomicBoolean();
+    private final Object commitLock = new Object();
+
+    // Metrics, guarded by commitLock
+    private long commitCount;
+    private long committedWrites;
+    private long totalCommitNanos;
+    private long lastCommitNanos;
+    private long maxCommitNanos;
+
+    /**
+     * Creates a new coalescer.
+     *
+     * @param db The database to commit
+     * @param scheduler The scheduler to run the commits on
+     * @param maxPendingWrites Commit as soon as this amount of writes is pending. 1 commits after every write.
+     * @param maxDelayMillis Commit at the latest this amount of milliseconds after the first pending write
+     */
+    public MapDbCommitCoalescer(DB db, ScheduledExecutorService scheduler, int maxPendingWrites,
+            long maxDelayMillis) {
+        this.db = db;
+        this.scheduler = scheduler;
+        this.maxPendingWrites = Math.max(1, maxPendingWrites);
+        this.maxDelayMillis = Math.max(0, maxDelayMillis);
+    }
+
+    /**
+     * Records that an entry has been written and schedules a commit if necessary.
+     */
+    public void written() {
+        if (pendingWrites.incrementAndGet() == maxPendingWrites) {
+            scheduler.execute(this::commit);
+        } else {
+            scheduleCommit();
+        }
+    }
+
+    private void scheduleCommit() {
+        if (commitScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(() -> {
+                commitScheduled.set(false);
+                commit();
+            }, maxDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Commits all pending writes on the calling thread.
+     */
+    public void flush() {
+        commit();
+    }
+
+    private void commit() {
+        synchronized (commitLock) {
+            int writes = pendingWrites.getAndSet(0);
+            if (writes == 0 || db.isClosed()) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                db.commit();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to commit {} writes to the MapDB database: {}", writes, e.getMessage());
+                // The writes are still pending, retry with the next commit
+                pendingWrites.addAndGet(writes);
+                scheduleCommit();
+                return;
+            }
+            long duration = System.nanoTime() - start;
+            commitCount++;
+            committedWrites += writes;
+            totalCommitNanos += duration;
+            lastCommitNanos = duration;
+            maxCommitNanos = Math.max(maxCommitNanos, duration);
+            logger.trace("Committed {} writes in {} µs", writes, TimeUnit.NANOSECONDS.toMicros(duration));
+        }
+    }
+
+    /**
+     * @return The amount of writes that have not been committed yet
+     */
+    public int getPendingWrites() {
+        return pendingWrites.get();
+    }
+
+    /**
+     * @return The amount of commits so far
+     */
+    public long getCommitCount() {
+        synchronized (commitLock) {
+            return commitCount;
+        }
+    }
+
+    /**
+     * @return The amount of writes that have been committed so far
+     */
+    public long getCommittedWrites() {
+        synchronized (commitLock) {
+            return committedWrites;
+        }
+    }
+
+    /**
+     * @return The duration of the last commit in microseconds
+     */
+    public long getLastCommitLatencyMicros() {
+        synchronized (commitLock) {
+            return TimeUnit.NANOSECONDS.toMicros(lastCommitNanos);
+        }
+    }
+
+    /**
+     * @return The average duration of a commit in microseconds
+     */
+    public long getAverageCommitLatencyMicros() {
+        synchronized (commitLock) {
+            return commitCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalCommitNanos / commitCount);
+        }
+    }
+
+    /**
+     * @return The longest duration of a commit in microseconds
+     */
+    public long getMaxCommitLatencyMicros() {
+        synchronized (commitLock) {
+            return TimeUnit.NANOSECONDS.toMicros(maxCommitNanos);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Configuration of the {@link MapDbPersistenceService}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbConfiguration {
+    /** Keep a time series per item instead of the last value only */
+    public Boolean historyEnabled = false;
+
+    /** Samples older than this amount of days are removed. 0 keeps all samples. */
+    public Integer historyRetentionDays = 0;
+
+    /**
+     * Samples are downsampled to at most one sample per interval (in seconds). Within an interval only the latest
+     * sample is kept. 0 keeps every sample.
+     */
+    public Integer historyInterval = 0;
+
+    /** Writes are committed as soon as this amount of writes is pending */
+    public Integer commitThreshold = 100;
+
+    /** Writes are committed at the latest after this amount of milliseconds */
+    public Integer commitInterval = 1000;
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.io.console.Console;
+import org.eclipse.smarthome.io.console.extensions.AbstractConsoleCommandExtension;
+import org.eclipse.smarthome.io.console.extensions.ConsoleCommandExtension;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+/**
+ * Console commands for the MapDB persistence service.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+@Component(service = ConsoleCommandExtension.class)
+public class MapDbConsoleCommandExtension extends AbstractConsoleCommandExtension {
+    private static final String SUBCMD_STATS = "stats";
+
+    private final MapDbPersistenceService persistenceService;
+
+    @Activate
+    public MapDbConsoleCommandExtension(@Reference MapDbPersistenceService persistenceService) {
+        super("mapdb", "Interact with the MapDB persistence service.");
+        this.persistenceService = persistenceService;
+    }
+
+    @Override
+    public void execute(String[] args, Console console) {
+        if (args.length == 1 && SUBCMD_STATS.equals(args[0])) {
+            printStatistics(console);
+        } else {
+            printUsage(console);
+        }
+    }
+
+    @Override
+    public List<String> getUsages() {
+        return Collections.singletonList(buildCommandUsage(SUBCMD_STATS, "shows the commit statistics"));
+    }
+
+    private void printStatistics(Console console) {
+        MapDbCommitCoalescer coalescer = persistenceService.getCommitCoalescer();
+        if (coalescer == null) {
+            console.println("The MapDB persistence service is not active");
+            return;
+        }
+        console.println("Pending writes:         " + coalescer.getPendingWrites());
+        console.println("Committed writes:       " + coalescer.getCommittedWrites());
+        console.println("Commits:                " + coalescer.getCommitCount());
+        console.println("Last commit latency:    " + coalescer.getLastCommitLatencyMicros() + " µs");
+        console.println("Average commit latency: " + coalescer.getAverageCommitLatencyMicros() + " µs");
+        console.println("Max commit latency:     " + coalescer.getMaxCommitLatencyMicros() + " µs");
+    }
+}
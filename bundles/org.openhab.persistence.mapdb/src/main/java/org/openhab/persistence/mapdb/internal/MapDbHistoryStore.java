@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.QuantityType;
+import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Operator;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
+import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.eclipse.smarthome.core.types.State;
+import org.mapdb.BTreeKeySerializer;
+import org.mapdb.BTreeMap;
+import org.mapdb.DB;
+import org.mapdb.Fun;
+import org.mapdb.Fun.Tuple2;
+import org.mapdb.Serializer;
+
+/**
+ * Stores a time series of states per item. Samples are keyed by (item name, timestamp), so all samples of an item are
+ * adjacent and ordered by time in the underlying B-tree. A range query is a single ordered key scan.
+ * <p>
+ * Two policies keep the series bounded: a retention period after which samples are removed and a downsampling interval
+ * which keeps at most one (the latest) sample per interval.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbHistoryStore {
+    static final String MAP_NAME = "itemHistory";
+
+    private final BTreeMap<Tuple2<String, Long>, byte[]> history;
+    private final long retentionMillis;
+    private final long intervalMillis;
+
+    /**
+     * Creates a history store backed by the given database.
+     *
+     * @param db The database. The caller is responsible for committing.
+     * @param retentionDays Samples older than this are removed. 0 keeps all samples.
+     * @param intervalSeconds At most one sample per interval is kept. 0 keeps every sample.
+     */
+    public MapDbHistoryStore(DB db, int retentionDays, int intervalSeconds) {
+        this.history = db.createTreeMap(MAP_NAME).keySerializer(BTreeKeySerializer.TUPLE2)
+                .valueSerializer(Serializer.BYTE_ARRAY).makeOrGet();
+        this.retentionMillis = TimeUnit.DAYS.toMillis(Math.max(0, retentionDays));
+        this.intervalMillis = TimeUnit.SECONDS.toMillis(Math.max(0, intervalSeconds));
+    }
+
+    /**
+     * Adds a sample to the series of the given item and applies the downsampling and retention policies to that
+     * series.
+     *
+     * @param name The item name or alias
+     * @param state The state
+     * @param timestamp The sample time
+     */
+    public void store(String name, State state, Date timestamp) {
+        long time = timestamp.getTime();
+        if (intervalMillis > 0) {
+            Tuple2<String, Long> previous = history.floorKey(Fun.t2(name, time));
+            if (previous != null && name.equals(previous.a)
+                    && previous.b / intervalMillis == time / intervalMillis) {
+                history.remove(previous);
+            }
+        }
+        history.put(Fun.t2(name, time), MapDbStateCodec.encode(state));
+        if (retentionMillis > 0) {
+            prune(name, time - retentionMillis);
+        }
+    }
+
+    /**
+     * Removes all samples of all given items that are older than the retention period.
+     *
+     * @param names The item names or aliases
+     */
+    public void pruneAll(Collection<String> names) {
+        if (retentionMillis <= 0) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        for (String name : names) {
+            prune(name, cutoff);
+        }
+    }
+
+    private void prune(String name, long cutoff) {
+        Tuple2<String, Long> oldest = history.ceilingKey(Fun.t2(name, 0L));
+        if (oldest != null && name.equals(oldest.a) && oldest.b < cutoff) {
+            history.subMap(Fun.t2(name, 0L), true, Fun.t2(name, cutoff), false).clear();
+        }
+    }
+
+    /**
+     * Returns the samples of the item in {@link FilterCriteria#getItemName()}, restricted to the begin and end date
+     * and to the states matching {@link FilterCriteria#getOperator()} and {@link FilterCriteria#getState()}, sorted by
+     * the requested ordering and paged.
+     *
+     * @param filter The filter
+     * @return The matching samples
+     */
+    public List<HistoricItem> query(FilterCriteria filter) {
+        List<HistoricItem> result = new ArrayList<>();
+        String name = filter.getItemName();
+        if (name == null) {
+            return result;
+        }
+        Date beginDate = filter.getBeginDate();
+        Date endDate = filter.getEndDate();
+        long begin = beginDate == null ? 0L : beginDate.getTime();
+        long end = endDate == null ? Long.MAX_VALUE : endDate.getTime();
+        if (begin > end) {
+            return result;
+        }
+
+        NavigableMap<Tuple2<String, Long>, byte[]> range = history.subMap(Fun.t2(name, begin), true,
+                Fun.t2(name, end), true);
+        if (filter.getOrdering() == Ordering.DESCENDING) {
+            range = range.descendingMap();
+        }
+
+        State filterState = filter.getState();
+        long skip = (long) filter.getPageNumber() * filter.getPageSize();
+        int limit = filter.getPageSize();
+        for (Entry<Tuple2<String, Long>, byte[]> entry : range.entrySet()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (skip > 0 && filterState == null) {
+                skip--;
+                continue;
+            }
+            State state = MapDbStateCodec.decode(entry.getValue());
+            if (state == null || (filterState != null && !matches(state, filter.getOperator(), filterState))) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            MapDbItem item = new MapDbItem();
+            item.setName(name);
+            item.setState(state);
+            item.setTimestamp(new Date(entry.getKey().b));
+            result.add(item);
+        }
+        return result;
+    }
+
+    /**
+     * Compares a sample with the state of a filter. Numeric states are compared by value, all other states can only be
+     * compared for equality.
+     */
+    private static boolean matches(State state, Operator operator, State filterState) {
+        Integer result = compare(state, filterState);
+        switch (operator) {
+            case EQ:
+                return result == null ? state.equals(filterState) : result == 0;
+            case NEQ:
+                return result == null ? !state.equals(filterState) : result != 0;
+            case GT:
+                return result != null && result > 0;
+            case GTE:
+                return result != null && result >= 0;
+            case LT:
+                return result != null && result < 0;
+            case LTE:
+                return result != null && result <= 0;
+            default:
+                return false;
+        }
+    }
+
+    private static @Nullable Integer compare(State state, State filterState) {
+        BigDecimal value = null;
+        BigDecimal filterValue = null;
+        if (state instanceof QuantityType && filterState instanceof QuantityType) {
+            QuantityType<?> converted = ((QuantityType<?>) filterState).toUnit(((QuantityType<?>) state).getUnit());
+            if (converted != null) {
+                value = ((QuantityType<?>) state).toBigDecimal();
+                filterValue = converted.toBigDecimal();
+            }
+        } else if (state instanceof DecimalType && filterState instanceof DecimalType) {
+            value = ((DecimalType) state).toBigDecimal();
+            filterValue = ((DecimalType) filterState).toBigDecimal();
+        }
+        return value == null || filterValue == null ? null : value.compareTo(filterValue);
+    }
+}
@@ -12,23 +12,31 @@
  */
 package org.openhab.persistence.mapdb.internal;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.config.core.Configuration;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
 import org.eclipse.smarthome.core.persistence.HistoricItem;
 import org.eclipse.smarthome.core.persistence.PersistenceItemInfo;
 import org.eclipse.smarthome.core.persistence.PersistenceService;
@@ -37,6 +45,7 @@ import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.UnDefType;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
+import org.mapdb.Serializer;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,7 +62,8 @@ import com.google.gson.GsonBuilder;
  * @author Martin Kühl - Port to Eclipse SmartHome
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class, QueryablePersistenceService.class })
+@Component(service = { PersistenceService.class, QueryablePersistenceService.class,
+        MapDbPersistenceService.class }, configurationPid = "org.openhab.mapdb")
 public class MapDbPersistenceService implements QueryablePersistenceService {
 
     private static final String SERVICE_NAME = "mapdb";
@@ -62,25 +72,43 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
     private static final String DB_FILE_NAME = "storage.mapdb";
 
+    /** the map with the last value per item, each value is a timestamp followed by the binary encoded state */
+    private static final String STATE_MAP_NAME = "itemStates";
+
+    /** the map with the last value per item as JSON, used before the binary encoding has been introduced */
+    private static final String LEGACY_MAP_NAME = "itemStore";
+
     private final Logger logger = LoggerFactory.getLogger(MapDbPersistenceService.class);
 
     @NonNullByDefault({})
-    private ExecutorService threadPool;
+    private ScheduledExecutorService threadPool;
 
     /** holds the local instance of the MapDB database */
     @NonNullByDefault({})
     private DB db;
     @NonNullByDefault({})
-    private Map<String, String> map;
+    private Map<String, byte[]> map;
+
+    /** groups the commits of the writes to the database */
+    private @Nullable MapDbCommitCoalescer coalescer;
+
+    /** holds the time series of all items, if the history mode is enabled */
+    private @Nullable MapDbHistoryStore history;
+
+    /** holds the last value per item in memory, built from the database on first access */
+    private volatile @Nullable Map<String, MapDbItem> index;
+    private @Nullable Future<?> indexBuild;
 
     private transient Gson mapper = new GsonBuilder()
             .registerTypeHierarchyAdapter(State.class, new StateTypeAdapter())
             .create();
 
-    public void activate() {
+    public void activate(Map<String, Object> configuration) {
         logger.debug("MapDB persistence service is being activated");
 
-        threadPool = ThreadPoolManager.getPool(getClass().getSimpleName());
+        MapDbConfiguration config = new Configuration(configuration).as(MapDbConfiguration.class);
+
+        threadPool = ThreadPoolManager.getScheduledPool(getClass().getSimpleName());
 
         File folder = new File(DB_FOLDER_NAME);
         if (!folder.exists()) {
@@ -93,14 +121,42 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
         File dbFile = new File(DB_FOLDER_NAME, DB_FILE_NAME);
         db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
-        map = db.createTreeMap("itemStore").makeOrGet();
+        map = db.createTreeMap(STATE_MAP_NAME).valueSerializer(Serializer.BYTE_ARRAY).makeOrGet();
+        migrateLegacyStore();
+        coalescer = new MapDbCommitCoalescer(db, threadPool, config.commitThreshold, config.commitInterval);
+        if (config.historyEnabled) {
+            MapDbHistoryStore history = new MapDbHistoryStore(db, config.historyRetentionDays,
+                    config.historyInterval);
+            history.pruneAll(map.keySet());
+            db.commit();
+            this.history = history;
+            logger.debug("MapDB history mode enabled (retention {} days, interval {} s)",
+                    config.historyRetentionDays, config.historyInterval);
+        }
+        // Build the index in the background, so it is usually ready when restoreOnStartup queries it
+        indexBuild = threadPool.submit(this::getIndex);
         logger.debug("MapDB persistence service is now activated");
     }
 
     public void deactivate() {
         logger.debug("MapDB persistence service deactivated");
-        if (db != null) {
-            db.close();
+        history = null;
+        Future<?> indexBuild = this.indexBuild;
+        if (indexBuild != null) {
+            indexBuild.cancel(false);
+            this.indexBuild = null;
+        }
+        MapDbCommitCoalescer coalescer = this.coalescer;
+        if (coalescer != null) {
+            coalescer.flush();
+            this.coalescer = null;
+        }
+        // The index is built while holding the lock, so this waits for a running build before closing the database
+        synchronized (this) {
+            index = null;
+            if (db != null) {
+                db.close();
+            }
         }
         threadPool.shutdown();
     }
@@ -117,10 +173,7 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
     @Override
     public Set<PersistenceItemInfo> getItemInfo() {
-        return map.values().stream()
-                .map(this::deserialize)
-                .flatMap(MapDbPersistenceService::streamOptional)
-                .collect(Collectors.<PersistenceItemInfo>toSet());
+        return new HashSet<>(getIndex().values());
     }
 
     @Override
@@ -140,32 +193,150 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         }
         logger.debug("store called for {}", alias);
 
+        Map<String, MapDbItem> index = getIndex();
         State state = item.getState();
+        Date timestamp = new Date();
         MapDbItem mItem = new MapDbItem();
         mItem.setName(alias);
         mItem.setState(state);
-        mItem.setTimestamp(new Date());
-        String json = serialize(mItem);
-        map.put(alias, json);
+        mItem.setTimestamp(timestamp);
+        byte[] value = encode(state, timestamp);
+        // Keep the database and the index in the same order for concurrent writes of an item
+        synchronized (index) {
+            map.put(alias, value);
+            index.put(alias, mItem);
+        }
+        MapDbHistoryStore history = this.history;
+        if (history != null) {
+            history.store(alias, state, timestamp);
+        }
         commit();
         logger.debug("Stored '{}' with state '{}' in MapDB database", alias, state.toString());
     }
 
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
-        String json = map.get(filter.getItemName());
-        if (json == null) {
-            return Collections.emptyList();
+        MapDbHistoryStore history = this.history;
+        if (history != null && !isLatestValueQuery(filter)) {
+            List<HistoricItem> result = history.query(filter);
+            // Items that have not been stored since the history mode has been enabled only have a last value
+            if (!result.isEmpty() || filter.getBeginDate() != null || filter.getEndDate() != null
+                    || filter.getPageNumber() > 0 || filter.getState() != null) {
+                return result;
+            }
         }
-        Optional<MapDbItem> item = deserialize(json);
-        if (!item.isPresent()) {
+        String name = filter.getItemName();
+        MapDbItem item = name == null ? null : getIndex().get(name);
+        if (item == null) {
             return Collections.emptyList();
         }
-        return Collections.singletonList(item.get());
+        return Collections.singletonList(item);
+    }
+
+    /**
+     * A query for the latest value only can be answered from the index, even in history mode.
+     */
+    private static boolean isLatestValueQuery(FilterCriteria filter) {
+        return filter.getBeginDate() == null && filter.getEndDate() == null && filter.getPageNumber() == 0
+                && filter.getPageSize() == 1 && filter.getOrdering() == Ordering.DESCENDING
+                && filter.getState() == null;
+    }
+
+    /**
+     * Returns the index of the last value per item. The index is built by a single scan over the database on first
+     * access.
+     */
+    private Map<String, MapDbItem> getIndex() {
+        Map<String, MapDbItem> index = this.index;
+        if (index != null) {
+            return index;
+        }
+        synchronized (this) {
+            index = this.index;
+            if (index == null) {
+                long start = System.currentTimeMillis();
+                Map<String, MapDbItem> newIndex = new ConcurrentHashMap<>(Math.max(16, map.size() * 4 / 3));
+                for (Map.Entry<String, byte[]> entry : map.entrySet()) {
+                    decode(entry.getKey(), entry.getValue()).ifPresent(item -> newIndex.put(item.getName(), item));
+                }
+                logger.debug("Loaded {} items from the MapDB database in {} ms", newIndex.size(),
+                        System.currentTimeMillis() - start);
+                this.index = index = newIndex;
+            }
+            return index;
+        }
     }
 
-    private String serialize(MapDbItem item) {
-        return mapper.toJson(item);
+    /**
+     * Returns the statistics about the commits to the database.
+     *
+     * @return The commit coalescer or null if the service is not active
+     */
+    public @Nullable MapDbCommitCoalescer getCommitCoalescer() {
+        return coalescer;
+    }
+
+    private static byte[] encode(State state, Date timestamp) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(24);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(timestamp.getTime());
+            MapDbStateCodec.encode(out, state);
+        } catch (IOException e) {
+            // Cannot happen on a ByteArrayOutputStream
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Optional<MapDbItem> decode(String name, byte[] value) {
+        State state = value.length > Long.BYTES ? MapDbStateCodec.decode(value, Long.BYTES) : null;
+        if (state == null) {
+            logger.warn("Decoded invalid state for item '{}'", name);
+            return Optional.empty();
+        }
+        MapDbItem item = new MapDbItem();
+        item.setName(name);
+        item.setState(state);
+        item.setTimestamp(new Date(ByteBuffer.wrap(value).getLong()));
+        return Optional.of(item);
+    }
+
+    /**
+     * Moves the JSON values of older versions of this service into the binary map.
+     */
+    private void migrateLegacyStore() {
+        if (!db.exists(LEGACY_MAP_NAME)) {
+            return;
+        }
+        Map<String, String> legacyMap = db.getTreeMap(LEGACY_MAP_NAME);
+        logger.info("Migrating {} MapDB entries to the binary format", legacyMap.size());
+        int failed = 0;
+        for (Map.Entry<String, String> entry : legacyMap.entrySet()) {
+            if (map.containsKey(entry.getKey())) {
+                continue;
+            }
+            Optional<MapDbItem> item = deserialize(entry.getValue());
+            if (item.isPresent()) {
+                map.put(entry.getKey(), encode(item.get().getState(), item.get().getTimestamp()));
+            } else {
+                failed++;
+            }
+        }
+        try {
+            db.commit();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to migrate the MapDB entries, retrying on the next start: {}", e.getMessage());
+            db.rollback();
+            return;
+        }
+        // Only drop the old values once all of them are safely stored in the new format
+        if (failed > 0) {
+            logger.warn("Failed to migrate {} MapDB entries, keeping the old entries in '{}'", failed,
+                    LEGACY_MAP_NAME);
+            return;
+        }
+        db.delete(LEGACY_MAP_NAME);
+        db.commit();
     }
 
     private Optional<MapDbItem> deserialize(String json) {
@@ -178,13 +349,9 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
     }
 
     private void commit() {
-        threadPool.submit(() -> db.commit());
-    }
-
-    private static <T> Stream<T> streamOptional(Optional<T> opt) {
-        if (!opt.isPresent()) {
-            return Stream.empty();
+        MapDbCommitCoalescer coalescer = this.coalescer;
+        if (coalescer != null) {
+            coalescer.written();
         }
-        return Stream.of(opt.get());
     }
 }
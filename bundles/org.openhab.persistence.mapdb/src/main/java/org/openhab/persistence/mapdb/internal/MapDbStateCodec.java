@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DateTimeType;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.TypeParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Encodes {@link State} values into a compact binary representation and back.
+ * <p>
+ * Every encoded value starts with a tag byte that identifies the encoding of the remaining bytes. The common state
+ * types have a dedicated encoding, all other types use the generic textual one. Tags must never be reused for a
+ * different encoding, because they are persisted.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public final class MapDbStateCodec {
+    /** Generic encoding: the state class name followed by {@link State#toFullString()} */
+    static final byte TAG_TEXT = 0;
+    static final byte TAG_ON = 1;
+    static final byte TAG_OFF = 2;
+    static final byte TAG_OPEN = 3;
+    static final byte TAG_CLOSED = 4;
+    static final byte TAG_UP = 5;
+    static final byte TAG_DOWN = 6;
+    static final byte TAG_DECIMAL = 7;
+    static final byte TAG_PERCENT = 8;
+    static final byte TAG_HSB = 9;
+    static final byte TAG_STRING = 10;
+    static final byte TAG_DATETIME = 11;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MapDbStateCodec.class);
+
+    private MapDbStateCodec() {
+        // Utility class
+    }
+
+    /**
+     * Encodes the given state.
+     *
+     * @param state The state to encode
+     * @return The binary representation of the state
+     */
+    public static byte[] encode(State state) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            encode(out, state);
+        } catch (IOException e) {
+            // Cannot happen on a ByteArrayOutputStream
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Encodes the given state into the given output. The state must be the last value written to the output, because
+     * the generic encoding consumes all remaining bytes when decoded.
+     *
+     * @param out The output
+     * @param state The state to encode
+     * @throws IOException If the output fails
+     */
+    public static void encode(DataOutputStream out, State state) throws IOException {
+        Class<?> type = state.getClass();
+        if (state == OnOffType.ON) {
+            out.writeByte(TAG_ON);
+        } else if (state == OnOffType.OFF) {
+            out.writeByte(TAG_OFF);
+        } else if (state == OpenClosedType.OPEN) {
+            out.writeByte(TAG_OPEN);
+        } else if (state == OpenClosedType.CLOSED) {
+            out.writeByte(TAG_CLOSED);
+        } else if (state == UpDownType.UP) {
+            out.writeByte(TAG_UP);
+        } else if (state == UpDownType.DOWN) {
+            out.writeByte(TAG_DOWN);
+        } else if (type == DecimalType.class) {
+            out.writeByte(TAG_DECIMAL);
+            writeDecimal(out, ((DecimalType) state).toBigDecimal());
+        } else if (type == PercentType.class) {
+            out.writeByte(TAG_PERCENT);
+            writeDecimal(out, ((PercentType) state).toBigDecimal());
+        } else if (type == HSBType.class) {
+            HSBType hsb = (HSBType) state;
+            out.writeByte(TAG_HSB);
+            writeDecimal(out, hsb.getHue().toBigDecimal());
+            writeDecimal(out, hsb.getSaturation().toBigDecimal());
+            writeDecimal(out, hsb.getBrightness().toBigDecimal());
+        } else if (type == StringType.class) {
+            out.writeByte(TAG_STRING);
+            out.write(state.toFullString().getBytes(StandardCharsets.UTF_8));
+        } else if (type == DateTimeType.class) {
+            ZonedDateTime dateTime = ((DateTimeType) state).getZonedDateTime();
+            out.writeByte(TAG_DATETIME);
+            out.writeLong(dateTime.toInstant().toEpochMilli());
+            out.writeUTF(dateTime.getZone().getId());
+        } else {
+            out.writeByte(TAG_TEXT);
+            out.writeUTF(type.getName());
+            out.write(state.toFullString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Decodes a state that has been encoded with {@link #encode(State)}.
+     *
+     * @param data The binary representation
+     * @return The decoded state or null if the data could not be decoded
+     */
+    public static @Nullable State decode(byte[] data) {
+        return decode(data, 0);
+    }
+
+    /**
+     * Decodes a state that has been encoded with {@link #encode(DataOutputStream, State)}.
+     *
+     * @param data The binary representation
+     * @param offset The offset of the encoded state within data
+     * @return The decoded state or null if the data could not be decoded
+     */
+    public static @Nullable State decode(byte[] data, int offset) {
+        if (data.length <= offset) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(data, offset, data.length - offset))) {
+            byte tag = in.readByte();
+            switch (tag) {
+                case TAG_ON:
+                    return OnOffType.ON;
+                case TAG_OFF:
+                    return OnOffType.OFF;
+                case TAG_OPEN:
+                    return OpenClosedType.OPEN;
+                case TAG_CLOSED:
+                    return OpenClosedType.CLOSED;
+                case TAG_UP:
+                    return UpDownType.UP;
+                case TAG_DOWN:
+                    return UpDownType.DOWN;
+                case TAG_DECIMAL:
+                    return new DecimalType(readDecimal(in));
+                case TAG_PERCENT:
+                    return new PercentType(readDecimal(in));
+                case TAG_HSB:
+                    return new HSBType(new DecimalType(readDecimal(in)), new PercentType(readDecimal(in)),
+                            new PercentType(readDecimal(in)));
+                case TAG_STRING:
+                    return new StringType(readRemaining(in));
+                case TAG_DATETIME:
+                    long epochMillis = in.readLong();
+                    ZoneId zone = ZoneId.of(in.readUTF());
+                    return new DateTimeType(ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone));
+                case TAG_TEXT:
+                    return decodeText(in.readUTF(), readRemaining(in));
+                default:
+                    LOGGER.warn("Couldn't deserialize state with unknown tag {}", tag);
+                    return null;
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Couldn't deserialize state: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeShort(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static String readRemaining(DataInputStream in) throws IOException {
+        byte[] remaining = new byte[in.available()];
+        in.readFully(remaining);
+        return new String(remaining, StandardCharsets.UTF_8);
+    }
+
+    private static @Nullable State decodeText(String valueTypeName, String valueAsString) {
+        try {
+            @SuppressWarnings("unchecked")
+            Class<? extends State> valueType = (Class<? extends State>) Class.forName(valueTypeName);
+            List<Class<? extends State>> types = Collections.singletonList(valueType);
+            return TypeParser.parseState(types, valueAsString);
+        } catch (Exception e) {
+            LOGGER.warn("Couldn't deserialize state '{}' of type '{}': {}", valueAsString, valueTypeName,
+                    e.getMessage());
+        }
+        return null;
+    }
+}
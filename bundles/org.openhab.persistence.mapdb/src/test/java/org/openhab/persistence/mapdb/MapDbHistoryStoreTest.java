@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Operator;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
+import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.junit.After;
+import org.junit.Test;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.openhab.persistence.mapdb.internal.MapDbHistoryStore;
+
+/**
+ *
+ * @author agent - Initial contribution
+ */
+public class MapDbHistoryStoreTest {
+    DB db = DBMaker.newMemoryDB().make();
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void queryShouldHonorRangeOrderingAndPaging() {
+        MapDbHistoryStore history = new MapDbHistoryStore(db, 0, 0);
+        for (int i = 1; i <= 10; i++) {
+            history.store("item", new DecimalType(i), new Date(i * 1000L));
+        }
+        history.store("other", new DecimalType(99), new Date(5000L));
+
+        FilterCriteria filter = new FilterCriteria().setItemName("item").setBeginDate(new Date(3000L))
+                .setEndDate(new Date(7000L)).setOrdering(Ordering.ASCENDING);
+        assertThat(values(history.query(filter)), is(equalTo(new int[] { 3, 4, 5, 6, 7 })));
+
+        filter.setOrdering(Ordering.DESCENDING);
+        assertThat(values(history.query(filter)), is(equalTo(new int[] { 7, 6, 5, 4, 3 })));
+
+        filter.setPageSize(2).setPageNumber(1);
+        assertThat(values(history.query(filter)), is(equalTo(new int[] { 5, 4 })));
+    }
+
+    @Test
+    public void queryShouldHonorOperatorAndState() {
+        MapDbHistoryStore history = new MapDbHistoryStore(db, 0, 0);
+        for (int i = 1; i <= 10; i++) {
+            history.store("item", new DecimalType(i), new Date(i * 1000L));
+        }
+
+        FilterCriteria filter = new FilterCriteria().setItemName("item").setOrdering(Ordering.ASCENDING)
+                .setOperator(Operator.GT).setState(new DecimalType(6));
+        assertThat(values(history.query(filter)), is(equalTo(new int[] { 7, 8, 9, 10 })));
+
+        filter.setOperator(Operator.LTE);
+        assertThat(values(history.query(filter)), is(equalTo(new int[] { 1, 2, 3, 4, 5, 6 })));
+
+        filter.setPageSize(2).setPageNumber(1);
+        assertThat(values(history.query(filter)), is(equalTo(new int[] { 3, 4 })));
+
+        filter = new FilterCriteria().setItemName("item").setOrdering(Ordering.ASCENDING).setOperator(Operator.EQ)
+                .setState(new DecimalType("3.0"));
+        assertThat(values(history.query(filter)), is(equalTo(new int[] { 3 })));
+
+        filter.setOperator(Operator.NEQ).setState(OnOffType.ON);
+        assertThat(values(history.query(filter)).length, is(10));
+    }
+
+    @Test
+    public void storeShouldKeepTheLatestSamplePerInterval() {
+        MapDbHistoryStore history = new MapDbHistoryStore(db, 0, 60);
+        history.store("item", new DecimalType(1), new Date(60_000L));
+        history.store("item", new DecimalType(2), new Date(90_000L));
+        history.store("item", new DecimalType(3), new Date(120_000L));
+
+        FilterCriteria filter = new FilterCriteria().setItemName("item").setOrdering(Ordering.ASCENDING);
+        List<HistoricItem> result = history.query(filter);
+        assertThat(values(result), is(equalTo(new int[] { 2, 3 })));
+        assertThat(result.get(0).getTimestamp(), is(equalTo(new Date(90_000L))));
+    }
+
+    @Test
+    public void pruneShouldRemoveSamplesOlderThanTheRetention() {
+        MapDbHistoryStore history = new MapDbHistoryStore(db, 1, 0);
+        long now = System.currentTimeMillis();
+        history.store("item", new DecimalType(1), new Date(now - 3 * 86_400_000L));
+        history.store("item", new DecimalType(2), new Date(now - 2 * 86_400_000L));
+        history.pruneAll(Collections.singleton("item"));
+        assertThat(history.query(new FilterCriteria().setItemName("item")), is(equalTo(Collections.emptyList())));
+
+        history.store("item", new DecimalType(3), new Date(now - 2 * 86_400_000L));
+        history.store("item", new DecimalType(4), new Date(now));
+        assertThat(values(history.query(new FilterCriteria().setItemName("item"))),
+                is(equalTo(new int[] { 4 })));
+    }
+
+    private int[] values(List<HistoricItem> items) {
+        return items.stream().mapToInt(item -> ((DecimalType) item.getState()).intValue()).toArray();
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import org.eclipse.smarthome.core.library.types.DateTimeType;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.PointType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.State;
+import org.junit.Test;
+import org.openhab.persistence.mapdb.internal.MapDbStateCodec;
+
+/**
+ *
+ * @author agent - Initial contribution
+ */
+public class MapDbStateCodecTest {
+
+    @Test
+    public void encodeDecodeRoundtripShouldRecreateTheEncodedState() {
+        assertThat(roundtrip(OnOffType.ON), is(equalTo(OnOffType.ON)));
+        assertThat(roundtrip(OpenClosedType.CLOSED), is(equalTo(OpenClosedType.CLOSED)));
+        assertThat(roundtrip(UpDownType.DOWN), is(equalTo(UpDownType.DOWN)));
+        assertThat(roundtrip(new DecimalType("-12.345")), is(equalTo(new DecimalType("-12.345"))));
+        assertThat(roundtrip(new DecimalType("123456789012345678901234567890")),
+                is(equalTo(new DecimalType("123456789012345678901234567890"))));
+        assertThat(roundtrip(PercentType.HUNDRED), is(equalTo(PercentType.HUNDRED)));
+        assertThat(roundtrip(HSBType.GREEN), is(equalTo(HSBType.GREEN)));
+        assertThat(roundtrip(StringType.valueOf("täst")), is(equalTo(StringType.valueOf("täst"))));
+        DateTimeType dateTime = new DateTimeType(
+                ZonedDateTime.of(2019, 5, 1, 12, 30, 0, 0, ZoneId.of("Europe/Berlin")));
+        assertThat(roundtrip(dateTime), is(equalTo(dateTime)));
+        assertThat(roundtrip(new PointType("52.5,13.4")), is(equalTo(new PointType("52.5,13.4"))));
+    }
+
+    @Test
+    public void commonStatesShouldBeEncodedCompactly() {
+        assertThat(MapDbStateCodec.encode(OnOffType.ON).length, is(1));
+        assertThat(MapDbStateCodec.encode(new DecimalType("21.5")).length, is(9));
+    }
+
+    @Test
+    public void decodeShouldReturnNullForUnknownData() {
+        assertThat(MapDbStateCodec.decode(new byte[] { 127 }), is(nullValue()));
+        assertThat(MapDbStateCodec.decode(new byte[0]), is(nullValue()));
+    }
+
+    private State roundtrip(State state) {
+        return MapDbStateCodec.decode(MapDbStateCodec.encode(state));
+    }
+}
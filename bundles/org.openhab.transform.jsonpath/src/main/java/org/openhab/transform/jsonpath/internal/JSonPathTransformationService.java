@@ -13,6 +13,8 @@
 package org.openhab.transform.jsonpath.internal;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -41,8 +43,16 @@ import com.jayway.jsonpath.PathNotFoundException;
 @Component(immediate = true, property = { "smarthome.transform=JSONPATH" })
 public class JSonPathTransformationService implements TransformationService {
 
+    /**
+     * Maximum number of compiled expressions kept. Expressions usually come from a static configuration, the limit only
+     * guards against dynamically built ones.
+     */
+    private static final int MAX_COMPILED_PATHS = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(JSonPathTransformationService.class);
 
+    private final Map<String, JsonPath> compiledPaths = new ConcurrentHashMap<>();
+
     /**
      * Transforms the input <code>source</code> by JSonPath expression.
      *
@@ -60,7 +70,7 @@ public class JSonPathTransformationService implements TransformationService {
         logger.debug("about to transform '{}' by the function '{}'", source, jsonPathExpression);
 
         try {
-            Object transformationResult = JsonPath.read(source, jsonPathExpression);
+            Object transformationResult = compile(jsonPathExpression).read(source);
             logger.debug("transformation resulted in '{}'", transformationResult);
             if (transformationResult == null) {
                 return null;
@@ -76,6 +86,18 @@ public class JSonPathTransformationService implements TransformationService {
         }
     }
 
+    private JsonPath compile(String jsonPathExpression) {
+        JsonPath jsonPath = compiledPaths.get(jsonPathExpression);
+        if (jsonPath == null) {
+            jsonPath = JsonPath.compile(jsonPathExpression);
+            if (compiledPaths.size() >= MAX_COMPILED_PATHS) {
+                compiledPaths.clear();
+            }
+            compiledPaths.put(jsonPathExpression, jsonPath);
+        }
+        return jsonPath;
+    }
+
     private String flattenList(List<?> list) {
         if (list.size() == 1) {
             return list.get(0).toString();
@@ -129,4 +129,16 @@ public class JSonPathTransformationServiceTest {
         String transformedResponse = processor.transform("$.data", json);
         assertEquals(list, transformedResponse);
     }
+
+    @Test
+    public void testCachedPath() throws TransformationException {
+        // Several expressions on the same source, as done by the channels of one MQTT topic
+        assertEquals("bob", processor.transform("$[0].name", jsonArray));
+        assertEquals("2", processor.transform("$[1].id", jsonArray));
+        assertEquals("bob", processor.transform("$[0].name", new String(jsonArray)));
+
+        // Same expression on a different source
+        assertEquals("carol", processor.transform("$[0].name", "[{ \"name\":\"carol\" }]"));
+        assertEquals("bob", processor.transform("$[0].name", jsonArray));
+    }
 }
@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.benchmark;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionState;
+import org.eclipse.smarthome.io.transport.mqtt.MqttService;
+import org.eclipse.smarthome.test.java.JavaOSGiTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.openhab.binding.mqtt.EmbeddedBrokerTools;
+import org.openhab.binding.mqtt.homie.internal.handler.HomieThingHandler;
+import org.openhab.binding.mqtt.homie.internal.homie300.Device;
+import org.openhab.binding.mqtt.homie.internal.homie300.DeviceAttributes;
+import org.openhab.binding.mqtt.homie.internal.homie300.DeviceCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the startup time of many Homie 3 devices: The embedded MQTT broker holds the retained topic trees of all
+ * devices. The devices are discovered by their "$homie" topic, then each device subscribes to its attributes, nodes
+ * and properties and finally starts its channels. The duration of each phase is logged.
+ *
+ * Not part of the integration test run, the class name does not end with "Test". Run it from the IDE as an OSGi JUnit
+ * test. The number of devices can be changed with the system property "homie.benchmark.devices". It lives in the
+ * integration tests because it needs the embedded broker.
+ *
+ * @author agent - Initial contribution
+ */
+public class HomieStartupBenchmark extends JavaOSGiTest {
+    private final Logger logger = LoggerFactory.getLogger(HomieStartupBenchmark.class);
+
+    private static final String BASE_TOPIC = "homie";
+    private static final int DEVICES = Integer.getInteger("homie.benchmark.devices", 500);
+
+    private MqttBrokerConnection embeddedConnection;
+    private MqttBrokerConnection connection;
+    private final List<String> retainedTopics = new ArrayList<>();
+
+    // The handlers are not part of the measurement, so just mock them
+    @Mock
+    DeviceCallback callback;
+
+    @Mock
+    HomieThingHandler handler;
+
+    private ScheduledExecutorService scheduler;
+
+    private Path persistencePath;
+
+    private static String deviceId(int i) {
+        return "device" + i;
+    }
+
+    @Before
+    public void setUp() throws InterruptedException, ExecutionException, TimeoutException, IOException {
+        registerVolatileStorageService();
+        initMocks(this);
+        MqttService mqttService = getService(MqttService.class);
+
+        embeddedConnection = new EmbeddedBrokerTools().waitForConnection(mqttService);
+        embeddedConnection.setQos(1);
+        embeddedConnection.setRetain(true);
+
+        connection = new MqttBrokerConnection(embeddedConnection.getHost(), embeddedConnection.getPort(),
+                embeddedConnection.isSecure(), "homiebenchmark");
+        connection.setQos(1);
+        persistencePath = Files.createTempDirectory("homiebenchmark");
+        connection.setPersistencePath(persistencePath);
+        connection.start().get(500, TimeUnit.MILLISECONDS);
+        assertThat(connection.connectionState(), is(MqttConnectionState.CONNECTED));
+
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < DEVICES; i++) {
+            final String device = BASE_TOPIC + "/" + deviceId(i);
+            futures.add(publish(device + "/$homie", "3.0"));
+            futures.add(publish(device + "/$name", "Device " + i));
+            futures.add(publish(device + "/$state", "ready"));
+            futures.add(publish(device + "/$nodes", "sensor"));
+
+            final String node = device + "/sensor";
+            futures.add(publish(node + "/$name", "Sensor"));
+            futures.add(publish(node + "/$type", "Type"));
+            futures.add(publish(node + "/$properties", "temperature,humidity"));
+
+            for (String property : new String[] { node + "/temperature", node + "/humidity" }) {
+                futures.add(publish(property, "10"));
+                futures.add(publish(property + "/$name", "Property"));
+                futures.add(publish(property + "/$settable", "false"));
+                futures.add(publish(property + "/$unit", "°C"));
+                futures.add(publish(property + "/$datatype", "float"));
+                futures.add(publish(property + "/$format", "-100:100"));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+
+        scheduler = new ScheduledThreadPoolExecutor(6);
+    }
+
+    private CompletableFuture<Boolean> publish(String topic, String value) {
+        retainedTopics.add(topic);
+        return embeddedConnection.publish(topic, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void tearDown() throws InterruptedException, ExecutionException, TimeoutException, IOException {
+        if (connection != null) {
+            connection.stop().get(500, TimeUnit.MILLISECONDS);
+        }
+        // Remove the retained messages again
+        CompletableFuture.allOf(retainedTopics.stream().map(t -> embeddedConnection.publish(t, new byte[0]))
+                .toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+        scheduler.shutdownNow();
+        if (persistencePath != null) {
+            try (Stream<Path> paths = Files.walk(persistencePath)) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    @Test
+    public void startDevices() throws InterruptedException, ExecutionException, TimeoutException {
+        // Discovery: Find all devices by their $homie topic
+        long start = System.nanoTime();
+        CountDownLatch discovered = new CountDownLatch(DEVICES);
+        connection.subscribe(BASE_TOPIC + "/+/$homie", (topic, payload) -> discovered.countDown()).get(5,
+                TimeUnit.SECONDS);
+        assertTrue("Not all devices discovered", discovered.await(60, TimeUnit.SECONDS));
+        long discoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Subscribe to the attributes of each device, node and property
+        start = System.nanoTime();
+        List<Device> devices = new ArrayList<>();
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < DEVICES; i++) {
+            Device device = new Device(new ThingUID("mqtt", "homie300", deviceId(i)), callback,
+                    new DeviceAttributes());
+            device.initialize(BASE_TOPIC, deviceId(i), Collections.emptyList());
+            devices.add(device);
+            futures.add(device.subscribe(connection, scheduler, 10000));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(120, TimeUnit.SECONDS);
+        long subscribeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        for (Device device : devices) {
+            assertThat(device.isInitialized(), is(true));
+            assertThat(device.nodes().get("sensor").properties.size(), is(2));
+        }
+
+        // Subscribe to the property values
+        start = System.nanoTime();
+        futures.clear();
+        for (Device device : devices) {
+            futures.add(device.startChannels(connection, scheduler, 10000, handler));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(120, TimeUnit.SECONDS);
+        long channelsMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        logger.info("Started {} Homie devices: discovery {} ms, attributes {} ms, channels {} ms", DEVICES,
+                discoveryMillis, subscribeMillis, channelsMillis);
+
+        CompletableFuture.allOf(devices.stream().map(Device::stop).toArray(CompletableFuture[]::new)).get(60,
+                TimeUnit.SECONDS);
+    }
+}